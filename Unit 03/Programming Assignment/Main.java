@@ -1,4 +1,22 @@
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import data.BulkExporter;
+import data.BulkImporter;
+import data.DataStorage;
+import data.ExportFormat;
+import data.ExportReport;
+import data.ImportReport;
 import data.InitialData;
+import data.Query;
 import utils.*;
 import managers.*;
 
@@ -10,67 +28,154 @@ import managers.*;
 public class Main {
 
     /**
-     * The main method initializes the application by populating initial data
-     * and displaying the main menu.
+     * The main method initializes the application by recovering the persisted data
+     * (or populating initial data on the first run) and displaying the main menu.
+     * The data is kept in a "storage" directory under the working directory;
+     * run with {@code -Dstorage.backend=memory} to keep nothing on disk.
+     * The operation metrics are registered with JMX first, so the recovery is
+     * measured too. An import or a query runs on the recovered data alone, so
+     * importing into an empty storage does not clash with the initial data.
      * 
-     * @param args command-line arguments (not used in this application).
+     * @param args command-line arguments: {@code --replay <file>} answers the
+     *             prompts from a file of recorded input, one answer per line, and
+     *             {@code --batch <file>} runs a script of commands without any
+     *             menu ({@code -} reads the script from the standard input), and
+     *             {@code --import <directory>} imports the CSV or TSV files of a
+     *             directory, such as students.csv and enrollments.csv, and
+     *             {@code --query <query>} prints the result of a query, such as
+     *             {@code "students where gpa < 2.0 order by gpa"}.
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
 
-        // Populating the initial data
-        InitialData.populate();
+        if (args.length == 2 && args[0].equals("--replay")) {
+            InputUtils.setInput(Files.newBufferedReader(Paths.get(args[1])));
+        }
+        OperationMetrics.registerMBean();
+
+        // Recover the persisted data; imports and queries never see the sample data
+        boolean hasData = DataStorage.open();
+
+        if (args.length == 2 && args[0].equals("--import")) {
+            int errorCount = 0;
+            for (ImportReport report : new BulkImporter().importDirectory(Paths.get(args[1]))) {
+                report.print();
+                errorCount += report.getErrorCount();
+            }
+            System.exit(errorCount == 0 ? 0 : 1);
+        }
+
+        if (args.length >= 2 && args[0].equals("--query")) {
+            try {
+                Query.parse(String.join(" ", Arrays.copyOfRange(args, 1, args.length))).execute().print();
+            } catch (IllegalArgumentException e) {
+                PrintUtils.printFail(e.getMessage());
+                System.exit(1);
+            }
+            System.exit(0);
+        }
+
+        // Populate the initial data on the first run
+        if (!hasData) {
+            InitialData.populate();
+            DataStorage.commit();
+        }
+
+        if (args.length == 2 && args[0].equals("--batch")) {
+            int errorCount = runBatch(args[1]);
+            System.exit(errorCount == 0 ? 0 : 1);
+        }
 
         System.out.println("Welcome to Student Management for University of the People");
         System.out.println("----------------------------------------------------------");
         System.out.println("Type q or quit anytime to exit the program");
 
-        // Show the main menu to the user
+        // Show the main menu to the user until they exit
         showMainMenu();
+        System.out.println("Goodbye! Thank you for using Student Management System.");
+    }
+
+    /**
+     * Runs a script of commands through a BatchRunner, writing the output to the
+     * standard output through a large buffer.
+     * 
+     * @param path the path of the script, or - to read it from the standard input.
+     * @return the number of commands that failed.
+     */
+    public static int runBatch(String path) throws IOException {
+        PrintStream output = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16), false);
+        try (Reader script = path.equals("-") ? new InputStreamReader(System.in) : Files.newBufferedReader(Paths.get(path))) {
+            return new BatchRunner().run(script, output);
+        }
     }
 
     /**
-     * Displays the main menu and prompts the user to select an option.
-     * The menu allows the user to manage departments, professors, courses, and students.
+     * Displays the main menu and runs the option selected by the user, until the
+     * user exits. The menu allows the user to manage departments, professors,
+     * courses, and students.
      */
     public static void showMainMenu() {
-        System.out.println("Main Menu");
-        System.out.println("0. Exit");
-        System.out.println("1. Department Management");
-        System.out.println("2. Professor Management");
-        System.out.println("3. Course Management");
-        System.out.println("4. Student Management");
-
-        int option = InputUtils.getInt("Enter an option: ");
-
-        switch (option) {
-            case 0:
-                System.out.println("Goodbye! Thank you for using Student Management System.");
-                System.exit(0); // Exit the program
-                break;
-
-            case 1:
-                showDepartmentManagement();
-                break;
-
-            case 2:
-                showProfessorManagement();
-                break;
-
-            case 3:
-                showCourseManagement();
-                break;
-
-            case 4:
-                showStudentManagement();
-                break;
-
-            default:
-                PrintUtils.printFail("Invalid option, please try again.");
-                break;
+        new CommandMenu("Main Menu", "Exit")
+            .add("Department Management", Main::showDepartmentManagement)
+            .add("Professor Management", Main::showProfessorManagement)
+            .add("Course Management", Main::showCourseManagement)
+            .add("Student Management", Main::showStudentManagement)
+            .add("Run Query", Main::runQuery)
+            .add("Export Data", Main::exportData)
+            .add("Dump Operation Metrics", Main::dumpMetrics)
+            .run();
+    }
+
+    /**
+     * Reads a query, such as "professors where age > 60 group by department
+     * count", and prints its result.
+     */
+    public static void runQuery() {
+        System.out.println("Query: <type> [where <field> <operator> <value> [and ...]] [group by <field> [count|avg|sum|min|max <field>]]");
+        System.out.println("       [order by <field> [asc|desc]] [limit <number>]");
+        String text = InputUtils.getString("Query: ").trim();
+        try {
+            Query.parse(text).execute().print();
+        } catch (IllegalArgumentException e) {
+            PrintUtils.printFail(e.getMessage());
         }
+    }
 
-        // Show the main menu again after the user action
-        showMainMenu();
+    /**
+     * Exports every record to CSV or JSON Lines files in the background, so the
+     * menus can be used while the files are written. The result is printed when
+     * the export ends.
+     */
+    public static void exportData() {
+        String directory = InputUtils.getString("Directory (default export): ").trim();
+        String format = InputUtils.getString("Format, csv or jsonl (default csv): ").trim();
+        boolean isCompressed = InputUtils.getString("Compress with gzip? (y/N): ").trim().equalsIgnoreCase("y");
+
+        BulkExporter exporter = new BulkExporter(format.isEmpty() ? ExportFormat.CSV : ExportFormat.fromName(format), isCompressed);
+        exporter.exportInBackground(Paths.get(directory.isEmpty() ? "export" : directory))
+            .whenComplete((reports, error) -> {
+                if (error != null) {
+                    PrintUtils.printFail("Export failed: " + error.getMessage());
+                    return;
+                }
+                for (ExportReport report : reports) {
+                    PrintUtils.printSuccess(report.getSummary());
+                }
+            });
+        PrintUtils.printSuccess("Export started in the background");
+    }
+
+    /**
+     * Writes the call counts and latency percentiles of every operation to a
+     * file. The same metrics can be read live through JMX.
+     */
+    public static void dumpMetrics() {
+        String path = InputUtils.getString("File (default metrics.txt): ").trim();
+        try {
+            OperationMetrics.dump(Paths.get(path.isEmpty() ? "metrics.txt" : path));
+            PrintUtils.printSuccess("Metrics written to " + (path.isEmpty() ? "metrics.txt" : path));
+        } catch (IOException e) {
+            PrintUtils.printFail("Could not write the metrics: " + e.getMessage());
+        }
     }
 
     /**
@@ -0,0 +1,75 @@
+package benchmarks;
+
+import java.util.function.LongSupplier;
+
+/**
+ * The Benchmark class measures the average time of an operation. The operation
+ * is first run for a number of warm-up rounds so the JIT compiler can optimise
+ * it, then timed over a number of measured rounds.
+ *
+ * <p>
+ * Every operation returns a long derived from its work, which is accumulated
+ * into a sink, so the JIT compiler cannot drop the work as dead code.
+ * </p>
+ */
+public class Benchmark {
+
+    private static long sink; // Keeps the results of the measured operations alive.
+
+    private final String name;
+    private final int warmupRounds;
+    private final int measuredRounds;
+
+    /**
+     * Constructs a Benchmark with the given number of rounds.
+     *
+     * @param name           the name of the benchmark.
+     * @param warmupRounds   the number of rounds run before measuring.
+     * @param measuredRounds the number of rounds measured.
+     */
+    public Benchmark(String name, int warmupRounds, int measuredRounds) {
+        if (measuredRounds <= 0) {
+            throw new IllegalArgumentException("A benchmark needs at least one measured round");
+        }
+        this.name = name;
+        this.warmupRounds = warmupRounds;
+        this.measuredRounds = measuredRounds;
+    }
+
+    /**
+     * Returns the name of the benchmark.
+     *
+     * @return the name of the benchmark.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Runs the operation and returns its average time per round.
+     *
+     * @param operation the operation to measure. One call is one round.
+     * @return the average time of a round, in nanoseconds.
+     */
+    public double measure(LongSupplier operation) {
+        for (int i = 0; i < warmupRounds; i++) {
+            sink += operation.getAsLong();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < measuredRounds; i++) {
+            sink += operation.getAsLong();
+        }
+        return (System.nanoTime() - start) / (double) measuredRounds;
+    }
+
+    /**
+     * Returns the accumulated results of every measured operation. Printing it
+     * once at the end of a run is enough to keep the work alive.
+     *
+     * @return the accumulated results.
+     */
+    public static long getSink() {
+        return sink;
+    }
+}
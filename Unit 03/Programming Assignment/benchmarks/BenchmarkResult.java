@@ -0,0 +1,124 @@
+package benchmarks;
+
+import java.util.Locale;
+
+/**
+ * The BenchmarkResult class holds the score of one benchmark at one data volume
+ * and converts it to a JSON object, so results can be stored and compared
+ * between runs.
+ */
+public class BenchmarkResult {
+
+    private final String name;
+    private final int enrollmentCount;
+    private final double score;
+    private final String unit;
+    private final int rounds;
+
+    /**
+     * Constructs a BenchmarkResult.
+     *
+     * @param name            the name of the benchmark.
+     * @param enrollmentCount the number of enrollments in the DataStorage.
+     * @param score           the measured score.
+     * @param unit            the unit of the score, such as "ns/op" or "ops/s".
+     * @param rounds          the number of measured rounds.
+     */
+    public BenchmarkResult(String name, int enrollmentCount, double score, String unit, int rounds) {
+        this.name = name;
+        this.enrollmentCount = enrollmentCount;
+        this.score = score;
+        this.unit = unit;
+        this.rounds = rounds;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getEnrollmentCount() {
+        return enrollmentCount;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    /**
+     * Returns the result as a single-line JSON object.
+     *
+     * @return the JSON representation of the result.
+     */
+    public String toJson() {
+        return "{\"benchmark\": " + quote(name)
+                + ", \"enrollments\": " + enrollmentCount
+                + ", \"score\": " + String.format(Locale.ROOT, "%.3f", score)
+                + ", \"unit\": " + quote(unit)
+                + ", \"rounds\": " + rounds + "}";
+    }
+
+    /**
+     * Reads a result back from the JSON object written by {@link #toJson()}.
+     *
+     * @param json the JSON object.
+     * @return the parsed BenchmarkResult.
+     * @throws IllegalArgumentException if the JSON was not written by toJson.
+     */
+    public static BenchmarkResult fromJson(String json) {
+        try {
+            return new BenchmarkResult(
+                    unquote(getValue(json, "benchmark")),
+                    Integer.parseInt(getValue(json, "enrollments")),
+                    Double.parseDouble(getValue(json, "score")),
+                    unquote(getValue(json, "unit")),
+                    Integer.parseInt(getValue(json, "rounds")));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid benchmark result " + json, e);
+        }
+    }
+
+    /**
+     * Quotes a String as a JSON string.
+     *
+     * @param value the String to quote.
+     * @return the JSON string.
+     */
+    public static String quote(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private static String getValue(String json, String key) {
+        int start = json.indexOf("\"" + key + "\": ") + key.length() + 4;
+        if (json.charAt(start) == '"') {
+            int end = start + 1;
+            while (json.charAt(end) != '"') {
+                end += json.charAt(end) == '\\' ? 2 : 1;
+            }
+            return json.substring(start, end + 1);
+        }
+        int end = start;
+        while (end < json.length() && json.charAt(end) != ',' && json.charAt(end) != '}') {
+            end++;
+        }
+        return json.substring(start, end);
+    }
+
+    private static String unquote(String value) {
+        return value.substring(1, value.length() - 1).replace("\\\"", "\"").replace("\\\\", "\\");
+    }
+}
@@ -0,0 +1,461 @@
+package benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+import data.DataStorage;
+import data.FileStorageBackend;
+import data.JdbcStorageBackend;
+import managers.StudentManager;
+import models.*;
+import utils.DateUtils;
+import utils.StringUtils;
+
+/**
+ * The BenchmarkRunner class measures the hot paths of the Student Management
+ * System against synthetic data of one or more sizes and writes the results as
+ * JSON, so regressions can be tracked over time.
+ *
+ * <p>
+ * Each size runs in its own JVM, started with the same JVM options as the
+ * runner, so the sizes do not share a heap or JIT profile. Large sizes need a
+ * large heap, for example:
+ * </p>
+ *
+ * <pre>
+ * java -Xmx8g benchmarks.BenchmarkRunner --enrollments=10000,100000,1000000,10000000 --output=results.json
+ * </pre>
+ *
+ * <p>
+ * Options: {@code --enrollments} (comma-separated sizes, default 10000,100000),
+ * {@code --rounds} (measured rounds, default 10), {@code --threads} (the most
+ * threads of the concurrent workload, default: available processors) and
+ * {@code --output} (default benchmark-results.json). Setting
+ * {@code -Dstorage.url} also measures the JDBC storage backend.
+ * </p>
+ *
+ * <p>
+ * The concurrent workload is measured with every thread count from 1 to
+ * {@code --threads}, once in memory and once against the file backend. The
+ * file backend runs in a new JVM per thread count, on a copy of a snapshot of
+ * the seeded data, so students are loaded lazily while checkpoints are taken.
+ * </p>
+ */
+public class BenchmarkRunner {
+
+    private static final String RESULT_PREFIX = "RESULT ";
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int LOOKUPS_PER_ROUND = 10_000;
+    private static final int STORAGE_STUDENTS_PER_ROUND = 1_000;
+    private static final long WORKLOAD_DURATION_MILLIS = 2_000;
+    private static final long CHECKPOINT_INTERVAL_MILLIS = 250;
+
+    private final int enrollmentCount;
+    private final int rounds;
+    private final int threadCount;
+    private final Random random = new Random(7);
+
+    private BenchmarkRunner(int enrollmentCount, int rounds, int threadCount) {
+        this.enrollmentCount = enrollmentCount;
+        this.rounds = rounds;
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * Runs the benchmarks for every requested size and writes the JSON report.
+     *
+     * @param args the options described in the class documentation.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String enrollments = getOption(args, "enrollments", "10000,100000");
+        int rounds = Integer.parseInt(getOption(args, "rounds", "10"));
+        int threadCount = Integer.parseInt(getOption(args, "threads", Integer.toString(Runtime.getRuntime().availableProcessors())));
+
+        if (hasFlag(args, "child")) {
+            BenchmarkRunner runner = new BenchmarkRunner(Integer.parseInt(enrollments), rounds, threadCount);
+            Path snapshotDirectory = Paths.get(getOption(args, "snapshot", "storage"));
+            if (hasFlag(args, "lazy")) {
+                runner.runLazyWorkload(snapshotDirectory);
+            } else {
+                runner.runAll(snapshotDirectory);
+            }
+            return;
+        }
+
+        List<BenchmarkResult> results = new ArrayList<>();
+        for (String size : enrollments.split(",")) {
+            int enrollmentCount = Integer.parseInt(size.trim());
+            Path snapshotDirectory = Files.createTempDirectory("benchmark-snapshot");
+            try {
+                System.out.println("Running benchmarks with " + enrollmentCount + " enrollments...");
+                results.addAll(fork(enrollmentCount, rounds, threadCount, "--snapshot=" + snapshotDirectory));
+                for (int threads = 1; threads <= threadCount; threads++) {
+                    System.out.println("Running the file workload with " + enrollmentCount + " enrollments and "
+                            + threads + " threads...");
+                    results.addAll(fork(enrollmentCount, rounds, threads, "--lazy", "--snapshot=" + snapshotDirectory));
+                }
+            } finally {
+                deleteDirectory(snapshotDirectory);
+            }
+        }
+
+        Path output = Paths.get(getOption(args, "output", "benchmark-results.json"));
+        Files.writeString(output, toJson(results), StandardCharsets.UTF_8);
+
+        System.out.println();
+        System.out.println(StringUtils.padRight("Benchmark", 45) + " | " + StringUtils.padRight("Enrollments", 12) + " | Score");
+        System.out.println(StringUtils.repeat("-", 80));
+        for (BenchmarkResult result : results) {
+            System.out.println(StringUtils.padRight(result.getName(), 45) + " | "
+                    + StringUtils.padRight(Integer.toString(result.getEnrollmentCount()), 12) + " | "
+                    + String.format("%.2f %s", result.getScore(), result.getUnit()));
+        }
+        System.out.println("Results written to " + output.toAbsolutePath());
+    }
+
+    /**
+     * Runs the benchmarks for one size in a new JVM and collects its results.
+     */
+    private static List<BenchmarkResult> fork(int enrollmentCount, int rounds, int threadCount, String... options)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(BenchmarkRunner.class.getName());
+        command.add("--child");
+        command.add("--enrollments=" + enrollmentCount);
+        command.add("--rounds=" + rounds);
+        command.add("--threads=" + threadCount);
+        command.addAll(List.of(options));
+
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        List<BenchmarkResult> results = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(RESULT_PREFIX)) {
+                    BenchmarkResult result = BenchmarkResult.fromJson(line.substring(RESULT_PREFIX.length()));
+                    System.out.println("  " + StringUtils.padRight(result.getName(), 45) + " "
+                            + String.format("%.2f %s", result.getScore(), result.getUnit()));
+                    results.add(result);
+                } else {
+                    System.out.println(line);
+                }
+            }
+        }
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("The benchmarks with " + enrollmentCount + " enrollments failed");
+        }
+        return results;
+    }
+
+    /**
+     * Seeds the DataStorage and runs every benchmark, printing each result as soon
+     * as it is measured. The seeded data is also written as a snapshot to the given
+     * directory, for the workload that loads it lazily.
+     */
+    private void runAll(Path snapshotDirectory) throws IOException, InterruptedException {
+        SyntheticData.populate(enrollmentCount, 42);
+        DataStorage.open(new FileStorageBackend(snapshotDirectory));
+        DataStorage.checkpoint();
+        DataStorage.close();
+
+        List<Student> students = DataStorage.getStudents();
+        List<Professor> professors = DataStorage.getProfessors();
+        List<Department> departments = DataStorage.getDepartments();
+        StudentManager studentManager = new StudentManager();
+
+        // DataStorage copies
+        report("DataStorage.getStudents", 1, () -> DataStorage.getStudents().size());
+        report("DataStorage.getEnrollments", 1, () -> DataStorage.getEnrollments().size());
+        report("DataStorage.getProfessors", 1, () -> DataStorage.getProfessors().size());
+        report("DataStorage.getCourses", 1, () -> DataStorage.getCourses().size());
+        report("DataStorage.getDepartments", 1, () -> DataStorage.getDepartments().size());
+
+        // Lookups
+        String[] professorNames = new String[LOOKUPS_PER_ROUND];
+        for (int i = 0; i < professorNames.length; i++) {
+            professorNames[i] = professors.get(random.nextInt(professors.size())).getName();
+        }
+        report("DataStorage.getProfessorByName", LOOKUPS_PER_ROUND, () -> {
+            long found = 0;
+            for (String name : professorNames) {
+                found += DataStorage.getProfessorByName(name) == null ? 0 : 1;
+            }
+            return found;
+        });
+
+        // Rendering
+        report("CrudManager.view (students)", 1, () -> silently(() -> studentManager.view(false)));
+        report("CrudManager.view (students, details)", 1, () -> silently(() -> studentManager.view(true)));
+        report("Department.getView(true)", departments.size(), () -> {
+            long length = 0;
+            for (Department department : departments) {
+                length += department.getView(true).length();
+            }
+            return length;
+        });
+
+        // Model and utility hot paths
+        report("Student.getGPA", students.size(), () -> {
+            long total = 0;
+            for (Student student : students) {
+                total += (long) (student.getGPA() * 100);
+            }
+            return total;
+        });
+        report("StringUtils.padRight", LOOKUPS_PER_ROUND, () -> {
+            long length = 0;
+            for (int i = 0; i < LOOKUPS_PER_ROUND; i++) {
+                length += StringUtils.padRight(professorNames[i], 20).length();
+            }
+            return length;
+        });
+        report("DateUtils.calculateAge", students.size(), () -> {
+            long total = 0;
+            for (Student student : students) {
+                total += DateUtils.calculateAge(student.getBirthDate());
+            }
+            return total;
+        });
+
+        // Concurrent registrars
+        for (int threads = 1; threads <= threadCount; threads++) {
+            emit(new BenchmarkResult("Mixed workload (memory, " + threads + " threads)", enrollmentCount,
+                    measureMixedWorkload(threads, students.size(), false), "ops/s", 1));
+        }
+
+        // Storage backends, last because opening a backend persists every later mutation
+        reportStorageWrites("Storage writes (memory)");
+
+        Path directory = Files.createTempDirectory("benchmark-storage");
+        DataStorage.open(new FileStorageBackend(directory));
+        reportStorageWrites("Storage writes (file)");
+        DataStorage.close();
+        deleteDirectory(directory);
+
+        String url = System.getProperty("storage.url");
+        if (url != null) {
+            DataStorage.open(new JdbcStorageBackend(url));
+            reportStorageWrites("Storage writes (sql)");
+            DataStorage.close();
+        }
+    }
+
+    /**
+     * Opens a copy of the snapshot written by {@link #runAll} and runs the
+     * concurrent workload against it while checkpoints are taken, so lookups load
+     * students from the snapshot and checkpoints carry the others over.
+     */
+    private void runLazyWorkload(Path snapshotDirectory) throws IOException, InterruptedException {
+        Path directory = Files.createTempDirectory("benchmark-storage");
+        try {
+            try (Stream<Path> files = Files.list(snapshotDirectory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.copy(file, directory.resolve(file.getFileName()));
+                }
+            }
+            DataStorage.open(new FileStorageBackend(directory));
+            int studentCount = (enrollmentCount + SyntheticData.ENROLLMENTS_PER_STUDENT - 1)
+                    / SyntheticData.ENROLLMENTS_PER_STUDENT;
+            emit(new BenchmarkResult("Mixed workload (file, " + threadCount + " threads)", enrollmentCount,
+                    measureMixedWorkload(threadCount, studentCount, true), "ops/s", 1));
+            DataStorage.close();
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    /**
+     * Measures an operation and prints its average time per operation.
+     *
+     * @param name               the name of the benchmark.
+     * @param operationsPerRound the number of operations performed by one call.
+     * @param operation          the operation, returning a value derived from its work.
+     */
+    private void report(String name, int operationsPerRound, LongSupplier operation) {
+        double nanosPerRound = new Benchmark(name, WARMUP_ROUNDS, rounds).measure(operation);
+        emit(new BenchmarkResult(name, enrollmentCount, nanosPerRound / Math.max(operationsPerRound, 1), "ns/op", rounds));
+    }
+
+    /**
+     * Measures adding students, enrolling them and committing, with the current
+     * storage backend.
+     */
+    private void reportStorageWrites(String name) {
+        List<Course> courses = DataStorage.getCourses();
+        List<Professor> professors = DataStorage.getProfessors();
+        report(name, STORAGE_STUDENTS_PER_ROUND, () -> {
+            for (int i = 0; i < STORAGE_STUDENTS_PER_ROUND; i++) {
+                Student student = new Student(SyntheticData.getRandomName(random), "01/01/2000");
+                DataStorage.addStudent(student);
+                Course course = courses.get(random.nextInt(courses.size()));
+                student.enroll(course, professors.get(random.nextInt(professors.size())), LocalDate.of(2024, 9, 1));
+                student.setGradeScale(course, random.nextInt(101));
+            }
+            DataStorage.commit();
+            return STORAGE_STUDENTS_PER_ROUND;
+        });
+    }
+
+    /**
+     * Runs a mix of reads (70% lookups by ID, 15% by name, 10% rosters) and writes
+     * (5% new students with an enrollment and a grade) from several threads at
+     * once, and returns the throughput.
+     *
+     * <p>
+     * With lazy loading, lookups by name and rosters are replaced by regrading a
+     * student looked up by ID, since they would load every student at once, and a
+     * further thread takes a checkpoint every {@value #CHECKPOINT_INTERVAL_MILLIS}
+     * ms. Its checkpoints are not counted as operations.
+     * </p>
+     */
+    private double measureMixedWorkload(int threadCount, int studentCount, boolean isLazy) throws InterruptedException {
+        List<Course> courses = DataStorage.getCourses();
+        List<Professor> professors = DataStorage.getProfessors();
+        AtomicBoolean isRunning = new AtomicBoolean(true);
+        LongAdder operations = new LongAdder();
+
+        Thread[] threads = new Thread[isLazy ? threadCount + 1 : threadCount];
+        for (int t = 0; t < threads.length; t++) {
+            Random threadRandom = new Random(t);
+            threads[t] = new Thread(() -> {
+                while (isRunning.get()) {
+                    int operation = threadRandom.nextInt(100);
+                    if (operation < 70) {
+                        Student student = DataStorage.getStudentById(Integer.toString(1 + threadRandom.nextInt(studentCount)));
+                        if (student != null) {
+                            student.getGPA();
+                        }
+                    } else if (operation < 95 && isLazy) {
+                        Student student = DataStorage.getStudentById(Integer.toString(1 + threadRandom.nextInt(studentCount)));
+                        if (student != null && !student.getEnrollments().isEmpty()) {
+                            student.getEnrollments().get(0).setGradeScale(threadRandom.nextInt(101));
+                        }
+                    } else if (operation < 85) {
+                        DataStorage.getStudentsByName(SyntheticData.getRandomName(threadRandom));
+                    } else if (operation < 95) {
+                        DataStorage.getRoster(courses.get(threadRandom.nextInt(courses.size())));
+                    } else {
+                        Student student = new Student(SyntheticData.getRandomName(threadRandom), "01/01/2000");
+                        DataStorage.addStudent(student);
+                        Course course = courses.get(threadRandom.nextInt(courses.size()));
+                        student.enroll(course, professors.get(threadRandom.nextInt(professors.size())), LocalDate.of(2024, 9, 1));
+                        student.setGradeScale(course, threadRandom.nextInt(101));
+                        DataStorage.commit();
+                    }
+                    operations.increment();
+                }
+            });
+        }
+        if (isLazy) {
+            threads[threadCount] = new Thread(() -> {
+                try {
+                    while (isRunning.get()) {
+                        Thread.sleep(CHECKPOINT_INTERVAL_MILLIS);
+                        DataStorage.checkpoint();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        long start = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        Thread.sleep(WORKLOAD_DURATION_MILLIS);
+        isRunning.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return operations.sum() / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private void emit(BenchmarkResult result) {
+        System.out.println(RESULT_PREFIX + result.toJson());
+        System.out.flush();
+    }
+
+    /**
+     * Runs an action with the console output discarded, so rendering can be
+     * measured without the cost of the terminal.
+     */
+    private static long silently(Runnable action) {
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            action.run();
+        } finally {
+            System.setOut(console);
+        }
+        return 1;
+    }
+
+    private static String toJson(List<BenchmarkResult> results) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        sb.append("  \"timestamp\": ").append(BenchmarkResult.quote(Instant.now().toString())).append(",\n");
+        sb.append("  \"java\": ").append(BenchmarkResult.quote(System.getProperty("java.version"))).append(",\n");
+        sb.append("  \"processors\": ").append(Runtime.getRuntime().availableProcessors()).append(",\n");
+        sb.append("  \"results\": [\n");
+        for (int i = 0; i < results.size(); i++) {
+            sb.append("    ").append(results.get(i).toJson()).append(i < results.size() - 1 ? ",\n" : "\n");
+        }
+        sb.append("  ]\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private static String getOption(String[] args, String name, String defaultValue) {
+        for (String arg : args) {
+            if (arg.startsWith("--" + name + "=")) {
+                return arg.substring(name.length() + 3);
+            }
+        }
+        return defaultValue;
+    }
+
+    private static boolean hasFlag(String[] args, String name) {
+        for (String arg : args) {
+            if (arg.equals("--" + name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package benchmarks;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+import utils.DateUtils;
+
+/**
+ * The DateParsingBenchmark class compares the hand-written date parser and
+ * formatter of DateUtils with the previous path, which parsed with a
+ * DateTimeFormatter holding two optional patterns and reported invalid dates by
+ * throwing an exception.
+ *
+ * <p>
+ * The dates are a mix of "MM/dd/yyyy", "M/d/yyyy", empty and invalid values,
+ * like a bulk load with missing birth dates. Run it with
+ * {@code java benchmarks.DateParsingBenchmark}.
+ * </p>
+ */
+public class DateParsingBenchmark {
+
+    private static final int DATE_COUNT = 100_000;
+    private static final LocalDate DEFAULT_DATE = LocalDate.of(2000, 1, 1);
+
+    /**
+     * Parses and formats the same dates with both paths and prints the average
+     * time per date.
+     *
+     * @param args command-line arguments (not used).
+     */
+    public static void main(String[] args) {
+        String[] texts = new String[DATE_COUNT];
+        LocalDate[] dates = new LocalDate[DATE_COUNT];
+        Random random = new Random(42);
+        for (int i = 0; i < texts.length; i++) {
+            LocalDate date = LocalDate.ofEpochDay(random.nextInt(30_000) - 10_000);
+            dates[i] = date;
+            switch (i % 8) {
+                case 0:
+                    texts[i] = "";
+                    break;
+                case 1:
+                    texts[i] = "13/45/19x9";
+                    break;
+                case 2:
+                case 3:
+                    texts[i] = date.getMonthValue() + "/" + date.getDayOfMonth() + "/" + date.getYear();
+                    break;
+                default:
+                    texts[i] = DateUtils.formatDate(date);
+                    break;
+            }
+        }
+
+        DateTimeFormatter formatter = DateUtils.getDateFormatter();
+        DateTimeFormatter outputFormatter = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+        Benchmark legacyParse = new Benchmark("Date parsing (DateTimeFormatter)", 10, 30);
+        Benchmark fastParse = new Benchmark("Date parsing (DateUtils.parseEpochDay)", 10, 30);
+        Benchmark legacyFormat = new Benchmark("Date formatting (DateTimeFormatter)", 10, 30);
+        Benchmark fastFormat = new Benchmark("Date formatting (DateUtils.appendDate)", 10, 30);
+
+        double legacyParseTime = legacyParse.measure(() -> {
+            long total = 0;
+            for (String text : texts) {
+                total += getLegacyDate(text, formatter).toEpochDay();
+            }
+            return total;
+        });
+        double fastParseTime = fastParse.measure(() -> {
+            long total = 0;
+            for (String text : texts) {
+                long epochDay = DateUtils.parseEpochDay(text);
+                total += epochDay == DateUtils.INVALID_DATE ? DEFAULT_DATE.toEpochDay() : epochDay;
+            }
+            return total;
+        });
+        double legacyFormatTime = legacyFormat.measure(() -> {
+            long total = 0;
+            for (LocalDate date : dates) {
+                total += date.format(outputFormatter).length();
+            }
+            return total;
+        });
+        StringBuilder builder = new StringBuilder(10);
+        double fastFormatTime = fastFormat.measure(() -> {
+            long total = 0;
+            for (LocalDate date : dates) {
+                builder.setLength(0);
+                total += DateUtils.appendDate(builder, date).length();
+            }
+            return total;
+        });
+
+        System.out.printf("%-45s %8.2f ns/date%n", legacyParse.getName(), legacyParseTime / DATE_COUNT);
+        System.out.printf("%-45s %8.2f ns/date%n", fastParse.getName(), fastParseTime / DATE_COUNT);
+        System.out.printf("%-45s %8.2f ns/date%n", legacyFormat.getName(), legacyFormatTime / DATE_COUNT);
+        System.out.printf("%-45s %8.2f ns/date%n", fastFormat.getName(), fastFormatTime / DATE_COUNT);
+        System.out.println("(sink " + Benchmark.getSink() + ")");
+    }
+
+    /**
+     * The date parsing DateUtils.tryDateParser used before the hand-written parser.
+     */
+    private static LocalDate getLegacyDate(String text, DateTimeFormatter formatter) {
+        try {
+            return LocalDate.parse(text, formatter);
+        } catch (Exception e) {
+            return DEFAULT_DATE;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package benchmarks;
+
+import java.util.Random;
+
+import models.*;
+
+/**
+ * The GradeConversionBenchmark class compares the table-driven GradingScale with
+ * the previous conversion path of StudentEnrollment, which walked an if chain to
+ * a letter String and then switched on that String to find the grade points.
+ *
+ * <p>
+ * Run it with {@code java benchmarks.GradeConversionBenchmark}.
+ * </p>
+ */
+public class GradeConversionBenchmark {
+
+    private static final int GRADE_COUNT = 100_000;
+
+    /**
+     * Converts the same random grades with both paths and prints the average
+     * time per conversion.
+     *
+     * @param args command-line arguments (not used).
+     */
+    public static void main(String[] args) {
+        double[] grades = new double[GRADE_COUNT];
+        Random random = new Random(42);
+        for (int i = 0; i < grades.length; i++) {
+            grades[i] = random.nextInt(10_001) / 100.0;
+        }
+
+        GradingScale gradingScale = GradingScale.getDefault();
+        Benchmark legacy = new Benchmark("Grade conversion (if chain + switch)", 50, 200);
+        Benchmark table = new Benchmark("Grade conversion (GradingScale table)", 50, 200);
+
+        double legacyTime = legacy.measure(() -> {
+            long total = 0;
+            for (double grade : grades) {
+                total += (long) (getLegacyGradePoints(grade) * 100);
+            }
+            return total;
+        });
+        double tableTime = table.measure(() -> {
+            long total = 0;
+            for (double grade : grades) {
+                total += (long) (gradingScale.getGradePoints(grade) * 100);
+            }
+            return total;
+        });
+
+        System.out.printf("%-40s %8.2f ns/grade%n", legacy.getName(), legacyTime / GRADE_COUNT);
+        System.out.printf("%-40s %8.2f ns/grade%n", table.getName(), tableTime / GRADE_COUNT);
+        System.out.println("(sink " + Benchmark.getSink() + ")");
+    }
+
+    /**
+     * The letter grade conversion StudentEnrollment used before GradingScale.
+     */
+    private static String getLegacyLetterGrade(double gradeScale) {
+        if (gradeScale == -1)
+            return "";
+        if (gradeScale >= 98)
+            return "A+";
+        if (gradeScale >= 93)
+            return "A";
+        if (gradeScale >= 90)
+            return "A-";
+        if (gradeScale >= 88)
+            return "B+";
+        if (gradeScale >= 83)
+            return "B";
+        if (gradeScale >= 80)
+            return "B-";
+        if (gradeScale >= 78)
+            return "C+";
+        if (gradeScale >= 73)
+            return "C";
+        if (gradeScale >= 70)
+            return "C-";
+        if (gradeScale >= 68)
+            return "D+";
+        if (gradeScale >= 63)
+            return "D";
+        if (gradeScale >= 60)
+            return "D-";
+        return "F";
+    }
+
+    /**
+     * The grade points conversion StudentEnrollment used before GradingScale.
+     */
+    private static double getLegacyGradePoints(double gradeScale) {
+        String letterGrade = getLegacyLetterGrade(gradeScale);
+        if (letterGrade.isEmpty()) {
+            return -1;
+        }
+        switch (letterGrade) {
+            case "A+":
+            case "A":
+                return 4.00;
+            case "A-":
+                return 3.67;
+            case "B+":
+                return 3.33;
+            case "B":
+                return 3.00;
+            case "B-":
+                return 2.67;
+            case "C+":
+                return 2.33;
+            case "C":
+                return 2.00;
+            case "C-":
+                return 1.67;
+            case "D+":
+                return 1.33;
+            case "D":
+                return 1.00;
+            case "D-":
+                return 0.67;
+            case "F":
+                return 0.00;
+            default:
+                throw new IllegalArgumentException("Invalid Letter Grade");
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package benchmarks;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import data.DataStorage;
+import models.*;
+
+/**
+ * The SyntheticData class seeds the DataStorage with a generated university of
+ * a given size, so the benchmarks can run against realistic volumes. The data
+ * is deterministic for a given seed.
+ *
+ * <p>
+ * Every student is enrolled in {@value #ENROLLMENTS_PER_STUDENT} courses of one
+ * department, taught by a professor of that department, and most enrollments
+ * are graded.
+ * </p>
+ */
+public class SyntheticData {
+
+    /**
+     * The number of courses each generated student is enrolled in.
+     */
+    public static final int ENROLLMENTS_PER_STUDENT = 5;
+
+    private static final int DEPARTMENT_COUNT = 10;
+    private static final int COURSES_PER_DEPARTMENT = 20;
+    private static final int PROFESSORS_PER_DEPARTMENT = 10;
+    private static final String[] FIRST_NAMES = { "Alice", "Bob", "Carla", "David", "Emma", "Frank", "Grace",
+            "Henry", "Isaac", "Jane", "Kofi", "Laura", "Mateo", "Nadia", "Omar", "Priya" };
+    private static final String[] LAST_NAMES = { "Brown", "Cordeiro", "Doe", "Green", "Johnson", "Kim", "Lopez",
+            "Mensah", "Nguyen", "Okafor", "Smith", "Walker", "White", "Silva" };
+
+    /**
+     * Adds departments, professors, courses and enough students to the DataStorage
+     * to reach the given number of enrollments.
+     *
+     * @param enrollmentCount the number of enrollments to generate.
+     * @param seed            the seed of the random generator.
+     */
+    public static void populate(int enrollmentCount, long seed) {
+        Random random = new Random(seed);
+
+        for (int d = 0; d < DEPARTMENT_COUNT; d++) {
+            Department department = new Department("D" + d, "Department " + d, "Synthetic department " + d);
+            DataStorage.addDepartment(department);
+
+            for (int p = 0; p < PROFESSORS_PER_DEPARTMENT; p++) {
+                int professorId = d * PROFESSORS_PER_DEPARTMENT + p + 1;
+                DataStorage.addProfessor(new Professor(professorId, getRandomName(random), getRandomBirthDate(random, 1950, 1990), department));
+            }
+            for (int c = 0; c < COURSES_PER_DEPARTMENT; c++) {
+                String courseId = "D" + d + "C" + c;
+                DataStorage.addCourse(new Course(courseId, "Course " + courseId, "Synthetic course " + courseId, department));
+            }
+        }
+
+        int studentCount = (enrollmentCount + ENROLLMENTS_PER_STUDENT - 1) / ENROLLMENTS_PER_STUDENT;
+        int remainingEnrollments = enrollmentCount;
+        for (int s = 1; s <= studentCount; s++) {
+            Student student = new Student(s, getRandomName(random), getRandomBirthDate(random, 1960, 2006));
+            DataStorage.addStudent(student);
+
+            Department department = DataStorage.getDepartmentById("D" + random.nextInt(DEPARTMENT_COUNT));
+            List<Course> courses = department.getCourses();
+            List<Professor> professors = DataStorage.getProfessorsByDepartment(department);
+            int firstCourse = random.nextInt(courses.size());
+
+            int studentEnrollments = Math.min(ENROLLMENTS_PER_STUDENT, remainingEnrollments);
+            for (int e = 0; e < studentEnrollments; e++) {
+                Course course = courses.get((firstCourse + e) % courses.size());
+                Professor professor = professors.get(random.nextInt(professors.size()));
+                student.enroll(course, professor, LocalDate.of(2024, 1 + random.nextInt(12), 1 + random.nextInt(28)));
+                if (random.nextInt(10) < 8) { // Leave some courses ungraded
+                    student.setGradeScale(course, 40 + random.nextInt(6001) / 100.0);
+                }
+            }
+            remainingEnrollments -= studentEnrollments;
+        }
+    }
+
+    /**
+     * Returns a random full name.
+     *
+     * @param random the random generator.
+     * @return a first name followed by a last name.
+     */
+    public static String getRandomName(Random random) {
+        return FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+    }
+
+    private static LocalDate getRandomBirthDate(Random random, int fromYear, int toYear) {
+        return LocalDate.of(fromYear + random.nextInt(toYear - fromYear + 1), 1 + random.nextInt(12), 1 + random.nextInt(28));
+    }
+}
@@ -0,0 +1,404 @@
+package data;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPOutputStream;
+
+import models.*;
+import utils.DateUtils;
+import utils.TableWriter;
+
+/**
+ * The BulkExporter class writes every record of the DataStorage to CSV or JSON
+ * Lines files, one file per record type, named like the files the BulkImporter
+ * reads (such as "students.csv" or "enrollments.jsonl.gz").
+ *
+ * <p>
+ * Each collection is streamed in a single pass over the live views of the
+ * DataStorage, and every value is written straight to a buffered stream, so the
+ * export uses constant memory whatever the size of the storage. The views are
+ * read without taking any lock, so an export can run in the background while
+ * the menus keep changing the records; a record changed during the export is
+ * written either before or after the change.
+ * </p>
+ *
+ * <p>
+ * Files are written under a temporary name and renamed when complete, so a
+ * reader never sees a partial file. Students include their GPA, and
+ * enrollments include their grade, letter grade and grade points, which are
+ * empty (or null in JSON) when the enrollment is not graded.
+ * </p>
+ */
+public class BulkExporter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final String[] DEPARTMENT_COLUMNS = { "id", "name", "description" };
+    private static final String[] PROFESSOR_COLUMNS = { "id", "name", "birth_date", "department_id" };
+    private static final String[] COURSE_COLUMNS = { "id", "name", "description", "department_id" };
+    private static final String[] STUDENT_COLUMNS = { "id", "name", "birth_date", "gpa" };
+    private static final String[] ENROLLMENT_COLUMNS = { "student_id", "course_id", "professor_id", "enrollment_date",
+            "grade", "letter_grade", "grade_points" };
+
+    /**
+     * Writes records one value at a time in the syntax of a format.
+     */
+    private abstract static class RecordWriter {
+
+        protected final Writer out;
+        protected final String[] columns;
+        protected int column;
+
+        private RecordWriter(Writer out, String[] columns) {
+            this.out = out;
+            this.columns = columns;
+        }
+
+        /** Writes what comes before the first record, such as a header. */
+        abstract void begin() throws IOException;
+
+        abstract void beginRecord() throws IOException;
+
+        /** Writes a text value, or a missing value when it is null. */
+        abstract void text(CharSequence value) throws IOException;
+
+        /** Writes a number, or a missing value when it is null. */
+        abstract void number(CharSequence value) throws IOException;
+
+        abstract void endRecord() throws IOException;
+    }
+
+    /**
+     * Writes comma-separated values, quoting the values that need it.
+     */
+    private static final class CsvRecordWriter extends RecordWriter {
+
+        private CsvRecordWriter(Writer out, String[] columns) {
+            super(out, columns);
+        }
+
+        @Override
+        void begin() throws IOException {
+            out.write(String.join(",", columns));
+            out.write('\n');
+        }
+
+        @Override
+        void beginRecord() {
+            column = 0;
+        }
+
+        @Override
+        void text(CharSequence value) throws IOException {
+            separate();
+            if (value == null) {
+                return;
+            }
+            int length = value.length();
+            boolean isQuoted = length > 0 && (value.charAt(0) == ' ' || value.charAt(length - 1) == ' ');
+            for (int i = 0; i < length && !isQuoted; i++) {
+                char c = value.charAt(i);
+                isQuoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!isQuoted) {
+                out.append(value); // Spaces around unquoted values are dropped by readers
+                return;
+            }
+            out.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    out.write('"'); // Quotes are doubled
+                }
+                out.write(c == '\n' || c == '\r' ? ' ' : c); // Records are kept on one line
+            }
+            out.write('"');
+        }
+
+        @Override
+        void number(CharSequence value) throws IOException {
+            separate();
+            if (value != null) {
+                out.append(value);
+            }
+        }
+
+        @Override
+        void endRecord() throws IOException {
+            out.write('\n');
+        }
+
+        private void separate() throws IOException {
+            if (column++ > 0) {
+                out.write(',');
+            }
+        }
+    }
+
+    /**
+     * Writes one JSON object per line, with the columns as member names.
+     */
+    private static final class JsonRecordWriter extends RecordWriter {
+
+        private JsonRecordWriter(Writer out, String[] columns) {
+            super(out, columns);
+        }
+
+        @Override
+        void begin() {
+        }
+
+        @Override
+        void beginRecord() throws IOException {
+            column = 0;
+            out.write('{');
+        }
+
+        @Override
+        void text(CharSequence value) throws IOException {
+            name();
+            if (value == null) {
+                out.write("null");
+                return;
+            }
+            out.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    out.write('\\');
+                    out.write(c);
+                } else if (c < 0x20) {
+                    out.write(String.format("\\u%04x", (int) c));
+                } else {
+                    out.write(c);
+                }
+            }
+            out.write('"');
+        }
+
+        @Override
+        void number(CharSequence value) throws IOException {
+            name();
+            out.append(value == null ? "null" : value);
+        }
+
+        @Override
+        void endRecord() throws IOException {
+            out.write("}\n");
+        }
+
+        private void name() throws IOException {
+            if (column > 0) {
+                out.write(',');
+            }
+            out.write('"');
+            out.write(columns[column++]);
+            out.write("\":");
+        }
+    }
+
+    private final ExportFormat format;
+    private final boolean isCompressed;
+    private final StringBuilder dateBuffer = new StringBuilder(10);
+
+    /**
+     * Constructs a BulkExporter.
+     *
+     * @param format       the format of the files.
+     * @param isCompressed true to gzip the files, adding ".gz" to their names.
+     */
+    public BulkExporter(ExportFormat format, boolean isCompressed) {
+        this.format = format;
+        this.isCompressed = isCompressed;
+    }
+
+    /**
+     * Returns the name of the file holding the records of a type, such as
+     * "students.csv.gz".
+     *
+     * @param type the type of the records.
+     * @return the name of the file.
+     */
+    public String getFileName(EntityType type) {
+        return type.getFileName() + "." + format.getExtension() + (isCompressed ? ".gz" : "");
+    }
+
+    /**
+     * Exports every record type to its own file in a directory, which is created
+     * if needed. Existing files are replaced.
+     *
+     * @param directory the directory to write the files to.
+     * @return the reports of the written files.
+     * @throws IOException if a file cannot be written.
+     */
+    public synchronized ArrayList<ExportReport> exportDirectory(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        ArrayList<ExportReport> reports = new ArrayList<>();
+        for (EntityType type : EntityType.values()) {
+            reports.add(exportFile(type, directory.resolve(getFileName(type))));
+        }
+        return reports;
+    }
+
+    /**
+     * Exports every record type on a low-priority background thread, so the
+     * program stays responsive while the files are written.
+     *
+     * @param directory the directory to write the files to.
+     * @return a future completed with the reports of the written files, or with
+     *         the error that stopped the export.
+     */
+    public CompletableFuture<ArrayList<ExportReport>> exportInBackground(Path directory) {
+        CompletableFuture<ArrayList<ExportReport>> future = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                future.complete(exportDirectory(directory));
+            } catch (IOException | RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }, "bulk-export");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+        return future;
+    }
+
+    /**
+     * Exports the records of one type to a file, replacing it if it exists.
+     *
+     * @param type the type of the records.
+     * @param path the file to write.
+     * @return the report of the export.
+     * @throws IOException if the file cannot be written.
+     */
+    public synchronized ExportReport exportFile(EntityType type, Path path) throws IOException {
+        long startTime = System.nanoTime();
+        Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+        int rowCount;
+
+        OutputStream stream = new BufferedOutputStream(Files.newOutputStream(temporaryPath), BUFFER_SIZE);
+        if (isCompressed) {
+            stream = new GZIPOutputStream(stream, BUFFER_SIZE);
+        }
+        try (Writer out = new OutputStreamWriter(stream, StandardCharsets.UTF_8)) {
+            rowCount = writeRecords(type, out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporaryPath);
+            throw e;
+        }
+        Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        return new ExportReport(type, path, rowCount, (System.nanoTime() - startTime) / 1_000_000);
+    }
+
+    /**
+     * Streams the records of one type to a writer.
+     *
+     * @return the number of records written.
+     */
+    private int writeRecords(EntityType type, Writer out) throws IOException {
+        int rowCount = 0;
+        switch (type) {
+            case DEPARTMENTS: {
+                RecordWriter writer = createWriter(out, DEPARTMENT_COLUMNS);
+                for (Department department : DataStorage.getDepartmentsView()) {
+                    writer.beginRecord();
+                    writer.text(department.getId());
+                    writer.text(department.getName());
+                    writer.text(department.getDescription());
+                    writer.endRecord();
+                    rowCount++;
+                }
+                break;
+            }
+            case PROFESSORS: {
+                RecordWriter writer = createWriter(out, PROFESSOR_COLUMNS);
+                for (Professor professor : DataStorage.getProfessorsView()) {
+                    writer.beginRecord();
+                    writer.text(professor.getId());
+                    writer.text(professor.getName());
+                    writer.text(formatDate(professor.getBirthDate()));
+                    writer.text(professor.getDepartment().getId());
+                    writer.endRecord();
+                    rowCount++;
+                }
+                break;
+            }
+            case COURSES: {
+                RecordWriter writer = createWriter(out, COURSE_COLUMNS);
+                for (Course course : DataStorage.getCoursesView()) {
+                    writer.beginRecord();
+                    writer.text(course.getId());
+                    writer.text(course.getName());
+                    writer.text(course.getDescription());
+                    writer.text(course.getDepartment().getId());
+                    writer.endRecord();
+                    rowCount++;
+                }
+                break;
+            }
+            case STUDENTS: {
+                RecordWriter writer = createWriter(out, STUDENT_COLUMNS);
+                for (Student student : DataStorage.getStudentsView()) {
+                    writer.beginRecord();
+                    writer.text(student.getId());
+                    writer.text(student.getName());
+                    writer.text(formatDate(student.getBirthDate()));
+                    writer.number(TableWriter.formatDecimal(student.getGPA(), 2));
+                    writer.endRecord();
+                    rowCount++;
+                }
+                break;
+            }
+            default: {
+                RecordWriter writer = createWriter(out, ENROLLMENT_COLUMNS);
+                for (StudentEnrollment enrollment : DataStorage.getEnrollmentsView()) {
+                    double gradeScale = enrollment.getGradeScale();
+                    boolean isGraded = gradeScale >= 0;
+                    writer.beginRecord();
+                    writer.text(enrollment.getStudent().getId());
+                    writer.text(enrollment.getCourse().getId());
+                    writer.text(enrollment.getProfessor().getId());
+                    writer.text(formatDate(enrollment.getEnrollmentDate()));
+                    writer.number(isGraded ? TableWriter.formatDecimal(gradeScale, 2) : null);
+                    writer.text(isGraded ? enrollment.getLetterGrade() : null);
+                    writer.number(isGraded ? TableWriter.formatDecimal(enrollment.getGradePoints(), 2) : null);
+                    writer.endRecord();
+                    rowCount++;
+                }
+                break;
+            }
+        }
+        return rowCount;
+    }
+
+    private RecordWriter createWriter(Writer out, String[] columns) throws IOException {
+        RecordWriter writer = format == ExportFormat.CSV
+                ? new CsvRecordWriter(out, columns)
+                : new JsonRecordWriter(out, columns);
+        writer.begin();
+        return writer;
+    }
+
+    /**
+     * Formats a date as MM/dd/yyyy into a reused buffer, the format the
+     * BulkImporter reads.
+     */
+    private CharSequence formatDate(LocalDate date) {
+        if (date == null) {
+            return null;
+        }
+        dateBuffer.setLength(0);
+        return DateUtils.appendDate(dateBuffer, date);
+    }
+}
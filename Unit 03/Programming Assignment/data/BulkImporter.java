@@ -0,0 +1,426 @@
+package data;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import models.*;
+import utils.CsvUtils;
+import utils.DateUtils;
+
+/**
+ * The BulkImporter class loads records from CSV or TSV files into the
+ * DataStorage, for onboarding a whole term at once instead of typing every
+ * record in the menus.
+ *
+ * <p>
+ * The first line of a file names its columns, in any order and case, with
+ * spaces and underscores ignored:
+ * </p>
+ * <ul>
+ * <li>departments: id, name, description</li>
+ * <li>professors: id (optional), name, birth date, department id</li>
+ * <li>courses: id, name, description, department id</li>
+ * <li>students: id (optional), name, birth date</li>
+ * <li>enrollments: student id, course id, professor id, enrollment date
+ * (optional, today by default), grade (optional)</li>
+ * </ul>
+ *
+ * <p>
+ * The file is read in chunks of lines that are parsed in parallel, including the
+ * lookup of the departments, students, courses and professors they refer to.
+ * The parsed chunks are then inserted in the order of the file by the calling
+ * thread, and each chunk is committed as one batch. A row that cannot be parsed
+ * or inserted is skipped and reported in the ImportReport with its line number.
+ * </p>
+ */
+public class BulkImporter {
+
+    private static final int CHUNK_SIZE = 4096;
+
+    /**
+     * A parsed row: either the insertion to run or the reason it was rejected.
+     */
+    private static final class Row {
+
+        private final int lineNumber;
+        private final Runnable insert;
+        private final String error;
+
+        private Row(int lineNumber, Runnable insert, String error) {
+            this.lineNumber = lineNumber;
+            this.insert = insert;
+            this.error = error;
+        }
+    }
+
+    /**
+     * The positions of the columns of a file, by normalised name.
+     */
+    private static final class Columns {
+
+        private final HashMap<String, Integer> indexes = new HashMap<>();
+        private final EntityType entityType;
+
+        private Columns(String[] header, EntityType entityType) {
+            this.entityType = entityType;
+            for (int i = 0; i < header.length; i++) {
+                indexes.putIfAbsent(normalize(header[i]), i);
+            }
+        }
+
+        private int require(String name) {
+            Integer index = indexes.get(normalize(name));
+            if (index == null) {
+                throw new IllegalArgumentException("The " + entityType.getFileName() + " file has no " + name + " column");
+            }
+            return index;
+        }
+
+        private int optional(String name) {
+            return indexes.getOrDefault(normalize(name), -1);
+        }
+
+        private static String normalize(String name) {
+            return name.replace(" ", "").replace("_", "").replace("\uFEFF", "").toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final int threadCount;
+
+    /**
+     * Constructs a BulkImporter that parses with one thread per processor.
+     */
+    public BulkImporter() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a BulkImporter that parses with the given number of threads.
+     *
+     * @param threadCount the number of parsing threads.
+     */
+    public BulkImporter(int threadCount) {
+        if (threadCount <= 0) {
+            throw new IllegalArgumentException("Thread count must be greater than zero");
+        }
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * Imports the files of a directory named after the record types, such as
+     * "departments.csv" or "enrollments.tsv", in the order the records depend on
+     * each other. Types without a file are skipped.
+     *
+     * @param directory the directory holding the files.
+     * @return the reports of the imported files.
+     * @throws IOException if a file cannot be read.
+     */
+    public ArrayList<ImportReport> importDirectory(Path directory) throws IOException {
+        ArrayList<ImportReport> reports = new ArrayList<>();
+        for (EntityType type : EntityType.values()) {
+            for (String extension : new String[] { ".csv", ".tsv" }) {
+                Path path = directory.resolve(type.getFileName() + extension);
+                if (Files.isRegularFile(path)) {
+                    reports.add(importFile(type, path));
+                }
+            }
+        }
+        return reports;
+    }
+
+    /**
+     * Imports the records of one file. The delimiter is a tab for .tsv files and
+     * a comma otherwise.
+     *
+     * @param type the type of the records in the file.
+     * @param path the file to import.
+     * @return the report of the import.
+     * @throws IOException              if the file cannot be read.
+     * @throws IllegalArgumentException if the header lacks a required column.
+     */
+    public ImportReport importFile(EntityType type, Path path) throws IOException {
+        ImportReport report = new ImportReport(type, path);
+        char delimiter = CsvUtils.getDelimiter(path.getFileName().toString());
+        long startTime = System.nanoTime();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount, runnable -> {
+            Thread thread = new Thread(runnable, "bulk-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            String header = reader.readLine();
+            if (header == null) {
+                return report;
+            }
+            Function<String[], Runnable> parser = createParser(type, new Columns(CsvUtils.split(header, delimiter), type));
+
+            // Keep a few chunks ahead of the insertion, so every thread has work
+            ArrayDeque<Future<ArrayList<Row>>> pending = new ArrayDeque<>();
+            int lineNumber = 1;
+            while (true) {
+                ArrayList<String> lines = new ArrayList<>(CHUNK_SIZE);
+                String line;
+                while (lines.size() < CHUNK_SIZE && (line = reader.readLine()) != null) {
+                    lines.add(line);
+                }
+                if (lines.isEmpty()) {
+                    break;
+                }
+                int firstLineNumber = lineNumber + 1;
+                pending.add(executor.submit(() -> parseChunk(lines, firstLineNumber, delimiter, parser)));
+                lineNumber += lines.size();
+
+                if (pending.size() >= threadCount * 2) {
+                    insertChunk(await(pending.poll()), report);
+                }
+            }
+            while (!pending.isEmpty()) {
+                insertChunk(await(pending.poll()), report);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        report.setElapsedMillis((System.nanoTime() - startTime) / 1_000_000);
+        return report;
+    }
+
+    /**
+     * Parses the lines of a chunk. Blank lines are skipped.
+     */
+    private static ArrayList<Row> parseChunk(ArrayList<String> lines, int firstLineNumber, char delimiter,
+            Function<String[], Runnable> parser) {
+        ArrayList<Row> rows = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.isBlank()) {
+                continue;
+            }
+            int lineNumber = firstLineNumber + i;
+            try {
+                rows.add(new Row(lineNumber, parser.apply(CsvUtils.split(line, delimiter)), null));
+            } catch (IllegalArgumentException | DateTimeException e) {
+                rows.add(new Row(lineNumber, null, e.getMessage()));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Inserts the parsed rows of a chunk and commits them as one batch.
+     */
+    private static void insertChunk(ArrayList<Row> rows, ImportReport report) {
+        for (Row row : rows) {
+            if (row.error != null) {
+                report.addError(row.lineNumber, row.error);
+                continue;
+            }
+            try {
+                row.insert.run();
+                report.addImported();
+            } catch (IllegalArgumentException e) {
+                report.addError(row.lineNumber, e.getMessage());
+            }
+        }
+        DataStorage.commit();
+    }
+
+    private static ArrayList<Row> await(Future<ArrayList<Row>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Creates the parser of the rows of a type. The parser validates a row and
+     * resolves the records it refers to, and returns the insertion of the row.
+     */
+    private static Function<String[], Runnable> createParser(EntityType type, Columns columns) {
+        switch (type) {
+            case DEPARTMENTS: {
+                int id = columns.require("id");
+                int name = columns.require("name");
+                int description = columns.optional("description");
+                return fields -> {
+                    Department department = new Department(require(fields, id, "id"), require(fields, name, "name"),
+                            get(fields, description));
+                    return () -> DataStorage.addDepartment(department);
+                };
+            }
+            case PROFESSORS: {
+                int id = columns.optional("id");
+                int name = columns.require("name");
+                int birthDate = columns.require("birth date");
+                int department = columns.require("department id");
+                return fields -> {
+                    int professorId = parseId(get(fields, id), "professor");
+                    String professorName = require(fields, name, "name");
+                    LocalDate professorBirthDate = parseDate(require(fields, birthDate, "birth date"));
+                    Department professorDepartment = findDepartment(require(fields, department, "department id"));
+                    return () -> {
+                        // The professor joins the department and takes an ID when created, so check for duplicates first
+                        if (professorId > 0 && DataStorage.getProfessorById(String.valueOf(professorId)) != null) {
+                            throw new IllegalArgumentException("Professor ID " + professorId + " already exists");
+                        }
+                        DataStorage.addProfessor(professorId > 0
+                                ? new Professor(professorId, professorName, professorBirthDate, professorDepartment)
+                                : new Professor(professorName, professorBirthDate, professorDepartment));
+                    };
+                };
+            }
+            case COURSES: {
+                int id = columns.require("id");
+                int name = columns.require("name");
+                int description = columns.optional("description");
+                int department = columns.require("department id");
+                return fields -> {
+                    String courseId = require(fields, id, "id");
+                    String courseName = require(fields, name, "name");
+                    String courseDescription = get(fields, description);
+                    Department courseDepartment = findDepartment(require(fields, department, "department id"));
+                    return () -> {
+                        // The course joins the department when created, so check for duplicates first
+                        if (DataStorage.getCourseById(courseId) != null) {
+                            throw new IllegalArgumentException("Course ID " + courseId + " already exists");
+                        }
+                        DataStorage.addCourse(new Course(courseId, courseName, courseDescription, courseDepartment));
+                    };
+                };
+            }
+            case STUDENTS: {
+                int id = columns.optional("id");
+                int name = columns.require("name");
+                int birthDate = columns.require("birth date");
+                return fields -> {
+                    int studentId = parseId(get(fields, id), "student");
+                    String studentName = require(fields, name, "name");
+                    LocalDate studentBirthDate = parseDate(require(fields, birthDate, "birth date"));
+                    return () -> {
+                        // A rejected student must not advance the ID counter, so check for duplicates first
+                        if (studentId > 0 && DataStorage.getStudentById(String.valueOf(studentId)) != null) {
+                            throw new IllegalArgumentException("Student ID " + studentId + " already exists");
+                        }
+                        DataStorage.addStudent(studentId > 0
+                                ? new Student(studentId, studentName, studentBirthDate)
+                                : new Student(studentName, studentBirthDate));
+                    };
+                };
+            }
+            default: {
+                int student = columns.require("student id");
+                int course = columns.require("course id");
+                int professor = columns.require("professor id");
+                int enrollmentDate = columns.optional("enrollment date");
+                int grade = columns.optional("grade");
+                return fields -> {
+                    Student enrolledStudent = find(DataStorage::getStudentById, require(fields, student, "student id"), "Student");
+                    Course enrolledCourse = find(DataStorage::getCourseById, require(fields, course, "course id"), "Course");
+                    Professor enrolledProfessor = find(DataStorage::getProfessorById, require(fields, professor, "professor id"), "Professor");
+                    String date = get(fields, enrollmentDate);
+                    LocalDate enrolledDate = date.isEmpty() ? DateUtils.today() : parseDate(date);
+                    double gradeScale = parseGrade(get(fields, grade));
+                    return () -> {
+                        enrolledStudent.enroll(enrolledCourse, enrolledProfessor, enrolledDate);
+                        if (gradeScale >= 0) {
+                            enrolledStudent.setGradeScale(enrolledCourse, gradeScale);
+                        }
+                    };
+                };
+            }
+        }
+    }
+
+    private static String get(String[] fields, int index) {
+        return index >= 0 && index < fields.length ? fields[index] : "";
+    }
+
+    private static String require(String[] fields, int index, String column) {
+        String value = get(fields, index);
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException("Missing " + column);
+        }
+        return value;
+    }
+
+    /**
+     * Parses an optional numeric ID.
+     *
+     * @return the ID, or 0 when the value is empty so an ID is generated.
+     */
+    private static int parseId(String value, String description) {
+        if (value.isEmpty()) {
+            return 0;
+        }
+        try {
+            int id = Integer.parseInt(value);
+            if (id > 0) {
+                return id;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid " + description + " ID " + value);
+    }
+
+    private static LocalDate parseDate(String value) {
+        LocalDate date = DateUtils.parseDate(value);
+        if (date == null) {
+            throw new IllegalArgumentException("Invalid date " + value + ", expected MM/dd/yyyy");
+        }
+        return date;
+    }
+
+    /**
+     * Parses an optional grade scale.
+     *
+     * @return the grade scale, or -1 when the value is empty.
+     */
+    private static double parseGrade(String value) {
+        if (value.isEmpty()) {
+            return -1;
+        }
+        try {
+            double gradeScale = Double.parseDouble(value);
+            if (gradeScale >= 0 && gradeScale <= 100) {
+                return gradeScale;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid grade " + value + ", expected 0 to 100");
+    }
+
+    private static Department findDepartment(String id) {
+        return find(DataStorage::getDepartmentById, id, "Department");
+    }
+
+    private static <T> T find(Function<String, T> finder, String id, String description) {
+        T model = finder.apply(id);
+        if (model == null) {
+            throw new IllegalArgumentException("Unknown " + description + " ID " + id);
+        }
+        return model;
+    }
+}
@@ -1,21 +1,509 @@
 package data;
 
-import java.util.HashMap;
+import java.nio.file.Paths;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import models.*;
+import utils.OperationMetrics;
 
 /**
  * The DataStorage class provides in-memory storage for various models such as
  * Departments, Students, Professors, Courses, and StudentEnrollments. It offers
  * methods to retrieve, add, and manage these models.
+ *
+ * <p>
+ * The DataStorage is a facade over a {@link StorageBackend}. The models and
+ * their indexes always live in memory, and every mutation is forwarded to the
+ * backend, which may batch it until {@link #commit()} is called. Until
+ * {@link #open()} is called the backend is a MemoryStorageBackend, which keeps
+ * nothing once the program exits.
+ * </p>
+ *
+ * <p>
+ * The storage is safe to use from several threads at once. Each entity type is
+ * kept in its own ConcurrentHashMap, so readers never block and writers only
+ * contend on the same hash bin, and adds use an atomic put-if-absent so two
+ * registrars can never both create the same ID.
+ * </p>
+ *
+ * <p>
+ * Secondary indexes (names, department courses and professors, course and
+ * professor enrollments) are kept up to date on every add, remove and setter
+ * change, so the lookup methods run in time proportional to their result.
+ * Ordered indexes for paged listings are built the first time an order is
+ * requested and maintained the same way from then on. Full-text indexes over
+ * the names and descriptions are maintained the same way, for
+ * {@link #searchStudentsText} and the other full-text searches.
+ * </p>
+ *
+ * <p>
+ * The adds, removes, commits, checkpoints and lazy student loads are timed in
+ * the {@link OperationMetrics}, under operations such as "Student store" and
+ * "Storage commit".
+ * </p>
  */
 public class DataStorage {
 
-    private static HashMap<String, Department> departments = new HashMap<>();
-    private static HashMap<String, Student> students = new HashMap<>();
-    private static HashMap<String, Professor> professors = new HashMap<>();
-    private static HashMap<String, Course> courses = new HashMap<>();
-    private static HashMap<String, StudentEnrollment> enrollments = new HashMap<>();
+    private static final ConcurrentHashMap<String, Department> departments = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Student> students = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Professor> professors = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Course> courses = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, StudentEnrollment> enrollments = new ConcurrentHashMap<>();
+
+    // Secondary indexes; names are case-folded and relationships are keyed by ID
+    private static final SecondaryIndex<String, Student> studentsByName = new SecondaryIndex<>();
+    private static final SecondaryIndex<String, Professor> professorsByName = new SecondaryIndex<>();
+    private static final SecondaryIndex<String, Course> coursesByDepartment = new SecondaryIndex<>();
+    private static final SecondaryIndex<String, Professor> professorsByDepartment = new SecondaryIndex<>();
+    private static final SecondaryIndex<String, StudentEnrollment> enrollmentsByCourse = new SecondaryIndex<>();
+    private static final SecondaryIndex<String, StudentEnrollment> enrollmentsByProfessor = new SecondaryIndex<>();
+    private static final SecondaryIndex<String, StudentEnrollment> enrollmentsBySection = new SecondaryIndex<>();
+
+    // Full-text indexes over the names, and the descriptions of departments and courses
+    private static final TextIndex<Department> departmentsText = new TextIndex<>(DataStorage::getSearchText);
+    private static final TextIndex<Student> studentsText = new TextIndex<>(Student::getName);
+    private static final TextIndex<Professor> professorsText = new TextIndex<>(Professor::getName);
+    private static final TextIndex<Course> coursesText = new TextIndex<>(DataStorage::getSearchText);
+
+    // Ordered indexes for paged listings, built the first time each order is requested
+    private static final ConcurrentHashMap<SortKey, OrderedIndex<Department>> departmentOrders = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<SortKey, OrderedIndex<Student>> studentOrders = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<SortKey, OrderedIndex<Professor>> professorOrders = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<SortKey, OrderedIndex<Course>> courseOrders = new ConcurrentHashMap<>();
+    private static volatile GradingScale gpaOrderGradingScale = GradingScale.getDefault();
+
+    // GPA rankings, institution-wide and per department, built the first time they are read
+    private static final GpaLeaderboard gpaLeaderboard = new GpaLeaderboard();
+
+    // Running totals of the enrollments of each course and department, keyed by ID
+    private static final ConcurrentHashMap<String, GradeAggregate> courseAggregates = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, DepartmentAggregate> departmentAggregates = new ConcurrentHashMap<>();
+
+    // Mutations share the read lock while they apply and persist a change; a
+    // checkpoint takes the write lock so no change straddles the compaction.
+    private static final ReentrantReadWriteLock journalLock = new ReentrantReadWriteLock();
+    private static final Lock mutationLock = journalLock.readLock();
+    private static final Lock checkpointLock = journalLock.writeLock();
+
+    private static volatile StorageBackend backend = new MemoryStorageBackend();
+    private static volatile boolean isLoading = false;
+    private static boolean isShutdownHookAdded = false;
+
+    private static final OperationMetrics.Operation storeDepartmentMetrics = OperationMetrics.get("Department", "store");
+    private static final OperationMetrics.Operation storeStudentMetrics = OperationMetrics.get("Student", "store");
+    private static final OperationMetrics.Operation storeProfessorMetrics = OperationMetrics.get("Professor", "store");
+    private static final OperationMetrics.Operation storeCourseMetrics = OperationMetrics.get("Course", "store");
+    private static final OperationMetrics.Operation storeEnrollmentMetrics = OperationMetrics.get("Enrollment", "store");
+    private static final OperationMetrics.Operation removeStudentMetrics = OperationMetrics.get("Student", "remove");
+    private static final OperationMetrics.Operation loadStudentMetrics = OperationMetrics.get("Student", "load");
+    private static final OperationMetrics.Operation openStorageMetrics = OperationMetrics.get("Storage", "open");
+    private static final OperationMetrics.Operation commitStorageMetrics = OperationMetrics.get("Storage", "commit");
+    private static final OperationMetrics.Operation checkpointStorageMetrics = OperationMetrics.get("Storage", "checkpoint");
+
+    static {
+        // Re-index and persist the changes made through the model setters
+        Model.addListener(new ModelListener() {
+            @Override
+            public void onPropertyChanged(Model model, String property, Object oldValue) {
+                // Models being built or restored are not stored yet and must not wait for the storage lock
+                if (!isStored(model)) {
+                    return;
+                }
+                mutationLock.lock();
+                try {
+                    if (!isStored(model)) {
+                        return;
+                    }
+                    if (property.equals("Name")) {
+                        String oldName = fold((String) oldValue);
+                        if (model instanceof Student) {
+                            studentsByName.move(oldName, fold(model.getName()), (Student) model);
+                        } else if (model instanceof Professor) {
+                            professorsByName.move(oldName, fold(model.getName()), (Professor) model);
+                        }
+                    }
+                    if (property.equals("Name") || property.equals("Description")) {
+                        reindexText(model, property, (String) oldValue);
+                    }
+                    if (!property.equals("Description")) {
+                        reorder(model); // Names, birth dates and grades move models in the ordered indexes
+                    }
+                    if (model instanceof StudentEnrollment) {
+                        StudentEnrollment enrollment = (StudentEnrollment) model;
+                        gpaLeaderboard.update(enrollment.getStudent());
+                        if (enrollments.get(enrollment.getId()) == enrollment) { // Not counted until registered
+                            regradeAggregates(enrollment, (Double) oldValue);
+                        }
+                    }
+                    if (model instanceof Professor && property.equals("BirthDate")) {
+                        Professor professor = (Professor) model;
+                        getDepartmentAggregate(professor.getDepartment())
+                                .changeBirthDate((LocalDate) oldValue, professor.getBirthDate());
+                    }
+                    if (!isLoading) {
+                        backend.updateProperty(model, property);
+                    }
+                } finally {
+                    mutationLock.unlock();
+                }
+            }
+
+            @Override
+            public void onEnrollmentCreated(StudentEnrollment enrollment) {
+                Student student = enrollment.getStudent();
+                if (!isStored(student)) {
+                    return; // Registered by addStudent along with the student
+                }
+                long start = storeEnrollmentMetrics.start();
+                mutationLock.lock();
+                try {
+                    // Waits for a student being stored, whose enrollments are registered and persisted with it
+                    synchronized (student) {
+                        if (isStored(student) && registerEnrollment(enrollment)) {
+                            gpaLeaderboard.update(student); // The student may join the department of the course
+                            if (!isLoading) {
+                                backend.addEnrollment(enrollment);
+                            }
+                        }
+                    }
+                } finally {
+                    mutationLock.unlock();
+                    storeEnrollmentMetrics.stop(start);
+                }
+            }
+        });
+    }
+
+    /**
+     * Opens the persistent storage selected by the "storage.backend" system
+     * property: "file" (the default) keeps a journal and snapshot in the directory
+     * given by "storage.dir" (default "storage"), "sql" uses the embedded database
+     * at the JDBC URL given by "storage.url", and "memory" keeps nothing.
+     *
+     * @return true if existing data was recovered, false if the storage is empty.
+     */
+    public static boolean open() {
+        String backendType = System.getProperty("storage.backend", "file");
+        switch (backendType) {
+            case "memory":
+                return open(new MemoryStorageBackend());
+            case "file":
+                return open(new FileStorageBackend(Paths.get(System.getProperty("storage.dir", "storage"))));
+            case "sql":
+                return open(new JdbcStorageBackend(System.getProperty("storage.url", "jdbc:sqlite:storage/university.db")));
+            default:
+                throw new IllegalArgumentException("Unknown storage backend " + backendType);
+        }
+    }
+
+    /**
+     * Opens the given backend, loads its data into the storage and forwards every
+     * later mutation to it. Students may be left in the backend and loaded lazily,
+     * the first time they are accessed.
+     *
+     * @param storageBackend the backend to persist the storage with.
+     * @return true if existing data was recovered, false if the storage is empty.
+     */
+    public static boolean open(StorageBackend storageBackend) {
+        boolean hasData;
+        long start = openStorageMetrics.start();
+        checkpointLock.lock();
+        try {
+            isLoading = true;
+            backend = storageBackend;
+            hasData = storageBackend.load();
+        } finally {
+            isLoading = false;
+            checkpointLock.unlock();
+            openStorageMetrics.stop(start);
+        }
+
+        synchronized (DataStorage.class) {
+            if (!isShutdownHookAdded) {
+                Runtime.getRuntime().addShutdownHook(new Thread(DataStorage::close));
+                isShutdownHookAdded = true;
+            }
+        }
+        return hasData || !departments.isEmpty() || !students.isEmpty();
+    }
+
+    /**
+     * Makes every mutation since the last commit durable as a single batch. When
+     * the backend asks for it, a checkpoint is taken afterwards.
+     */
+    public static void commit() {
+        StorageBackend currentBackend = backend;
+        commitStorageMetrics.run(currentBackend::commit);
+        if (currentBackend.isCheckpointDue()) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Lets the backend compact its persisted data, for example by writing a new
+     * snapshot and starting a new, empty journal. No mutation runs meanwhile.
+     */
+    public static void checkpoint() {
+        long start = checkpointStorageMetrics.start();
+        checkpointLock.lock();
+        try {
+            backend.checkpoint();
+        } finally {
+            checkpointLock.unlock();
+            checkpointStorageMetrics.stop(start);
+        }
+    }
+
+    /**
+     * Commits pending mutations and closes the backend. Called automatically when
+     * the program exits. The storage falls back to memory only afterwards.
+     */
+    public static void close() {
+        checkpointLock.lock();
+        try {
+            backend.close();
+            backend = new MemoryStorageBackend();
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    /**
+     * Materialises every student still waiting in the backend. Called before any
+     * operation that needs to see all students at once.
+     */
+    private static void materializeStudents() {
+        backend.loadStudents(DataStorage::putMaterialized);
+    }
+
+    /**
+     * Puts a student materialised from the backend into the storage, unless
+     * another thread materialised it first. The student is locked until it is
+     * indexed, so enrollments created once it is visible are left to the
+     * listener, which persists them.
+     *
+     * @return the student held by the storage.
+     */
+    private static Student putMaterialized(Student student) {
+        synchronized (student) {
+            Student existing = students.putIfAbsent(student.getId(), student);
+            if (existing != null) {
+                return existing;
+            }
+            indexStudent(student);
+            return student;
+        }
+    }
+
+    private static String getSearchText(Department department) {
+        return department.getName() + " " + department.getDescription();
+    }
+
+    private static String getSearchText(Course course) {
+        return course.getName() + " " + course.getDescription();
+    }
+
+    /**
+     * Moves a renamed or redescribed model to the words of its new text in the
+     * full-text indexes.
+     */
+    private static void reindexText(Model model, String property, String oldValue) {
+        boolean isName = property.equals("Name");
+        if (model instanceof Department) {
+            Department department = (Department) model;
+            departmentsText.update(department, isName
+                    ? oldValue + " " + department.getDescription()
+                    : department.getName() + " " + oldValue);
+        } else if (model instanceof Course) {
+            Course course = (Course) model;
+            coursesText.update(course, isName
+                    ? oldValue + " " + course.getDescription()
+                    : course.getName() + " " + oldValue);
+        } else if (model instanceof Student && isName) {
+            studentsText.update((Student) model, oldValue);
+        } else if (model instanceof Professor && isName) {
+            professorsText.update((Professor) model, oldValue);
+        }
+    }
+
+    /**
+     * Case-folds a name so that index lookups are case-insensitive.
+     */
+    private static String fold(String name) {
+        return name == null ? "" : name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Indexes a student that was just put into the storage, registering the
+     * enrollments it already has.
+     *
+     * @return the enrollments registered by this call.
+     */
+    private static ArrayList<StudentEnrollment> indexStudent(Student student) {
+        studentsByName.add(fold(student.getName()), student);
+        studentsText.add(student);
+        updateOrders(studentOrders, student);
+        ArrayList<StudentEnrollment> registered = new ArrayList<>();
+        for (StudentEnrollment enrollment : student.getEnrollments()) {
+            if (registerEnrollment(enrollment)) {
+                registered.add(enrollment);
+            }
+        }
+        gpaLeaderboard.update(student);
+        return registered;
+    }
+
+    /**
+     * Registers an enrollment in the global enrollment map, the course roster
+     * index and the professor section index. This is the only place enrollments
+     * enter the storage, so the three structures are always updated together.
+     *
+     * @return true if the enrollment was registered, false if it already existed.
+     */
+    private static boolean registerEnrollment(StudentEnrollment enrollment) {
+        if (enrollments.putIfAbsent(enrollment.getId(), enrollment) != null) {
+            return false;
+        }
+        enrollmentsByCourse.add(enrollment.getCourse().getId(), enrollment);
+        enrollmentsByProfessor.add(enrollment.getProfessor().getId(), enrollment);
+        enrollmentsBySection.add(getSectionKey(enrollment.getProfessor(), enrollment.getCourse()), enrollment);
+        double gradeScale = enrollment.getGradeScale();
+        getCourseAggregate(enrollment.getCourse()).addEnrollment(gradeScale);
+        getDepartmentAggregate(enrollment.getCourse().getDepartment()).getGrades().addEnrollment(gradeScale);
+        return true;
+    }
+
+    private static void unregisterEnrollment(StudentEnrollment enrollment) {
+        if (enrollments.remove(enrollment.getId(), enrollment)) {
+            enrollmentsByCourse.remove(enrollment.getCourse().getId(), enrollment);
+            enrollmentsByProfessor.remove(enrollment.getProfessor().getId(), enrollment);
+            enrollmentsBySection.remove(getSectionKey(enrollment.getProfessor(), enrollment.getCourse()), enrollment);
+            double gradeScale = enrollment.getGradeScale();
+            getCourseAggregate(enrollment.getCourse()).removeEnrollment(gradeScale);
+            getDepartmentAggregate(enrollment.getCourse().getDepartment()).getGrades().removeEnrollment(gradeScale);
+        }
+    }
+
+    /**
+     * Moves a regraded enrollment from its old grade to its new one in the
+     * aggregates of its course and department.
+     */
+    private static void regradeAggregates(StudentEnrollment enrollment, double oldGradeScale) {
+        double newGradeScale = enrollment.getGradeScale();
+        getCourseAggregate(enrollment.getCourse()).changeGrade(oldGradeScale, newGradeScale);
+        getDepartmentAggregate(enrollment.getCourse().getDepartment()).getGrades().changeGrade(oldGradeScale, newGradeScale);
+    }
+
+    private static GradeAggregate getCourseAggregate(Course course) {
+        return courseAggregates.computeIfAbsent(course.getId(), id -> new GradeAggregate());
+    }
+
+    private static DepartmentAggregate getDepartmentAggregate(Department department) {
+        return departmentAggregates.computeIfAbsent(department.getId(), id -> new DepartmentAggregate());
+    }
+
+    /**
+     * Returns the ordered index of a sort key, building it the first time it is
+     * requested.
+     */
+    private static <T extends Model> OrderedIndex<T> getOrder(ConcurrentHashMap<SortKey, OrderedIndex<T>> orders,
+            SortKey sortKey, Collection<T> values) {
+        OrderedIndex<T> index = orders.computeIfAbsent(sortKey, key -> new OrderedIndex<>(model -> getSortValue(model, key)));
+        index.build(values);
+        return index;
+    }
+
+    /**
+     * Returns the value a model is ordered by for the given sort key.
+     */
+    private static Comparable<?> getSortValue(Model model, SortKey sortKey) {
+        switch (sortKey) {
+            case NAME:
+                return fold(model.getName());
+            case AGE:
+                LocalDate birthDate = model instanceof Student
+                        ? ((Student) model).getBirthDate()
+                        : ((Professor) model).getBirthDate();
+                return birthDate == null ? null : -birthDate.toEpochDay(); // The youngest first
+            case GPA:
+                return ((Student) model).getGPA();
+            default:
+                return null; // Ordered by ID alone
+        }
+    }
+
+    /**
+     * Checks that models of the given type can be sorted by the sort key.
+     */
+    private static void checkSortKey(String description, SortKey sortKey, SortKey... sortKeys) {
+        for (SortKey supported : sortKeys) {
+            if (supported == sortKey) {
+                return;
+            }
+        }
+        throw new IllegalArgumentException(description + " cannot be sorted by " + sortKey.getDescription());
+    }
+
+    private static <T extends Model> void updateOrders(ConcurrentHashMap<SortKey, OrderedIndex<T>> orders, T model) {
+        for (OrderedIndex<T> index : orders.values()) {
+            index.update(model);
+        }
+    }
+
+    /**
+     * Moves a changed model to its new position in the ordered indexes. A grade
+     * change moves the student of the enrollment.
+     */
+    private static void reorder(Model model) {
+        if (model instanceof Department) {
+            updateOrders(departmentOrders, (Department) model);
+        } else if (model instanceof Professor) {
+            updateOrders(professorOrders, (Professor) model);
+        } else if (model instanceof Course) {
+            updateOrders(courseOrders, (Course) model);
+        } else if (model instanceof Student) {
+            updateOrders(studentOrders, (Student) model);
+        } else if (model instanceof StudentEnrollment) {
+            updateOrders(studentOrders, ((StudentEnrollment) model).getStudent());
+        }
+    }
+
+    /**
+     * Returns the key of a section, that is a course taught by a professor.
+     */
+    private static String getSectionKey(Professor professor, Course course) {
+        return professor.getId() + "/" + course.getId();
+    }
+
+    /**
+     * Checks whether the given model is the instance held by the storage, so that
+     * changes to models which have not been added yet are not persisted.
+     */
+    private static boolean isStored(Model model) {
+        if (model instanceof Department) {
+            return departments.get(model.getId()) == model;
+        }
+        if (model instanceof Professor) {
+            return professors.get(model.getId()) == model;
+        }
+        if (model instanceof Course) {
+            return courses.get(model.getId()) == model;
+        }
+        if (model instanceof Student) {
+            return students.get(model.getId()) == model;
+        }
+        if (model instanceof StudentEnrollment) {
+            return isStored(((StudentEnrollment) model).getStudent());
+        }
+        return false;
+    }
 
     /**
      * Retrieves all Departments as a list.
@@ -32,9 +520,30 @@ public class DataStorage {
      * @return an ArrayList of Student objects.
      */
     public static ArrayList<Student> getStudents() {
+        materializeStudents();
         return new ArrayList<>(students.values());
     }
 
+    /**
+     * Returns the Students already in memory, without materialising the others,
+     * for a checkpoint that copies the Students still in the backend as they are.
+     *
+     * @return a read-only live Collection of the Students in memory.
+     */
+    static Collection<Student> getLoadedStudents() {
+        return Collections.unmodifiableCollection(students.values());
+    }
+
+    /**
+     * Checks whether a Student is in memory, without materialising it.
+     *
+     * @param id the ID of the Student.
+     * @return true if the Student was added or materialised and not removed.
+     */
+    static boolean isStudentLoaded(String id) {
+        return students.containsKey(id);
+    }
+
     /**
      * Retrieves all Professors as a list.
      * 
@@ -59,9 +568,397 @@ public class DataStorage {
      * @return an ArrayList of StudentEnrollment objects.
      */
     public static ArrayList<StudentEnrollment> getEnrollments() {
+        materializeStudents(); // Enrollments are registered when their student is materialised
         return new ArrayList<>(enrollments.values());
     }
 
+    /**
+     * Returns a read-only live view of all Departments. The view reflects later
+     * changes to the storage and is not copied, so iterating it creates no garbage
+     * proportional to the number of Departments.
+     * 
+     * @return an unmodifiable Collection of Department objects.
+     */
+    public static Collection<Department> getDepartmentsView() {
+        return Collections.unmodifiableCollection(departments.values());
+    }
+
+    /**
+     * Returns a read-only live view of all Students. Students still waiting in
+     * the backend are materialised first.
+     * 
+     * @return an unmodifiable Collection of Student objects.
+     */
+    public static Collection<Student> getStudentsView() {
+        materializeStudents();
+        return Collections.unmodifiableCollection(students.values());
+    }
+
+    /**
+     * Returns a read-only live view of all Professors.
+     * 
+     * @return an unmodifiable Collection of Professor objects.
+     */
+    public static Collection<Professor> getProfessorsView() {
+        return Collections.unmodifiableCollection(professors.values());
+    }
+
+    /**
+     * Returns a read-only live view of all Courses.
+     * 
+     * @return an unmodifiable Collection of Course objects.
+     */
+    public static Collection<Course> getCoursesView() {
+        return Collections.unmodifiableCollection(courses.values());
+    }
+
+    /**
+     * Returns a read-only live view of all StudentEnrollments.
+     * 
+     * @return an unmodifiable Collection of StudentEnrollment objects.
+     */
+    public static Collection<StudentEnrollment> getEnrollmentsView() {
+        materializeStudents();
+        return Collections.unmodifiableCollection(enrollments.values());
+    }
+
+    /**
+     * Opens a cursor that returns the Students one page at a time.
+     * 
+     * @param pageSize the maximum number of Students in each page.
+     * @return a PageCursor over all Students.
+     */
+    public static PageCursor<Student> getStudentsCursor(int pageSize) {
+        return new PageCursor<>(getStudentsView(), pageSize);
+    }
+
+    /**
+     * Opens a cursor that returns the StudentEnrollments one page at a time.
+     * 
+     * @param pageSize the maximum number of StudentEnrollments in each page.
+     * @return a PageCursor over all StudentEnrollments.
+     */
+    public static PageCursor<StudentEnrollment> getEnrollmentsCursor(int pageSize) {
+        return new PageCursor<>(getEnrollmentsView(), pageSize);
+    }
+
+    /**
+     * Returns a sorted, paged view of all Departments.
+     *
+     * @param sortKey      the order of the Departments (ID or Name).
+     * @param isDescending true to list the Departments in reverse order.
+     * @param pageSize     the maximum number of Departments in each page.
+     * @return a PagedView positioned on the first page.
+     */
+    public static PagedView<Department> getDepartmentsPaged(SortKey sortKey, boolean isDescending, int pageSize) {
+        checkSortKey("Departments", sortKey, SortKey.ID, SortKey.NAME);
+        return new PagedView<>(getOrder(departmentOrders, sortKey, departments.values()), sortKey, isDescending, pageSize);
+    }
+
+    /**
+     * Returns a sorted, paged view of all Students. Students still waiting in the
+     * backend are materialised first.
+     *
+     * @param sortKey      the order of the Students (ID, Name, Age or GPA).
+     * @param isDescending true to list the Students in reverse order.
+     * @param pageSize     the maximum number of Students in each page.
+     * @return a PagedView positioned on the first page.
+     */
+    public static PagedView<Student> getStudentsPaged(SortKey sortKey, boolean isDescending, int pageSize) {
+        materializeStudents();
+        OrderedIndex<Student> index = getOrder(studentOrders, sortKey, students.values());
+
+        // A new grading scale changes every GPA at once
+        GradingScale gradingScale = GradingScale.getDefault();
+        if (sortKey == SortKey.GPA && gpaOrderGradingScale != gradingScale) {
+            index.rebuild(students.values());
+            gpaOrderGradingScale = gradingScale;
+        }
+        return new PagedView<>(index, sortKey, isDescending, pageSize);
+    }
+
+    /**
+     * Returns a sorted, paged view of all Professors.
+     *
+     * @param sortKey      the order of the Professors (ID, Name or Age).
+     * @param isDescending true to list the Professors in reverse order.
+     * @param pageSize     the maximum number of Professors in each page.
+     * @return a PagedView positioned on the first page.
+     */
+    public static PagedView<Professor> getProfessorsPaged(SortKey sortKey, boolean isDescending, int pageSize) {
+        checkSortKey("Professors", sortKey, SortKey.ID, SortKey.NAME, SortKey.AGE);
+        return new PagedView<>(getOrder(professorOrders, sortKey, professors.values()), sortKey, isDescending, pageSize);
+    }
+
+    /**
+     * Returns a sorted, paged view of all Courses.
+     *
+     * @param sortKey      the order of the Courses (ID or Name).
+     * @param isDescending true to list the Courses in reverse order.
+     * @param pageSize     the maximum number of Courses in each page.
+     * @return a PagedView positioned on the first page.
+     */
+    public static PagedView<Course> getCoursesPaged(SortKey sortKey, boolean isDescending, int pageSize) {
+        checkSortKey("Courses", sortKey, SortKey.ID, SortKey.NAME);
+        return new PagedView<>(getOrder(courseOrders, sortKey, courses.values()), sortKey, isDescending, pageSize);
+    }
+
+    /**
+     * Finds up to {@code limit} Departments whose ID or name starts with the given
+     * text, for autocompletion. Matching IDs come first.
+     *
+     * @param text  the start of the ID or name, ignoring the case of the name.
+     * @param limit the maximum number of Departments to return.
+     * @return the matching Departments.
+     */
+    public static ArrayList<Department> searchDepartments(String text, int limit) {
+        return search(departmentOrders, departments.values(), text, limit);
+    }
+
+    /**
+     * Finds up to {@code limit} Students whose ID or name starts with the given
+     * text, for autocompletion. Matching IDs come first. Students still waiting in
+     * the backend are materialised first.
+     *
+     * @param text  the start of the ID or name, ignoring the case of the name.
+     * @param limit the maximum number of Students to return.
+     * @return the matching Students.
+     */
+    public static ArrayList<Student> searchStudents(String text, int limit) {
+        materializeStudents();
+        return search(studentOrders, students.values(), text, limit);
+    }
+
+    /**
+     * Finds up to {@code limit} Professors whose ID or name starts with the given
+     * text, for autocompletion. Matching IDs come first.
+     *
+     * @param text  the start of the ID or name, ignoring the case of the name.
+     * @param limit the maximum number of Professors to return.
+     * @return the matching Professors.
+     */
+    public static ArrayList<Professor> searchProfessors(String text, int limit) {
+        return search(professorOrders, professors.values(), text, limit);
+    }
+
+    /**
+     * Finds up to {@code limit} Courses whose ID or name starts with the given
+     * text, for autocompletion. Matching IDs come first.
+     *
+     * @param text  the start of the ID or name, ignoring the case of the name.
+     * @param limit the maximum number of Courses to return.
+     * @return the matching Courses.
+     */
+    public static ArrayList<Course> searchCourses(String text, int limit) {
+        return search(courseOrders, courses.values(), text, limit);
+    }
+
+    /**
+     * Walks the ID order and the name order from the given text, so a search
+     * reads only the matches instead of scanning every model. IDs are matched as
+     * typed and in upper case, since course and department IDs are upper case.
+     */
+    private static <T extends Model> ArrayList<T> search(ConcurrentHashMap<SortKey, OrderedIndex<T>> orders,
+            Collection<T> values, String text, int limit) {
+        LinkedHashSet<T> matches = new LinkedHashSet<>();
+        OrderedIndex<T> idOrder = getOrder(orders, SortKey.ID, values);
+        matches.addAll(idOrder.readIdPrefix(text, limit));
+        String upperText = text.toUpperCase(Locale.ROOT);
+        if (matches.size() < limit && !upperText.equals(text)) {
+            matches.addAll(idOrder.readIdPrefix(upperText, limit - matches.size()));
+        }
+        if (matches.size() < limit && !text.isEmpty()) {
+            matches.addAll(getOrder(orders, SortKey.NAME, values).readPrefix(fold(text), limit));
+        }
+
+        ArrayList<T> result = new ArrayList<>(matches);
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    /**
+     * Finds up to {@code limit} Departments whose name or description contains
+     * every word of the query, ignoring case and accents. Words that are not
+     * found are matched against similar words, to tolerate typos.
+     *
+     * @param query the words to search for.
+     * @param limit the maximum number of Departments to return.
+     * @return the matching Departments, best first.
+     */
+    public static ArrayList<Department> searchDepartmentsText(String query, int limit) {
+        return departmentsText.search(query, limit);
+    }
+
+    /**
+     * Finds up to {@code limit} Students whose name contains every word of the
+     * query, ignoring case and accents. Words that are not found are matched
+     * against similar words, to tolerate typos. Students still waiting in the
+     * backend are materialised first.
+     *
+     * @param query the words to search for.
+     * @param limit the maximum number of Students to return.
+     * @return the matching Students, best first.
+     */
+    public static ArrayList<Student> searchStudentsText(String query, int limit) {
+        materializeStudents();
+        return studentsText.search(query, limit);
+    }
+
+    /**
+     * Finds up to {@code limit} Professors whose name contains every word of the
+     * query, ignoring case and accents. Words that are not found are matched
+     * against similar words, to tolerate typos.
+     *
+     * @param query the words to search for.
+     * @param limit the maximum number of Professors to return.
+     * @return the matching Professors, best first.
+     */
+    public static ArrayList<Professor> searchProfessorsText(String query, int limit) {
+        return professorsText.search(query, limit);
+    }
+
+    /**
+     * Finds up to {@code limit} Courses whose name or description contains every
+     * word of the query, ignoring case and accents. Words that are not found are
+     * matched against similar words, to tolerate typos.
+     *
+     * @param query the words to search for.
+     * @param limit the maximum number of Courses to return.
+     * @return the matching Courses, best first.
+     */
+    public static ArrayList<Course> searchCoursesText(String query, int limit) {
+        return coursesText.search(query, limit);
+    }
+
+    /**
+     * Returns the GPA ranking of a department, or of every student, building the
+     * rankings the first time they are read.
+     */
+    private static RankIndex<Student> getGpaRanking(Department department) {
+        materializeStudents();
+        gpaLeaderboard.build(students.values());
+        return gpaLeaderboard.get(department);
+    }
+
+    /**
+     * Retrieves the Students with the highest GPA. Only Students with at least one
+     * graded course are ranked, and a Student belongs to the ranking of every
+     * Department whose courses they are enrolled in.
+     *
+     * @param department the Department to rank, or null to rank every Student.
+     * @param limit      the maximum number of Students to return.
+     * @return the best Students, highest GPA first and ties by ID.
+     */
+    public static ArrayList<Student> getTopStudents(Department department, int limit) {
+        return getGpaRanking(department).read(0, limit);
+    }
+
+    /**
+     * Retrieves the Students whose GPA is at least the given minimum, such as the
+     * dean's list.
+     *
+     * @param minimumGpa the lowest GPA on the honor roll.
+     * @param department the Department to rank, or null to rank every Student.
+     * @param limit      the maximum number of Students to return.
+     * @return the Students on the honor roll, highest GPA first.
+     */
+    public static ArrayList<Student> getHonorRoll(double minimumGpa, Department department, int limit) {
+        RankIndex<Student> ranking = getGpaRanking(department);
+        return ranking.read(0, Math.min(limit, ranking.countAbove(minimumGpa, true)));
+    }
+
+    /**
+     * Retrieves the graded Students whose GPA is below the given threshold, such
+     * as the students on academic probation.
+     *
+     * @param threshold  the GPA the Students are below.
+     * @param department the Department to rank, or null to rank every Student.
+     * @param limit      the maximum number of Students to return.
+     * @return the Students below the threshold, highest GPA first.
+     */
+    public static ArrayList<Student> getStudentsBelowGpa(double threshold, Department department, int limit) {
+        RankIndex<Student> ranking = getGpaRanking(department);
+        return ranking.read(ranking.countAbove(threshold, true), limit);
+    }
+
+    /**
+     * Counts the graded Students whose GPA is below the given threshold.
+     *
+     * @param threshold  the GPA the Students are below.
+     * @param department the Department to rank, or null to rank every Student.
+     * @return the number of Students below the threshold.
+     */
+    public static int countStudentsBelowGpa(double threshold, Department department) {
+        RankIndex<Student> ranking = getGpaRanking(department);
+        return ranking.size() - ranking.countAbove(threshold, true);
+    }
+
+    /**
+     * Returns the rank of a Student by GPA. Students with the same GPA share the
+     * same rank, and the next rank skips accordingly, so ranks read 1, 2, 2, 4.
+     *
+     * @param student    the Student to rank.
+     * @param department the Department to rank in, or null to rank among every
+     *                   Student.
+     * @return the rank of the Student, starting at 1, or 0 if the Student has no
+     *         graded course or is not enrolled in the Department.
+     */
+    public static int getGpaRank(Student student, Department department) {
+        return getGpaRanking(department).getRank(student);
+    }
+
+    /**
+     * Returns the number of Students with a GPA, that is with at least one graded
+     * course.
+     *
+     * @param department the Department to count, or null to count every Student.
+     * @return the number of ranked Students.
+     */
+    public static int getRankedStudentCount(Department department) {
+        return getGpaRanking(department).size();
+    }
+
+    /**
+     * Returns the aggregates of a Department: its courses and professors, the
+     * average age of its professors, and the enrollments, average grade and pass
+     * rate of its courses. The aggregates are kept up to date as enrollments are
+     * added, graded and removed, so nothing is scanned.
+     *
+     * @param department the Department.
+     * @return the statistics of the Department.
+     */
+    public static DepartmentStatistics getDepartmentStatistics(Department department) {
+        materializeStudents(); // Enrollments are counted when their student is materialised
+        return getDepartmentAggregate(department).getStatistics(department);
+    }
+
+    /**
+     * Returns the aggregates of every Department, reading each from its running
+     * totals.
+     *
+     * @return the statistics of the Departments, ordered by ID.
+     */
+    public static ArrayList<DepartmentStatistics> getDepartmentDashboard() {
+        materializeStudents();
+        ArrayList<DepartmentStatistics> dashboard = new ArrayList<>(departments.size());
+        for (Department department : departments.values()) {
+            dashboard.add(getDepartmentAggregate(department).getStatistics(department));
+        }
+        dashboard.sort((a, b) -> QueryField.compareIds(a.getDepartment().getId(), b.getDepartment().getId()));
+        return dashboard;
+    }
+
+    /**
+     * Returns the enrollments, average grade and pass rate of a Course, read from
+     * its running totals.
+     *
+     * @param course the Course.
+     * @return the statistics of the enrollments in the Course.
+     */
+    public static GradeStatistics getCourseStatistics(Course course) {
+        materializeStudents();
+        return getCourseAggregate(course).getStatistics();
+    }
+
     /**
      * Finds a Department by its unique ID.
      * 
@@ -79,7 +976,19 @@ public class DataStorage {
      * @return the Student object if found, or null if not found.
      */
     public static Student getStudentById(String id) {
-        return students.get(id);
+        Student student = students.get(id);
+        if (student == null) {
+            long start = loadStudentMetrics.start();
+            Student materialized = backend.loadStudent(id);
+            loadStudentMetrics.stop(start);
+            if (materialized != null) {
+                student = putMaterialized(materialized);
+            } else {
+                // Another thread may have materialised the student in the meantime
+                student = students.get(id);
+            }
+        }
+        return student;
     }
 
     /**
@@ -93,18 +1002,123 @@ public class DataStorage {
     }
 
     /**
-     * Finds a Professor by their name.
+     * Finds a Professor by their name, ignoring case.
      * 
      * @param name the name of the Professor.
      * @return the Professor object if found, or null if not found.
      */
     public static Professor getProfessorByName(String name) {
-        return professors.values().stream()
-                .filter(p -> p.getName().equalsIgnoreCase(name))
+        return professorsByName.get(fold(name)).stream()
                 .findFirst()
                 .orElse(null);
     }
 
+    /**
+     * Finds all Professors with the given name, ignoring case.
+     * 
+     * @param name the name of the Professors.
+     * @return an ArrayList of matching Professor objects.
+     */
+    public static ArrayList<Professor> getProfessorsByName(String name) {
+        return professorsByName.getList(fold(name));
+    }
+
+    /**
+     * Finds all Students with the given name, ignoring case.
+     * 
+     * @param name the name of the Students.
+     * @return an ArrayList of matching Student objects.
+     */
+    public static ArrayList<Student> getStudentsByName(String name) {
+        materializeStudents(); // Students still in the backend are not indexed yet
+        return studentsByName.getList(fold(name));
+    }
+
+    /**
+     * Retrieves all Courses offered by a Department.
+     * 
+     * @param department the Department of the Courses.
+     * @return an ArrayList of Course objects.
+     */
+    public static ArrayList<Course> getCoursesByDepartment(Department department) {
+        return coursesByDepartment.getList(department.getId());
+    }
+
+    /**
+     * Retrieves all Professors of a Department.
+     * 
+     * @param department the Department of the Professors.
+     * @return an ArrayList of Professor objects.
+     */
+    public static ArrayList<Professor> getProfessorsByDepartment(Department department) {
+        return professorsByDepartment.getList(department.getId());
+    }
+
+    /**
+     * Retrieves all StudentEnrollments in a Course.
+     * 
+     * @param course the Course of the enrollments.
+     * @return an ArrayList of StudentEnrollment objects.
+     */
+    public static ArrayList<StudentEnrollment> getEnrollmentsByCourse(Course course) {
+        materializeStudents();
+        return enrollmentsByCourse.getList(course.getId());
+    }
+
+    /**
+     * Retrieves the roster of a Course, that is every Student enrolled in it.
+     * 
+     * @param course the Course of the roster.
+     * @return an ArrayList of Student objects.
+     */
+    public static ArrayList<Student> getRoster(Course course) {
+        materializeStudents();
+        ArrayList<Student> roster = new ArrayList<>();
+        for (StudentEnrollment enrollment : enrollmentsByCourse.get(course.getId())) {
+            roster.add(enrollment.getStudent());
+        }
+        return roster;
+    }
+
+    /**
+     * Retrieves the StudentEnrollments of a section, that is a Course taught by a
+     * specific Professor.
+     * 
+     * @param professor the Professor teaching the section.
+     * @param course    the Course of the section.
+     * @return an ArrayList of StudentEnrollment objects.
+     */
+    public static ArrayList<StudentEnrollment> getSection(Professor professor, Course course) {
+        materializeStudents();
+        return enrollmentsBySection.getList(getSectionKey(professor, course));
+    }
+
+    /**
+     * Retrieves every Student taught by a Professor in any Course.
+     * 
+     * @param professor the Professor teaching the Students.
+     * @return an ArrayList of distinct Student objects.
+     */
+    public static ArrayList<Student> getStudentsByProfessor(Professor professor) {
+        materializeStudents();
+        LinkedHashSet<Student> taught = new LinkedHashSet<>();
+        for (StudentEnrollment enrollment : enrollmentsByProfessor.get(professor.getId())) {
+            taught.add(enrollment.getStudent());
+        }
+        return new ArrayList<>(taught);
+    }
+
+    /**
+     * Retrieves all StudentEnrollments taught by a Professor.
+     * 
+     * @param professor the Professor of the enrollments.
+     * @return an ArrayList of StudentEnrollment objects.
+     */
+    public static ArrayList<StudentEnrollment> getEnrollmentsByProfessor(Professor professor) {
+        materializeStudents();
+        return enrollmentsByProfessor.getList(professor.getId());
+    }
+
     /**
      * Finds a Course by its unique ID.
      * 
@@ -122,7 +1136,14 @@ public class DataStorage {
      * @return the StudentEnrollment object if found, or null if not found.
      */
     public static StudentEnrollment getEnrollmentById(String id) {
-        return enrollments.get(id);
+        StudentEnrollment enrollment = enrollments.get(id);
+        int separator = id.indexOf('_');
+        if (enrollment == null && separator > 0) {
+            // Materialising the student registers its enrollments
+            getStudentById(id.substring(0, separator));
+            enrollment = enrollments.get(id);
+        }
+        return enrollment;
     }
 
     /**
@@ -131,10 +1152,21 @@ public class DataStorage {
      * @param department the Department object to add.
      */
     public static void addDepartment(Department department) {
-        if (departments.containsKey(department.getId())) {
-            throw new IllegalArgumentException("Department ID " + department.getId() + " already exists");
+        long start = storeDepartmentMetrics.start();
+        mutationLock.lock();
+        try {
+            if (departments.putIfAbsent(department.getId(), department) != null) {
+                throw new IllegalArgumentException("Department ID " + department.getId() + " already exists");
+            }
+            departmentsText.add(department);
+            updateOrders(departmentOrders, department);
+            if (!isLoading) {
+                backend.addDepartment(department);
+            }
+        } finally {
+            mutationLock.unlock();
+            storeDepartmentMetrics.stop(start);
         }
-        departments.put(department.getId(), department);
     }
 
     /**
@@ -143,10 +1175,29 @@ public class DataStorage {
      * @param student the Student object to add.
      */
     public static void addStudent(Student student) {
-        if (students.containsKey(student.getId())) {
-            throw new IllegalArgumentException("Student ID " + student.getId() + " already exists");
+        long start = storeStudentMetrics.start();
+        mutationLock.lock();
+        try {
+            // Enrollments created while the student is being stored wait for it in the listener
+            synchronized (student) {
+                if (backend.containsStudent(student.getId())
+                        || students.putIfAbsent(student.getId(), student) != null) {
+                    throw new IllegalArgumentException("Student ID " + student.getId() + " already exists");
+                }
+                // Also registers enrollments created before the student was stored
+                ArrayList<StudentEnrollment> registered = indexStudent(student);
+                if (!isLoading) {
+                    backend.addStudent(student);
+                    // Enrollments created before the student was stored are persisted with it
+                    for (StudentEnrollment enrollment : registered) {
+                        backend.addEnrollment(enrollment);
+                    }
+                }
+            }
+        } finally {
+            mutationLock.unlock();
+            storeStudentMetrics.stop(start);
         }
-        students.put(student.getId(), student);
     }
 
     /**
@@ -155,10 +1206,24 @@ public class DataStorage {
      * @param professor the Professor object to add.
      */
     public static void addProfessor(Professor professor) {
-        if (professors.containsKey(professor.getId())) {
-            throw new IllegalArgumentException("Professor ID " + professor.getId() + " already exists");
+        long start = storeProfessorMetrics.start();
+        mutationLock.lock();
+        try {
+            if (professors.putIfAbsent(professor.getId(), professor) != null) {
+                throw new IllegalArgumentException("Professor ID " + professor.getId() + " already exists");
+            }
+            professorsByName.add(fold(professor.getName()), professor);
+            professorsByDepartment.add(professor.getDepartment().getId(), professor);
+            getDepartmentAggregate(professor.getDepartment()).addProfessor(professor.getBirthDate());
+            professorsText.add(professor);
+            updateOrders(professorOrders, professor);
+            if (!isLoading) {
+                backend.addProfessor(professor);
+            }
+        } finally {
+            mutationLock.unlock();
+            storeProfessorMetrics.stop(start);
         }
-        professors.put(professor.getId(), professor);
     }
 
     /**
@@ -167,24 +1232,48 @@ public class DataStorage {
      * @param course the Course object to add.
      */
     public static void addCourse(Course course) {
-        if (courses.containsKey(course.getId())) {
-            throw new IllegalArgumentException("Course ID " + course.getId() + " already exists");
+        long start = storeCourseMetrics.start();
+        mutationLock.lock();
+        try {
+            if (courses.putIfAbsent(course.getId(), course) != null) {
+                throw new IllegalArgumentException("Course ID " + course.getId() + " already exists");
+            }
+            coursesByDepartment.add(course.getDepartment().getId(), course);
+            coursesText.add(course);
+            updateOrders(courseOrders, course);
+            if (!isLoading) {
+                backend.addCourse(course);
+            }
+        } finally {
+            mutationLock.unlock();
+            storeCourseMetrics.stop(start);
         }
-        courses.put(course.getId(), course);
     }
 
     /**
-     * Adds a new StudentEnrollment to the storage.
+     * Adds a new StudentEnrollment to the storage, updating the course roster and
+     * professor section indexes with it. This is called automatically by
+     * {@link Student#enroll} once the student is in the storage.
      * 
      * @param enrollment the StudentEnrollment object to add.
      */
     public static void addEnrollment(StudentEnrollment enrollment) {
-        if (enrollments.containsKey(enrollment.getId())) {
-            String errorMessage = "Student " + enrollment.getStudent().getName() +
-                    " is already enrolled in the course " + enrollment.getCourse().getName();
-            throw new IllegalArgumentException(errorMessage);
+        long start = storeEnrollmentMetrics.start();
+        mutationLock.lock();
+        try {
+            if (!registerEnrollment(enrollment)) {
+                String errorMessage = "Student " + enrollment.getStudent().getName() +
+                        " is already enrolled in the course " + enrollment.getCourse().getName();
+                throw new IllegalArgumentException(errorMessage);
+            }
+            gpaLeaderboard.update(enrollment.getStudent()); // The student may join the department of the course
+            if (!isLoading) {
+                backend.addEnrollment(enrollment);
+            }
+        } finally {
+            mutationLock.unlock();
+            storeEnrollmentMetrics.stop(start);
         }
-        enrollments.put(enrollment.getId(), enrollment);
     }
 
     /**
@@ -194,6 +1283,30 @@ public class DataStorage {
      * @return true if the Student was successfully removed, false otherwise.
      */
     public static boolean removeStudent(Student student) {
-        return students.remove(student.getId()) != null;
+        long start = removeStudentMetrics.start();
+        mutationLock.lock();
+        try {
+            boolean isRemoved = students.remove(student.getId(), student);
+            if (!isRemoved) {
+                return false;
+            }
+
+            studentsByName.remove(fold(student.getName()), student);
+            studentsText.remove(student);
+            for (OrderedIndex<Student> index : studentOrders.values()) {
+                index.remove(student);
+            }
+            for (StudentEnrollment enrollment : student.getEnrollments()) {
+                unregisterEnrollment(enrollment);
+            }
+            gpaLeaderboard.remove(student);
+            if (!isLoading) {
+                backend.removeStudent(student);
+            }
+            return true;
+        } finally {
+            mutationLock.unlock();
+            removeStudentMetrics.stop(start);
+        }
     }
 }
@@ -0,0 +1,75 @@
+package data;
+
+import java.time.LocalDate;
+
+import models.Department;
+import utils.DateUtils;
+
+/**
+ * The DepartmentAggregate class keeps the running totals of a department: the
+ * GradeAggregate of the enrollments in its courses, the number of its
+ * professors and the sum of their birth dates as epoch days, from which their
+ * average age is read on any day without visiting them.
+ */
+class DepartmentAggregate {
+
+    private static final double DAYS_PER_YEAR = 365.2425;
+
+    private final GradeAggregate grades = new GradeAggregate();
+    private long professorCount = 0;
+    private long datedProfessorCount = 0; // Professors with a known birth date
+    private long birthEpochDaySum = 0;
+
+    /**
+     * Returns the totals of the enrollments in the courses of the department.
+     *
+     * @return the GradeAggregate of the department.
+     */
+    GradeAggregate getGrades() {
+        return grades;
+    }
+
+    /**
+     * Counts a professor of the department.
+     *
+     * @param birthDate the birth date of the professor, or null if unknown.
+     */
+    synchronized void addProfessor(LocalDate birthDate) {
+        professorCount++;
+        addBirthDate(birthDate, 1);
+    }
+
+    /**
+     * Replaces the birth date of a counted professor.
+     *
+     * @param oldBirthDate the birth date before the change, or null.
+     * @param newBirthDate the birth date after the change, or null.
+     */
+    synchronized void changeBirthDate(LocalDate oldBirthDate, LocalDate newBirthDate) {
+        addBirthDate(oldBirthDate, -1);
+        addBirthDate(newBirthDate, 1);
+    }
+
+    /**
+     * Returns a snapshot of the totals of the department.
+     *
+     * @param department the department the totals belong to.
+     * @return the statistics of the department.
+     */
+    DepartmentStatistics getStatistics(Department department) {
+        GradeStatistics gradeStatistics = grades.getStatistics();
+        synchronized (this) {
+            double averageAge = datedProfessorCount == 0 ? -1
+                    : (DateUtils.todayEpochDay() - (double) birthEpochDaySum / datedProfessorCount) / DAYS_PER_YEAR;
+            return new DepartmentStatistics(department, department.getCourses().size(), professorCount, averageAge,
+                    gradeStatistics);
+        }
+    }
+
+    private void addBirthDate(LocalDate birthDate, int count) {
+        if (birthDate != null) {
+            datedProfessorCount += count;
+            birthEpochDaySum += count * birthDate.toEpochDay();
+        }
+    }
+}
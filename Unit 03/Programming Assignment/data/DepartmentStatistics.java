@@ -0,0 +1,84 @@
+package data;
+
+import models.Department;
+
+/**
+ * The DepartmentStatistics class is a snapshot of the aggregates of a
+ * department: the number of its courses and professors, the average age of its
+ * professors and the GradeStatistics of the enrollments in its courses.
+ */
+public class DepartmentStatistics {
+
+    private final Department department;
+    private final int courseCount;
+    private final long professorCount;
+    private final double averageProfessorAge;
+    private final GradeStatistics grades;
+
+    /**
+     * Constructs a DepartmentStatistics snapshot.
+     *
+     * @param department          the department.
+     * @param courseCount         the number of courses of the department.
+     * @param professorCount      the number of professors of the department.
+     * @param averageProfessorAge the average age of the professors in years, or
+     *                            -1 if none has a known birth date.
+     * @param grades              the statistics of the enrollments in the
+     *                            courses of the department.
+     */
+    DepartmentStatistics(Department department, int courseCount, long professorCount, double averageProfessorAge,
+            GradeStatistics grades) {
+        this.department = department;
+        this.courseCount = courseCount;
+        this.professorCount = professorCount;
+        this.averageProfessorAge = averageProfessorAge;
+        this.grades = grades;
+    }
+
+    /**
+     * Returns the department the statistics belong to.
+     *
+     * @return the Department.
+     */
+    public Department getDepartment() {
+        return department;
+    }
+
+    /**
+     * Returns the number of courses of the department.
+     *
+     * @return the number of courses.
+     */
+    public int getCourseCount() {
+        return courseCount;
+    }
+
+    /**
+     * Returns the number of professors of the department.
+     *
+     * @return the number of professors.
+     */
+    public long getProfessorCount() {
+        return professorCount;
+    }
+
+    /**
+     * Returns the average age of the professors of the department, counting the
+     * fraction of the year since their last birthday.
+     *
+     * @return the average age in years, or -1 if no professor has a known birth
+     *         date.
+     */
+    public double getAverageProfessorAge() {
+        return averageProfessorAge;
+    }
+
+    /**
+     * Returns the statistics of the enrollments in the courses of the department.
+     *
+     * @return the GradeStatistics of the department.
+     */
+    public GradeStatistics getGrades() {
+        return grades;
+    }
+}
@@ -0,0 +1,58 @@
+package data;
+
+import java.util.Locale;
+
+/**
+ * The EntityType enum lists the kinds of records kept in the DataStorage, in
+ * the order they depend on each other: professors and courses belong to a
+ * department, and enrollments link a student to a course and a professor.
+ * Files of records are named after their type, such as "students.csv".
+ */
+public enum EntityType {
+    DEPARTMENTS("Department"),
+    PROFESSORS("Professor"),
+    COURSES("Course"),
+    STUDENTS("Student"),
+    ENROLLMENTS("Enrollment");
+
+    private final String description;
+
+    EntityType(String description) {
+        this.description = description;
+    }
+
+    /**
+     * Returns the description of a record of this type, such as "Student".
+     *
+     * @return the description of the type.
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Returns the base name of the files holding records of this type, such as
+     * "students".
+     *
+     * @return the file name without extension.
+     */
+    public String getFileName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Finds the type with the given name, in singular or plural and in any case.
+     *
+     * @param name the name of the type, such as "student" or "Students".
+     * @return the type with the name.
+     * @throws IllegalArgumentException if no type has the name.
+     */
+    public static EntityType fromName(String name) {
+        for (EntityType type : values()) {
+            if (type.getFileName().equalsIgnoreCase(name) || type.description.equalsIgnoreCase(name)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown record type " + name);
+    }
+}
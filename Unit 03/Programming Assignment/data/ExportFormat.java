@@ -0,0 +1,42 @@
+package data;
+
+/**
+ * The ExportFormat enum lists the file formats the BulkExporter can write.
+ */
+public enum ExportFormat {
+    /** Comma-separated values with a header row, readable by the BulkImporter. */
+    CSV("csv"),
+    /** JSON Lines: one JSON object per line, for loading into a warehouse. */
+    JSONL("jsonl");
+
+    private final String extension;
+
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Returns the extension of the files in this format, without the dot.
+     *
+     * @return the file extension.
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Finds the format with the given name or extension, in any case.
+     *
+     * @param name the name of the format, such as "csv" or "jsonl".
+     * @return the format with the name.
+     * @throws IllegalArgumentException if no format has the name.
+     */
+    public static ExportFormat fromName(String name) {
+        for (ExportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown export format " + name);
+    }
+}
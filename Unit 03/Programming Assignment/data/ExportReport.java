@@ -0,0 +1,55 @@
+package data;
+
+import java.nio.file.Path;
+
+/**
+ * The ExportReport class summarises the export of one file by the
+ * BulkExporter.
+ */
+public class ExportReport {
+
+    private final EntityType entityType;
+    private final Path path;
+    private final int rowCount;
+    private final long elapsedMillis;
+
+    /**
+     * Constructs an ExportReport.
+     *
+     * @param entityType    the type of the exported records.
+     * @param path          the written file.
+     * @param rowCount      the number of records written.
+     * @param elapsedMillis the duration of the export, in milliseconds.
+     */
+    ExportReport(EntityType entityType, Path path, int rowCount, long elapsedMillis) {
+        this.entityType = entityType;
+        this.path = path;
+        this.rowCount = rowCount;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public EntityType getEntityType() {
+        return entityType;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Returns a one-line summary of the export.
+     *
+     * @return the summary.
+     */
+    public String getSummary() {
+        return "Exported " + rowCount + " " + entityType.getFileName() + " to " + path + " in " + elapsedMillis + " ms";
+    }
+}
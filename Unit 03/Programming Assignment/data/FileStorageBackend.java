@@ -0,0 +1,150 @@
+package data;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+import models.*;
+
+/**
+ * The FileStorageBackend class persists the DataStorage as an append-only
+ * journal plus a memory-mapped snapshot. Mutations are group committed to the
+ * journal, and a checkpoint writes a new snapshot and starts a new journal
+ * generation, so startup only replays the journal written after the snapshot.
+ * Students stored in the snapshot are loaded lazily, and a checkpoint carries
+ * the students that were never loaded over to the new snapshot.
+ */
+public class FileStorageBackend implements StorageBackend {
+
+    private static final long CHECKPOINT_JOURNAL_SIZE = 16L * 1024 * 1024;
+
+    private final Path directory;
+    private volatile StorageSnapshot snapshot;
+    private volatile StorageJournal journal;
+    private long journalGeneration;
+
+    /**
+     * Constructs a FileStorageBackend that keeps its files in the given directory.
+     *
+     * @param directory the directory of the snapshot and journal files.
+     */
+    public FileStorageBackend(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public boolean load() {
+        try {
+            Files.createDirectories(directory);
+
+            snapshot = StorageSnapshot.read(directory.resolve("snapshot.bin"));
+            journalGeneration = snapshot == null ? 0 : snapshot.getGeneration();
+            Path journalPath = getJournalPath(journalGeneration);
+            long validLength = StorageJournal.replay(journalPath);
+
+            journal = new StorageJournal(journalPath, validLength);
+            return snapshot != null || validLength > 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open the storage at " + directory, e);
+        }
+    }
+
+    @Override
+    public void addDepartment(Department department) {
+        journal.logAddDepartment(department);
+    }
+
+    @Override
+    public void addProfessor(Professor professor) {
+        journal.logAddProfessor(professor);
+    }
+
+    @Override
+    public void addCourse(Course course) {
+        journal.logAddCourse(course);
+    }
+
+    @Override
+    public void addStudent(Student student) {
+        journal.logAddStudent(student);
+    }
+
+    @Override
+    public void addEnrollment(StudentEnrollment enrollment) {
+        journal.logAddEnrollment(enrollment);
+    }
+
+    @Override
+    public void removeStudent(Student student) {
+        StorageSnapshot currentSnapshot = snapshot;
+        if (currentSnapshot != null) {
+            currentSnapshot.forgetStudent(student.getId());
+        }
+        journal.logRemoveStudent(student);
+    }
+
+    @Override
+    public void updateProperty(Model model, String property) {
+        journal.logPropertyChanged(model, property);
+    }
+
+    @Override
+    public Student loadStudent(String id) {
+        StorageSnapshot currentSnapshot = snapshot;
+        return currentSnapshot == null ? null : currentSnapshot.materializeStudent(id);
+    }
+
+    @Override
+    public void loadStudents(Consumer<Student> consumer) {
+        StorageSnapshot currentSnapshot = snapshot;
+        if (currentSnapshot != null) {
+            currentSnapshot.materializeStudents(consumer);
+        }
+    }
+
+    @Override
+    public boolean containsStudent(String id) {
+        StorageSnapshot currentSnapshot = snapshot;
+        return currentSnapshot != null && currentSnapshot.containsStudent(id);
+    }
+
+    @Override
+    public void commit() {
+        journal.commit();
+    }
+
+    @Override
+    public boolean isCheckpointDue() {
+        return journal.size() >= CHECKPOINT_JOURNAL_SIZE;
+    }
+
+    /**
+     * Writes a new snapshot of the whole storage and starts a new, empty journal.
+     * The previous journal is deleted once the snapshot is safely on disk.
+     */
+    @Override
+    public void checkpoint() {
+        journal.commit();
+        long nextGeneration = journalGeneration + 1;
+        try {
+            snapshot = StorageSnapshot.write(directory.resolve("snapshot.bin"), nextGeneration, snapshot);
+            journal.close();
+            journal = new StorageJournal(getJournalPath(nextGeneration), 0);
+            Files.deleteIfExists(getJournalPath(journalGeneration));
+            journalGeneration = nextGeneration;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write the storage snapshot", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        journal.close();
+    }
+
+    private Path getJournalPath(long generation) {
+        return directory.resolve("journal-" + generation + ".log");
+    }
+}
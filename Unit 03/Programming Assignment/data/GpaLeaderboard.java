@@ -0,0 +1,134 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import models.*;
+
+/**
+ * The GpaLeaderboard class ranks the students by GPA, institution-wide and
+ * within each department, in RankIndexes that the DataStorage updates whenever
+ * a grade or an enrollment changes. The top students, the rank of a student and
+ * the students above or below a GPA are then read in logarithmic time, without
+ * computing and sorting every GPA.
+ *
+ * <p>
+ * Only students with at least one graded course are ranked, since the GPA of the
+ * others means nothing yet. A student is ranked in a department when enrolled in
+ * any of its courses, with their overall GPA.
+ * </p>
+ *
+ * <p>
+ * The leaderboard is built the first time it is read, and rebuilt when a new
+ * default GradingScale changed every GPA at once. Until then, changes are
+ * ignored. A student is always locked before the leaderboard, and the rankings
+ * are filled under a separate lock, so building never waits for a student while
+ * holding the leaderboard. Updates run inside the listeners of the DataStorage,
+ * under its mutation lock, so a Student never notifies a change while holding
+ * its own lock: that would wait for the storage lock while holding the student.
+ * </p>
+ */
+class GpaLeaderboard {
+
+    private final RankIndex<Student> institution = new RankIndex<>();
+    private final RankIndex<Student> empty = new RankIndex<>();
+    private final HashMap<String, RankIndex<Student>> departments = new HashMap<>();
+    private final HashMap<Student, List<String>> departmentsByStudent = new HashMap<>();
+    private final Object buildLock = new Object();
+    private volatile GradingScale gradingScale; // The scale the rankings were built with, null until built
+
+    /**
+     * Ranks every given student, the first time only, or again when the default
+     * GradingScale changed since the students were ranked.
+     *
+     * @param students every student of the storage.
+     */
+    void build(Collection<Student> students) {
+        synchronized (buildLock) {
+            if (gradingScale == GradingScale.getDefault()) {
+                return;
+            }
+            synchronized (this) {
+                institution.clear();
+                departments.clear();
+                departmentsByStudent.clear();
+                gradingScale = GradingScale.getDefault();
+            }
+            for (Student student : students) {
+                update(student);
+            }
+        }
+    }
+
+    /**
+     * Moves a student to the position of their current GPA, and into or out of
+     * the departments of the courses they are enrolled in. The GPA and the
+     * enrollments are read under the lock of the student, so they match.
+     *
+     * @param student the changed student.
+     */
+    void update(Student student) {
+        if (gradingScale == null) {
+            return;
+        }
+        synchronized (student) {
+            List<String> newDepartments = student.hasGrades() ? getDepartmentIds(student) : Collections.emptyList();
+            double gpa = student.getGPA();
+            synchronized (this) {
+                for (String departmentId : departmentsByStudent.getOrDefault(student, Collections.emptyList())) {
+                    if (!newDepartments.contains(departmentId)) {
+                        departments.get(departmentId).remove(student);
+                    }
+                }
+                if (newDepartments.isEmpty()) {
+                    institution.remove(student);
+                    departmentsByStudent.remove(student);
+                    return;
+                }
+
+                institution.update(student, gpa);
+                for (String departmentId : newDepartments) {
+                    departments.computeIfAbsent(departmentId, id -> new RankIndex<>()).update(student, gpa);
+                }
+                departmentsByStudent.put(student, newDepartments);
+            }
+        }
+    }
+
+    /**
+     * Removes a student from every ranking.
+     *
+     * @param student the removed student.
+     */
+    synchronized void remove(Student student) {
+        institution.remove(student);
+        for (String departmentId : departmentsByStudent.getOrDefault(student, Collections.emptyList())) {
+            departments.get(departmentId).remove(student);
+        }
+        departmentsByStudent.remove(student);
+    }
+
+    /**
+     * Returns the ranking of a department, or the institution-wide ranking.
+     *
+     * @param department the department, or null for every student.
+     * @return the ranking, empty if no student of the department is graded.
+     */
+    synchronized RankIndex<Student> get(Department department) {
+        return department == null ? institution : departments.getOrDefault(department.getId(), empty);
+    }
+
+    private static List<String> getDepartmentIds(Student student) {
+        ArrayList<String> departmentIds = new ArrayList<>(4);
+        for (StudentEnrollment enrollment : student.getEnrollments()) {
+            Department department = enrollment.getCourse().getDepartment();
+            if (department != null && !departmentIds.contains(department.getId())) {
+                departmentIds.add(department.getId());
+            }
+        }
+        return departmentIds;
+    }
+}
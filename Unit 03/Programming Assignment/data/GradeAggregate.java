@@ -0,0 +1,88 @@
+package data;
+
+import models.GradingScale;
+import models.LetterGrade;
+
+/**
+ * The GradeAggregate class keeps running totals of the enrollments of a course
+ * or a department: how many there are, how many are graded, the sum of their
+ * grades and how many graded enrollments fall on each whole grade scale. The
+ * DataStorage updates it whenever an enrollment is added, graded or removed, so
+ * reading the statistics never scans the enrollments.
+ *
+ * <p>
+ * Grades are summed in hundredths, so the sum never drifts however many grades
+ * are added and removed. The pass rate is read from the counts per whole grade
+ * scale, which is all a GradingScale looks at, so it follows a new default
+ * GradingScale without recounting anything.
+ * </p>
+ */
+class GradeAggregate {
+
+    private static final int MAX_GRADE_SCALE = 100;
+
+    private final long[] gradedCountByScale = new long[MAX_GRADE_SCALE + 1];
+    private long enrollmentCount = 0;
+    private long gradedCount = 0;
+    private long gradeSumHundredths = 0;
+
+    /**
+     * Counts an enrollment and its grade.
+     *
+     * @param gradeScale the grade scale of the enrollment, or -1 if it is not
+     *                   graded.
+     */
+    synchronized void addEnrollment(double gradeScale) {
+        enrollmentCount++;
+        addGrade(gradeScale, 1);
+    }
+
+    /**
+     * Stops counting an enrollment and its grade.
+     *
+     * @param gradeScale the grade scale of the enrollment, or -1 if it is not
+     *                   graded.
+     */
+    synchronized void removeEnrollment(double gradeScale) {
+        enrollmentCount--;
+        addGrade(gradeScale, -1);
+    }
+
+    /**
+     * Replaces the grade of a counted enrollment. A value of -1 means the
+     * enrollment has no grade.
+     *
+     * @param oldGradeScale the grade scale before the change, or -1.
+     * @param newGradeScale the grade scale after the change, or -1.
+     */
+    synchronized void changeGrade(double oldGradeScale, double newGradeScale) {
+        addGrade(oldGradeScale, -1);
+        addGrade(newGradeScale, 1);
+    }
+
+    /**
+     * Returns a snapshot of the totals, with the pass rate of the default
+     * GradingScale.
+     *
+     * @return the statistics of the counted enrollments.
+     */
+    synchronized GradeStatistics getStatistics() {
+        GradingScale gradingScale = GradingScale.getDefault();
+        long passedCount = 0;
+        for (int scale = 0; scale <= MAX_GRADE_SCALE; scale++) {
+            if (gradedCountByScale[scale] > 0 && gradingScale.getLetterGrade(scale) != LetterGrade.F) {
+                passedCount += gradedCountByScale[scale];
+            }
+        }
+        return new GradeStatistics(enrollmentCount, gradedCount, gradeSumHundredths, passedCount);
+    }
+
+    private void addGrade(double gradeScale, int count) {
+        if (gradeScale == -1) {
+            return; // Not graded
+        }
+        gradedCount += count;
+        gradeSumHundredths += count * Math.round(gradeScale * 100);
+        gradedCountByScale[(int) Math.min(Math.max(gradeScale, 0), MAX_GRADE_SCALE)] += count;
+    }
+}
@@ -0,0 +1,74 @@
+package data;
+
+/**
+ * The GradeStatistics class is a snapshot of the enrollments of a course or a
+ * department: how many there are, how many are graded, their average grade and
+ * how many of the graded ones pass with the default GradingScale.
+ */
+public class GradeStatistics {
+
+    private final long enrollmentCount;
+    private final long gradedCount;
+    private final long gradeSumHundredths;
+    private final long passedCount;
+
+    /**
+     * Constructs a GradeStatistics snapshot.
+     *
+     * @param enrollmentCount    the number of enrollments.
+     * @param gradedCount        the number of graded enrollments.
+     * @param gradeSumHundredths the sum of the grade scales, in hundredths.
+     * @param passedCount        the number of graded enrollments not graded F.
+     */
+    GradeStatistics(long enrollmentCount, long gradedCount, long gradeSumHundredths, long passedCount) {
+        this.enrollmentCount = enrollmentCount;
+        this.gradedCount = gradedCount;
+        this.gradeSumHundredths = gradeSumHundredths;
+        this.passedCount = passedCount;
+    }
+
+    /**
+     * Returns the number of enrollments.
+     *
+     * @return the number of enrollments, graded or not.
+     */
+    public long getEnrollmentCount() {
+        return enrollmentCount;
+    }
+
+    /**
+     * Returns the number of graded enrollments.
+     *
+     * @return the number of enrollments with a grade scale.
+     */
+    public long getGradedCount() {
+        return gradedCount;
+    }
+
+    /**
+     * Returns the number of graded enrollments with a passing letter grade.
+     *
+     * @return the number of graded enrollments not graded F.
+     */
+    public long getPassedCount() {
+        return passedCount;
+    }
+
+    /**
+     * Returns the average grade scale of the graded enrollments.
+     *
+     * @return the average grade scale, or -1 if no enrollment is graded.
+     */
+    public double getAverageGrade() {
+        return gradedCount == 0 ? -1 : gradeSumHundredths / 100.0 / gradedCount;
+    }
+
+    /**
+     * Returns the share of the graded enrollments with a passing letter grade.
+     *
+     * @return the pass rate, from 0 to 1, or -1 if no enrollment is graded.
+     */
+    public double getPassRate() {
+        return gradedCount == 0 ? -1 : (double) passedCount / gradedCount;
+    }
+}
@@ -0,0 +1,122 @@
+package data;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import utils.PrintUtils;
+
+/**
+ * The ImportReport class summarises the import of one file by the
+ * BulkImporter: how many rows were read and imported, and why each rejected row
+ * failed. Only the first {@value #MAX_REPORTED_ERRORS} errors are kept, so a
+ * file with millions of bad rows cannot exhaust the memory.
+ */
+public class ImportReport {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final EntityType entityType;
+    private final Path path;
+    private final ArrayList<String> errors = new ArrayList<>();
+    private int rowCount;
+    private int importedCount;
+    private int errorCount;
+    private long elapsedMillis;
+
+    /**
+     * Constructs an empty ImportReport.
+     *
+     * @param entityType the type of the imported records.
+     * @param path       the imported file.
+     */
+    ImportReport(EntityType entityType, Path path) {
+        this.entityType = entityType;
+        this.path = path;
+    }
+
+    void addImported() {
+        rowCount++;
+        importedCount++;
+    }
+
+    void addError(int lineNumber, String message) {
+        rowCount++;
+        errorCount++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add("Line " + lineNumber + ": " + message);
+        }
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public EntityType getEntityType() {
+        return entityType;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the number of data rows read from the file, not counting the header
+     * and blank lines.
+     *
+     * @return the number of rows.
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getImportedCount() {
+        return importedCount;
+    }
+
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Returns the errors of the rejected rows, in the order of the file, each
+     * starting with its line number.
+     *
+     * @return a read-only list of the first errors.
+     */
+    public List<String> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Returns a one-line summary of the import.
+     *
+     * @return the summary.
+     */
+    public String getSummary() {
+        return "Imported " + importedCount + " of " + rowCount + " " + entityType.getFileName() + " from " +
+                path.getFileName() + " in " + elapsedMillis + " ms, " + errorCount + " failed";
+    }
+
+    /**
+     * Prints the summary followed by the errors of the rejected rows.
+     */
+    public void print() {
+        if (errorCount == 0) {
+            PrintUtils.printSuccess(getSummary());
+            return;
+        }
+        PrintUtils.printFail(getSummary());
+        for (String error : errors) {
+            PrintUtils.printFail(error);
+        }
+        if (errorCount > errors.size()) {
+            PrintUtils.printFail("... and " + (errorCount - errors.size()) + " more errors");
+        }
+    }
+}
@@ -2,6 +2,7 @@ package data;
 
 import java.time.LocalDate;
 import models.*;
+import utils.DateUtils;
 
 
 /**
@@ -124,17 +125,17 @@ public class InitialData {
         Professor professorJane = DataStorage.getProfessorByName("Jane White");
  
         // Enroll students in courses
-        rubens.enroll(DataStorage.getCourseById("CS1102"), professorIsaac, LocalDate.now());
-        rubens.enroll(DataStorage.getCourseById("CS1105"), professorIsaac, LocalDate.now());
+        rubens.enroll(DataStorage.getCourseById("CS1102"), professorIsaac, DateUtils.today());
+        rubens.enroll(DataStorage.getCourseById("CS1105"), professorIsaac, DateUtils.today());
 
-        jane.enroll(DataStorage.getCourseById("BUS1102"), professorJane, LocalDate.now());
-        jane.enroll(DataStorage.getCourseById("BUS1103"), professorJane, LocalDate.now());
+        jane.enroll(DataStorage.getCourseById("BUS1102"), professorJane, DateUtils.today());
+        jane.enroll(DataStorage.getCourseById("BUS1103"), professorJane, DateUtils.today());
 
-        alice.enroll(DataStorage.getCourseById("CS1104"), professorIsaac, LocalDate.now());
-        alice.enroll(DataStorage.getCourseById("CS1105"), professorIsaac, LocalDate.now());
+        alice.enroll(DataStorage.getCourseById("CS1104"), professorIsaac, DateUtils.today());
+        alice.enroll(DataStorage.getCourseById("CS1105"), professorIsaac, DateUtils.today());
 
-        bob.enroll(DataStorage.getCourseById("CS1102"), professorIsaac, LocalDate.now());
-        bob.enroll(DataStorage.getCourseById("CS1105"), professorIsaac, LocalDate.now());
+        bob.enroll(DataStorage.getCourseById("CS1102"), professorIsaac, DateUtils.today());
+        bob.enroll(DataStorage.getCourseById("CS1105"), professorIsaac, DateUtils.today());
 
         // Assign grades to students
         rubens.setGradeScale(DataStorage.getCourseById("CS1102"), 95.7);
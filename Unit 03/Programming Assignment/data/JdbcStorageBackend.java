@@ -0,0 +1,377 @@
+package data;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import models.*;
+import utils.DateUtils;
+
+/**
+ * The JdbcStorageBackend class persists the DataStorage in an embedded SQL
+ * database such as SQLite ("jdbc:sqlite:storage/university.db") or H2 in file
+ * mode ("jdbc:h2:file:./storage/university"). The JDBC driver of the chosen
+ * database must be on the classpath.
+ *
+ * <p>
+ * Every statement is prepared once when the backend is loaded. Mutations are
+ * added to the batch of their statement and executed together in a single
+ * transaction on {@link #commit()}; batches run in a fixed order (inserts, then
+ * updates, then deletes) so a row is always inserted before it is updated.
+ * Departments, professors and courses are loaded eagerly, while students are
+ * looked up by ID with a prepared query the first time they are needed.
+ * </p>
+ */
+public class JdbcStorageBackend implements StorageBackend {
+
+    private static final String[] SCHEMA = {
+        "CREATE TABLE IF NOT EXISTS departments (id VARCHAR(64) PRIMARY KEY, name VARCHAR(255), description VARCHAR(1024))",
+        "CREATE TABLE IF NOT EXISTS professors (id INTEGER PRIMARY KEY, name VARCHAR(255), birth_date BIGINT, department_id VARCHAR(64))",
+        "CREATE TABLE IF NOT EXISTS courses (id VARCHAR(64) PRIMARY KEY, name VARCHAR(255), description VARCHAR(1024), department_id VARCHAR(64))",
+        "CREATE TABLE IF NOT EXISTS students (id INTEGER PRIMARY KEY, name VARCHAR(255), birth_date BIGINT)",
+        "CREATE TABLE IF NOT EXISTS enrollments (student_id INTEGER, course_id VARCHAR(64), professor_id INTEGER, "
+                + "enrollment_date BIGINT, grade_scale DOUBLE, PRIMARY KEY (student_id, course_id))",
+    };
+
+    // Write statements, in the order their batches are executed on commit
+    private static final String INSERT_DEPARTMENT = "INSERT INTO departments (id, name, description) VALUES (?, ?, ?)";
+    private static final String INSERT_PROFESSOR = "INSERT INTO professors (id, name, birth_date, department_id) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_COURSE = "INSERT INTO courses (id, name, description, department_id) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_STUDENT = "INSERT INTO students (id, name, birth_date) VALUES (?, ?, ?)";
+    private static final String INSERT_ENROLLMENT = "INSERT INTO enrollments "
+            + "(student_id, course_id, professor_id, enrollment_date, grade_scale) VALUES (?, ?, ?, ?, ?)";
+    private static final String UPDATE_DEPARTMENT_NAME = "UPDATE departments SET name = ? WHERE id = ?";
+    private static final String UPDATE_DEPARTMENT_DESCRIPTION = "UPDATE departments SET description = ? WHERE id = ?";
+    private static final String UPDATE_COURSE_NAME = "UPDATE courses SET name = ? WHERE id = ?";
+    private static final String UPDATE_COURSE_DESCRIPTION = "UPDATE courses SET description = ? WHERE id = ?";
+    private static final String UPDATE_PROFESSOR_NAME = "UPDATE professors SET name = ? WHERE id = ?";
+    private static final String UPDATE_PROFESSOR_BIRTH_DATE = "UPDATE professors SET birth_date = ? WHERE id = ?";
+    private static final String UPDATE_STUDENT_NAME = "UPDATE students SET name = ? WHERE id = ?";
+    private static final String UPDATE_STUDENT_BIRTH_DATE = "UPDATE students SET birth_date = ? WHERE id = ?";
+    private static final String UPDATE_GRADE = "UPDATE enrollments SET grade_scale = ? WHERE student_id = ? AND course_id = ?";
+    private static final String DELETE_ENROLLMENTS = "DELETE FROM enrollments WHERE student_id = ?";
+    private static final String DELETE_STUDENT = "DELETE FROM students WHERE id = ?";
+
+    private static final String[] WRITE_STATEMENTS = {
+        INSERT_DEPARTMENT, INSERT_PROFESSOR, INSERT_COURSE, INSERT_STUDENT, INSERT_ENROLLMENT,
+        UPDATE_DEPARTMENT_NAME, UPDATE_DEPARTMENT_DESCRIPTION, UPDATE_COURSE_NAME, UPDATE_COURSE_DESCRIPTION,
+        UPDATE_PROFESSOR_NAME, UPDATE_PROFESSOR_BIRTH_DATE, UPDATE_STUDENT_NAME, UPDATE_STUDENT_BIRTH_DATE,
+        UPDATE_GRADE, DELETE_ENROLLMENTS, DELETE_STUDENT,
+    };
+
+    private static final String SELECT_STUDENT = "SELECT id, name, birth_date FROM students WHERE id = ?";
+    private static final String SELECT_STUDENT_ENROLLMENTS = "SELECT course_id, professor_id, enrollment_date, grade_scale "
+            + "FROM enrollments WHERE student_id = ?";
+
+    private final String url;
+    private Connection connection;
+    private final LinkedHashMap<String, PreparedStatement> writeStatements = new LinkedHashMap<>();
+    private final HashSet<String> pendingBatches = new HashSet<>();
+    private PreparedStatement selectStudent;
+    private PreparedStatement selectStudentEnrollments;
+
+    // IDs of the students that were already loaded (or removed) from the database
+    private final Set<String> loadedStudentIds = ConcurrentHashMap.newKeySet();
+    private volatile boolean isFullyLoaded = false;
+
+    /**
+     * Constructs a JdbcStorageBackend for the given JDBC URL.
+     *
+     * @param url the JDBC URL of the embedded database.
+     */
+    public JdbcStorageBackend(String url) {
+        this.url = url;
+    }
+
+    @Override
+    public synchronized boolean load() {
+        try {
+            connection = DriverManager.getConnection(url);
+            try (Statement statement = connection.createStatement()) {
+                for (String ddl : SCHEMA) {
+                    statement.executeUpdate(ddl);
+                }
+            }
+            connection.setAutoCommit(false);
+
+            for (String sql : WRITE_STATEMENTS) {
+                writeStatements.put(sql, connection.prepareStatement(sql));
+            }
+            selectStudent = connection.prepareStatement(SELECT_STUDENT);
+            selectStudentEnrollments = connection.prepareStatement(SELECT_STUDENT_ENROLLMENTS);
+
+            boolean hasData = false;
+            try (Statement statement = connection.createStatement()) {
+                try (ResultSet rows = statement.executeQuery("SELECT id, name, description FROM departments")) {
+                    while (rows.next()) {
+                        DataStorage.addDepartment(new Department(rows.getString(1), rows.getString(2), rows.getString(3)));
+                        hasData = true;
+                    }
+                }
+                try (ResultSet rows = statement.executeQuery("SELECT id, name, birth_date, department_id FROM professors")) {
+                    while (rows.next()) {
+                        Department department = DataStorage.getDepartmentById(rows.getString(4));
+                        DataStorage.addProfessor(new Professor(rows.getInt(1), rows.getString(2),
+                                DateUtils.fromEpochDay(rows.getLong(3)), department));
+                    }
+                }
+                try (ResultSet rows = statement.executeQuery("SELECT id, name, description, department_id FROM courses")) {
+                    while (rows.next()) {
+                        Department department = DataStorage.getDepartmentById(rows.getString(4));
+                        DataStorage.addCourse(new Course(rows.getString(1), rows.getString(2), rows.getString(3), department));
+                    }
+                }
+                // New students must never reuse an ID stored in the database
+                try (ResultSet rows = statement.executeQuery("SELECT MAX(id) FROM students")) {
+                    if (rows.next() && rows.getInt(1) > 0) {
+                        Student.reserveIds(rows.getInt(1));
+                        hasData = true;
+                    }
+                }
+            }
+            connection.commit();
+            return hasData;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to open the database " + url, e);
+        }
+    }
+
+    @Override
+    public void addDepartment(Department department) {
+        batch(INSERT_DEPARTMENT, department.getId(), department.getName(), department.getDescription());
+    }
+
+    @Override
+    public void addProfessor(Professor professor) {
+        batch(INSERT_PROFESSOR, Integer.parseInt(professor.getId()), professor.getName(),
+                DateUtils.toEpochDay(professor.getBirthDate()), professor.getDepartment().getId());
+    }
+
+    @Override
+    public void addCourse(Course course) {
+        batch(INSERT_COURSE, course.getId(), course.getName(), course.getDescription(), course.getDepartment().getId());
+    }
+
+    @Override
+    public void addStudent(Student student) {
+        loadedStudentIds.add(student.getId());
+        batch(INSERT_STUDENT, Integer.parseInt(student.getId()), student.getName(), DateUtils.toEpochDay(student.getBirthDate()));
+    }
+
+    @Override
+    public void addEnrollment(StudentEnrollment enrollment) {
+        batch(INSERT_ENROLLMENT, Integer.parseInt(enrollment.getStudent().getId()), enrollment.getCourse().getId(),
+                Integer.parseInt(enrollment.getProfessor().getId()), enrollment.getEnrollmentDate().toEpochDay(),
+                enrollment.getGradeScale());
+    }
+
+    @Override
+    public void removeStudent(Student student) {
+        loadedStudentIds.add(student.getId());
+        int id = Integer.parseInt(student.getId());
+        batch(DELETE_ENROLLMENTS, id);
+        batch(DELETE_STUDENT, id);
+    }
+
+    @Override
+    public void updateProperty(Model model, String property) {
+        switch (property) {
+            case "Name":
+                if (model instanceof Department) {
+                    batch(UPDATE_DEPARTMENT_NAME, model.getName(), model.getId());
+                } else if (model instanceof Course) {
+                    batch(UPDATE_COURSE_NAME, model.getName(), model.getId());
+                } else if (model instanceof Professor) {
+                    batch(UPDATE_PROFESSOR_NAME, model.getName(), Integer.parseInt(model.getId()));
+                } else {
+                    batch(UPDATE_STUDENT_NAME, model.getName(), Integer.parseInt(model.getId()));
+                }
+                break;
+            case "Description":
+                if (model instanceof Department) {
+                    batch(UPDATE_DEPARTMENT_DESCRIPTION, ((Department) model).getDescription(), model.getId());
+                } else {
+                    batch(UPDATE_COURSE_DESCRIPTION, ((Course) model).getDescription(), model.getId());
+                }
+                break;
+            case "BirthDate":
+                if (model instanceof Professor) {
+                    batch(UPDATE_PROFESSOR_BIRTH_DATE, DateUtils.toEpochDay(((Professor) model).getBirthDate()),
+                            Integer.parseInt(model.getId()));
+                } else {
+                    batch(UPDATE_STUDENT_BIRTH_DATE, DateUtils.toEpochDay(((Student) model).getBirthDate()),
+                            Integer.parseInt(model.getId()));
+                }
+                break;
+            case "GradeScale":
+                StudentEnrollment enrollment = (StudentEnrollment) model;
+                batch(UPDATE_GRADE, enrollment.getGradeScale(), Integer.parseInt(enrollment.getStudent().getId()),
+                        enrollment.getCourse().getId());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown property " + property);
+        }
+    }
+
+    @Override
+    public synchronized Student loadStudent(String id) {
+        int key = parseId(id);
+        if (key < 0 || isFullyLoaded || !loadedStudentIds.add(id)) {
+            return null;
+        }
+        try {
+            selectStudent.setInt(1, key);
+            try (ResultSet rows = selectStudent.executeQuery()) {
+                if (!rows.next()) {
+                    return null;
+                }
+                Student student = new Student(rows.getInt(1), rows.getString(2), DateUtils.fromEpochDay(rows.getLong(3)));
+                loadEnrollments(student);
+                return student;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to load student " + id, e);
+        }
+    }
+
+    @Override
+    public synchronized void loadStudents(Consumer<Student> consumer) {
+        if (isFullyLoaded) {
+            return;
+        }
+        try {
+            ArrayList<Student> loaded = new ArrayList<>();
+            try (Statement statement = connection.createStatement();
+                    ResultSet rows = statement.executeQuery("SELECT id, name, birth_date FROM students")) {
+                while (rows.next()) {
+                    if (loadedStudentIds.add(Integer.toString(rows.getInt(1)))) {
+                        loaded.add(new Student(rows.getInt(1), rows.getString(2), DateUtils.fromEpochDay(rows.getLong(3))));
+                    }
+                }
+            }
+            for (Student student : loaded) {
+                loadEnrollments(student);
+                consumer.accept(student);
+            }
+            isFullyLoaded = true;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to load the students", e);
+        }
+    }
+
+    private void loadEnrollments(Student student) throws SQLException {
+        selectStudentEnrollments.setInt(1, Integer.parseInt(student.getId()));
+        try (ResultSet rows = selectStudentEnrollments.executeQuery()) {
+            while (rows.next()) {
+                Course course = DataStorage.getCourseById(rows.getString(1));
+                Professor professor = DataStorage.getProfessorById(Integer.toString(rows.getInt(2)));
+                // Restored without notifying the listeners, which must not run under the backend lock
+                student.restoreEnrollment(course, professor, LocalDate.ofEpochDay(rows.getLong(3)),
+                        rows.getDouble(4));
+            }
+        }
+    }
+
+    @Override
+    public synchronized boolean containsStudent(String id) {
+        int key = parseId(id);
+        if (key < 0 || isFullyLoaded || loadedStudentIds.contains(id)) {
+            return false;
+        }
+        try {
+            selectStudent.setInt(1, key);
+            try (ResultSet rows = selectStudent.executeQuery()) {
+                return rows.next();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to look up student " + id, e);
+        }
+    }
+
+    /**
+     * Executes every pending batch, in statement order, in a single transaction.
+     * If any batch fails, the transaction is rolled back and every pending batch
+     * is discarded, so a later commit never completes part of a failed one.
+     */
+    @Override
+    public synchronized void commit() {
+        if (pendingBatches.isEmpty()) {
+            return;
+        }
+        try {
+            for (String sql : WRITE_STATEMENTS) {
+                if (pendingBatches.contains(sql)) {
+                    writeStatements.get(sql).executeBatch();
+                }
+            }
+            connection.commit();
+            pendingBatches.clear();
+        } catch (SQLException e) {
+            IllegalStateException failure = new IllegalStateException("Unable to commit to the database " + url, e);
+            try {
+                connection.rollback();
+                for (String sql : pendingBatches) {
+                    writeStatements.get(sql).clearBatch();
+                }
+            } catch (SQLException rollbackFailure) {
+                failure.addSuppressed(rollbackFailure);
+            } finally {
+                pendingBatches.clear();
+            }
+            throw failure;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        commit();
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to close the database " + url, e);
+        }
+    }
+
+    /**
+     * Parses a numeric model ID without throwing on malformed input.
+     *
+     * @return the numeric ID, or -1 if the ID is not a valid number.
+     */
+    private static int parseId(String id) {
+        if (id == null || id.isEmpty() || id.length() > 9) {
+            return -1;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            if (id.charAt(i) < '0' || id.charAt(i) > '9') {
+                return -1;
+            }
+        }
+        return Integer.parseInt(id);
+    }
+
+    /**
+     * Adds one set of parameters to the batch of a prepared write statement.
+     */
+    private synchronized void batch(String sql, Object... parameters) {
+        try {
+            PreparedStatement statement = writeStatements.get(sql);
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            statement.addBatch();
+            pendingBatches.add(sql);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to write to the database " + url, e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package data;
+
+import models.*;
+
+/**
+ * The MemoryStorageBackend class keeps nothing outside of the DataStorage maps.
+ * It is the default backend: the fastest option, with all data lost when the
+ * program exits.
+ */
+public class MemoryStorageBackend implements StorageBackend {
+
+    @Override
+    public boolean load() {
+        return false;
+    }
+
+    @Override
+    public void addDepartment(Department department) {
+    }
+
+    @Override
+    public void addProfessor(Professor professor) {
+    }
+
+    @Override
+    public void addCourse(Course course) {
+    }
+
+    @Override
+    public void addStudent(Student student) {
+    }
+
+    @Override
+    public void addEnrollment(StudentEnrollment enrollment) {
+    }
+
+    @Override
+    public void removeStudent(Student student) {
+    }
+
+    @Override
+    public void updateProperty(Model model, String property) {
+    }
+
+    @Override
+    public void commit() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,275 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+import models.Model;
+
+/**
+ * The OrderedIndex class keeps models sorted by a key (such as the case-folded
+ * name or the GPA) in a skip list, so a page of sorted models can be read
+ * without sorting the whole collection. The DataStorage re-indexes a model
+ * whenever a change may have moved its key.
+ *
+ * <p>
+ * Every model is stored under an immutable entry holding the key it had when it
+ * was indexed, so the model can still be found and moved after its key changed.
+ * Ties are broken by ID, so every model has a unique position, and an index
+ * whose key is always null simply orders the models by ID.
+ * </p>
+ *
+ * @param <TValue> the type of the indexed models.
+ */
+class OrderedIndex<TValue extends Model> {
+
+    /**
+     * The position of a model in the index: its sort key followed by its ID.
+     * Numeric IDs come first, in numeric order, so "2" sorts before "10".
+     */
+    static final class Entry {
+
+        private final Comparable<Object> key;
+        private final String id;
+        private final long numericId;
+        private final boolean isNumericId;
+
+        @SuppressWarnings("unchecked")
+        private Entry(Comparable<?> key, String id) {
+            this.key = (Comparable<Object>) key;
+            this.id = id;
+            this.isNumericId = !id.isEmpty() && id.length() < 19 && id.chars().allMatch(c -> c >= '0' && c <= '9');
+            this.numericId = isNumericId ? Long.parseLong(id) : 0;
+        }
+
+        /**
+         * Constructs a search bound, which is never stored in the index.
+         */
+        @SuppressWarnings("unchecked")
+        private Entry(Comparable<?> key, String id, long numericId, boolean isNumericId) {
+            this.key = (Comparable<Object>) key;
+            this.id = id;
+            this.numericId = numericId;
+            this.isNumericId = isNumericId;
+        }
+
+        private int compareId(Entry other) {
+            if (isNumericId && other.isNumericId) {
+                return Long.compare(numericId, other.numericId);
+            }
+            if (isNumericId != other.isNumericId) {
+                return isNumericId ? -1 : 1;
+            }
+            return id.compareTo(other.id);
+        }
+    }
+
+    private static final Comparator<Entry> ENTRY_ORDER = Comparator
+            .comparing((Entry entry) -> entry.key, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Entry::compareId);
+
+    private final Function<TValue, Comparable<?>> keyExtractor;
+    private final ConcurrentSkipListMap<Entry, TValue> entries = new ConcurrentSkipListMap<>(ENTRY_ORDER);
+    private final Map<TValue, Entry> entryByValue = new ConcurrentHashMap<>();
+    private boolean isBuilt = false;
+
+    /**
+     * Constructs an empty OrderedIndex.
+     *
+     * @param keyExtractor returns the current sort key of a model.
+     */
+    OrderedIndex(Function<TValue, Comparable<?>> keyExtractor) {
+        this.keyExtractor = keyExtractor;
+    }
+
+    /**
+     * Indexes every given model, the first time only. Indexes are built the first
+     * time they are used, so orders nobody asks for cost nothing.
+     *
+     * @param values the models to index.
+     */
+    synchronized void build(Collection<TValue> values) {
+        if (isBuilt) {
+            return;
+        }
+        for (TValue value : values) {
+            update(value);
+        }
+        isBuilt = true;
+    }
+
+    /**
+     * Rebuilds the index from scratch, typically after a change that moved the
+     * keys of many models at once.
+     *
+     * @param values the models to index.
+     */
+    synchronized void rebuild(Collection<TValue> values) {
+        entries.clear();
+        entryByValue.clear();
+        isBuilt = false;
+        build(values);
+    }
+
+    /**
+     * Adds a model, or moves it to the position of its current key.
+     *
+     * @param value the model to index.
+     */
+    synchronized void update(TValue value) {
+        Entry entry = new Entry(keyExtractor.apply(value), value.getId());
+        Entry oldEntry = entryByValue.put(value, entry);
+        if (oldEntry != null) {
+            entries.remove(oldEntry);
+        }
+        entries.put(entry, value);
+    }
+
+    /**
+     * Removes a model from the index.
+     *
+     * @param value the model to remove.
+     */
+    synchronized void remove(TValue value) {
+        Entry entry = entryByValue.remove(value);
+        if (entry != null) {
+            entries.remove(entry);
+        }
+    }
+
+    /**
+     * Returns the number of indexed models.
+     *
+     * @return the size of the index.
+     */
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Reads up to {@code limit} models that come strictly after (or before, when
+     * walking backwards) the given entry.
+     *
+     * @param from        the entry to start after, or null to start at the first
+     *                    (or, when walking backwards, the last) entry.
+     * @param isForward   true to walk in the order of the index, false to walk back.
+     * @param limit       the maximum number of models to read.
+     * @param pageEntries receives the entries of the models read, in walk order.
+     * @return the models read, in walk order.
+     */
+    ArrayList<TValue> read(Entry from, boolean isForward, int limit, ArrayList<Entry> pageEntries) {
+        NavigableMap<Entry, TValue> range;
+        if (isForward) {
+            range = from == null ? entries : entries.tailMap(from, false);
+        } else {
+            range = (from == null ? entries : entries.headMap(from, false)).descendingMap();
+        }
+
+        ArrayList<TValue> values = new ArrayList<>(Math.min(limit, 1024));
+        Iterator<Map.Entry<Entry, TValue>> iterator = range.entrySet().iterator();
+        while (values.size() < limit && iterator.hasNext()) {
+            Map.Entry<Entry, TValue> next = iterator.next();
+            pageEntries.add(next.getKey());
+            values.add(next.getValue());
+        }
+        return values;
+    }
+
+    /**
+     * Reads up to {@code limit} models whose key starts with the given prefix, in
+     * the order of the index. The keys of the index must be Strings, such as
+     * case-folded names.
+     *
+     * @param prefix the prefix of the keys.
+     * @param limit  the maximum number of models to read.
+     * @return the models read.
+     */
+    ArrayList<TValue> readPrefix(String prefix, int limit) {
+        Entry from = new Entry(prefix, "", Long.MIN_VALUE, true); // Before every ID under the prefix itself
+        ArrayList<TValue> values = new ArrayList<>();
+        for (Map.Entry<Entry, TValue> next : entries.tailMap(from, true).entrySet()) {
+            Object key = next.getKey().key;
+            if (values.size() >= limit || !(key instanceof String) || !((String) key).startsWith(prefix)) {
+                break;
+            }
+            values.add(next.getValue());
+        }
+        return values;
+    }
+
+    /**
+     * Reads up to {@code limit} models whose ID starts with the given prefix, from
+     * an index ordered by ID alone. Numeric IDs are ordered by value, so the IDs
+     * starting with a number are read as one range per length: the number
+     * itself, then its ten successors with one more digit, and so on, which lists
+     * the shorter IDs first.
+     *
+     * @param prefix the prefix of the IDs.
+     * @param limit  the maximum number of models to read.
+     * @return the models read.
+     */
+    ArrayList<TValue> readIdPrefix(String prefix, int limit) {
+        ArrayList<TValue> values = new ArrayList<>();
+        if (prefix.isEmpty()) {
+            return values;
+        }
+
+        Entry bound = new Entry(null, prefix);
+        if (bound.isNumericId && prefix.charAt(0) != '0') { // Generated IDs have no leading zeros
+            long low = bound.numericId;
+            long high = low;
+            for (int length = prefix.length(); length < 19 && values.size() < limit; length++) {
+                readIdRange(low, high, limit, values);
+                if (low > Long.MAX_VALUE / 10) {
+                    break;
+                }
+                low = low * 10;
+                high = high * 10 + 9;
+            }
+        }
+
+        // Other IDs are ordered as text after the numeric ones
+        Entry from = new Entry(null, prefix, 0, false);
+        for (Map.Entry<Entry, TValue> next : entries.tailMap(from, true).entrySet()) {
+            if (values.size() >= limit || !next.getKey().id.startsWith(prefix)) {
+                break;
+            }
+            values.add(next.getValue());
+        }
+        return values;
+    }
+
+    private void readIdRange(long low, long high, int limit, ArrayList<TValue> values) {
+        Entry from = new Entry(null, "", low, true);
+        Entry to = new Entry(null, "", high, true);
+        for (TValue value : entries.subMap(from, true, to, true).values()) {
+            if (values.size() >= limit) {
+                return;
+            }
+            values.add(value);
+        }
+    }
+
+    /**
+     * Returns the entry found by skipping the given number of models from the
+     * start (or the end, when walking backwards).
+     *
+     * @param count     the number of models to skip.
+     * @param isForward true to start at the first entry, false at the last.
+     * @return the entry of the last model skipped, or null if count is 0.
+     */
+    Entry skip(int count, boolean isForward) {
+        Iterator<Entry> iterator = isForward ? entries.keySet().iterator() : entries.descendingKeySet().iterator();
+        Entry entry = null;
+        for (int i = 0; i < count && iterator.hasNext(); i++) {
+            entry = iterator.next();
+        }
+        return entry;
+    }
+}
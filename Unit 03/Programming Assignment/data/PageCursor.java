@@ -0,0 +1,107 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The PageCursor class walks over a collection one page at a time. It keeps its
+ * position between pages, so fetching the next page continues where the previous
+ * one stopped instead of scanning the collection again, and it never copies more
+ * than one page of models.
+ *
+ * <p>
+ * A cursor over a DataStorage view is weakly consistent: models added or removed
+ * while it is open may or may not be returned, but it never fails.
+ * </p>
+ *
+ * @param <T> the type of the models in the pages.
+ */
+public class PageCursor<T> implements Iterator<ArrayList<T>> {
+
+    private final Iterator<T> source;
+    private final int pageSize;
+    private int pageNumber = 0;
+
+    /**
+     * Constructs a PageCursor over the given models.
+     *
+     * @param models   the models to page through, usually a DataStorage view.
+     * @param pageSize the maximum number of models in each page.
+     */
+    public PageCursor(Iterable<T> models, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be greater than zero");
+        }
+        this.source = models.iterator();
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Returns a single page of models by offset and limit, without copying the
+     * models before the offset.
+     *
+     * @param models the models to page through, usually a DataStorage view.
+     * @param offset the number of models to skip.
+     * @param limit  the maximum number of models to return.
+     * @param <T>    the type of the models.
+     * @return an ArrayList with at most {@code limit} models.
+     */
+    public static <T> ArrayList<T> page(Iterable<T> models, int offset, int limit) {
+        ArrayList<T> page = new ArrayList<>(Math.min(limit, 1024));
+        Iterator<T> iterator = models.iterator();
+        for (int i = 0; i < offset && iterator.hasNext(); i++) {
+            iterator.next();
+        }
+        while (page.size() < limit && iterator.hasNext()) {
+            page.add(iterator.next());
+        }
+        return page;
+    }
+
+    /**
+     * Returns the number of the last page returned by {@link #next()}, starting at 1.
+     *
+     * @return the current page number, or 0 if no page was fetched yet.
+     */
+    public int getPageNumber() {
+        return pageNumber;
+    }
+
+    /**
+     * Returns the maximum number of models in each page.
+     *
+     * @return the page size.
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Checks whether there is at least one more model to return.
+     *
+     * @return true if another page is available.
+     */
+    @Override
+    public boolean hasNext() {
+        return source.hasNext();
+    }
+
+    /**
+     * Returns the next page of models.
+     *
+     * @return an ArrayList with at most {@code pageSize} models.
+     */
+    @Override
+    public ArrayList<T> next() {
+        if (!source.hasNext()) {
+            throw new NoSuchElementException("No more pages");
+        }
+        ArrayList<T> page = new ArrayList<>(pageSize);
+        while (page.size() < pageSize && source.hasNext()) {
+            page.add(source.next());
+        }
+        pageNumber++;
+        return page;
+    }
+}
@@ -0,0 +1,164 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import models.Model;
+
+/**
+ * The PagedView class lists models page by page in a sorted order, with next,
+ * previous and jump navigation. It reads from an ordered index maintained by the
+ * DataStorage, so moving to the next or previous page only reads that page
+ * instead of sorting the whole collection again.
+ *
+ * <p>
+ * The view remembers the first and last model of the current page, so models
+ * added or removed elsewhere do not shift the next and previous pages. Jumping
+ * to a page number walks the index from the start.
+ * </p>
+ *
+ * @param <T> the type of the listed models.
+ */
+public class PagedView<T extends Model> {
+
+    private final OrderedIndex<T> index;
+    private final SortKey sortKey;
+    private final boolean isDescending;
+    private final int pageSize;
+    private ArrayList<T> page = new ArrayList<>();
+    private ArrayList<OrderedIndex.Entry> pageEntries = new ArrayList<>();
+    private int pageNumber = 0;
+
+    /**
+     * Constructs a PagedView positioned on the first page.
+     *
+     * @param index        the ordered index to read from.
+     * @param sortKey      the key the index is sorted by.
+     * @param isDescending true to list the models in reverse order.
+     * @param pageSize     the maximum number of models in each page.
+     */
+    PagedView(OrderedIndex<T> index, SortKey sortKey, boolean isDescending, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be greater than zero");
+        }
+        this.index = index;
+        this.sortKey = sortKey;
+        this.isDescending = isDescending;
+        this.pageSize = pageSize;
+        jumpTo(1);
+    }
+
+    /**
+     * Returns the models of the current page.
+     *
+     * @return a read-only list of the models in the current page.
+     */
+    public List<T> getPage() {
+        return Collections.unmodifiableList(page);
+    }
+
+    public SortKey getSortKey() {
+        return sortKey;
+    }
+
+    public boolean isDescending() {
+        return isDescending;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Returns the number of the current page, starting at 1.
+     *
+     * @return the current page number.
+     */
+    public int getPageNumber() {
+        return pageNumber;
+    }
+
+    /**
+     * Returns the number of models in the view.
+     *
+     * @return the total number of models.
+     */
+    public int getTotalCount() {
+        return index.size();
+    }
+
+    /**
+     * Returns the number of pages in the view. An empty view has one empty page.
+     *
+     * @return the number of pages.
+     */
+    public int getPageCount() {
+        return Math.max(1, (index.size() + pageSize - 1) / pageSize);
+    }
+
+    /**
+     * Moves to the next page.
+     *
+     * @return true if there was a next page, false if the current page is the last.
+     */
+    public boolean next() {
+        if (pageEntries.isEmpty()) {
+            return false;
+        }
+        ArrayList<OrderedIndex.Entry> entries = new ArrayList<>(pageSize);
+        ArrayList<T> models = index.read(pageEntries.get(pageEntries.size() - 1), !isDescending, pageSize, entries);
+        if (models.isEmpty()) {
+            return false;
+        }
+        setPage(models, entries, pageNumber + 1);
+        return true;
+    }
+
+    /**
+     * Moves to the previous page.
+     *
+     * @return true if there was a previous page, false if the current page is the
+     *         first.
+     */
+    public boolean previous() {
+        if (pageNumber <= 1 || pageEntries.isEmpty()) {
+            return false;
+        }
+        ArrayList<OrderedIndex.Entry> entries = new ArrayList<>(pageSize);
+        ArrayList<T> models = index.read(pageEntries.get(0), isDescending, pageSize, entries);
+        if (models.size() < pageSize) {
+            return jumpTo(1); // Models were removed before this page, so start over
+        }
+        Collections.reverse(models);
+        Collections.reverse(entries);
+        setPage(models, entries, pageNumber - 1);
+        return true;
+    }
+
+    /**
+     * Moves to the given page.
+     *
+     * @param number the number of the page, starting at 1.
+     * @return true if the page exists, false otherwise (the view does not move).
+     */
+    public boolean jumpTo(int number) {
+        if (number < 1 || (number > 1 && number > getPageCount())) {
+            return false;
+        }
+        OrderedIndex.Entry from = index.skip((number - 1) * pageSize, !isDescending);
+        ArrayList<OrderedIndex.Entry> entries = new ArrayList<>(pageSize);
+        ArrayList<T> models = index.read(from, !isDescending, pageSize, entries);
+        if (models.isEmpty() && number > 1) {
+            return false;
+        }
+        setPage(models, entries, number);
+        return true;
+    }
+
+    private void setPage(ArrayList<T> models, ArrayList<OrderedIndex.Entry> entries, int number) {
+        this.page = models;
+        this.pageEntries = entries;
+        this.pageNumber = number;
+    }
+}
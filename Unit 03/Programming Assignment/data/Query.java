@@ -0,0 +1,727 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import models.*;
+import utils.OperationMetrics;
+
+/**
+ * The Query class filters, sorts and aggregates the models of the DataStorage,
+ * such as the students with a GPA below 2.0 enrolled in a CS course, or the
+ * number of professors over 60 in each department. A query is built with
+ * conditions on the fields of a model type, an order, a limit, and optionally a
+ * grouping field with an aggregate, and then executed:
+ *
+ * <pre>
+ * Query.students()
+ *      .where("gpa", QueryOperator.LESS, 2.0)
+ *      .where("department", QueryOperator.EQUALS, "CS")
+ *      .orderBy("gpa", false)
+ *      .limit(20)
+ *      .list();
+ * </pre>
+ *
+ * <p>
+ * The same query can be written as text and parsed by {@link #parse(String)}:
+ * {@code students where gpa < 2.0 and department = CS order by gpa limit 20}.
+ * </p>
+ *
+ * <p>
+ * A query reads as few models as it can. When a condition tests a field for
+ * equality and the DataStorage indexes that field, such as the department of a
+ * course or the roster of a course, only the models found through the index are
+ * tested. Otherwise, a query with a limit that is sorted by a field with an
+ * ordered index walks that index page by page and stops once enough models
+ * matched. Any other query scans every model, with a parallel stream when there
+ * are more than {@value #PARALLEL_THRESHOLD} of them.
+ * </p>
+ *
+ * @param <T> the type of the queried models.
+ */
+public class Query<T extends Model> {
+
+    private static final int PARALLEL_THRESHOLD = 10_000;
+    private static final int INDEX_PAGE_SIZE = 512;
+    private static final int NO_LIMIT = Integer.MAX_VALUE;
+
+    /**
+     * Opens a paged view of every model in the order of a sort key, like
+     * {@link DataStorage#getStudentsPaged(SortKey, boolean, int)}.
+     */
+    @FunctionalInterface
+    private interface PagedSource<T extends Model> {
+        PagedView<T> open(SortKey sortKey, boolean isDescending, int pageSize);
+    }
+
+    /**
+     * A condition of the query: a comparison of a field with a value, or any
+     * predicate on the models.
+     */
+    private static final class Condition<T extends Model> {
+
+        private final QueryField<T> field;
+        private final QueryOperator operator;
+        private final Object value;
+        private final Predicate<? super T> predicate;
+
+        private Condition(QueryField<T> field, QueryOperator operator, Object value, Predicate<? super T> predicate) {
+            this.field = field;
+            this.operator = operator;
+            this.value = value;
+            this.predicate = predicate;
+        }
+
+        private boolean test(T model) {
+            return field == null ? predicate.test(model) : field.test(model, operator, value);
+        }
+    }
+
+    private static final Map<String, QueryField<Department>> departmentFields = createDepartmentFields();
+    private static final Map<String, QueryField<Professor>> professorFields = createProfessorFields();
+    private static final Map<String, QueryField<Course>> courseFields = createCourseFields();
+    private static final Map<String, QueryField<Student>> studentFields = createStudentFields();
+    private static final Map<String, QueryField<StudentEnrollment>> enrollmentFields = createEnrollmentFields();
+
+    private final EntityType entityType;
+    private final Map<String, QueryField<T>> fields;
+    private final Supplier<Collection<T>> source;
+    private final PagedSource<T> pagedSource;
+    private final ArrayList<Condition<T>> conditions = new ArrayList<>();
+    private String orderName;
+    private boolean isDescending;
+    private int limit = NO_LIMIT;
+    private QueryField<T> groupField;
+    private QueryAggregate aggregate = QueryAggregate.COUNT;
+    private QueryField<T> aggregateField;
+
+    private Query(EntityType entityType, Map<String, QueryField<T>> fields, Supplier<Collection<T>> source,
+            PagedSource<T> pagedSource) {
+        this.entityType = entityType;
+        this.fields = fields;
+        this.source = source;
+        this.pagedSource = pagedSource;
+    }
+
+    /**
+     * Starts a query over the departments. Their fields are id, name,
+     * description, courses (the number of courses) and professors (the number of
+     * professors).
+     *
+     * @return a query matching every department.
+     */
+    public static Query<Department> departments() {
+        return new Query<>(EntityType.DEPARTMENTS, departmentFields, DataStorage::getDepartmentsView,
+                DataStorage::getDepartmentsPaged);
+    }
+
+    /**
+     * Starts a query over the professors. Their fields are id, name, age,
+     * birthdate, department, courses (the number of courses they teach) and
+     * course (the IDs of those courses).
+     *
+     * @return a query matching every professor.
+     */
+    public static Query<Professor> professors() {
+        return new Query<>(EntityType.PROFESSORS, professorFields, DataStorage::getProfessorsView,
+                DataStorage::getProfessorsPaged);
+    }
+
+    /**
+     * Starts a query over the courses. Their fields are id, name, description,
+     * department and students (the number of enrolled students).
+     *
+     * @return a query matching every course.
+     */
+    public static Query<Course> courses() {
+        return new Query<>(EntityType.COURSES, courseFields, DataStorage::getCoursesView, DataStorage::getCoursesPaged);
+    }
+
+    /**
+     * Starts a query over the students. Their fields are id, name, age,
+     * birthdate, gpa, courses (the number of enrollments), and course, department
+     * and professor (the IDs of the courses they are enrolled in, of the
+     * departments of those courses, and of their professors).
+     *
+     * @return a query matching every student.
+     */
+    public static Query<Student> students() {
+        return new Query<>(EntityType.STUDENTS, studentFields, DataStorage::getStudentsView,
+                DataStorage::getStudentsPaged);
+    }
+
+    /**
+     * Starts a query over the enrollments. Their fields are id, student, course,
+     * professor, department, date, grade (the grade scale), letter and points;
+     * the last three have no value until the enrollment is graded.
+     *
+     * @return a query matching every enrollment.
+     */
+    public static Query<StudentEnrollment> enrollments() {
+        return new Query<>(EntityType.ENROLLMENTS, enrollmentFields, DataStorage::getEnrollmentsView, null);
+    }
+
+    /**
+     * Starts a query over the models of the given type.
+     *
+     * @param entityType the type of the models.
+     * @return a query matching every model of the type.
+     */
+    public static Query<?> from(EntityType entityType) {
+        switch (entityType) {
+            case DEPARTMENTS:
+                return departments();
+            case PROFESSORS:
+                return professors();
+            case COURSES:
+                return courses();
+            case STUDENTS:
+                return students();
+            default:
+                return enrollments();
+        }
+    }
+
+    /**
+     * Parses a query written as text, such as
+     * {@code professors where age > 60 group by department count} or
+     * {@code students where name ~ smith order by gpa desc limit 10}.
+     *
+     * <pre>
+     * &lt;type&gt; [where &lt;field&gt; &lt;operator&gt; &lt;value&gt; [and ...]]
+     *        [group by &lt;field&gt; [count | avg|sum|min|max &lt;field&gt;]]
+     *        [order by &lt;field&gt;|count|&lt;aggregate&gt; [asc|desc]]
+     *        [limit &lt;number&gt;]
+     * </pre>
+     *
+     * The operators are =, !=, &lt;, &lt;=, &gt;, &gt;= and ~ (or contains).
+     * Values containing spaces are written in double quotes, and dates like
+     * 12/31/1960.
+     *
+     * @param text the query.
+     * @return the parsed query, ready to execute.
+     * @throws IllegalArgumentException if the query is not valid.
+     */
+    public static Query<?> parse(String text) {
+        return QueryParser.parse(text);
+    }
+
+    public EntityType getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * Returns the fields the models of the query can be filtered, sorted and
+     * grouped by.
+     *
+     * @return a read-only collection of the fields.
+     */
+    public Collection<QueryField<T>> getFields() {
+        return Collections.unmodifiableCollection(fields.values());
+    }
+
+    /**
+     * Returns the field with the given name, in any case.
+     *
+     * @param name the name of the field.
+     * @return the field.
+     * @throws IllegalArgumentException if the models have no such field.
+     */
+    public QueryField<T> getField(String name) {
+        QueryField<T> field = fields.get(name.toLowerCase(Locale.ROOT));
+        if (field == null) {
+            throw new IllegalArgumentException(entityType.getDescription() + "s have no field " + name +
+                    "; the fields are " + String.join(", ", fields.keySet()));
+        }
+        return field;
+    }
+
+    /**
+     * Keeps the models whose field compares with a value as the operator says.
+     * Text values are parsed to the type of the field, so "2.0" can be given for
+     * a GPA and "12/31/1960" for a birth date.
+     *
+     * @param fieldName the name of the field.
+     * @param operator  the comparison to make.
+     * @param value     the value to compare with.
+     * @return this query.
+     * @throws IllegalArgumentException if the field does not exist or the value
+     *                                  does not fit it.
+     */
+    public Query<T> where(String fieldName, QueryOperator operator, Object value) {
+        QueryField<T> field = getField(fieldName);
+        if (operator == QueryOperator.CONTAINS && (field.getType() == QueryField.Type.NUMBER ||
+                field.getType() == QueryField.Type.DATE)) {
+            throw new IllegalArgumentException("Operator ~ only applies to text, but " + field.getName() + " is not text");
+        }
+        conditions.add(new Condition<>(field, operator, field.convert(value), null));
+        return this;
+    }
+
+    /**
+     * Keeps the models that satisfy a predicate. Such conditions cannot use an
+     * index, so they are tested after the other conditions narrowed the models.
+     *
+     * @param predicate the condition the models must satisfy.
+     * @return this query.
+     */
+    public Query<T> where(Predicate<? super T> predicate) {
+        conditions.add(new Condition<>(null, null, null, predicate));
+        return this;
+    }
+
+    /**
+     * Sorts the models by a field, or the groups of a grouped query by their key,
+     * their count or their aggregate. Ties are broken by ID. Unsorted models come
+     * in the order of their IDs.
+     *
+     * @param name         the name of a field, or count, or the name of the
+     *                     aggregate such as avg for a grouped query.
+     * @param isDescending true to sort from the highest value.
+     * @return this query.
+     * @throws IllegalArgumentException if the name is not a field or an
+     *                                  aggregate, or names a multi-valued field.
+     */
+    public Query<T> orderBy(String name, boolean isDescending) {
+        if (QueryAggregate.fromName(name) == null && getField(name).isMultiValued()) {
+            throw new IllegalArgumentException("Cannot order by " + name + ", which has several values");
+        }
+        this.orderName = name.toLowerCase(Locale.ROOT);
+        this.isDescending = isDescending;
+        return this;
+    }
+
+    /**
+     * Keeps only the first models, or the first groups of a grouped query.
+     *
+     * @param limit the maximum number of models or groups.
+     * @return this query.
+     * @throws IllegalArgumentException if the limit is not positive.
+     */
+    public Query<T> limit(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be greater than zero");
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * Groups the models by the value of a field and counts the models of each
+     * group. A model with several values counts in the group of each value.
+     *
+     * @param fieldName the name of the grouping field.
+     * @return this query.
+     */
+    public Query<T> groupBy(String fieldName) {
+        this.groupField = getField(fieldName);
+        return this;
+    }
+
+    /**
+     * Computes an aggregate of a numeric field for each group, such as the average
+     * age of the professors of each department.
+     *
+     * @param aggregate the aggregate to compute.
+     * @param fieldName the numeric field to aggregate, ignored for COUNT.
+     * @return this query.
+     * @throws IllegalArgumentException if the field is not a single number.
+     */
+    public Query<T> aggregate(QueryAggregate aggregate, String fieldName) {
+        if (aggregate != QueryAggregate.COUNT) {
+            QueryField<T> field = getField(fieldName);
+            if (field.getType() != QueryField.Type.NUMBER || field.isMultiValued()) {
+                throw new IllegalArgumentException("Cannot compute " + aggregate.getName() + " of " + field.getName() +
+                        ", which is not a number");
+            }
+            this.aggregateField = field;
+        }
+        this.aggregate = aggregate;
+        return this;
+    }
+
+    /**
+     * Runs the query and returns the matching models.
+     *
+     * @return the models, in order.
+     * @throws IllegalArgumentException if the query is grouped.
+     */
+    public List<T> list() {
+        if (groupField != null) {
+            throw new IllegalArgumentException("A grouped query returns groups, not " + entityType.getFileName());
+        }
+        return execute().getRows();
+    }
+
+    /**
+     * Runs the query, timing it as the query operation of its model type.
+     *
+     * @return the matching models or groups.
+     * @throws IllegalArgumentException if the order does not fit the query.
+     */
+    public QueryResult<T> execute() {
+        return OperationMetrics.get(entityType.getDescription(), "query").call(this::run);
+    }
+
+    private QueryResult<T> run() {
+        long startTime = System.nanoTime();
+        Collection<T> candidates = getIndexedCandidates();
+        if (groupField != null) {
+            List<QueryGroup> groups = group(candidates != null ? candidates : source.get());
+            return new QueryResult<>(entityType, groupField, aggregate, aggregateField, groups, getElapsedMillis(startTime));
+        }
+
+        QueryField<T> orderField = getField(orderName == null ? "id" : orderName);
+        List<T> rows;
+        if (candidates == null && limit != NO_LIMIT && orderField.getSortKey() != null && pagedSource != null) {
+            rows = readInOrder(orderField);
+        } else {
+            rows = filter(candidates != null ? candidates : source.get())
+                    .sorted(getOrder(orderField))
+                    .limit(limit)
+                    .collect(Collectors.toList());
+        }
+        return new QueryResult<>(entityType, getColumns(), rows, getElapsedMillis(startTime));
+    }
+
+    private static long getElapsedMillis(long startTime) {
+        return (System.nanoTime() - startTime) / 1_000_000;
+    }
+
+    /**
+     * Returns the models found through the index of the most selective equality
+     * condition, or null if no condition can use an index.
+     */
+    private Collection<T> getIndexedCandidates() {
+        Collection<T> candidates = null;
+        for (Condition<T> condition : conditions) {
+            if (condition.field == null || condition.operator != QueryOperator.EQUALS || !condition.field.hasLookup()) {
+                continue;
+            }
+            Collection<T> found = condition.field.lookup(condition.value.toString());
+            if (candidates == null || found.size() < candidates.size()) {
+                candidates = found;
+            }
+            if (candidates.isEmpty()) {
+                break;
+            }
+        }
+        return candidates;
+    }
+
+    private boolean matches(T model) {
+        for (Condition<T> condition : conditions) {
+            if (!condition.test(model)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Stream<T> filter(Collection<T> models) {
+        Stream<T> stream = models.size() > PARALLEL_THRESHOLD ? models.parallelStream() : models.stream();
+        return conditions.isEmpty() ? stream : stream.filter(this::matches);
+    }
+
+    /**
+     * Walks the ordered index of a field page by page until enough models
+     * matched. The models come in the order of the index, so no sort is needed.
+     */
+    private List<T> readInOrder(QueryField<T> orderField) {
+        ArrayList<T> rows = new ArrayList<>();
+        PagedView<T> view = pagedSource.open(orderField.getSortKey(), isDescending, INDEX_PAGE_SIZE);
+        do {
+            for (T model : view.getPage()) {
+                if (matches(model)) {
+                    rows.add(model);
+                    if (rows.size() >= limit) {
+                        return rows;
+                    }
+                }
+            }
+        } while (view.next());
+        return rows;
+    }
+
+    private Comparator<T> getOrder(QueryField<T> orderField) {
+        Comparator<T> order = (a, b) -> orderField.compareValues(orderField.getValue(a), orderField.getValue(b));
+        order = order.thenComparing((a, b) -> QueryField.compareIds(a.getId(), b.getId()));
+        return isDescending ? order.reversed() : order;
+    }
+
+    /**
+     * Returns the fields shown next to the ID and name of the models: those the
+     * query filtered and sorted on.
+     */
+    private List<QueryField<T>> getColumns() {
+        LinkedHashSet<QueryField<T>> columns = new LinkedHashSet<>();
+        for (Condition<T> condition : conditions) {
+            if (condition.field != null) {
+                columns.add(condition.field);
+            }
+        }
+        if (orderName != null) {
+            columns.add(getField(orderName));
+        }
+        columns.remove(fields.get("id"));
+        columns.remove(fields.get("name"));
+        return new ArrayList<>(columns);
+    }
+
+    /**
+     * Counts the matching models in the group of each value of the grouping
+     * field. Each thread of a parallel stream fills its own groups, which are
+     * merged at the end.
+     */
+    private List<QueryGroup> group(Collection<T> models) {
+        HashMap<Object, QueryGroup> groupsByKey = filter(models).collect(HashMap::new, (groups, model) -> {
+            Object value = aggregateField == null ? null : aggregateField.getValue(model);
+            Collection<?> keys = groupField.getValues(model);
+            if (keys.isEmpty()) {
+                groups.computeIfAbsent(null, QueryGroup::new).add(value);
+            }
+            for (Object key : keys) {
+                groups.computeIfAbsent(key, QueryGroup::new).add(value);
+            }
+        }, (groups, other) -> other.forEach((key, group) -> groups.merge(key, group, (a, b) -> {
+            a.merge(b);
+            return a;
+        })));
+
+        Comparator<QueryGroup> order;
+        if (orderName == null || fields.get(orderName) == groupField) {
+            order = (a, b) -> groupField.compareValues(a.getKey(), b.getKey());
+        } else if (orderName.equals(QueryAggregate.COUNT.getName())) {
+            order = Comparator.comparingLong(QueryGroup::getCount);
+        } else if (orderName.equals(aggregate.getName())) {
+            order = Comparator.comparing(group -> group.getValue(aggregate), Comparator.nullsFirst(Comparator.naturalOrder()));
+        } else {
+            throw new IllegalArgumentException("A grouped query can only be ordered by " + groupField.getName() +
+                    (aggregate == QueryAggregate.COUNT ? " or count" : ", count or " + aggregate.getName()));
+        }
+        if (isDescending) {
+            order = order.reversed();
+        }
+        ArrayList<QueryGroup> groups = new ArrayList<>(groupsByKey.values());
+        groups.sort(order);
+        return groups.size() > limit ? new ArrayList<>(groups.subList(0, limit)) : groups;
+    }
+
+    private static Map<String, QueryField<Department>> createDepartmentFields() {
+        return createFields(
+                new QueryField<Department>("id", QueryField.Type.ID, false, Department::getId)
+                        .sortedBy(SortKey.ID)
+                        .lookedUpBy(id -> toList(findById(DataStorage::getDepartmentById, id))),
+                new QueryField<Department>("name", QueryField.Type.TEXT, false, Department::getName)
+                        .sortedBy(SortKey.NAME),
+                new QueryField<Department>("description", QueryField.Type.TEXT, false, Department::getDescription),
+                new QueryField<Department>("courses", QueryField.Type.NUMBER, false,
+                        department -> department.getCourses().size()),
+                new QueryField<Department>("professors", QueryField.Type.NUMBER, false,
+                        department -> DataStorage.getProfessorsByDepartment(department).size()),
+                new QueryField<Department>("professorage", QueryField.Type.NUMBER, false,
+                        department -> toAverage(DataStorage.getDepartmentStatistics(department).getAverageProfessorAge())),
+                new QueryField<Department>("enrollments", QueryField.Type.NUMBER, false,
+                        department -> DataStorage.getDepartmentStatistics(department).getGrades().getEnrollmentCount()),
+                new QueryField<Department>("grade", QueryField.Type.NUMBER, false,
+                        department -> toAverage(DataStorage.getDepartmentStatistics(department).getGrades().getAverageGrade())),
+                new QueryField<Department>("passrate", QueryField.Type.NUMBER, false,
+                        department -> toPercentage(DataStorage.getDepartmentStatistics(department).getGrades().getPassRate())));
+    }
+
+    private static Map<String, QueryField<Professor>> createProfessorFields() {
+        return createFields(
+                new QueryField<Professor>("id", QueryField.Type.ID, false, Professor::getId)
+                        .sortedBy(SortKey.ID)
+                        .lookedUpBy(id -> toList(findById(DataStorage::getProfessorById, id))),
+                new QueryField<Professor>("name", QueryField.Type.TEXT, false, Professor::getName)
+                        .sortedBy(SortKey.NAME)
+                        .lookedUpBy(DataStorage::getProfessorsByName),
+                new QueryField<Professor>("age", QueryField.Type.NUMBER, false, Professor::getAge)
+                        .sortedBy(SortKey.AGE),
+                new QueryField<Professor>("birthdate", QueryField.Type.DATE, false, Professor::getBirthDate),
+                new QueryField<Professor>("department", QueryField.Type.ID, false,
+                        professor -> getId(professor.getDepartment()))
+                        .lookedUpBy(id -> {
+                            Department department = findById(DataStorage::getDepartmentById, id);
+                            return department == null ? Collections.emptyList() : DataStorage.getProfessorsByDepartment(department);
+                        }),
+                new QueryField<Professor>("courses", QueryField.Type.NUMBER, false,
+                        professor -> professor.getCourses().size()),
+                new QueryField<Professor>("course", QueryField.Type.ID, true,
+                        professor -> getIds(professor.getCourses())));
+    }
+
+    private static Map<String, QueryField<Course>> createCourseFields() {
+        return createFields(
+                new QueryField<Course>("id", QueryField.Type.ID, false, Course::getId)
+                        .sortedBy(SortKey.ID)
+                        .lookedUpBy(id -> toList(findById(DataStorage::getCourseById, id))),
+                new QueryField<Course>("name", QueryField.Type.TEXT, false, Course::getName)
+                        .sortedBy(SortKey.NAME),
+                new QueryField<Course>("description", QueryField.Type.TEXT, false, Course::getDescription),
+                new QueryField<Course>("department", QueryField.Type.ID, false, course -> getId(course.getDepartment()))
+                        .lookedUpBy(id -> {
+                            Department department = findById(DataStorage::getDepartmentById, id);
+                            return department == null ? Collections.emptyList() : DataStorage.getCoursesByDepartment(department);
+                        }),
+                new QueryField<Course>("students", QueryField.Type.NUMBER, false,
+                        course -> DataStorage.getCourseStatistics(course).getEnrollmentCount()),
+                new QueryField<Course>("grade", QueryField.Type.NUMBER, false,
+                        course -> toAverage(DataStorage.getCourseStatistics(course).getAverageGrade())),
+                new QueryField<Course>("passrate", QueryField.Type.NUMBER, false,
+                        course -> toPercentage(DataStorage.getCourseStatistics(course).getPassRate())));
+    }
+
+    private static Map<String, QueryField<Student>> createStudentFields() {
+        return createFields(
+                new QueryField<Student>("id", QueryField.Type.ID, false, Student::getId)
+                        .sortedBy(SortKey.ID)
+                        .lookedUpBy(id -> toList(findById(DataStorage::getStudentById, id))),
+                new QueryField<Student>("name", QueryField.Type.TEXT, false, Student::getName)
+                        .sortedBy(SortKey.NAME)
+                        .lookedUpBy(DataStorage::getStudentsByName),
+                new QueryField<Student>("age", QueryField.Type.NUMBER, false, Student::getAge)
+                        .sortedBy(SortKey.AGE),
+                new QueryField<Student>("birthdate", QueryField.Type.DATE, false, Student::getBirthDate),
+                new QueryField<Student>("gpa", QueryField.Type.NUMBER, false, Student::getGPA)
+                        .sortedBy(SortKey.GPA),
+                new QueryField<Student>("courses", QueryField.Type.NUMBER, false,
+                        student -> student.getEnrollments().size()),
+                new QueryField<Student>("course", QueryField.Type.ID, true,
+                        student -> mapEnrollments(student, enrollment -> enrollment.getCourse().getId()))
+                        .lookedUpBy(id -> {
+                            Course course = findById(DataStorage::getCourseById, id);
+                            return course == null ? Collections.emptyList() : DataStorage.getRoster(course);
+                        }),
+                new QueryField<Student>("department", QueryField.Type.ID, true,
+                        student -> mapEnrollments(student, enrollment -> getId(enrollment.getCourse().getDepartment())))
+                        .lookedUpBy(Query::getStudentsByDepartment),
+                new QueryField<Student>("professor", QueryField.Type.ID, true,
+                        student -> mapEnrollments(student, enrollment -> enrollment.getProfessor().getId()))
+                        .lookedUpBy(id -> {
+                            Professor professor = findById(DataStorage::getProfessorById, id);
+                            return professor == null ? Collections.emptyList() : DataStorage.getStudentsByProfessor(professor);
+                        }));
+    }
+
+    private static Map<String, QueryField<StudentEnrollment>> createEnrollmentFields() {
+        return createFields(
+                new QueryField<StudentEnrollment>("id", QueryField.Type.ID, false, StudentEnrollment::getId)
+                        .lookedUpBy(id -> toList(findById(DataStorage::getEnrollmentById, id))),
+                new QueryField<StudentEnrollment>("student", QueryField.Type.ID, false,
+                        enrollment -> enrollment.getStudent().getId())
+                        .lookedUpBy(id -> {
+                            Student student = findById(DataStorage::getStudentById, id);
+                            return student == null ? Collections.emptyList() : new ArrayList<>(student.getEnrollments());
+                        }),
+                new QueryField<StudentEnrollment>("course", QueryField.Type.ID, false,
+                        enrollment -> enrollment.getCourse().getId())
+                        .lookedUpBy(id -> {
+                            Course course = findById(DataStorage::getCourseById, id);
+                            return course == null ? Collections.emptyList() : DataStorage.getEnrollmentsByCourse(course);
+                        }),
+                new QueryField<StudentEnrollment>("professor", QueryField.Type.ID, false,
+                        enrollment -> enrollment.getProfessor().getId())
+                        .lookedUpBy(id -> {
+                            Professor professor = findById(DataStorage::getProfessorById, id);
+                            return professor == null ? Collections.emptyList() : DataStorage.getEnrollmentsByProfessor(professor);
+                        }),
+                new QueryField<StudentEnrollment>("department", QueryField.Type.ID, false,
+                        enrollment -> getId(enrollment.getCourse().getDepartment())),
+                new QueryField<StudentEnrollment>("date", QueryField.Type.DATE, false,
+                        StudentEnrollment::getEnrollmentDate),
+                new QueryField<StudentEnrollment>("grade", QueryField.Type.NUMBER, false,
+                        enrollment -> enrollment.getGradeScale() == -1 ? null : enrollment.getGradeScale()),
+                new QueryField<StudentEnrollment>("letter", QueryField.Type.TEXT, false,
+                        enrollment -> enrollment.getLetterGrade().isEmpty() ? null : enrollment.getLetterGrade()),
+                new QueryField<StudentEnrollment>("points", QueryField.Type.NUMBER, false,
+                        enrollment -> enrollment.getGradeScale() == -1 ? null : enrollment.getGradePoints()));
+    }
+
+    @SafeVarargs
+    private static <T extends Model> Map<String, QueryField<T>> createFields(QueryField<T>... fields) {
+        LinkedHashMap<String, QueryField<T>> fieldsByName = new LinkedHashMap<>();
+        for (QueryField<T> field : fields) {
+            fieldsByName.put(field.getName(), field);
+        }
+        return Collections.unmodifiableMap(fieldsByName);
+    }
+
+    /**
+     * Finds a model by ID as typed, then in upper case, since IDs such as CS1101
+     * are usually typed in lower case.
+     */
+    private static <T extends Model> T findById(Function<String, T> finder, String id) {
+        T model = finder.apply(id);
+        return model != null ? model : finder.apply(id.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Returns the students enrolled in any course of a department, through the
+     * roster of each course.
+     */
+    private static Collection<Student> getStudentsByDepartment(String id) {
+        Department department = findById(DataStorage::getDepartmentById, id);
+        if (department == null) {
+            return Collections.emptyList();
+        }
+        LinkedHashSet<Student> students = new LinkedHashSet<>();
+        for (Course course : DataStorage.getCoursesByDepartment(department)) {
+            students.addAll(DataStorage.getRoster(course));
+        }
+        return students;
+    }
+
+    private static ArrayList<String> mapEnrollments(Student student, Function<StudentEnrollment, String> mapper) {
+        ArrayList<String> values = new ArrayList<>();
+        for (StudentEnrollment enrollment : student.getEnrollments()) {
+            String value = mapper.apply(enrollment);
+            if (value != null && !values.contains(value)) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    private static ArrayList<String> getIds(Collection<? extends Model> models) {
+        ArrayList<String> ids = new ArrayList<>(models.size());
+        for (Model model : models) {
+            ids.add(model.getId());
+        }
+        return ids;
+    }
+
+    private static String getId(Model model) {
+        return model == null ? null : model.getId();
+    }
+
+    private static <T> List<T> toList(T model) {
+        return model == null ? Collections.emptyList() : Collections.singletonList(model);
+    }
+
+    /**
+     * Returns an average of the aggregates of the DataStorage, or null when
+     * there was nothing to average.
+     */
+    private static Double toAverage(double average) {
+        return average < 0 ? null : average;
+    }
+
+    private static Double toPercentage(double rate) {
+        return rate < 0 ? null : rate * 100;
+    }
+}
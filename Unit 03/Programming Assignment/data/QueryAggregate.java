@@ -0,0 +1,40 @@
+package data;
+
+import java.util.Locale;
+
+/**
+ * The QueryAggregate enum lists the values a grouped Query can compute for each
+ * group: the number of models, or the average, sum, minimum or maximum of a
+ * numeric field over the models of the group.
+ */
+public enum QueryAggregate {
+    COUNT,
+    AVG,
+    SUM,
+    MIN,
+    MAX;
+
+    /**
+     * Returns the name of the aggregate, as written in a query, such as "avg".
+     *
+     * @return the lower-case name of the aggregate.
+     */
+    public String getName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Finds the aggregate with the given name, in any case.
+     *
+     * @param name the name of the aggregate, such as "avg".
+     * @return the aggregate, or null if no aggregate has the name.
+     */
+    public static QueryAggregate fromName(String name) {
+        for (QueryAggregate aggregate : values()) {
+            if (aggregate.name().equalsIgnoreCase(name)) {
+                return aggregate;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,292 @@
+package data;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.function.Function;
+
+import models.Model;
+import utils.DateUtils;
+import utils.TableWriter;
+
+/**
+ * The QueryField class describes a field a Query can filter, sort and group
+ * models by, such as the GPA of a student or the department of a course: its
+ * name, the type of its values and how to read it from a model.
+ *
+ * <p>
+ * A field may hold several values, such as the departments of the courses a
+ * student is enrolled in; a condition on it holds when any value satisfies it,
+ * and a grouped query counts the model in the group of each value. A field may
+ * also name the ordered index the DataStorage keeps for it, and a lookup that
+ * finds the models with a given value through a secondary index, so a Query can
+ * avoid scanning every model.
+ * </p>
+ *
+ * @param <T> the type of the models the field belongs to.
+ */
+public final class QueryField<T extends Model> {
+
+    /**
+     * The type of the values of a field, which decides how given values are
+     * parsed and how values are compared.
+     */
+    public enum Type {
+        NUMBER,
+        TEXT,
+        ID,
+        DATE
+    }
+
+    private final String name;
+    private final Type type;
+    private final boolean isMultiValued;
+    private final Function<T, ?> extractor;
+    private SortKey sortKey;
+    private Function<String, Collection<T>> lookup;
+
+    /**
+     * Constructs a QueryField.
+     *
+     * @param name          the name of the field, as written in a query.
+     * @param type          the type of the values of the field.
+     * @param isMultiValued true if the extractor returns a Collection of values.
+     * @param extractor     returns the value, or the values, of a model; null
+     *                      when the model has no value.
+     */
+    QueryField(String name, Type type, boolean isMultiValued, Function<T, ?> extractor) {
+        this.name = name;
+        this.type = type;
+        this.isMultiValued = isMultiValued;
+        this.extractor = extractor;
+    }
+
+    /**
+     * Names the ordered index of the DataStorage that lists the models in the
+     * order of this field.
+     */
+    QueryField<T> sortedBy(SortKey sortKey) {
+        this.sortKey = sortKey;
+        return this;
+    }
+
+    /**
+     * Sets the lookup that returns the models whose value equals a given text,
+     * through an index of the DataStorage.
+     */
+    QueryField<T> lookedUpBy(Function<String, Collection<T>> lookup) {
+        this.lookup = lookup;
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public boolean isMultiValued() {
+        return isMultiValued;
+    }
+
+    SortKey getSortKey() {
+        return sortKey;
+    }
+
+    boolean hasLookup() {
+        return lookup != null;
+    }
+
+    /**
+     * Returns the models whose value equals the given text, through the lookup of
+     * the field.
+     */
+    Collection<T> lookup(String value) {
+        return lookup.apply(value);
+    }
+
+    /**
+     * Returns the value of the field for a model: a single value, or a Collection
+     * of values for a multi-valued field.
+     *
+     * @param model the model to read.
+     * @return the value of the field, or null if the model has none.
+     */
+    public Object getValue(T model) {
+        return extractor.apply(model);
+    }
+
+    /**
+     * Returns the values of the field for a model, as a Collection even when the
+     * field has a single value.
+     *
+     * @param model the model to read.
+     * @return the values of the field, empty if the model has none.
+     */
+    Collection<?> getValues(T model) {
+        Object value = extractor.apply(model);
+        if (isMultiValued) {
+            return value == null ? Collections.emptyList() : (Collection<?>) value;
+        }
+        return value == null ? Collections.emptyList() : Collections.singletonList(value);
+    }
+
+    /**
+     * Converts a value given to a condition to the type of the field: Strings are
+     * parsed as numbers or dates, and numbers become Doubles.
+     *
+     * @param value the value to convert.
+     * @return the converted value.
+     * @throws IllegalArgumentException if the value does not fit the type.
+     */
+    Object convert(Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Missing value for " + name);
+        }
+        switch (type) {
+            case NUMBER:
+                if (value instanceof Number) {
+                    return ((Number) value).doubleValue();
+                }
+                try {
+                    return Double.parseDouble(value.toString().trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid number " + value + " for " + name);
+                }
+            case DATE:
+                if (value instanceof LocalDate) {
+                    return value;
+                }
+                LocalDate date = DateUtils.parseDate(value.toString());
+                if (date == null) {
+                    throw new IllegalArgumentException("Invalid date " + value + " for " + name);
+                }
+                return date;
+            default:
+                return value.toString().trim();
+        }
+    }
+
+    /**
+     * Returns whether the value of a model satisfies a condition. A model without
+     * a value never satisfies it; for a multi-valued field, NOT_EQUALS holds when
+     * no value is equal and the other operators when any value satisfies them.
+     *
+     * @param model    the model to test.
+     * @param operator the comparison to make.
+     * @param expected the value to compare with, as returned by convert.
+     * @return true if the model satisfies the condition.
+     */
+    boolean test(T model, QueryOperator operator, Object expected) {
+        if (!isMultiValued) {
+            Object value = extractor.apply(model);
+            return value != null && test(value, operator, expected);
+        }
+        if (operator == QueryOperator.NOT_EQUALS) {
+            return !test(model, QueryOperator.EQUALS, expected);
+        }
+        for (Object value : getValues(model)) {
+            if (value != null && test(value, operator, expected)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean test(Object value, QueryOperator operator, Object expected) {
+        if (operator == QueryOperator.CONTAINS) {
+            return value.toString().toLowerCase(Locale.ROOT).contains(expected.toString().toLowerCase(Locale.ROOT));
+        }
+        return operator.accepts(compareValues(value, expected));
+    }
+
+    /**
+     * Compares two values of the field: numbers by value, dates in calendar order,
+     * text ignoring case, and IDs made of digits by their numeric value, like the
+     * ordered indexes. Null values come first.
+     *
+     * @param a the first value.
+     * @param b the second value.
+     * @return negative, zero or positive when a is lower, equal or greater than b.
+     */
+    int compareValues(Object a, Object b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        switch (type) {
+            case NUMBER:
+                return Double.compare(((Number) a).doubleValue(), ((Number) b).doubleValue());
+            case DATE:
+                return ((LocalDate) a).compareTo((LocalDate) b);
+            case ID:
+                return compareIds(a.toString(), b.toString());
+            default:
+                return a.toString().compareToIgnoreCase(b.toString());
+        }
+    }
+
+    /**
+     * Compares two IDs, putting numeric IDs first in numeric order, so "2" comes
+     * before "10".
+     */
+    static int compareIds(String a, String b) {
+        boolean isNumericA = isNumeric(a);
+        boolean isNumericB = isNumeric(b);
+        if (isNumericA && isNumericB) {
+            return Long.compare(Long.parseLong(a), Long.parseLong(b));
+        }
+        if (isNumericA != isNumericB) {
+            return isNumericA ? -1 : 1;
+        }
+        return a.compareToIgnoreCase(b);
+    }
+
+    private static boolean isNumeric(String id) {
+        if (id.isEmpty() || id.length() >= 19) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            if (id.charAt(i) < '0' || id.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Formats a value of the field for display: counts as they are, other numbers
+     * with two decimals, dates like the rest of the system, and several values
+     * separated by commas.
+     *
+     * @param value the value to format, may be null.
+     * @return the formatted value, empty for null.
+     */
+    static String format(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof Integer || value instanceof Long) {
+            return value.toString();
+        }
+        if (value instanceof Number) {
+            return TableWriter.formatDecimal(((Number) value).doubleValue(), 2);
+        }
+        if (value instanceof LocalDate) {
+            return DateUtils.formatDate((LocalDate) value);
+        }
+        if (value instanceof Collection) {
+            StringBuilder text = new StringBuilder();
+            for (Object item : (Collection<?>) value) {
+                if (text.length() > 0) {
+                    text.append(',');
+                }
+                text.append(format(item));
+            }
+            return text.toString();
+        }
+        return value.toString();
+    }
+}
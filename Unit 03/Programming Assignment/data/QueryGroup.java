@@ -0,0 +1,96 @@
+package data;
+
+/**
+ * The QueryGroup class holds one group of a grouped Query: the value of the
+ * grouping field shared by its models, how many models it has, and the running
+ * sum, minimum and maximum of the aggregated field over them.
+ */
+public class QueryGroup {
+
+    private final Object key;
+    private long count;
+    private long valueCount;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Constructs an empty QueryGroup.
+     *
+     * @param key the value of the grouping field, or null for the models without
+     *            a value.
+     */
+    QueryGroup(Object key) {
+        this.key = key;
+    }
+
+    /**
+     * Counts a model in the group.
+     *
+     * @param value the value of the aggregated field for the model, or null if
+     *              there is none.
+     */
+    void add(Object value) {
+        count++;
+        if (value instanceof Number) {
+            double number = ((Number) value).doubleValue();
+            valueCount++;
+            sum += number;
+            min = Math.min(min, number);
+            max = Math.max(max, number);
+        }
+    }
+
+    /**
+     * Adds the models of another group with the same key, when the groups were
+     * built by several threads.
+     *
+     * @param other the group to add.
+     */
+    void merge(QueryGroup other) {
+        count += other.count;
+        valueCount += other.valueCount;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Returns the value of the grouping field shared by the models of the group.
+     *
+     * @return the key of the group, or null for the models without a value.
+     */
+    public Object getKey() {
+        return key;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns an aggregate of the group. The average, sum, minimum and maximum
+     * only take the models with a value of the aggregated field into account.
+     *
+     * @param aggregate the aggregate to return.
+     * @return the aggregate, or null if no model of the group has a value.
+     */
+    public Double getValue(QueryAggregate aggregate) {
+        if (aggregate == QueryAggregate.COUNT) {
+            return (double) count;
+        }
+        if (valueCount == 0) {
+            return null;
+        }
+        switch (aggregate) {
+            case AVG:
+                return sum / valueCount;
+            case SUM:
+                return sum;
+            case MIN:
+                return min;
+            default:
+                return max;
+        }
+    }
+}
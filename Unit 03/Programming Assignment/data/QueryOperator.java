@@ -0,0 +1,75 @@
+package data;
+
+/**
+ * The QueryOperator enum lists the comparisons a Query can make between the
+ * value of a field and a given value. Text is compared ignoring case, numbers by
+ * value and dates in calendar order.
+ */
+public enum QueryOperator {
+    EQUALS("="),
+    NOT_EQUALS("!="),
+    LESS("<"),
+    LESS_OR_EQUAL("<="),
+    GREATER(">"),
+    GREATER_OR_EQUAL(">="),
+    CONTAINS("~");
+
+    private final String symbol;
+
+    QueryOperator(String symbol) {
+        this.symbol = symbol;
+    }
+
+    /**
+     * Returns the symbol of the operator, as written in a query, such as "<=".
+     *
+     * @return the symbol of the operator.
+     */
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * Finds the operator written with the given symbol. The word "contains" can be
+     * used instead of ~.
+     *
+     * @param symbol the symbol of the operator, such as ">=".
+     * @return the operator, or null if no operator has the symbol.
+     */
+    public static QueryOperator fromSymbol(String symbol) {
+        for (QueryOperator operator : values()) {
+            if (operator.symbol.equals(symbol)) {
+                return operator;
+            }
+        }
+        return symbol.equalsIgnoreCase("contains") ? CONTAINS : null;
+    }
+
+    /**
+     * Returns whether the result of comparing a value with the expected value,
+     * as returned by a Comparator, satisfies the operator. CONTAINS is tested by
+     * the field itself.
+     *
+     * @param comparison negative, zero or positive when the value is lower, equal
+     *                   or greater than the expected value.
+     * @return true if the value satisfies the operator.
+     */
+    boolean accepts(int comparison) {
+        switch (this) {
+            case EQUALS:
+                return comparison == 0;
+            case NOT_EQUALS:
+                return comparison != 0;
+            case LESS:
+                return comparison < 0;
+            case LESS_OR_EQUAL:
+                return comparison <= 0;
+            case GREATER:
+                return comparison > 0;
+            case GREATER_OR_EQUAL:
+                return comparison >= 0;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package data;
+
+import java.util.ArrayList;
+
+/**
+ * The QueryParser class turns a query written as text, such as
+ * {@code students where gpa < 2.0 and department = CS order by gpa}, into a
+ * Query. Keywords, types and field names are read in any case; the grammar is
+ * described by {@link Query#parse(String)}.
+ */
+class QueryParser {
+
+    /**
+     * A word of the query. Quoted words are always values, even when they read
+     * like a keyword.
+     */
+    private static final class Token {
+
+        private final String text;
+        private final boolean isQuoted;
+
+        private Token(String text, boolean isQuoted) {
+            this.text = text;
+            this.isQuoted = isQuoted;
+        }
+    }
+
+    private final ArrayList<Token> tokens;
+    private int position = 0;
+
+    private QueryParser(ArrayList<Token> tokens) {
+        this.tokens = tokens;
+    }
+
+    /**
+     * Parses a query.
+     *
+     * @param text the query.
+     * @return the parsed query.
+     * @throws IllegalArgumentException if the query is not valid.
+     */
+    static Query<?> parse(String text) {
+        return new QueryParser(tokenize(text)).parseQuery();
+    }
+
+    private Query<?> parseQuery() {
+        Query<?> query = Query.from(EntityType.fromName(next("a record type").text));
+        if (accept("where")) {
+            do {
+                String field = next("a field").text;
+                Token symbol = next("an operator");
+                QueryOperator operator = symbol.isQuoted ? null : QueryOperator.fromSymbol(symbol.text);
+                if (operator == null) {
+                    throw new IllegalArgumentException("Unknown operator " + symbol.text);
+                }
+                query.where(field, operator, next("a value").text);
+            } while (accept("and"));
+        }
+        if (accept("group")) {
+            expect("by");
+            query.groupBy(next("a field").text);
+            QueryAggregate aggregate = isAtEnd() ? null : QueryAggregate.fromName(peek().text);
+            if (aggregate != null) {
+                position++;
+                query.aggregate(aggregate, aggregate == QueryAggregate.COUNT ? null : next("a field").text);
+            }
+        }
+        if (accept("order")) {
+            expect("by");
+            String name = next("a field").text;
+            boolean isDescending = accept("desc");
+            if (!isDescending) {
+                accept("asc");
+            }
+            query.orderBy(name, isDescending);
+        }
+        if (accept("limit")) {
+            String limit = next("a limit").text;
+            try {
+                query.limit(Integer.parseInt(limit));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid limit " + limit);
+            }
+        }
+        if (!isAtEnd()) {
+            throw new IllegalArgumentException("Unexpected " + peek().text);
+        }
+        return query;
+    }
+
+    private boolean isAtEnd() {
+        return position >= tokens.size();
+    }
+
+    private Token peek() {
+        return tokens.get(position);
+    }
+
+    private Token next(String expected) {
+        if (isAtEnd()) {
+            throw new IllegalArgumentException("Expected " + expected + " at the end of the query");
+        }
+        return tokens.get(position++);
+    }
+
+    /**
+     * Skips the next word if it is the given keyword.
+     */
+    private boolean accept(String keyword) {
+        if (isAtEnd() || peek().isQuoted || !peek().text.equalsIgnoreCase(keyword)) {
+            return false;
+        }
+        position++;
+        return true;
+    }
+
+    private void expect(String keyword) {
+        if (!accept(keyword)) {
+            throw new IllegalArgumentException("Expected " + keyword + (isAtEnd() ? " at the end of the query" : " before " + peek().text));
+        }
+    }
+
+    /**
+     * Splits a query into words and operators. Operators need no spaces around
+     * them, so "gpa&lt;2.0" is three words. Words in double quotes may contain
+     * spaces and operator characters.
+     */
+    private static ArrayList<Token> tokenize(String text) {
+        ArrayList<Token> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '"') {
+                int end = text.indexOf('"', i + 1);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Missing closing quote");
+                }
+                tokens.add(new Token(text.substring(i + 1, end), true));
+                i = end + 1;
+            } else if (isOperatorChar(c)) {
+                int start = i;
+                while (i < text.length() && isOperatorChar(text.charAt(i))) {
+                    i++;
+                }
+                String symbol = text.substring(start, i);
+                tokens.add(new Token(symbol.equals("==") ? "=" : symbol, false));
+            } else {
+                int start = i;
+                while (i < text.length() && !Character.isWhitespace(text.charAt(i)) && text.charAt(i) != '"' &&
+                        !isOperatorChar(text.charAt(i))) {
+                    i++;
+                }
+                tokens.add(new Token(text.substring(start, i), false));
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isOperatorChar(char c) {
+        return c == '<' || c == '>' || c == '=' || c == '!' || c == '~';
+    }
+}
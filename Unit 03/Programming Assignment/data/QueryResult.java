@@ -0,0 +1,145 @@
+package data;
+
+import java.util.Collections;
+import java.util.List;
+
+import models.Model;
+import utils.TableWriter;
+
+/**
+ * The QueryResult class holds the outcome of a Query: either the matching
+ * models, in order, or the groups of a grouped query with their count and
+ * aggregate. It prints as a table whose columns are the ID and name of the
+ * models followed by the fields the query filtered and sorted on.
+ *
+ * @param <T> the type of the queried models.
+ */
+public class QueryResult<T extends Model> {
+
+    private static final int ID_WIDTH = 10;
+    private static final int NAME_WIDTH = 25;
+    private static final int VALUE_WIDTH = 14;
+
+    private final EntityType entityType;
+    private final List<QueryField<T>> columns;
+    private final List<T> rows;
+    private final QueryField<T> groupField;
+    private final QueryAggregate aggregate;
+    private final QueryField<T> aggregateField;
+    private final List<QueryGroup> groups;
+    private final long elapsedMillis;
+
+    /**
+     * Constructs the QueryResult of an ungrouped query.
+     */
+    QueryResult(EntityType entityType, List<QueryField<T>> columns, List<T> rows, long elapsedMillis) {
+        this(entityType, columns, rows, null, null, null, null, elapsedMillis);
+    }
+
+    /**
+     * Constructs the QueryResult of a grouped query.
+     */
+    QueryResult(EntityType entityType, QueryField<T> groupField, QueryAggregate aggregate,
+            QueryField<T> aggregateField, List<QueryGroup> groups, long elapsedMillis) {
+        this(entityType, Collections.emptyList(), null, groupField, aggregate, aggregateField, groups, elapsedMillis);
+    }
+
+    private QueryResult(EntityType entityType, List<QueryField<T>> columns, List<T> rows, QueryField<T> groupField,
+            QueryAggregate aggregate, QueryField<T> aggregateField, List<QueryGroup> groups, long elapsedMillis) {
+        this.entityType = entityType;
+        this.columns = columns;
+        this.rows = rows;
+        this.groupField = groupField;
+        this.aggregate = aggregate;
+        this.aggregateField = aggregateField;
+        this.groups = groups;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public EntityType getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * Returns whether the query grouped the models.
+     *
+     * @return true if the result holds groups rather than models.
+     */
+    public boolean isGrouped() {
+        return groups != null;
+    }
+
+    /**
+     * Returns the matching models of an ungrouped query, in order.
+     *
+     * @return a read-only list of the models, empty for a grouped query.
+     */
+    public List<T> getRows() {
+        return rows == null ? Collections.emptyList() : Collections.unmodifiableList(rows);
+    }
+
+    /**
+     * Returns the groups of a grouped query, in order.
+     *
+     * @return a read-only list of the groups, empty for an ungrouped query.
+     */
+    public List<QueryGroup> getGroups() {
+        return groups == null ? Collections.emptyList() : Collections.unmodifiableList(groups);
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Prints the models or the groups as a table, followed by their number.
+     */
+    public void print() {
+        TableWriter writer = TableWriter.toConsole();
+        if (isGrouped()) {
+            writeGroups(writer);
+        } else {
+            writeRows(writer);
+        }
+        writer.flush();
+    }
+
+    private void writeRows(TableWriter writer) {
+        writer.cell("ID", ID_WIDTH).cell("Name", NAME_WIDTH);
+        for (QueryField<T> column : columns) {
+            writer.cell(column.getName(), VALUE_WIDTH);
+        }
+        writer.endRow();
+        int headerLength = ID_WIDTH + NAME_WIDTH + 3 + columns.size() * (VALUE_WIDTH + 3);
+        writer.rule(headerLength).endRow();
+
+        for (T model : rows) {
+            writer.cell(model.getId(), ID_WIDTH).cell(model.getName(), NAME_WIDTH);
+            for (QueryField<T> column : columns) {
+                writer.cell(QueryField.format(column.getValue(model)), VALUE_WIDTH);
+            }
+            writer.endRow();
+        }
+        writer.text(entityType.getDescription() + "s found: " + rows.size() + " in " + elapsedMillis + " ms").endRow();
+    }
+
+    private void writeGroups(TableWriter writer) {
+        boolean hasValue = aggregate != QueryAggregate.COUNT;
+        writer.cell(groupField.getName(), NAME_WIDTH).cell("count", VALUE_WIDTH);
+        if (hasValue) {
+            writer.cell(aggregate.getName() + " " + aggregateField.getName(), VALUE_WIDTH);
+        }
+        writer.endRow();
+        writer.rule(NAME_WIDTH + 3 + VALUE_WIDTH + (hasValue ? VALUE_WIDTH + 3 : 0)).endRow();
+
+        for (QueryGroup group : groups) {
+            writer.cell(group.getKey() == null ? "(none)" : QueryField.format(group.getKey()), NAME_WIDTH)
+                  .cell(Long.toString(group.getCount()), VALUE_WIDTH);
+            if (hasValue) {
+                writer.cell(QueryField.format(group.getValue(aggregate)), VALUE_WIDTH);
+            }
+            writer.endRow();
+        }
+        writer.text("Groups found: " + groups.size() + " in " + elapsedMillis + " ms").endRow();
+    }
+}
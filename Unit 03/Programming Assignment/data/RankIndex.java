@@ -0,0 +1,266 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import models.Model;
+
+/**
+ * The RankIndex class keeps models sorted by a numeric score, highest first,
+ * in a treap: a binary search tree balanced by random priorities, where every
+ * node also counts the nodes below it. Besides reading the models in order like
+ * an OrderedIndex, it finds the rank of a model, the model at a given position
+ * and the number of models above or below a score by walking a single path from
+ * the root, in logarithmic time.
+ *
+ * <p>
+ * Ties are broken by ID, with numeric IDs first in numeric order, so every model
+ * has a unique position. Ranks follow the competition ranking of leaderboards:
+ * models with the same score share the rank of the first of them.
+ * </p>
+ *
+ * <p>
+ * Every method is synchronized, since a change rotates nodes along a whole path.
+ * </p>
+ *
+ * @param <TValue> the type of the ranked models.
+ */
+class RankIndex<TValue extends Model> {
+
+    /**
+     * A ranked model with the score it had when it was added, so it can still be
+     * found after its score changed.
+     */
+    private static final class Node<TValue> {
+
+        private final TValue value;
+        private final double score;
+        private final String id;
+        private final long numericId;
+        private final boolean isNumericId;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private Node<TValue> left;
+        private Node<TValue> right;
+        private int size = 1;
+
+        private Node(TValue value, double score, String id) {
+            this.value = value;
+            this.score = score;
+            this.id = id;
+            this.isNumericId = !id.isEmpty() && id.length() < 19 && id.chars().allMatch(c -> c >= '0' && c <= '9');
+            this.numericId = isNumericId ? Long.parseLong(id) : 0;
+        }
+    }
+
+    private final HashMap<TValue, Node<TValue>> nodeByValue = new HashMap<>();
+    private Node<TValue> root;
+
+    /**
+     * Adds a model, or moves it to the position of its new score.
+     *
+     * @param value the model to rank.
+     * @param score the current score of the model.
+     */
+    synchronized void update(TValue value, double score) {
+        Node<TValue> oldNode = nodeByValue.get(value);
+        if (oldNode != null) {
+            if (Double.compare(oldNode.score, score) == 0) {
+                return;
+            }
+            root = delete(root, oldNode);
+        }
+        Node<TValue> node = new Node<>(value, score, value.getId());
+        nodeByValue.put(value, node);
+        root = insert(root, node);
+    }
+
+    /**
+     * Removes a model.
+     *
+     * @param value the model to remove.
+     */
+    synchronized void remove(TValue value) {
+        Node<TValue> node = nodeByValue.remove(value);
+        if (node != null) {
+            root = delete(root, node);
+        }
+    }
+
+    /**
+     * Removes every model.
+     */
+    synchronized void clear() {
+        nodeByValue.clear();
+        root = null;
+    }
+
+    /**
+     * Returns the number of ranked models.
+     *
+     * @return the size of the index.
+     */
+    synchronized int size() {
+        return size(root);
+    }
+
+    /**
+     * Returns the rank of a model: one more than the number of models with a
+     * higher score.
+     *
+     * @param value the model.
+     * @return the rank of the model, starting at 1, or 0 if it is not ranked.
+     */
+    synchronized int getRank(TValue value) {
+        Node<TValue> node = nodeByValue.get(value);
+        return node == null ? 0 : countAbove(node.score, false) + 1;
+    }
+
+    /**
+     * Returns the number of models with a score higher than the given score, or
+     * higher or equal when isInclusive is true.
+     *
+     * @param score       the score to compare with.
+     * @param isInclusive true to count the models with the same score too.
+     * @return the number of models above the score.
+     */
+    synchronized int countAbove(double score, boolean isInclusive) {
+        int count = 0;
+        Node<TValue> node = root;
+        while (node != null) {
+            int comparison = Double.compare(node.score, score);
+            if (comparison > 0 || (isInclusive && comparison == 0)) {
+                count += size(node.left) + 1; // The node and everything before it are above
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Reads up to {@code limit} models from the given position, highest score
+     * first.
+     *
+     * @param position the position of the first model, starting at 0.
+     * @param limit    the maximum number of models to read.
+     * @return the models read, in order.
+     */
+    synchronized ArrayList<TValue> read(int position, int limit) {
+        ArrayList<TValue> values = new ArrayList<>(Math.max(0, Math.min(limit, size(root) - position)));
+        collect(root, Math.max(position, 0), limit, values);
+        return values;
+    }
+
+    /**
+     * Appends the models of a subtree from a position within it, skipping whole
+     * subtrees before the position by their size.
+     */
+    private static <TValue> void collect(Node<TValue> node, int position, int limit, ArrayList<TValue> values) {
+        if (node == null || values.size() >= limit) {
+            return;
+        }
+        int leftSize = size(node.left);
+        if (position < leftSize) {
+            collect(node.left, position, limit, values);
+        }
+        if (position <= leftSize && values.size() < limit) {
+            values.add(node.value);
+        }
+        collect(node.right, Math.max(0, position - leftSize - 1), limit, values);
+    }
+
+    private static int compare(Node<?> a, Node<?> b) {
+        int comparison = Double.compare(b.score, a.score); // Highest score first
+        if (comparison != 0) {
+            return comparison;
+        }
+        if (a.isNumericId && b.isNumericId) {
+            return Long.compare(a.numericId, b.numericId);
+        }
+        if (a.isNumericId != b.isNumericId) {
+            return a.isNumericId ? -1 : 1;
+        }
+        return a.id.compareTo(b.id);
+    }
+
+    private static <TValue> Node<TValue> insert(Node<TValue> node, Node<TValue> added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added, node) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        resize(node);
+        return node;
+    }
+
+    private static <TValue> Node<TValue> delete(Node<TValue> node, Node<TValue> removed) {
+        if (node == null) {
+            return null;
+        }
+        if (node == removed) {
+            return merge(node.left, node.right);
+        }
+        if (compare(removed, node) < 0) {
+            node.left = delete(node.left, removed);
+        } else {
+            node.right = delete(node.right, removed);
+        }
+        resize(node);
+        return node;
+    }
+
+    /**
+     * Joins two subtrees where every node of the first comes before every node of
+     * the second, keeping the node with the highest priority on top.
+     */
+    private static <TValue> Node<TValue> merge(Node<TValue> first, Node<TValue> second) {
+        if (first == null || second == null) {
+            return first == null ? second : first;
+        }
+        if (first.priority > second.priority) {
+            first.right = merge(first.right, second);
+            resize(first);
+            return first;
+        }
+        second.left = merge(first, second.left);
+        resize(second);
+        return second;
+    }
+
+    private static <TValue> Node<TValue> rotateRight(Node<TValue> node) {
+        Node<TValue> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        resize(node);
+        resize(left);
+        return left;
+    }
+
+    private static <TValue> Node<TValue> rotateLeft(Node<TValue> node) {
+        Node<TValue> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        resize(node);
+        resize(right);
+        return right;
+    }
+
+    private static void resize(Node<?> node) {
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+}
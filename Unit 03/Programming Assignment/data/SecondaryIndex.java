@@ -0,0 +1,90 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The SecondaryIndex class maps a key (such as a case-folded name or a
+ * department ID) to every model that has that key. It is used by the
+ * DataStorage to answer lookups without scanning whole collections, and is safe
+ * to update from several threads at once.
+ *
+ * @param <TKey>   the type of the index key.
+ * @param <TValue> the type of the indexed models.
+ */
+class SecondaryIndex<TKey, TValue> {
+
+    private final ConcurrentHashMap<TKey, Set<TValue>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a value under the given key.
+     *
+     * @param key   the index key.
+     * @param value the value to add.
+     */
+    void add(TKey key, TValue value) {
+        // Added inside compute, so a concurrent remove cannot drop the set in between
+        entries.compute(key, (k, values) -> {
+            if (values == null) {
+                values = ConcurrentHashMap.newKeySet();
+            }
+            values.add(value);
+            return values;
+        });
+    }
+
+    /**
+     * Removes a value from the given key. The key is dropped when it has no
+     * values left.
+     *
+     * @param key   the index key.
+     * @param value the value to remove.
+     */
+    void remove(TKey key, TValue value) {
+        entries.computeIfPresent(key, (k, values) -> {
+            values.remove(value);
+            return values.isEmpty() ? null : values;
+        });
+    }
+
+    /**
+     * Moves a value from an old key to a new key, typically after a setter changed
+     * the indexed property.
+     *
+     * @param oldKey the key the value was indexed under.
+     * @param newKey the key the value must be indexed under.
+     * @param value  the value to move.
+     */
+    void move(TKey oldKey, TKey newKey, TValue value) {
+        if (oldKey != null && oldKey.equals(newKey)) {
+            return;
+        }
+        if (oldKey != null) {
+            remove(oldKey, value);
+        }
+        add(newKey, value);
+    }
+
+    /**
+     * Returns a read-only view of the values indexed under the given key.
+     *
+     * @param key the index key.
+     * @return the values for the key, or an empty set if there are none.
+     */
+    Set<TValue> get(TKey key) {
+        Set<TValue> values = entries.get(key);
+        return values == null ? Collections.emptySet() : Collections.unmodifiableSet(values);
+    }
+
+    /**
+     * Returns a copy of the values indexed under the given key.
+     *
+     * @param key the index key.
+     * @return a new ArrayList with the values for the key.
+     */
+    ArrayList<TValue> getList(TKey key) {
+        return new ArrayList<>(get(key));
+    }
+}
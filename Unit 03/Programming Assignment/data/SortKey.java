@@ -0,0 +1,28 @@
+package data;
+
+/**
+ * The SortKey enum lists the orders in which models can be listed page by page.
+ * Every model can be sorted by ID and name; people can also be sorted by age,
+ * and students by GPA.
+ */
+public enum SortKey {
+    ID("ID"),
+    NAME("Name"),
+    AGE("Age"),
+    GPA("GPA");
+
+    private final String description;
+
+    SortKey(String description) {
+        this.description = description;
+    }
+
+    /**
+     * Returns the description of the sort key, as shown in menus.
+     *
+     * @return the description of the sort key.
+     */
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,136 @@
+package data;
+
+import java.util.function.Consumer;
+
+import models.*;
+
+/**
+ * The StorageBackend interface is the persistence layer behind the DataStorage.
+ * The DataStorage keeps the working set of models and their indexes in memory
+ * and forwards every mutation to its backend, which decides how (and whether)
+ * the change is made durable.
+ *
+ * <p>
+ * Mutations are batched: a backend may buffer them and only has to make them
+ * durable when {@link #commit()} is called. Backends that keep students outside
+ * of memory can hand them out lazily through {@link #loadStudent(String)}.
+ * </p>
+ */
+public interface StorageBackend {
+
+    /**
+     * Loads the persisted data into the DataStorage. Mutations made while loading
+     * are not forwarded back to the backend. Students may be left in the backend
+     * to be loaded on demand.
+     *
+     * @return true if existing data was found, false if the backend is empty.
+     */
+    boolean load();
+
+    /**
+     * Persists a new Department.
+     *
+     * @param department the added Department.
+     */
+    void addDepartment(Department department);
+
+    /**
+     * Persists a new Professor.
+     *
+     * @param professor the added Professor.
+     */
+    void addProfessor(Professor professor);
+
+    /**
+     * Persists a new Course.
+     *
+     * @param course the added Course.
+     */
+    void addCourse(Course course);
+
+    /**
+     * Persists a new Student, without its enrollments.
+     *
+     * @param student the added Student.
+     */
+    void addStudent(Student student);
+
+    /**
+     * Persists a new StudentEnrollment, including its grade.
+     *
+     * @param enrollment the added StudentEnrollment.
+     */
+    void addEnrollment(StudentEnrollment enrollment);
+
+    /**
+     * Deletes a Student and its enrollments.
+     *
+     * @param student the removed Student.
+     */
+    void removeStudent(Student student);
+
+    /**
+     * Persists a change made through one of the model setters.
+     *
+     * @param model    the changed model.
+     * @param property the name of the changed property ("Name", "Description",
+     *                 "BirthDate" or "GradeScale").
+     */
+    void updateProperty(Model model, String property);
+
+    /**
+     * Loads a single Student that is persisted but not loaded yet, looked up by ID.
+     *
+     * @param id the ID of the Student.
+     * @return the loaded Student, or null if there is no such Student left to load.
+     */
+    default Student loadStudent(String id) {
+        return null;
+    }
+
+    /**
+     * Loads every Student that is persisted but not loaded yet.
+     *
+     * @param consumer receives each loaded Student.
+     */
+    default void loadStudents(Consumer<Student> consumer) {
+    }
+
+    /**
+     * Checks whether a Student with the given ID is persisted but not loaded yet.
+     *
+     * @param id the ID of the Student.
+     * @return true if the Student is waiting to be loaded.
+     */
+    default boolean containsStudent(String id) {
+        return false;
+    }
+
+    /**
+     * Makes every mutation since the last commit durable, as one batch.
+     */
+    void commit();
+
+    /**
+     * Checks whether the backend would benefit from a checkpoint, for example
+     * because its log has grown large.
+     *
+     * @return true if {@link #checkpoint()} should be called.
+     */
+    default boolean isCheckpointDue() {
+        return false;
+    }
+
+    /**
+     * Compacts the persisted data. The DataStorage guarantees that no mutation
+     * runs while a checkpoint is in progress.
+     */
+    default void checkpoint() {
+        commit();
+    }
+
+    /**
+     * Commits pending mutations and releases the resources of the backend.
+     */
+    void close();
+}
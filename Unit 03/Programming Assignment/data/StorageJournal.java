@@ -0,0 +1,442 @@
+package data;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.zip.CRC32;
+
+import models.*;
+import utils.DateUtils;
+
+/**
+ * The StorageJournal class is an append-only binary write-ahead log of every
+ * mutation applied to the DataStorage. Records are buffered in memory and written
+ * to disk together when {@link #commit()} is called (group commit), so a single
+ * user action costs one disk sync no matter how many records it produced.
+ *
+ * <p>
+ * Each record is framed as {@code [length][crc32][payload]}. When the journal is
+ * replayed, a record with a bad length or checksum marks the end of the valid
+ * log (a write torn by a crash) and everything after it is discarded.
+ * </p>
+ */
+class StorageJournal {
+
+    private static final byte ADD_DEPARTMENT = 1;
+    private static final byte ADD_PROFESSOR = 2;
+    private static final byte ADD_COURSE = 3;
+    private static final byte ADD_STUDENT = 4;
+    private static final byte ADD_ENROLLMENT = 5;
+    private static final byte REMOVE_STUDENT = 6;
+    private static final byte SET_NAME = 7;
+    private static final byte SET_DESCRIPTION = 8;
+    private static final byte SET_BIRTH_DATE = 9;
+    private static final byte SET_GRADE = 10;
+
+    private static final byte TYPE_DEPARTMENT = 'D';
+    private static final byte TYPE_PROFESSOR = 'P';
+    private static final byte TYPE_COURSE = 'C';
+    private static final byte TYPE_STUDENT = 'S';
+
+    private static final int MAX_RECORD_SIZE = 1 << 20;
+    private static final int GROUP_COMMIT_RECORDS = 512;
+
+    private final FileChannel channel;
+    private final DataOutputStream out;
+    private final ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream(256);
+    private final DataOutputStream record = new DataOutputStream(recordBuffer);
+    private final CRC32 crc = new CRC32();
+    private int pendingRecords = 0;
+    private long length;
+
+    /**
+     * Opens the journal at the given path for appending. Any bytes after
+     * {@code validLength} (for instance a record torn by a crash) are truncated.
+     *
+     * @param path        the path of the journal file.
+     * @param validLength the length of the valid part of the journal.
+     * @throws IOException if the journal cannot be opened.
+     */
+    StorageJournal(Path path, long validLength) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        this.channel.truncate(validLength);
+        this.channel.position(validLength);
+        this.length = validLength;
+        this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+    }
+
+    /**
+     * Returns the current size of the journal, including records not yet committed.
+     *
+     * @return the size of the journal in bytes.
+     */
+    synchronized long size() {
+        return length;
+    }
+
+    /**
+     * Writes all buffered records to disk and forces them to the storage device.
+     * Does nothing when there is nothing pending.
+     */
+    synchronized void commit() {
+        if (pendingRecords == 0) {
+            return;
+        }
+        try {
+            out.flush();
+            channel.force(false);
+            pendingRecords = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to commit the storage journal", e);
+        }
+    }
+
+    /**
+     * Commits all pending records and closes the journal file.
+     */
+    synchronized void close() {
+        commit();
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to close the storage journal", e);
+        }
+    }
+
+    void logAddDepartment(Department department) {
+        append(ADD_DEPARTMENT, r -> {
+            r.writeUTF(department.getId());
+            r.writeUTF(department.getName());
+            r.writeUTF(department.getDescription());
+        });
+    }
+
+    void logAddProfessor(Professor professor) {
+        append(ADD_PROFESSOR, r -> {
+            r.writeInt(Integer.parseInt(professor.getId()));
+            r.writeUTF(professor.getName());
+            r.writeLong(DateUtils.toEpochDay(professor.getBirthDate()));
+            r.writeUTF(professor.getDepartment().getId());
+        });
+    }
+
+    void logAddCourse(Course course) {
+        append(ADD_COURSE, r -> {
+            r.writeUTF(course.getId());
+            r.writeUTF(course.getName());
+            r.writeUTF(course.getDescription());
+            r.writeUTF(course.getDepartment().getId());
+        });
+    }
+
+    void logAddStudent(Student student) {
+        append(ADD_STUDENT, r -> {
+            r.writeInt(Integer.parseInt(student.getId()));
+            r.writeUTF(student.getName());
+            r.writeLong(DateUtils.toEpochDay(student.getBirthDate()));
+        });
+    }
+
+    void logAddEnrollment(StudentEnrollment enrollment) {
+        append(ADD_ENROLLMENT, r -> {
+            r.writeUTF(enrollment.getStudent().getId());
+            r.writeUTF(enrollment.getCourse().getId());
+            r.writeUTF(enrollment.getProfessor().getId());
+            r.writeLong(enrollment.getEnrollmentDate().toEpochDay());
+            r.writeDouble(enrollment.getGradeScale());
+        });
+    }
+
+    void logRemoveStudent(Student student) {
+        append(REMOVE_STUDENT, r -> r.writeUTF(student.getId()));
+    }
+
+    /**
+     * Logs a change made through one of the model setters.
+     *
+     * @param model    the changed model.
+     * @param property the name of the changed property.
+     */
+    void logPropertyChanged(Model model, String property) {
+        switch (property) {
+            case "Name":
+                append(SET_NAME, r -> {
+                    r.writeByte(typeOf(model));
+                    r.writeUTF(model.getId());
+                    r.writeUTF(model.getName());
+                });
+                break;
+            case "Description":
+                String description = model instanceof Course
+                        ? ((Course) model).getDescription()
+                        : ((Department) model).getDescription();
+                append(SET_DESCRIPTION, r -> {
+                    r.writeByte(typeOf(model));
+                    r.writeUTF(model.getId());
+                    r.writeUTF(description);
+                });
+                break;
+            case "BirthDate":
+                LocalDate birthDate = model instanceof Student
+                        ? ((Student) model).getBirthDate()
+                        : ((Professor) model).getBirthDate();
+                append(SET_BIRTH_DATE, r -> {
+                    r.writeByte(typeOf(model));
+                    r.writeUTF(model.getId());
+                    r.writeLong(DateUtils.toEpochDay(birthDate));
+                });
+                break;
+            case "GradeScale":
+                StudentEnrollment enrollment = (StudentEnrollment) model;
+                append(SET_GRADE, r -> {
+                    r.writeUTF(enrollment.getStudent().getId());
+                    r.writeUTF(enrollment.getCourse().getId());
+                    r.writeDouble(enrollment.getGradeScale());
+                });
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown property " + property);
+        }
+    }
+
+    /**
+     * Writes a single framed record into the group-commit buffer.
+     */
+    private synchronized void append(byte type, RecordWriter writer) {
+        try {
+            recordBuffer.reset();
+            record.writeByte(type);
+            writer.write(record);
+            record.flush();
+
+            crc.reset();
+            crc.update(recordBuffer.toByteArray());
+
+            out.writeInt(recordBuffer.size());
+            out.writeInt((int) crc.getValue());
+            recordBuffer.writeTo(out);
+            length += 8 + recordBuffer.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write to the storage journal", e);
+        }
+
+        pendingRecords++;
+        if (pendingRecords >= GROUP_COMMIT_RECORDS) {
+            commit();
+        }
+    }
+
+    /**
+     * Replays every valid record of the journal at the given path against the
+     * DataStorage. The caller must make sure the storage is not journaling while
+     * the records are applied.
+     *
+     * @param path the path of the journal file.
+     * @return the length in bytes of the valid part of the journal.
+     * @throws IOException if the journal cannot be read.
+     */
+    static long replay(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+
+        long validLength = 0;
+        CRC32 checksum = new CRC32();
+        ByteBuffer header = ByteBuffer.allocate(8);
+
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (true) {
+                header.clear();
+                if (readFully(in, header) < 8) {
+                    break; // End of log or torn header
+                }
+                header.flip();
+                int length = header.getInt();
+                int expectedCrc = header.getInt();
+                if (length <= 0 || length > MAX_RECORD_SIZE) {
+                    break;
+                }
+
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                if (readFully(in, payload) < length) {
+                    break; // Torn payload
+                }
+
+                checksum.reset();
+                checksum.update(payload.array());
+                if ((int) checksum.getValue() != expectedCrc) {
+                    break;
+                }
+
+                apply(new DataInputStream(new ByteArrayInputStream(payload.array())));
+                validLength += 8 + length;
+            }
+        }
+        return validLength;
+    }
+
+    private static int readFully(FileChannel in, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer) < 0) {
+                break;
+            }
+        }
+        return buffer.position();
+    }
+
+    /**
+     * Applies a single decoded record to the DataStorage.
+     */
+    private static void apply(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case ADD_DEPARTMENT: {
+                DataStorage.addDepartment(new Department(in.readUTF(), in.readUTF(), in.readUTF()));
+                break;
+            }
+            case ADD_PROFESSOR: {
+                int id = in.readInt();
+                String name = in.readUTF();
+                LocalDate birthDate = DateUtils.fromEpochDay(in.readLong());
+                Department department = DataStorage.getDepartmentById(in.readUTF());
+                DataStorage.addProfessor(new Professor(id, name, birthDate, department));
+                break;
+            }
+            case ADD_COURSE: {
+                String id = in.readUTF();
+                String name = in.readUTF();
+                String description = in.readUTF();
+                Department department = DataStorage.getDepartmentById(in.readUTF());
+                DataStorage.addCourse(new Course(id, name, description, department));
+                break;
+            }
+            case ADD_STUDENT: {
+                int id = in.readInt();
+                String name = in.readUTF();
+                LocalDate birthDate = DateUtils.fromEpochDay(in.readLong());
+                DataStorage.addStudent(new Student(id, name, birthDate));
+                break;
+            }
+            case ADD_ENROLLMENT: {
+                Student student = DataStorage.getStudentById(in.readUTF());
+                Course course = DataStorage.getCourseById(in.readUTF());
+                Professor professor = DataStorage.getProfessorById(in.readUTF());
+                LocalDate enrollmentDate = LocalDate.ofEpochDay(in.readLong());
+                double gradeScale = in.readDouble();
+                // The enrollment may already be in the snapshot if it raced with a checkpoint
+                if (!student.isEnrolled(course)) {
+                    student.enroll(course, professor, enrollmentDate);
+                }
+                if (gradeScale != -1) {
+                    student.setGradeScale(course, gradeScale);
+                }
+                break;
+            }
+            case REMOVE_STUDENT: {
+                DataStorage.removeStudent(DataStorage.getStudentById(in.readUTF()));
+                break;
+            }
+            case SET_NAME: {
+                Model model = find(in.readByte(), in.readUTF());
+                String name = in.readUTF();
+                if (model instanceof Department) {
+                    ((Department) model).setName(name);
+                } else if (model instanceof Course) {
+                    ((Course) model).setName(name);
+                } else if (model instanceof Student) {
+                    ((Student) model).setName(name);
+                } else {
+                    ((Professor) model).setName(name);
+                }
+                break;
+            }
+            case SET_DESCRIPTION: {
+                Model model = find(in.readByte(), in.readUTF());
+                String description = in.readUTF();
+                if (model instanceof Department) {
+                    ((Department) model).setDescription(description);
+                } else {
+                    ((Course) model).setDescription(description);
+                }
+                break;
+            }
+            case SET_BIRTH_DATE: {
+                Model model = find(in.readByte(), in.readUTF());
+                LocalDate birthDate = DateUtils.fromEpochDay(in.readLong());
+                if (model instanceof Student) {
+                    ((Student) model).setBirthDate(birthDate);
+                } else {
+                    ((Professor) model).setBirthDate(birthDate);
+                }
+                break;
+            }
+            case SET_GRADE: {
+                Student student = DataStorage.getStudentById(in.readUTF());
+                Course course = DataStorage.getCourseById(in.readUTF());
+                student.setGradeScale(course, in.readDouble());
+                break;
+            }
+            default:
+                throw new IOException("Unknown journal record type " + type);
+        }
+    }
+
+    private static byte typeOf(Model model) {
+        if (model instanceof Department) {
+            return TYPE_DEPARTMENT;
+        }
+        if (model instanceof Professor) {
+            return TYPE_PROFESSOR;
+        }
+        if (model instanceof Course) {
+            return TYPE_COURSE;
+        }
+        if (model instanceof Student) {
+            return TYPE_STUDENT;
+        }
+        throw new IllegalArgumentException("Unsupported model " + model.getClass().getSimpleName());
+    }
+
+    private static Model find(byte type, String id) throws IOException {
+        Model model;
+        switch (type) {
+            case TYPE_DEPARTMENT:
+                model = DataStorage.getDepartmentById(id);
+                break;
+            case TYPE_PROFESSOR:
+                model = DataStorage.getProfessorById(id);
+                break;
+            case TYPE_COURSE:
+                model = DataStorage.getCourseById(id);
+                break;
+            case TYPE_STUDENT:
+                model = DataStorage.getStudentById(id);
+                break;
+            default:
+                throw new IOException("Unknown model type " + type);
+        }
+        if (model == null) {
+            throw new IOException("Journal references unknown model " + (char) type + ":" + id);
+        }
+        return model;
+    }
+
+    /**
+     * Writes the fields of a single record.
+     */
+    @FunctionalInterface
+    private interface RecordWriter {
+        void write(DataOutputStream record) throws IOException;
+    }
+}
@@ -0,0 +1,559 @@
+package data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.function.Consumer;
+
+import models.*;
+
+/**
+ * The StorageSnapshot class writes and reads a full binary image of the
+ * DataStorage. A snapshot records the generation of the journal that continues
+ * after it, so on startup only that journal has to be replayed.
+ *
+ * <p>
+ * The snapshot is read through a memory-mapped buffer. All strings live in a
+ * single string table and every entity is a fixed-width record pointing into it,
+ * so any record can be decoded in place without parsing the file. Departments,
+ * professors and courses are small and loaded eagerly; students and their
+ * enrollments are sorted by ID and only materialised when they are first
+ * accessed, which keeps startup time independent of the number of students.
+ * </p>
+ *
+ * <p>
+ * A checkpoint writes the students in memory from their objects and copies the
+ * records of the others straight from the previous snapshot, so it never
+ * materialises a student. The new snapshot is then mapped in place of the
+ * previous one and keeps serving the students that were never requested.
+ * </p>
+ *
+ * <pre>
+ * header      magic, version, generation, then offset and count of each section
+ * departments [id, name, description]                                (string refs)
+ * professors  [id, name, birth day, department id]
+ * courses     [id, name, description, department id]
+ * students    [id, name, birth day, first enrollment, enrollment count]   sorted by id
+ * enrollments [course id, professor id, enrollment day, grade scale]
+ * strings     [length, UTF-8 bytes]...
+ * </pre>
+ */
+class StorageSnapshot {
+
+    private static final int MAGIC = 0x55505353; // "UPSS"
+    private static final int VERSION = 2;
+
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 6 * (4 + 4);
+    private static final int DEPARTMENT_SIZE = 3 * 4;
+    private static final int PROFESSOR_SIZE = 4 * 4;
+    private static final int COURSE_SIZE = 4 * 4;
+    private static final int STUDENT_SIZE = 5 * 4;
+    private static final int ENROLLMENT_SIZE = 3 * 4 + 8;
+    private static final int NO_DATE = Integer.MIN_VALUE; // The birth day of a person without a birth date
+
+    private final MappedByteBuffer buffer;
+    private final long generation;
+    private final int studentsOffset;
+    private final int studentCount;
+    private final int enrollmentsOffset;
+    private final int stringsOffset;
+
+    // Students that were already materialised or removed from the storage
+    private final BitSet consumedStudents;
+    private final BitSet removedStudents;
+
+    /**
+     * Writes a snapshot of the whole DataStorage and maps it. The snapshot is
+     * written to a temporary file first and then atomically moved over the
+     * previous one, so a crash while writing never leaves a half-written snapshot
+     * behind. Students still waiting in the previous snapshot are copied from it
+     * without being materialised, and wait in the new snapshot instead.
+     *
+     * @param path       the path of the snapshot file.
+     * @param generation the generation of the journal that follows this snapshot.
+     * @param previous   the snapshot the storage was loaded from, or null.
+     * @return the new snapshot, mapped from the written file.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    static StorageSnapshot write(Path path, long generation, StorageSnapshot previous) throws IOException {
+        if (previous == null) {
+            return writeSnapshot(path, generation, null);
+        }
+        synchronized (previous) { // No student is materialised from the previous snapshot meanwhile
+            return writeSnapshot(path, generation, previous);
+        }
+    }
+
+    private static StorageSnapshot writeSnapshot(Path path, long generation, StorageSnapshot previous)
+            throws IOException {
+        StringTable strings = new StringTable();
+
+        ArrayList<Department> departments = DataStorage.getDepartments();
+        ByteBuffer departmentSection = ByteBuffer.allocate(departments.size() * DEPARTMENT_SIZE);
+        for (Department department : departments) {
+            departmentSection.putInt(strings.add(department.getId()));
+            departmentSection.putInt(strings.add(department.getName()));
+            departmentSection.putInt(strings.add(department.getDescription()));
+        }
+
+        ArrayList<Professor> professors = DataStorage.getProfessors();
+        ByteBuffer professorSection = ByteBuffer.allocate(professors.size() * PROFESSOR_SIZE);
+        for (Professor professor : professors) {
+            professorSection.putInt(Integer.parseInt(professor.getId()));
+            professorSection.putInt(strings.add(professor.getName()));
+            professorSection.putInt(toDay(professor.getBirthDate()));
+            professorSection.putInt(strings.add(professor.getDepartment().getId()));
+        }
+
+        ArrayList<Course> courses = DataStorage.getCourses();
+        ByteBuffer courseSection = ByteBuffer.allocate(courses.size() * COURSE_SIZE);
+        for (Course course : courses) {
+            courseSection.putInt(strings.add(course.getId()));
+            courseSection.putInt(strings.add(course.getName()));
+            courseSection.putInt(strings.add(course.getDescription()));
+            courseSection.putInt(strings.add(course.getDepartment().getId()));
+        }
+
+        // Students are sorted by their numeric ID so they can be found with a binary search
+        ArrayList<Student> students = new ArrayList<>(DataStorage.getLoadedStudents());
+        students.sort(Comparator.comparingInt(s -> Integer.parseInt(s.getId())));
+
+        // Copy the enrollment lists once so both passes see the same enrollments
+        ArrayList<ArrayList<StudentEnrollment>> studentEnrollments = new ArrayList<>(students.size());
+        int enrollmentCount = 0;
+        for (Student student : students) {
+            ArrayList<StudentEnrollment> enrollments = new ArrayList<>(student.getEnrollments());
+            studentEnrollments.add(enrollments);
+            enrollmentCount += enrollments.size();
+        }
+
+        // The records of the students not in memory, also sorted by ID
+        int[] waitingStudents = previous == null ? new int[0] : previous.getWaitingStudents();
+        for (int index : waitingStudents) {
+            enrollmentCount += previous.buffer.getInt(previous.studentsOffset + index * STUDENT_SIZE + 16);
+        }
+
+        int studentCount = students.size() + waitingStudents.length;
+        ByteBuffer studentSection = ByteBuffer.allocate(studentCount * STUDENT_SIZE);
+        ByteBuffer enrollmentSection = ByteBuffer.allocate(enrollmentCount * ENROLLMENT_SIZE);
+        BitSet writtenStudents = new BitSet(studentCount); // The students the new snapshot must not materialise
+        int enrollmentIndex = 0;
+        for (int i = 0, j = 0; i < students.size() || j < waitingStudents.length; ) {
+            if (j == waitingStudents.length || (i < students.size() &&
+                    Integer.parseInt(students.get(i).getId()) < previous.getStudentId(waitingStudents[j]))) {
+                writtenStudents.set(i + j);
+                enrollmentIndex += writeStudent(students.get(i), studentEnrollments.get(i), enrollmentIndex,
+                        studentSection, enrollmentSection, strings);
+                i++;
+            } else {
+                enrollmentIndex += previous.copyStudent(waitingStudents[j], enrollmentIndex,
+                        studentSection, enrollmentSection, strings);
+                j++;
+            }
+        }
+
+        ByteBuffer[] sections = { departmentSection, professorSection, courseSection,
+                studentSection, enrollmentSection, strings.toBuffer() };
+        int[] counts = { departments.size(), professors.size(), courses.size(),
+                studentCount, enrollmentCount, strings.size() };
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putLong(generation);
+        int offset = HEADER_SIZE;
+        for (int i = 0; i < sections.length; i++) {
+            sections[i].flip();
+            header.putInt(offset);
+            header.putInt(counts[i]);
+            offset += sections[i].remaining();
+        }
+        header.flip();
+
+        Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(out, header);
+            for (ByteBuffer section : sections) {
+                writeFully(out, section);
+            }
+            out.force(true);
+        }
+
+        Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        StorageSnapshot snapshot = new StorageSnapshot(map(path));
+        snapshot.consumedStudents.or(writtenStudents);
+        return snapshot;
+    }
+
+    /**
+     * Writes the record of a student in memory and the records of its
+     * enrollments.
+     *
+     * @return the number of enrollment records written.
+     */
+    private static int writeStudent(Student student, ArrayList<StudentEnrollment> enrollments, int enrollmentIndex,
+            ByteBuffer studentSection, ByteBuffer enrollmentSection, StringTable strings) throws IOException {
+        studentSection.putInt(Integer.parseInt(student.getId()));
+        studentSection.putInt(strings.add(student.getName()));
+        studentSection.putInt(toDay(student.getBirthDate()));
+        studentSection.putInt(enrollmentIndex);
+        studentSection.putInt(enrollments.size());
+
+        for (StudentEnrollment enrollment : enrollments) {
+            enrollmentSection.putInt(strings.add(enrollment.getCourse().getId()));
+            enrollmentSection.putInt(Integer.parseInt(enrollment.getProfessor().getId()));
+            enrollmentSection.putInt((int) enrollment.getEnrollmentDate().toEpochDay());
+            enrollmentSection.putDouble(enrollment.getGradeScale());
+        }
+        return enrollments.size();
+    }
+
+    /**
+     * Copies the record of a student that was never materialised, and the records
+     * of its enrollments, into the sections of a new snapshot. Only the string
+     * references change, since the strings move to the new string table.
+     *
+     * @return the number of enrollment records copied.
+     */
+    private int copyStudent(int index, int enrollmentIndex, ByteBuffer studentSection, ByteBuffer enrollmentSection,
+            StringTable strings) throws IOException {
+        int offset = studentsOffset + index * STUDENT_SIZE;
+        int enrollmentCount = buffer.getInt(offset + 16);
+        studentSection.putInt(buffer.getInt(offset));
+        studentSection.putInt(strings.add(string(offset + 4)));
+        studentSection.putInt(buffer.getInt(offset + 8));
+        studentSection.putInt(enrollmentIndex);
+        studentSection.putInt(enrollmentCount);
+
+        int enrollmentOffset = enrollmentsOffset + buffer.getInt(offset + 12) * ENROLLMENT_SIZE;
+        for (int i = 0; i < enrollmentCount; i++, enrollmentOffset += ENROLLMENT_SIZE) {
+            enrollmentSection.putInt(strings.add(string(enrollmentOffset)));
+            enrollmentSection.putInt(buffer.getInt(enrollmentOffset + 4));
+            enrollmentSection.putInt(buffer.getInt(enrollmentOffset + 8));
+            enrollmentSection.putDouble(buffer.getDouble(enrollmentOffset + 12));
+        }
+        return enrollmentCount;
+    }
+
+    /**
+     * Returns the records of the students that are neither removed nor in memory.
+     * A student materialised by another thread but not yet put in the storage is
+     * included, since its record still holds its data.
+     */
+    private int[] getWaitingStudents() {
+        int[] indexes = new int[studentCount];
+        int count = 0;
+        for (int index = 0; index < studentCount; index++) {
+            if (!removedStudents.get(index) && !DataStorage.isStudentLoaded(Integer.toString(getStudentId(index)))) {
+                indexes[count++] = index;
+            }
+        }
+        return Arrays.copyOf(indexes, count);
+    }
+
+    private int getStudentId(int index) {
+        return buffer.getInt(studentsOffset + index * STUDENT_SIZE);
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    /**
+     * Maps the snapshot at the given path and loads its departments, professors
+     * and courses into the DataStorage. Students are left in the mapped file until
+     * they are requested.
+     *
+     * @param path the path of the snapshot file.
+     * @return the opened snapshot, or null if there is no snapshot.
+     * @throws IOException if the snapshot exists but cannot be read.
+     */
+    static StorageSnapshot read(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return null;
+        }
+
+        StorageSnapshot snapshot = new StorageSnapshot(map(path));
+        snapshot.loadDepartments();
+        snapshot.loadProfessors();
+        snapshot.loadCourses();
+        return snapshot;
+    }
+
+    /**
+     * Maps a snapshot file and checks its format.
+     */
+    private static MappedByteBuffer map(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+        }
+
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported snapshot format " + path);
+        }
+        return buffer;
+    }
+
+    private StorageSnapshot(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        this.generation = buffer.getLong(8);
+        this.studentsOffset = sectionOffset(3);
+        this.studentCount = sectionCount(3);
+        this.enrollmentsOffset = sectionOffset(4);
+        this.stringsOffset = sectionOffset(5);
+        this.consumedStudents = new BitSet(studentCount);
+        this.removedStudents = new BitSet(studentCount);
+
+        // New students must never reuse an ID stored in the snapshot
+        if (studentCount > 0) {
+            Student.reserveIds(buffer.getInt(studentsOffset + (studentCount - 1) * STUDENT_SIZE));
+        }
+    }
+
+    private int sectionOffset(int section) {
+        return buffer.getInt(16 + section * 8);
+    }
+
+    private int sectionCount(int section) {
+        return buffer.getInt(16 + section * 8 + 4);
+    }
+
+    /**
+     * Returns the generation of the journal that follows this snapshot.
+     *
+     * @return the journal generation.
+     */
+    long getGeneration() {
+        return generation;
+    }
+
+    private void loadDepartments() {
+        int offset = sectionOffset(0);
+        int count = sectionCount(0);
+        for (int i = 0; i < count; i++, offset += DEPARTMENT_SIZE) {
+            DataStorage.addDepartment(new Department(
+                    string(offset), string(offset + 4), string(offset + 8)));
+        }
+    }
+
+    private void loadProfessors() {
+        int offset = sectionOffset(1);
+        int count = sectionCount(1);
+        for (int i = 0; i < count; i++, offset += PROFESSOR_SIZE) {
+            Department department = DataStorage.getDepartmentById(string(offset + 12));
+            DataStorage.addProfessor(new Professor(buffer.getInt(offset), string(offset + 4),
+                    date(offset + 8), department));
+        }
+    }
+
+    private void loadCourses() {
+        int offset = sectionOffset(2);
+        int count = sectionCount(2);
+        for (int i = 0; i < count; i++, offset += COURSE_SIZE) {
+            Department department = DataStorage.getDepartmentById(string(offset + 12));
+            DataStorage.addCourse(new Course(string(offset), string(offset + 4), string(offset + 8), department));
+        }
+    }
+
+    /**
+     * Checks whether a student with the given ID is still waiting in the snapshot
+     * to be materialised.
+     *
+     * @param id the ID of the student.
+     * @return true if the student has not been materialised or removed yet.
+     */
+    synchronized boolean containsStudent(String id) {
+        int index = findStudent(id);
+        return index >= 0 && !consumedStudents.get(index);
+    }
+
+    /**
+     * Materialises a single student, together with its enrollments, from the
+     * snapshot. Each student is materialised at most once.
+     *
+     * @param id the ID of the student.
+     * @return the materialised student, or null if it is not in the snapshot or
+     *         was already materialised or removed.
+     */
+    synchronized Student materializeStudent(String id) {
+        int index = findStudent(id);
+        if (index < 0 || consumedStudents.get(index)) {
+            return null;
+        }
+        consumedStudents.set(index);
+        return decodeStudent(index);
+    }
+
+    /**
+     * Materialises every student that is still waiting in the snapshot.
+     *
+     * @param consumer receives each materialised student.
+     */
+    synchronized void materializeStudents(Consumer<Student> consumer) {
+        for (int index = consumedStudents.nextClearBit(0); index < studentCount;
+                index = consumedStudents.nextClearBit(index + 1)) {
+            consumedStudents.set(index);
+            consumer.accept(decodeStudent(index));
+        }
+    }
+
+    /**
+     * Marks a student as removed, so it is never materialised from the snapshot.
+     *
+     * @param id the ID of the student.
+     */
+    synchronized void forgetStudent(String id) {
+        int index = findStudent(id);
+        if (index >= 0) {
+            consumedStudents.set(index);
+            removedStudents.set(index);
+        }
+    }
+
+    /**
+     * Checks whether every student has already been materialised or removed.
+     *
+     * @return true if nothing is left to materialise.
+     */
+    synchronized boolean isFullyMaterialized() {
+        return consumedStudents.nextClearBit(0) >= studentCount;
+    }
+
+    private Student decodeStudent(int index) {
+        int offset = studentsOffset + index * STUDENT_SIZE;
+        Student student = new Student(buffer.getInt(offset), string(offset + 4), date(offset + 8));
+
+        int enrollmentOffset = enrollmentsOffset + buffer.getInt(offset + 12) * ENROLLMENT_SIZE;
+        int enrollmentCount = buffer.getInt(offset + 16);
+        for (int i = 0; i < enrollmentCount; i++, enrollmentOffset += ENROLLMENT_SIZE) {
+            Course course = DataStorage.getCourseById(string(enrollmentOffset));
+            Professor professor = DataStorage.getProfessorById(Integer.toString(buffer.getInt(enrollmentOffset + 4)));
+            // Restored without notifying the listeners, which must not run under the snapshot lock
+            student.restoreEnrollment(course, professor, LocalDate.ofEpochDay(buffer.getInt(enrollmentOffset + 8)),
+                    buffer.getDouble(enrollmentOffset + 12));
+        }
+        return student;
+    }
+
+    /**
+     * Binary searches the student section for the given ID.
+     *
+     * @return the record index of the student, or -1 if not found.
+     */
+    private int findStudent(String id) {
+        int key = parseId(id);
+        if (key < 0) {
+            return -1;
+        }
+
+        int low = 0;
+        int high = studentCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleId = getStudentId(middle);
+            if (middleId < key) {
+                low = middle + 1;
+            } else if (middleId > key) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parses a student ID without throwing on malformed input.
+     *
+     * @return the numeric ID, or -1 if the ID is not a valid number.
+     */
+    private static int parseId(String id) {
+        if (id == null || id.isEmpty() || id.length() > 9) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Decodes the birth day stored at the given offset.
+     */
+    private LocalDate date(int offset) {
+        int day = buffer.getInt(offset);
+        return day == NO_DATE ? null : LocalDate.ofEpochDay(day);
+    }
+
+    private static int toDay(LocalDate date) {
+        return date == null ? NO_DATE : (int) date.toEpochDay();
+    }
+
+    /**
+     * Decodes the string referenced by the int stored at the given offset.
+     */
+    private String string(int referenceOffset) {
+        int offset = stringsOffset + buffer.getInt(referenceOffset);
+        int length = buffer.getInt(offset);
+        byte[] bytes = new byte[length];
+        buffer.get(offset + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Collects distinct strings and assigns each one its offset in the string table.
+     */
+    private static class StringTable {
+
+        private final HashMap<String, Integer> offsets = new HashMap<>();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+
+        int add(String value) throws IOException {
+            String key = value == null ? "" : value;
+            Integer offset = offsets.get(key);
+            if (offset == null) {
+                offset = out.size();
+                byte[] encoded = key.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(encoded.length);
+                out.write(encoded);
+                offsets.put(key, offset);
+            }
+            return offset;
+        }
+
+        int size() {
+            return offsets.size();
+        }
+
+        ByteBuffer toBuffer() {
+            ByteBuffer buffer = ByteBuffer.allocate(bytes.size());
+            buffer.put(bytes.toByteArray());
+            return buffer;
+        }
+    }
+}
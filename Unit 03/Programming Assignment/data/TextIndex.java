@@ -0,0 +1,366 @@
+package data;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import models.Model;
+
+/**
+ * The TextIndex class is an inverted index for full-text search: it maps every
+ * word of the text of a model (its name, and its description for courses and
+ * departments) to the models containing it. Words are case-folded and stripped
+ * of accents, so "Jos&eacute;" is found by "jose".
+ *
+ * <p>
+ * Every distinct word is also indexed by its trigrams, the sequences of three
+ * characters of the word padded with '$' at both ends. A query word that is not
+ * in the index is matched against the words sharing trigrams with it that are at
+ * most one or two edits away, so typos such as "smtih" still find "smith", and
+ * against the words it starts, so "comp" finds "computer".
+ * Trigrams shared by too many words are skipped, as they cannot narrow the
+ * candidates.
+ * </p>
+ *
+ * <p>
+ * The index is updated incrementally when a model is added, removed or renamed,
+ * and is safe to update from several threads at once: the models of a word are
+ * changed atomically, and a word enters and leaves the trigram index together
+ * with its first and last model.
+ * </p>
+ *
+ * @param <TValue> the type of the indexed models.
+ */
+class TextIndex<TValue extends Model> {
+
+    private static final int MAX_TERM_ALTERNATIVES = 8;
+    private static final int MAX_TRIGRAM_TERMS = 20_000;
+    private static final int MIN_PREFIX_LENGTH = 3;
+
+    /**
+     * A model found by a search, with the sum of the similarity of its words to
+     * the query words.
+     */
+    private static final class Match<TValue extends Model> {
+
+        private final TValue value;
+        private final double score;
+
+        private Match(TValue value, double score) {
+            this.value = value;
+            this.score = score;
+        }
+    }
+
+    private final Function<TValue, String> textExtractor;
+    private final ConcurrentHashMap<String, Set<TValue>> postings = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<String>> termsByTrigram = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an empty TextIndex.
+     *
+     * @param textExtractor returns the current searchable text of a model.
+     */
+    TextIndex(Function<TValue, String> textExtractor) {
+        this.textExtractor = textExtractor;
+    }
+
+    /**
+     * Indexes every word of the current text of a model.
+     *
+     * @param value the model to index.
+     */
+    void add(TValue value) {
+        for (String term : tokenize(textExtractor.apply(value))) {
+            addTerm(term, value);
+        }
+    }
+
+    /**
+     * Removes every word of the current text of a model.
+     *
+     * @param value the model to remove.
+     */
+    void remove(TValue value) {
+        for (String term : tokenize(textExtractor.apply(value))) {
+            removeTerm(term, value);
+        }
+    }
+
+    /**
+     * Moves a model from the words of its old text to the words of its current
+     * text, typically after a setter changed its name or description.
+     *
+     * @param value   the model to re-index.
+     * @param oldText the text the model was indexed with.
+     */
+    void update(TValue value, String oldText) {
+        ArrayList<String> oldTerms = tokenize(oldText);
+        ArrayList<String> newTerms = tokenize(textExtractor.apply(value));
+        for (String term : oldTerms) {
+            if (!newTerms.contains(term)) {
+                removeTerm(term, value);
+            }
+        }
+        for (String term : newTerms) {
+            if (!oldTerms.contains(term)) {
+                addTerm(term, value);
+            }
+        }
+    }
+
+    private void addTerm(String term, TValue value) {
+        postings.compute(term, (key, values) -> {
+            if (values == null) {
+                values = ConcurrentHashMap.newKeySet();
+                for (String trigram : getTrigrams(term)) {
+                    termsByTrigram.computeIfAbsent(trigram, k -> ConcurrentHashMap.newKeySet()).add(term);
+                }
+            }
+            values.add(value);
+            return values;
+        });
+    }
+
+    private void removeTerm(String term, TValue value) {
+        postings.computeIfPresent(term, (key, values) -> {
+            values.remove(value);
+            if (!values.isEmpty()) {
+                return values;
+            }
+            for (String trigram : getTrigrams(term)) {
+                termsByTrigram.computeIfPresent(trigram, (k, terms) -> {
+                    terms.remove(term);
+                    return terms.isEmpty() ? null : terms;
+                });
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Finds the models containing every word of the query, or a word close to it.
+     * Exact words score 1 and words found through their trigrams score less the
+     * more edits they need. The best scores come first, then the names in order.
+     * When every query word is in the index, the search stops as soon as enough
+     * models are found, since they all score the same.
+     *
+     * @param query the words to search for.
+     * @param limit the maximum number of models to return.
+     * @return the matching models, best first.
+     */
+    ArrayList<TValue> search(String query, int limit) {
+        ArrayList<TValue> result = new ArrayList<>();
+        ArrayList<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return result;
+        }
+
+        // The words of the index each query word can match, with their similarity
+        ArrayList<Map<String, Double>> alternatives = new ArrayList<>();
+        boolean isExact = true;
+        for (String queryTerm : queryTerms) {
+            Map<String, Double> terms = getAlternatives(queryTerm);
+            if (terms.isEmpty()) {
+                return result; // Every word must match
+            }
+            isExact &= terms.size() == 1 && terms.containsKey(queryTerm);
+            alternatives.add(terms);
+        }
+
+        // Walk the models of the most selective query word, checking the others
+        int smallest = 0;
+        long smallestSize = Long.MAX_VALUE;
+        for (int i = 0; i < alternatives.size(); i++) {
+            long size = 0;
+            for (String term : alternatives.get(i).keySet()) {
+                size += postings.getOrDefault(term, Collections.emptySet()).size();
+            }
+            if (size < smallestSize) {
+                smallest = i;
+                smallestSize = size;
+            }
+        }
+
+        ArrayList<Match<TValue>> matches = new ArrayList<>();
+        HashSet<TValue> seen = new HashSet<>();
+        for (Map.Entry<String, Double> alternative : alternatives.get(smallest).entrySet()) {
+            for (TValue value : postings.getOrDefault(alternative.getKey(), Collections.emptySet())) {
+                if (isExact && matches.size() >= limit) {
+                    break;
+                }
+                if (!seen.add(value)) {
+                    continue;
+                }
+                double score = getScore(value, alternatives);
+                if (score > 0) {
+                    matches.add(new Match<>(value, score));
+                }
+            }
+        }
+
+        matches.sort(Comparator.comparingDouble((Match<TValue> match) -> -match.score)
+                .thenComparing(match -> match.value.getName(), Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER)));
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            result.add(matches.get(i).value);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the sum of the best similarity of the words of a model to each query
+     * word, or 0 if a query word has no match in the model.
+     */
+    private double getScore(TValue value, ArrayList<Map<String, Double>> alternatives) {
+        double score = 0;
+        for (Map<String, Double> terms : alternatives) {
+            double best = 0;
+            for (Map.Entry<String, Double> term : terms.entrySet()) {
+                if (term.getValue() > best && postings.getOrDefault(term.getKey(), Collections.emptySet()).contains(value)) {
+                    best = term.getValue();
+                }
+            }
+            if (best == 0) {
+                return 0;
+            }
+            score += best;
+        }
+        return score;
+    }
+
+    /**
+     * Returns the query word itself when it is indexed; otherwise the closest
+     * indexed words sharing trigrams with it, with their similarity: the words it
+     * is the start of, so a search can be typed partially, and the words a typo
+     * or two away.
+     */
+    private Map<String, Double> getAlternatives(String queryTerm) {
+        HashMap<String, Double> alternatives = new HashMap<>();
+        if (postings.containsKey(queryTerm)) {
+            alternatives.put(queryTerm, 1.0);
+            return alternatives;
+        }
+
+        HashMap<String, Integer> sharedCounts = new HashMap<>();
+        for (String trigram : getTrigrams(queryTerm)) {
+            Set<String> terms = termsByTrigram.get(trigram);
+            if (terms == null || terms.size() > MAX_TRIGRAM_TERMS) {
+                continue;
+            }
+            for (String term : terms) {
+                sharedCounts.merge(term, 1, Integer::sum);
+            }
+        }
+
+        int maxEdits = queryTerm.length() <= 4 ? 1 : 2;
+        ArrayList<Map.Entry<String, Double>> candidates = new ArrayList<>();
+        for (String term : sharedCounts.keySet()) {
+            if (queryTerm.length() >= MIN_PREFIX_LENGTH && term.startsWith(queryTerm)) {
+                candidates.add(Map.entry(term, 0.5 + 0.5 * queryTerm.length() / term.length()));
+                continue;
+            }
+            if (Math.abs(term.length() - queryTerm.length()) > maxEdits) {
+                continue;
+            }
+            int edits = getEditDistance(queryTerm, term, maxEdits);
+            if (edits <= maxEdits) {
+                candidates.add(Map.entry(term, 1.0 - edits / (double) (Math.max(term.length(), queryTerm.length()) + 1)));
+            }
+        }
+        candidates.sort(Map.Entry.<String, Double>comparingByValue().reversed());
+        for (int i = 0; i < candidates.size() && i < MAX_TERM_ALTERNATIVES; i++) {
+            alternatives.put(candidates.get(i).getKey(), candidates.get(i).getValue());
+        }
+        return alternatives;
+    }
+
+    /**
+     * Returns the number of insertions, deletions, substitutions and swaps of
+     * adjacent characters that turn one word into another, or maxEdits + 1 once
+     * it is certain to exceed maxEdits.
+     */
+    private static int getEditDistance(String a, String b, int maxEdits) {
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int edits = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    edits = Math.min(edits, previous2[j - 2] + 1);
+                }
+                current[j] = edits;
+                rowMin = Math.min(rowMin, edits);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+
+    private static ArrayList<String> getTrigrams(String term) {
+        String padded = "$" + term + "$";
+        ArrayList<String> trigrams = new ArrayList<>(padded.length() - 2);
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    /**
+     * Splits a text into its distinct words, case-folded and without accents.
+     * Letters and digits make up words; everything else separates them. Names
+     * and descriptions are short, so duplicates are found by a linear scan
+     * rather than a hash set.
+     *
+     * @param text the text to split, may be null.
+     * @return the words of the text, in order.
+     */
+    static ArrayList<String> tokenize(String text) {
+        ArrayList<String> terms = new ArrayList<>(4);
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+
+        boolean isAscii = true;
+        for (int i = 0; i < text.length() && isAscii; i++) {
+            isAscii = text.charAt(i) < 128;
+        }
+        String folded = isAscii ? text : Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+        folded = folded.toLowerCase(Locale.ROOT);
+
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean isWordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (isWordChar && start < 0) {
+                start = i;
+            } else if (!isWordChar && start >= 0) {
+                String term = folded.substring(start, i);
+                if (!terms.contains(term)) {
+                    terms.add(term);
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,436 @@
+package managers;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+import data.BulkExporter;
+import data.BulkImporter;
+import data.DataStorage;
+import data.EntityType;
+import data.ExportFormat;
+import data.ExportReport;
+import data.ImportReport;
+import data.Query;
+import models.*;
+import utils.*;
+
+/**
+ * The BatchRunner class runs a script of commands without any user
+ * interaction, so the system can be administered in bulk or load tested from a
+ * file or a pipe. Every command goes through the same manager logic as the
+ * menus, so a script makes exactly the changes a user would.
+ *
+ * <p>
+ * A script has one command per line. Blank lines and lines starting with # are
+ * ignored, and values containing spaces are written in double quotes. The word
+ * {@code last} can be used instead of a student or professor ID to refer to the
+ * last student or professor added by the script.
+ * </p>
+ *
+ * <pre>
+ * add department &lt;id&gt; &lt;name&gt; &lt;description&gt;
+ * add professor &lt;name&gt; &lt;birth date&gt; &lt;department id&gt;
+ * add course &lt;id&gt; &lt;name&gt; &lt;description&gt; &lt;department id&gt;
+ * add student &lt;name&gt; &lt;birth date&gt;
+ * update department|course &lt;id&gt; &lt;name&gt; &lt;description&gt;
+ * update professor|student &lt;id&gt; &lt;name&gt; &lt;birth date&gt;
+ * enroll &lt;student id&gt; &lt;course id&gt; &lt;professor id&gt; [enrollment date]
+ * grade &lt;student id&gt; &lt;course id&gt; &lt;grade scale&gt;
+ * delete student &lt;id&gt;
+ * view departments|professors|courses|students [details]
+ * search departments|professors|courses|students &lt;words&gt;
+ * query &lt;query&gt;
+ * top students &lt;count&gt; [department id]
+ * honor roll &lt;minimum gpa&gt; [department id]
+ * below gpa &lt;gpa&gt; [department id]
+ * rank &lt;student id&gt; [department id]
+ * dashboard [department id]
+ * import departments|professors|courses|students|enrollments &lt;file&gt;
+ * export &lt;directory&gt; [csv|jsonl] [gzip]
+ * metrics &lt;file&gt;
+ * commit
+ * </pre>
+ *
+ * <p>
+ * The output is written to a buffered stream that is only flushed when the
+ * script ends, and the console is never read. A command that fails reports the
+ * line number and the error and the script goes on. Changes are made durable
+ * every {@value #COMMIT_INTERVAL} commands, on {@code commit}, and at the end.
+ * </p>
+ */
+public class BatchRunner {
+
+    private static final int COMMIT_INTERVAL = 1000;
+
+    /**
+     * A command of the script: the number of values it takes and the action that
+     * runs it.
+     */
+    private static final class Statement {
+
+        private final String usage;
+        private final int minimumValues;
+        private final int maximumValues;
+        private final Consumer<List<String>> action;
+
+        private Statement(String usage, int minimumValues, int maximumValues, Consumer<List<String>> action) {
+            this.usage = usage;
+            this.minimumValues = minimumValues;
+            this.maximumValues = maximumValues;
+            this.action = action;
+        }
+    }
+
+    private final DepartmentManager departmentManager = new DepartmentManager();
+    private final ProfessorManager professorManager = new ProfessorManager();
+    private final CourseManager courseManager = new CourseManager();
+    private final StudentManager studentManager = new StudentManager();
+    private final HashMap<String, Statement> statements = new HashMap<>();
+    private Student lastStudent;
+    private Professor lastProfessor;
+    private int commandCount;
+    private int errorCount;
+
+    /**
+     * Constructs a BatchRunner with the commands of the script language.
+     */
+    public BatchRunner() {
+        register("add department", "add department <id> <name> <description>", 3, 3,
+                values -> add(departmentManager, values, false));
+        register("add professor", "add professor <name> <birth date> <department id>", 3, 3,
+                values -> lastProfessor = add(professorManager, values, true));
+        register("add course", "add course <id> <name> <description> <department id>", 4, 4,
+                values -> add(courseManager, values, true));
+        register("add student", "add student <name> <birth date>", 2, 2,
+                values -> lastStudent = add(studentManager, values, false));
+        register("update department", "update department <id> <name> <description>", 3, 3,
+                values -> update(departmentManager, values, null));
+        register("update professor", "update professor <id> <name> <birth date>", 3, 3,
+                values -> update(professorManager, values, lastProfessor));
+        register("update course", "update course <id> <name> <description>", 3, 3,
+                values -> update(courseManager, values, null));
+        register("update student", "update student <id> <name> <birth date>", 3, 3,
+                values -> update(studentManager, values, lastStudent));
+        register("enroll", "enroll <student id> <course id> <professor id> [enrollment date]", 3, 4, this::enroll);
+        register("grade", "grade <student id> <course id> <grade scale>", 3, 3, this::grade);
+        register("delete student", "delete student <id>", 1, 1,
+                values -> studentManager.delete(find(studentManager, values.get(0), lastStudent)));
+        register("view departments", "view departments [details]", 0, 1, values -> view(departmentManager, values));
+        register("view professors", "view professors [details]", 0, 1, values -> view(professorManager, values));
+        register("view courses", "view courses [details]", 0, 1, values -> view(courseManager, values));
+        register("view students", "view students [details]", 0, 1, values -> view(studentManager, values));
+        register("search departments", "search departments <words>", 1, Integer.MAX_VALUE,
+                values -> departmentManager.showSearchResults(String.join(" ", values)));
+        register("search professors", "search professors <words>", 1, Integer.MAX_VALUE,
+                values -> professorManager.showSearchResults(String.join(" ", values)));
+        register("search courses", "search courses <words>", 1, Integer.MAX_VALUE,
+                values -> courseManager.showSearchResults(String.join(" ", values)));
+        register("search students", "search students <words>", 1, Integer.MAX_VALUE,
+                values -> studentManager.showSearchResults(String.join(" ", values)));
+        register("query", "query <type> [where ...] [group by ...] [order by ...] [limit <number>]", 1,
+                Integer.MAX_VALUE, values -> Query.parse(joinQuoted(values)).execute().print());
+        register("top students", "top students <count> [department id]", 1, 2,
+                values -> studentManager.showTopStudents(findDepartment(values), parseInt(values.get(0), "count")));
+        register("honor roll", "honor roll <minimum gpa> [department id]", 1, 2,
+                values -> studentManager.showHonorRoll(parseDouble(values.get(0), "GPA"), findDepartment(values)));
+        register("below gpa", "below gpa <gpa> [department id]", 1, 2,
+                values -> studentManager.showStudentsBelowGpa(parseDouble(values.get(0), "GPA"), findDepartment(values)));
+        register("rank", "rank <student id> [department id]", 1, 2,
+                values -> studentManager.showRank(find(studentManager, values.get(0), lastStudent), findDepartment(values)));
+        register("dashboard", "dashboard [department id]", 0, 1, values -> {
+            if (values.isEmpty()) {
+                departmentManager.showDashboard();
+            } else {
+                departmentManager.showCourseStatistics(find(departmentManager, values.get(0), null));
+            }
+        });
+        register("import", "import departments|professors|courses|students|enrollments <file>", 2, 2,
+                this::importFile);
+        register("export", "export <directory> [csv|jsonl] [gzip]", 1, 3, this::exportDirectory);
+        register("metrics", "metrics <file>", 1, 1, this::dumpMetrics);
+        register("commit", "commit", 0, 0, values -> DataStorage.commit());
+    }
+
+    private void register(String name, String usage, int minimumValues, int maximumValues,
+            Consumer<List<String>> action) {
+        statements.put(name, new Statement(usage, minimumValues, maximumValues, action));
+    }
+
+    /**
+     * Runs every command of a script. The standard output is replaced by the given
+     * stream while the script runs, and messages are printed without colours.
+     *
+     * @param script the script to run, one command per line.
+     * @param output the stream the messages and views are written to.
+     * @return the number of commands that failed.
+     * @throws IOException if the script cannot be read.
+     */
+    public int run(Reader script, PrintStream output) throws IOException {
+        BufferedReader reader = script instanceof BufferedReader ? (BufferedReader) script : new BufferedReader(script);
+        PrintStream standardOutput = System.out;
+        boolean isColorEnabled = PrintUtils.isColorEnabled();
+        System.setOut(output);
+        PrintUtils.setColorEnabled(false);
+
+        long startTime = System.nanoTime();
+        try {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    execute(tokenize(line));
+                } catch (IllegalArgumentException | DateTimeException e) {
+                    errorCount++;
+                    PrintUtils.printFail("Line " + lineNumber + ": " + e.getMessage());
+                }
+                if (++commandCount % COMMIT_INTERVAL == 0) {
+                    DataStorage.commit(); // Group the changes of many commands in one commit
+                }
+            }
+            DataStorage.commit();
+
+            long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+            System.out.println("Ran " + commandCount + " commands in " + elapsedMillis + " ms, " +
+                    errorCount + " failed");
+        } finally {
+            output.flush();
+            System.setOut(standardOutput);
+            PrintUtils.setColorEnabled(isColorEnabled);
+        }
+        return errorCount;
+    }
+
+    /**
+     * Finds the statement named by the first words of a command and runs it with
+     * the remaining values.
+     */
+    private void execute(List<String> tokens) {
+        String name = tokens.get(0).toLowerCase(Locale.ROOT);
+        int nameLength = 1;
+        Statement statement = statements.get(name);
+        if (statement == null && tokens.size() > 1) {
+            name += " " + tokens.get(1).toLowerCase(Locale.ROOT);
+            nameLength = 2;
+            statement = statements.get(name);
+        }
+        if (statement == null) {
+            throw new IllegalArgumentException("Unknown command " + String.join(" ", tokens));
+        }
+
+        List<String> values = tokens.subList(nameLength, tokens.size());
+        if (values.size() < statement.minimumValues || values.size() > statement.maximumValues) {
+            throw new IllegalArgumentException("Usage: " + statement.usage);
+        }
+        statement.action.accept(values);
+    }
+
+    /**
+     * Splits a command into words. Words in double quotes may contain spaces.
+     */
+    private static List<String> tokenize(String line) {
+        ArrayList<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        boolean isQuoted = false;
+        boolean hasToken = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                isQuoted = !isQuoted;
+                hasToken = true;
+            } else if (Character.isWhitespace(c) && !isQuoted) {
+                if (hasToken) {
+                    tokens.add(token.toString());
+                    token.setLength(0);
+                    hasToken = false;
+                }
+            } else {
+                token.append(c);
+                hasToken = true;
+            }
+        }
+        if (isQuoted) {
+            throw new IllegalArgumentException("Missing closing quote");
+        }
+        if (hasToken) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    /**
+     * Joins words back into one line, quoting the words that contain spaces, so
+     * a command can hand its values to a parser of its own.
+     */
+    private static String joinQuoted(List<String> values) {
+        StringBuilder line = new StringBuilder();
+        for (String value : values) {
+            if (line.length() > 0) {
+                line.append(' ');
+            }
+            boolean isQuoted = value.isEmpty() || value.chars().anyMatch(Character::isWhitespace);
+            line.append(isQuoted ? "\"" + value + "\"" : value);
+        }
+        return line.toString();
+    }
+
+    /**
+     * Creates a model from the values of a command, in the order of the fields of
+     * its manager, followed by the department ID when the model belongs to one.
+     */
+    private <T extends Model> T add(CrudManager<T> manager, List<String> values, boolean hasDepartment) {
+        ArrayList<String> fields = manager.getFields(false);
+        HashMap<String, String> fieldValues = new HashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            fieldValues.put(fields.get(i), values.get(i));
+        }
+
+        HashMap<String, Model> relatedModels = new HashMap<>();
+        if (hasDepartment) {
+            relatedModels.put("Department", find(departmentManager, values.get(fields.size()), null));
+        }
+        return manager.getOperation("add").call(() -> manager.create(fieldValues, relatedModels));
+    }
+
+    /**
+     * Updates the model with the ID given first, using the remaining values in the
+     * order of the fields of its manager.
+     */
+    private <T extends Model> void update(CrudManager<T> manager, List<String> values, T last) {
+        T model = find(manager, values.get(0), last);
+        ArrayList<String> fields = manager.getFields(true);
+        HashMap<String, String> fieldValues = new HashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            fieldValues.put(fields.get(i), values.get(i + 1));
+        }
+        manager.getOperation("update").run(() -> manager.update(model, fieldValues));
+    }
+
+    private void enroll(List<String> values) {
+        Student student = find(studentManager, values.get(0), lastStudent);
+        Course course = find(courseManager, values.get(1), null);
+        Professor professor = find(professorManager, values.get(2), lastProfessor);
+        LocalDate enrollmentDate = values.size() > 3 ? DateUtils.dateParser(values.get(3)) : DateUtils.today();
+        studentManager.enroll(student, course, professor, enrollmentDate);
+    }
+
+    private void grade(List<String> values) {
+        Student student = find(studentManager, values.get(0), lastStudent);
+        Course course = find(courseManager, values.get(1), null);
+        studentManager.setGrade(student, course, parseDouble(values.get(2), "grade scale"));
+    }
+
+    /**
+     * Finds the department given as the second value of a ranking command.
+     *
+     * @return the department, or null when the command ranks every student.
+     */
+    private Department findDepartment(List<String> values) {
+        return values.size() > 1 ? find(departmentManager, values.get(1), null) : null;
+    }
+
+    private static double parseDouble(String value, String description) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + description + " " + value);
+        }
+    }
+
+    private static int parseInt(String value, String description) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + description + " " + value);
+        }
+    }
+
+    private void view(CrudManager<?> manager, List<String> values) {
+        boolean isIncludeDetails = !values.isEmpty() && values.get(0).equalsIgnoreCase("details");
+        if (!values.isEmpty() && !isIncludeDetails) {
+            throw new IllegalArgumentException("Unknown view option " + values.get(0));
+        }
+        manager.view(isIncludeDetails);
+    }
+
+    /**
+     * Imports a CSV or TSV file of records through a BulkImporter.
+     *
+     * @throws IllegalArgumentException if any row of the file was rejected.
+     */
+    private void importFile(List<String> values) {
+        ImportReport report;
+        try {
+            report = new BulkImporter().importFile(EntityType.fromName(values.get(0)), Paths.get(values.get(1)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        report.print();
+        if (report.getErrorCount() > 0) {
+            throw new IllegalArgumentException(report.getErrorCount() + " rows of " + values.get(1) + " were rejected");
+        }
+    }
+
+    /**
+     * Exports every record to a directory through a BulkExporter.
+     */
+    private void exportDirectory(List<String> values) {
+        ExportFormat format = ExportFormat.CSV;
+        boolean isCompressed = false;
+        for (String option : values.subList(1, values.size())) {
+            if (option.equalsIgnoreCase("gzip")) {
+                isCompressed = true;
+            } else {
+                format = ExportFormat.fromName(option);
+            }
+        }
+
+        try {
+            for (ExportReport report : new BulkExporter(format, isCompressed).exportDirectory(Paths.get(values.get(0)))) {
+                PrintUtils.printSuccess(report.getSummary());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the operation metrics collected so far to a file.
+     */
+    private void dumpMetrics(List<String> values) {
+        try {
+            OperationMetrics.dump(Paths.get(values.get(0)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        PrintUtils.printSuccess("Metrics written to " + values.get(0));
+    }
+
+    /**
+     * Finds a model by ID, where the word last refers to the given model.
+     *
+     * @throws IllegalArgumentException if no model has the ID.
+     */
+    private <T extends Model> T find(CrudManager<T> manager, String id, T last) {
+        T model = last != null && id.equalsIgnoreCase("last") ? last : manager.findById(id);
+        if (model == null) {
+            throw new IllegalArgumentException("Invalid " + manager.getModelDescription() + " ID " + id);
+        }
+        return model;
+    }
+}
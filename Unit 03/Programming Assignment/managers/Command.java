@@ -0,0 +1,21 @@
+package managers;
+
+/**
+ * The Command interface represents one action of a menu, such as adding a
+ * student or viewing the courses. Commands are registered in a CommandMenu,
+ * which lists them and dispatches the option chosen by the user.
+ */
+public interface Command {
+
+    /**
+     * Returns the description of the command, as shown in the menu.
+     *
+     * @return the description of the command.
+     */
+    String getDescription();
+
+    /**
+     * Runs the command.
+     */
+    void execute();
+}
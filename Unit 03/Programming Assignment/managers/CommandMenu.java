@@ -0,0 +1,99 @@
+package managers;
+
+import java.util.ArrayList;
+
+import data.DataStorage;
+import utils.*;
+
+/**
+ * The CommandMenu class is a registry of commands shown as a numbered menu.
+ * Running the menu lists the commands, reads the chosen option and dispatches it
+ * in a loop until the user chooses 0, so menus never call themselves and a
+ * session can run for any number of actions in constant stack depth.
+ *
+ * <p>
+ * The changes of every command are made durable before the menu is shown again.
+ * A command that fails with an IllegalArgumentException reports the error and
+ * returns to the menu instead of ending the program.
+ * </p>
+ */
+public class CommandMenu {
+
+    private final String title;
+    private final String exitDescription;
+    private final ArrayList<Command> commands = new ArrayList<>();
+
+    /**
+     * Constructs an empty CommandMenu.
+     *
+     * @param title           the title shown above the options, or null.
+     * @param exitDescription the description of option 0, such as "Exit".
+     */
+    public CommandMenu(String title, String exitDescription) {
+        this.title = title;
+        this.exitDescription = exitDescription;
+    }
+
+    /**
+     * Registers a command under the next option number.
+     *
+     * @param command the command to register.
+     * @return this CommandMenu.
+     */
+    public CommandMenu add(Command command) {
+        this.commands.add(command);
+        return this;
+    }
+
+    /**
+     * Registers an action under the next option number.
+     *
+     * @param description the description of the action, as shown in the menu.
+     * @param action      the action to run when the option is chosen.
+     * @return this CommandMenu.
+     */
+    public CommandMenu add(String description, Runnable action) {
+        return add(new Command() {
+            @Override
+            public String getDescription() {
+                return description;
+            }
+
+            @Override
+            public void execute() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Shows the menu and runs the chosen commands until the user chooses 0.
+     */
+    public void run() {
+        while (true) {
+            if (title != null) {
+                System.out.println(title);
+            }
+            System.out.println("0. " + exitDescription);
+            for (int i = 0; i < commands.size(); i++) {
+                System.out.println((i + 1) + ". " + commands.get(i).getDescription());
+            }
+
+            int option = InputUtils.getInt("Enter an option: ");
+            if (option == 0) {
+                return;
+            }
+            if (option < 0 || option > commands.size()) {
+                PrintUtils.printFail("Invalid option, please try again.");
+                continue;
+            }
+
+            try {
+                commands.get(option - 1).execute();
+            } catch (IllegalArgumentException e) {
+                PrintUtils.printFail(e.getMessage());
+            }
+            DataStorage.commit(); // Make the changes of the action durable
+        }
+    }
+}
@@ -2,9 +2,12 @@ package managers;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 
 import data.DataStorage;
+import data.PagedView;
+import data.SortKey;
 import models.*;
 import utils.*;
 
@@ -27,11 +30,24 @@ public class CourseManager extends CrudManager<Course> {
     /**
      * Retrieves the list of all courses from the data storage.
      * 
-     * @return an ArrayList of Course objects.
+     * @return a read-only live Collection of Course objects.
      */
     @Override
-    public ArrayList<Course> getModels() {
-        return DataStorage.getCourses();
+    public Collection<Course> getModels() {
+        return DataStorage.getCoursesView();
+    }
+
+    /**
+     * Retrieves the courses from the data storage as a sorted, paged view.
+     * 
+     * @param sortKey      the order of the courses.
+     * @param isDescending true to list the courses in reverse order.
+     * @param pageSize     the maximum number of courses in each page.
+     * @return a PagedView of Course objects.
+     */
+    @Override
+    public PagedView<Course> getPagedView(SortKey sortKey, boolean isDescending, int pageSize) {
+        return DataStorage.getCoursesPaged(sortKey, isDescending, pageSize);
     }
 
     /**
@@ -69,7 +85,7 @@ public class CourseManager extends CrudManager<Course> {
     @Override
     public HashMap<String, Model> getRelatedModels() {
         HashMap<String, Model> relatedModels = new HashMap<>();
-        Model department = this.chooseModel("Department", DataStorage.getDepartments());
+        Model department = this.chooseModel(new DepartmentManager());
         relatedModels.put("Department", department);
         return relatedModels;
     }
@@ -79,9 +95,10 @@ public class CourseManager extends CrudManager<Course> {
      * 
      * @param fieldValues a HashMap containing the field names and their corresponding values.
      * @param relatedModels a HashMap of related models (including Department).
+     * @return the created Course.
      */
     @Override
-    public void create(HashMap<String, String> fieldValues, HashMap<String, Model> relatedModels) {
+    public Course create(HashMap<String, String> fieldValues, HashMap<String, Model> relatedModels) {
         String id = fieldValues.get("Id");
         String name = fieldValues.get("Name");
         String description = fieldValues.get("Description");
@@ -90,6 +107,7 @@ public class CourseManager extends CrudManager<Course> {
         Course course = new Course(id, name, description, department);
         DataStorage.addCourse(course);
         PrintUtils.printSuccess("Course " + name + " added successfully");
+        return course;
     }
 
     /**
@@ -118,4 +136,28 @@ public class CourseManager extends CrudManager<Course> {
     public Course findById(String id) {
         return DataStorage.getCourseById(id);
     }
+
+    /**
+     * Finds the Courses whose ID or name starts with the given text.
+     * 
+     * @param text  the start of the ID or name.
+     * @param limit the maximum number of Courses to return.
+     * @return the matching Course objects.
+     */
+    @Override
+    public ArrayList<Course> search(String text, int limit) {
+        return DataStorage.searchCourses(text, limit);
+    }
+
+    /**
+     * Finds the Courses whose name or description contains the words of the query.
+     * 
+     * @param query the words to search for.
+     * @param limit the maximum number of Courses to return.
+     * @return the matching Course objects, best first.
+     */
+    @Override
+    public ArrayList<Course> searchText(String query, int limit) {
+        return DataStorage.searchCoursesText(query, limit);
+    }
 }
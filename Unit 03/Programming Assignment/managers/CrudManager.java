@@ -1,7 +1,11 @@
 package managers;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import data.DataStorage;
+import data.PagedView;
+import data.SortKey;
 import models.*;
 import utils.*;
 
@@ -13,6 +17,9 @@ import utils.*;
  */
 public abstract class CrudManager<TModel extends Model> {
 
+    private static final int MAX_LISTED_CHOICES = 20;
+    private static final int MAX_SEARCH_RESULTS = 50;
+
     /**
      * Returns the description of the model managed by this class.
      * 
@@ -21,11 +28,32 @@ public abstract class CrudManager<TModel extends Model> {
     public abstract String getModelDescription();
 
     /**
-     * Retrieves the list of all models managed by this class.
+     * Retrieves all models managed by this class as a read-only live view, so
+     * listing them does not copy the whole collection.
+     * 
+     * @return a Collection of models.
+     */
+    public abstract Collection<TModel> getModels();
+
+    /**
+     * Retrieves the models managed by this class as a sorted, paged view.
+     * 
+     * @param sortKey      the order of the models.
+     * @param isDescending true to list the models in reverse order.
+     * @param pageSize     the maximum number of models in each page.
+     * @return a PagedView positioned on the first page.
+     */
+    public abstract PagedView<TModel> getPagedView(SortKey sortKey, boolean isDescending, int pageSize);
+
+    /**
+     * Returns the orders the models can be browsed in. Every model can be sorted
+     * by ID and name; subclasses add their own keys.
      * 
-     * @return an ArrayList of models.
+     * @return the supported sort keys.
      */
-    public abstract ArrayList<TModel> getModels();
+    public SortKey[] getSortKeys() {
+        return new SortKey[] { SortKey.ID, SortKey.NAME };
+    }
 
     /**
      * Returns a formatted header for displaying model data.
@@ -50,13 +78,35 @@ public abstract class CrudManager<TModel extends Model> {
      */
     public abstract TModel findById(String id);
 
+    /**
+     * Finds the models whose ID or name starts with the given text, without
+     * scanning every model.
+     * 
+     * @param text  the start of the ID or name.
+     * @param limit the maximum number of models to return.
+     * @return the matching models, matching IDs first.
+     */
+    public abstract ArrayList<TModel> search(String text, int limit);
+
+    /**
+     * Finds the models whose text (their name, and for some models their
+     * description) contains every word of the query, tolerating case, accents
+     * and typos.
+     * 
+     * @param query the words to search for.
+     * @param limit the maximum number of models to return.
+     * @return the matching models, best first.
+     */
+    public abstract ArrayList<TModel> searchText(String query, int limit);
+
     /**
      * Creates a new model instance with the provided field values and related models.
      * 
      * @param fieldValues a HashMap containing field names and their values.
      * @param relatedModels a HashMap of related models.
+     * @return the created model.
      */
-    public abstract void create(HashMap<String, String> fieldValues, HashMap<String, Model> relatedModels);
+    public abstract TModel create(HashMap<String, String> fieldValues, HashMap<String, Model> relatedModels);
 
     /**
      * Updates an existing model with new field values.
@@ -68,7 +118,7 @@ public abstract class CrudManager<TModel extends Model> {
 
     /**
      * Displays a management menu for CRUD operations on the model, along with additional options 
-     * for specific cases like student management.
+     * for specific cases like student management. The menu runs until the user goes back.
      */
     public void showMenu() {
 
@@ -77,57 +127,25 @@ public abstract class CrudManager<TModel extends Model> {
         System.out.println("----------------------------------------------------------");
         System.out.println("Welcome to the " + modelDescription + " Management");
 
-        System.out.println("0. Back to Main Menu");
-        System.out.println("1. Add " + modelDescription);
-        System.out.println("2. Update " + modelDescription);
-        System.out.println("3. View " + modelDescription + "s");
-        System.out.println("4. View " + modelDescription + "s with Details");
-
-        // Check for specific StudentManager options
-        if (this instanceof StudentManager) {
-            System.out.println("5. Enroll Student in Course");
-            System.out.println("6. Set Grade for Student in Course");
-            System.out.println("7. Delete " + modelDescription);
-        }
-
-        int option = InputUtils.getInt("Enter an option: ");
-
-        switch (option) {
-            case 0:
-                return;
-            case 1:
-                add();
-                break;
-            case 2:
-                update();
-                break;
-            case 3:
-                view(false);
-                break;
-            case 4:
-                view(true);
-                break;
-            case 5:
-                if (this instanceof StudentManager) {
-                    ((StudentManager) this).enrollStudentInCourse();
-                }
-                break;
-            case 6:
-                if (this instanceof StudentManager) {
-                    ((StudentManager) this).setStudentGrade();
-                }
-                break;
-            case 7:
-                if (this instanceof StudentManager) {
-                    ((StudentManager) this).delete();
-                }
-                break;
-            default:
-                PrintUtils.printFail("Invalid option, please try again.");
-                break;
-        }
+        CommandMenu menu = new CommandMenu(null, "Back to Main Menu");
+        this.registerCommands(menu);
+        menu.add("Browse " + modelDescription + "s Page by Page", this::browse);
+        menu.add("Search " + modelDescription + "s", this::searchText);
+        menu.run();
+    }
 
-        showMenu(); // Display the menu again after performing an action
+    /**
+     * Registers the commands of the management menu. Subclasses can override this
+     * method to add their own commands after the CRUD ones.
+     * 
+     * @param menu the menu to register the commands in.
+     */
+    protected void registerCommands(CommandMenu menu) {
+        String modelDescription = this.getModelDescription();
+        menu.add("Add " + modelDescription, this::add)
+            .add("Update " + modelDescription, this::update)
+            .add("View " + modelDescription + "s", () -> this.view(false))
+            .add("View " + modelDescription + "s with Details", () -> this.view(true));
     }
 
     /**
@@ -136,9 +154,13 @@ public abstract class CrudManager<TModel extends Model> {
      * @param isIncludeDetails flag indicating whether to include additional details in the view.
      */
     public void view(boolean isIncludeDetails) {
+        this.getOperation(isIncludeDetails ? "view details" : "view").run(() -> this.printView(isIncludeDetails));
+    }
+
+    private void printView(boolean isIncludeDetails) {
 
         // Get the list of models
-        ArrayList<TModel> models = this.getModels();
+        Collection<TModel> models = this.getModels();
 
         // Check if any models exist
         if (models.size() == 0) {
@@ -146,22 +168,124 @@ public abstract class CrudManager<TModel extends Model> {
             return;
         }
 
-        // Display the models
-        
-        System.out.println("View " + this.getModelDescription());
+        // Display the models, streaming the rows through one buffer
+        TableWriter writer = TableWriter.toConsole();
+        writer.text("View " + this.getModelDescription()).endRow();
         String headerView = this.getViewHeader();
-        System.out.println(headerView);
-        System.out.println(StringUtils.repeat("-", headerView.length()));
+        writer.text(headerView).endRow();
+        writer.rule(headerView.length()).endRow();
 
         for (TModel model : models) {
-            String view = model.getView(isIncludeDetails);
-            PrintUtils.println(view);
+            model.writeCachedView(writer, isIncludeDetails);
         }
 
         // print total number of models
-        System.out.println("Total " + this.getModelDescription() + "s: " + models.size());
+        writer.text("Total " + this.getModelDescription() + "s: " + models.size()).endRow();
+        writer.flush();
+    }
+
+    /**
+     * Prompts the user for words and lists the models matching them.
+     */
+    public void searchText() {
+        String query = InputUtils.getString("Search for: ", true);
+        this.showSearchResults(query);
+    }
+
+    /**
+     * Lists the best models matching the words of a query, through the full-text
+     * index of the storage.
+     * 
+     * @param query the words to search for.
+     */
+    public void showSearchResults(String query) {
+        ArrayList<TModel> matches = this.getOperation("search").call(() -> this.searchText(query, MAX_SEARCH_RESULTS));
+        if (matches.isEmpty()) {
+            PrintUtils.printFail("No " + this.getModelDescription() + " matches " + query);
+            return;
+        }
 
+        TableWriter writer = TableWriter.toConsole();
+        writer.text("Search " + this.getModelDescription() + "s: " + query).endRow();
+        String headerView = this.getViewHeader();
+        writer.text(headerView).endRow();
+        writer.rule(headerView.length()).endRow();
+
+        for (TModel model : matches) {
+            model.writeCachedView(writer, false);
+        }
 
+        writer.text("Matches found: " + matches.size()).endRow();
+        writer.flush();
+    }
+
+    /**
+     * Lists the models page by page in an order chosen by the user, with next,
+     * previous and jump navigation. Only the current page is read and rendered.
+     */
+    public void browse() {
+
+        SortKey[] sortKeys = this.getSortKeys();
+        System.out.println("Sort " + this.getModelDescription() + "s by");
+        for (int i = 0; i < sortKeys.length; i++) {
+            System.out.println((i + 1) + ". " + sortKeys[i].getDescription());
+        }
+        int sortOption = InputUtils.getInt("Enter an option: ");
+        if (sortOption < 1 || sortOption > sortKeys.length) {
+            PrintUtils.printFail("Invalid option, please try again.");
+            return;
+        }
+        boolean isDescending = InputUtils.getString("Descending order? (y/N): ").trim().equalsIgnoreCase("y");
+        int pageSize = InputUtils.getInt("Page size: ");
+        if (pageSize <= 0) {
+            PrintUtils.printFail("Page size must be greater than zero");
+            return;
+        }
+
+        PagedView<TModel> pagedView = this.getPagedView(sortKeys[sortOption - 1], isDescending, pageSize);
+        while (true) {
+            this.printPage(pagedView);
+
+            String command = InputUtils.getString("n (or Enter) = next, p = previous, page number = jump, b = back: ").trim();
+            if (command.isEmpty() || command.equalsIgnoreCase("n")) {
+                if (!pagedView.next()) {
+                    PrintUtils.printFail("This is the last page");
+                }
+            } else if (command.equalsIgnoreCase("p")) {
+                if (!pagedView.previous()) {
+                    PrintUtils.printFail("This is the first page");
+                }
+            } else if (command.equalsIgnoreCase("b")) {
+                return;
+            } else if (command.chars().allMatch(Character::isDigit)) {
+                if (!pagedView.jumpTo(Integer.parseInt(command))) {
+                    PrintUtils.printFail("Invalid page number, there are " + pagedView.getPageCount() + " pages");
+                }
+            } else {
+                PrintUtils.printFail("Invalid option, please try again.");
+            }
+        }
+    }
+
+    /**
+     * Prints the current page of a paged view, with its header and position.
+     * 
+     * @param pagedView the paged view to print.
+     */
+    private void printPage(PagedView<TModel> pagedView) {
+        TableWriter writer = TableWriter.toConsole();
+        String headerView = this.getViewHeader();
+        writer.text(headerView).endRow();
+        writer.rule(headerView.length()).endRow();
+
+        for (TModel model : pagedView.getPage()) {
+            model.writeCachedView(writer, false);
+        }
+
+        writer.text("Page " + pagedView.getPageNumber() + " of " + pagedView.getPageCount() +
+                " (" + pagedView.getTotalCount() + " " + this.getModelDescription() + "s, by " +
+                pagedView.getSortKey().getDescription() + (pagedView.isDescending() ? " descending" : "") + ")").endRow();
+        writer.flush();
     }
 
     /**
@@ -181,7 +305,7 @@ public abstract class CrudManager<TModel extends Model> {
             String value = InputUtils.getString(field + ": ", true);
             fieldValues.put(field, value);
         }
-        this.create(fieldValues, relatedModels);
+        this.getOperation("add").call(() -> this.create(fieldValues, relatedModels));
     }
 
     /**
@@ -189,15 +313,7 @@ public abstract class CrudManager<TModel extends Model> {
      */
     public void update() {
 
-        this.view(false);
-        PrintUtils.println("Choose the ID of the " + this.getModelDescription() + " to update");
-        String id = InputUtils.getString("Enter the ID: ", true);
-
-        TModel model = this.findById(id);
-        if (model == null) {
-            PrintUtils.printFail("Invalid " + this.getModelDescription() + " ID");
-            return;
-        }
+        TModel model = this.chooseModel(this);
 
         PrintUtils.println("Updating " + model.getName());
         ArrayList<String> fields = this.getFields(true);
@@ -207,7 +323,18 @@ public abstract class CrudManager<TModel extends Model> {
             String value = InputUtils.getString(field + ": ", true);
             fieldValues.put(field, value);
         }
-        this.update(model, fieldValues);
+        this.getOperation("update").run(() -> this.update(model, fieldValues));
+    }
+
+    /**
+     * Returns the metrics of an operation of this manager, such as "add" or
+     * "update", recorded under the model description.
+     * 
+     * @param operation the name of the operation.
+     * @return the operation metrics.
+     */
+    protected OperationMetrics.Operation getOperation(String operation) {
+        return OperationMetrics.get(this.getModelDescription(), operation);
     }
 
     /**
@@ -221,33 +348,63 @@ public abstract class CrudManager<TModel extends Model> {
     }
 
     /**
-     * Prompts the user to choose a model from a list and returns the selected model.
+     * Prompts the user to choose a model managed by the given manager and returns
+     * the selected model. Short lists are printed in full; otherwise the user
+     * types an ID, or the start of an ID or name to list the matching models.
+     * IDs are resolved through the storage and searches read only the matches,
+     * so choosing among many models neither prints nor scans all of them.
      * 
-     * @param description the description of the model to choose (e.g., "Department").
-     * @param models the list of available models to choose from.
+     * @param manager the manager of the models to choose from.
      * @param <T> the type of model.
      * @return the selected model.
      */
-    public <T extends Model> T chooseModel(String description, ArrayList<T> models) {
-
-        System.out.println("Choose a " + description);
-
-        String header = StringUtils.padRight("ID", 10) + " | " + StringUtils.padRight("Name", 50);
-        System.out.println(header);
-
-        for (T model : models) {
-            String line = StringUtils.padRight(model.getId(), 10) + " | " + StringUtils.padRight(model.getName(), 50);
-            System.out.println(line);
+    public <T extends Model> T chooseModel(CrudManager<T> manager) {
+
+        String description = manager.getModelDescription();
+        int count = manager.getModels().size();
+        if (count <= MAX_LISTED_CHOICES) {
+            this.printChoices("Choose a " + description, manager.getModels());
+        } else {
+            PrintUtils.println("Choose one of the " + count + " " + description + "s by ID, "
+                    + "or type the start of an ID or name to search");
         }
 
-        String id = InputUtils.getString("Enter the ID: ", true);
+        while (true) {
+            String text = InputUtils.getString("Enter the ID: ", true).trim();
+
+            T model = manager.findById(text);
+            if (model != null) {
+                return model;
+            }
+
+            ArrayList<T> matches = manager.search(text, MAX_LISTED_CHOICES + 1);
+            if (matches.isEmpty()) {
+                PrintUtils.printFail("Invalid " + description + " ID"); // Re-prompt if invalid
+            } else if (matches.size() == 1) {
+                T match = matches.get(0);
+                String answer = InputUtils.getString("Choose " + match.getName() + " (ID " + match.getId() + ")? (Y/n): ");
+                if (!answer.trim().equalsIgnoreCase("n")) {
+                    return match;
+                }
+            } else {
+                boolean isTruncated = matches.size() > MAX_LISTED_CHOICES;
+                this.printChoices(description + "s matching " + text,
+                        isTruncated ? matches.subList(0, MAX_LISTED_CHOICES) : matches);
+                if (isTruncated) {
+                    PrintUtils.println("More " + description + "s match, type more characters to narrow the search");
+                }
+            }
+        }
+    }
 
-        T model = models.stream().filter(m -> m.getId().equals(id)).findFirst().orElse(null);
+    private void printChoices(String title, Collection<? extends Model> models) {
+        TableWriter writer = TableWriter.toConsole();
+        writer.text(title).endRow();
+        writer.cell("ID", 10).cell("Name", 50).endRow();
 
-        if (model == null) {
-            PrintUtils.printFail("Invalid " + description + " ID");
-            return chooseModel(description, models); // Re-prompt if invalid
+        for (Model model : models) {
+            writer.cell(model.getId(), 10).cell(model.getName(), 50).endRow();
         }
-        return model;
+        writer.flush();
     }
 }
@@ -2,8 +2,14 @@ package managers;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import data.DataStorage;
+import data.DepartmentStatistics;
+import data.GradeStatistics;
+import data.PagedView;
+import data.SortKey;
 import models.*;
 import utils.*;
 
@@ -26,11 +32,126 @@ public class DepartmentManager extends CrudManager<Department> {
     /**
      * Retrieves the list of all Department models from the data storage.
      * 
-     * @return an ArrayList of Department models.
+     * @return a read-only live Collection of Department models.
      */
     @Override
-    public ArrayList<Department> getModels() {
-        return DataStorage.getDepartments();
+    public Collection<Department> getModels() {
+        return DataStorage.getDepartmentsView();
+    }
+
+    /**
+     * Retrieves the departments from the data storage as a sorted, paged view.
+     * 
+     * @param sortKey      the order of the departments.
+     * @param isDescending true to list the departments in reverse order.
+     * @param pageSize     the maximum number of departments in each page.
+     * @return a PagedView of Department objects.
+     */
+    @Override
+    public PagedView<Department> getPagedView(SortKey sortKey, boolean isDescending, int pageSize) {
+        return DataStorage.getDepartmentsPaged(sortKey, isDescending, pageSize);
+    }
+
+    /**
+     * Registers the CRUD commands followed by the department dashboards.
+     * 
+     * @param menu the menu to register the commands in.
+     */
+    @Override
+    protected void registerCommands(CommandMenu menu) {
+        super.registerCommands(menu);
+        menu.add("Department Dashboard", this::showDashboard)
+            .add("Course Statistics of a Department", () -> {
+                String id = InputUtils.getString("Department ID: ").trim();
+                Department department = this.findById(id);
+                if (department == null) {
+                    throw new IllegalArgumentException("Invalid Department ID " + id);
+                }
+                this.showCourseStatistics(department);
+            });
+    }
+
+    /**
+     * Prints one row per department with its courses, professors, average
+     * professor age, enrollments, average grade and pass rate. Every row is read
+     * from the aggregates the data storage keeps up to date, so the dashboard
+     * does not scan the students or their enrollments.
+     */
+    public void showDashboard() {
+        ArrayList<DepartmentStatistics> dashboard = this.getOperation("dashboard").call(DataStorage::getDepartmentDashboard);
+        TableWriter writer = TableWriter.toConsole();
+        writer.text("Department Dashboard").endRow();
+        writer.cell("ID", 10).cell("Name", 20).cell("Courses", 8).cell("Profs", 8).cell("Avg Age", 8);
+        this.writeGradeHeader(writer);
+        writer.endRow();
+        writer.rule(116).endRow();
+        for (DepartmentStatistics statistics : dashboard) {
+            writer.cell(statistics.getDepartment().getId(), 10)
+                  .cell(statistics.getDepartment().getName(), 20)
+                  .cell(statistics.getCourseCount(), 8)
+                  .cell(Long.toString(statistics.getProfessorCount()), 8)
+                  .cell(formatAverage(statistics.getAverageProfessorAge(), 1), 8);
+            this.writeGradeStatistics(writer, statistics.getGrades());
+            writer.endRow();
+        }
+        writer.text("Departments: " + dashboard.size()).endRow();
+        writer.flush();
+    }
+
+    /**
+     * Prints one row per course of a department with its enrollments, average
+     * grade and pass rate, read from the aggregates of each course.
+     * 
+     * @param department the department whose courses are listed.
+     */
+    public void showCourseStatistics(Department department) {
+        ArrayList<Course> courses = new ArrayList<>(DataStorage.getCoursesByDepartment(department));
+        courses.sort(Comparator.comparing(Course::getId));
+        TableWriter writer = TableWriter.toConsole();
+        writer.text("Courses of " + department.getName()).endRow();
+        writer.cell("ID", 10).cell("Name", 25);
+        this.writeGradeHeader(writer);
+        writer.endRow();
+        writer.rule(88).endRow();
+        ArrayList<GradeStatistics> statistics = this.getOperation("dashboard").call(() -> {
+            ArrayList<GradeStatistics> rows = new ArrayList<>(courses.size());
+            for (Course course : courses) {
+                rows.add(DataStorage.getCourseStatistics(course));
+            }
+            return rows;
+        });
+        for (int i = 0; i < courses.size(); i++) {
+            writer.cell(courses.get(i).getId(), 10).cell(courses.get(i).getName(), 25);
+            this.writeGradeStatistics(writer, statistics.get(i));
+            writer.endRow();
+        }
+        GradeStatistics total = DataStorage.getDepartmentStatistics(department).getGrades();
+        writer.text("Courses: " + courses.size() + ", enrollments: " + total.getEnrollmentCount() +
+                ", average grade: " + formatAverage(total.getAverageGrade(), 2) +
+                ", pass rate: " + formatRate(total.getPassRate())).endRow();
+        writer.flush();
+    }
+
+    private void writeGradeHeader(TableWriter writer) {
+        writer.cell("Enrolled", 10).cell("Graded", 8).cell("Avg Grade", 10).cell("Pass Rate", 10);
+    }
+
+    private void writeGradeStatistics(TableWriter writer, GradeStatistics statistics) {
+        writer.cell(Long.toString(statistics.getEnrollmentCount()), 10)
+              .cell(Long.toString(statistics.getGradedCount()), 8)
+              .cell(formatAverage(statistics.getAverageGrade(), 2), 10)
+              .cell(formatRate(statistics.getPassRate()), 10);
+    }
+
+    /**
+     * Formats an average, or "-" when there is nothing to average.
+     */
+    private static String formatAverage(double average, int decimals) {
+        return average < 0 ? "-" : TableWriter.formatDecimal(average, decimals);
+    }
+
+    private static String formatRate(double rate) {
+        return rate < 0 ? "-" : TableWriter.formatDecimal(rate * 100, 1) + "%";
     }
 
     /**
@@ -64,9 +185,10 @@ public class DepartmentManager extends CrudManager<Department> {
      * 
      * @param fieldValues a HashMap containing field names and their corresponding values.
      * @param relatedModels a HashMap of related models (not used in this implementation).
+     * @return the created Department.
      */
     @Override
-    public void create(HashMap<String, String> fieldValues, HashMap<String, Model> relatedModels) {
+    public Department create(HashMap<String, String> fieldValues, HashMap<String, Model> relatedModels) {
         String id = fieldValues.get("Id");
         String name = fieldValues.get("Name");
         String description = fieldValues.get("Description");
@@ -74,6 +196,7 @@ public class DepartmentManager extends CrudManager<Department> {
         Department department = new Department(id, name, description);
         DataStorage.addDepartment(department);
         PrintUtils.printSuccess("Department " + name + " added successfully");
+        return department;
     }
 
     /**
@@ -102,4 +225,28 @@ public class DepartmentManager extends CrudManager<Department> {
     public Department findById(String id) {
         return DataStorage.getDepartmentById(id);
     }
+
+    /**
+     * Finds the Departments whose ID or name starts with the given text.
+     * 
+     * @param text  the start of the ID or name.
+     * @param limit the maximum number of Departments to return.
+     * @return the matching Department objects.
+     */
+    @Override
+    public ArrayList<Department> search(String text, int limit) {
+        return DataStorage.searchDepartments(text, limit);
+    }
+
+    /**
+     * Finds the Departments whose name or description contains the words of the query.
+     * 
+     * @param query the words to search for.
+     * @param limit the maximum number of Departments to return.
+     * @return the matching Department objects, best first.
+     */
+    @Override
+    public ArrayList<Department> searchText(String query, int limit) {
+        return DataStorage.searchDepartmentsText(query, limit);
+    }
 }
@@ -3,8 +3,11 @@ package managers;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import data.DataStorage;
+import data.PagedView;
+import data.SortKey;
 import models.*;
 import utils.*;
 
@@ -27,11 +30,34 @@ public class ProfessorManager extends CrudManager<Professor> {
     /**
      * Retrieves the list of all professors from the data storage.
      * 
-     * @return an ArrayList of Professor objects.
+     * @return a read-only live Collection of Professor objects.
      */
     @Override
-    public ArrayList<Professor> getModels() {
-        return DataStorage.getProfessors();
+    public Collection<Professor> getModels() {
+        return DataStorage.getProfessorsView();
+    }
+
+    /**
+     * Retrieves the professors from the data storage as a sorted, paged view.
+     * 
+     * @param sortKey      the order of the professors.
+     * @param isDescending true to list the professors in reverse order.
+     * @param pageSize     the maximum number of professors in each page.
+     * @return a PagedView of Professor objects.
+     */
+    @Override
+    public PagedView<Professor> getPagedView(SortKey sortKey, boolean isDescending, int pageSize) {
+        return DataStorage.getProfessorsPaged(sortKey, isDescending, pageSize);
+    }
+
+    /**
+     * Returns the orders professors can be browsed in, including age.
+     * 
+     * @return the supported sort keys.
+     */
+    @Override
+    public SortKey[] getSortKeys() {
+        return new SortKey[] { SortKey.ID, SortKey.NAME, SortKey.AGE };
     }
 
     /**
@@ -64,7 +90,7 @@ public class ProfessorManager extends CrudManager<Professor> {
     @Override
     public HashMap<String, Model> getRelatedModels() {
         HashMap<String, Model> relatedModels = new HashMap<>();
-        Model department = this.chooseModel("Department", DataStorage.getDepartments());
+        Model department = this.chooseModel(new DepartmentManager());
         relatedModels.put("Department", department);
         return relatedModels;
     }
@@ -74,9 +100,10 @@ public class ProfessorManager extends CrudManager<Professor> {
      * 
      * @param fieldValues a HashMap containing the field names and their corresponding values.
      * @param relatedModels a HashMap of related models (including Department).
+     * @return the created Professor.
      */
     @Override
-    public void create(HashMap<String, String> fieldValues, HashMap<String, Model> relatedModels) {
+    public Professor create(HashMap<String, String> fieldValues, HashMap<String, Model> relatedModels) {
         String name = fieldValues.get("Name");
         String birthDate = fieldValues.get("Birth Date");
 
@@ -85,6 +112,7 @@ public class ProfessorManager extends CrudManager<Professor> {
         Professor professor = new Professor(name, birthDate, department);
         DataStorage.addProfessor(professor);
         PrintUtils.printSuccess("Professor " + name + " added successfully");
+        return professor;
     }
 
     /**
@@ -116,4 +144,28 @@ public class ProfessorManager extends CrudManager<Professor> {
     public Professor findById(String id) {
         return DataStorage.getProfessorById(id);
     }
+
+    /**
+     * Finds the Professors whose ID or name starts with the given text.
+     * 
+     * @param text  the start of the ID or name.
+     * @param limit the maximum number of Professors to return.
+     * @return the matching Professor objects.
+     */
+    @Override
+    public ArrayList<Professor> search(String text, int limit) {
+        return DataStorage.searchProfessors(text, limit);
+    }
+
+    /**
+     * Finds the Professors whose name contains the words of the query.
+     * 
+     * @param query the words to search for.
+     * @param limit the maximum number of Professors to return.
+     * @return the matching Professor objects, best first.
+     */
+    @Override
+    public ArrayList<Professor> searchText(String query, int limit) {
+        return DataStorage.searchProfessorsText(query, limit);
+    }
 }
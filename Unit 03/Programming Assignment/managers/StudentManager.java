@@ -3,9 +3,12 @@ package managers;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 
 import data.DataStorage;
+import data.PagedView;
+import data.SortKey;
 import models.*;
 import utils.*;
 
@@ -15,6 +18,9 @@ import utils.*;
  */
 public class StudentManager extends CrudManager<Student> {
 
+    private static final double HONOR_ROLL_GPA = 3.5;
+    private static final double PROBATION_GPA = 2.0;
+
     /**
      * Returns the description of the model managed by this class.
      * 
@@ -28,11 +34,49 @@ public class StudentManager extends CrudManager<Student> {
     /**
      * Retrieves the list of all students from the data storage.
      * 
-     * @return an ArrayList of Student objects.
+     * @return a read-only live Collection of Student objects.
+     */
+    @Override
+    public Collection<Student> getModels() {
+        return DataStorage.getStudentsView();
+    }
+
+    /**
+     * Retrieves the students from the data storage as a sorted, paged view.
+     * 
+     * @param sortKey      the order of the students.
+     * @param isDescending true to list the students in reverse order.
+     * @param pageSize     the maximum number of students in each page.
+     * @return a PagedView of Student objects.
      */
     @Override
-    public ArrayList<Student> getModels() {
-        return DataStorage.getStudents();
+    public PagedView<Student> getPagedView(SortKey sortKey, boolean isDescending, int pageSize) {
+        return DataStorage.getStudentsPaged(sortKey, isDescending, pageSize);
+    }
+
+    /**
+     * Returns the orders students can be browsed in, including age and GPA.
+     * 
+     * @return the supported sort keys.
+     */
+    @Override
+    public SortKey[] getSortKeys() {
+        return new SortKey[] { SortKey.ID, SortKey.NAME, SortKey.AGE, SortKey.GPA };
+    }
+
+    /**
+     * Registers the CRUD commands followed by the student-specific commands:
+     * enrolling, grading, deleting and ranking students.
+     * 
+     * @param menu the menu to register the commands in.
+     */
+    @Override
+    protected void registerCommands(CommandMenu menu) {
+        super.registerCommands(menu);
+        menu.add("Enroll Student in Course", this::enrollStudentInCourse)
+            .add("Set Grade for Student in Course", this::setStudentGrade)
+            .add("Delete " + this.getModelDescription(), this::delete)
+            .add("GPA Rankings", this::showRankings);
     }
 
     /**
@@ -61,15 +105,17 @@ public class StudentManager extends CrudManager<Student> {
      * 
      * @param fieldValues a HashMap containing the field names and their corresponding values.
      * @param relatedModels a HashMap of related models (not used in this implementation).
+     * @return the created Student.
      */
     @Override
-    public void create(HashMap<String, String> fieldValues, HashMap<String, Model> relatedModels) {
+    public Student create(HashMap<String, String> fieldValues, HashMap<String, Model> relatedModels) {
         String name = fieldValues.get("Name");
         String birthDate = fieldValues.get("Birth Date");
 
         Student student = new Student(name, birthDate);
         DataStorage.addStudent(student);
         PrintUtils.printSuccess("Student " + name + " added successfully");
+        return student;
     }
 
     /**
@@ -99,24 +145,63 @@ public class StudentManager extends CrudManager<Student> {
         return DataStorage.getStudentById(id);
     }
 
+    /**
+     * Finds the Students whose ID or name starts with the given text.
+     * 
+     * @param text  the start of the ID or name.
+     * @param limit the maximum number of Students to return.
+     * @return the matching Student objects.
+     */
+    @Override
+    public ArrayList<Student> search(String text, int limit) {
+        return DataStorage.searchStudents(text, limit);
+    }
+
+    /**
+     * Finds the Students whose name contains the words of the query.
+     * 
+     * @param query the words to search for.
+     * @param limit the maximum number of Students to return.
+     * @return the matching Student objects, best first.
+     */
+    @Override
+    public ArrayList<Student> searchText(String query, int limit) {
+        return DataStorage.searchStudentsText(query, limit);
+    }
+
     /**
      * Enrolls a student in a course by selecting a student, course, and professor.
      * Checks if the student is already enrolled before proceeding.
      */
     public void enrollStudentInCourse() {
-        this.view(false);
-
-        Student student = this.chooseModel("Student", DataStorage.getStudents());
-        Course course = this.chooseModel("Course", DataStorage.getCourses());
+        Student student = this.chooseModel(this);
+        Course course = this.chooseModel(new CourseManager());
 
         if (student.isEnrolled(course)) {
             PrintUtils.printFail("Student is already enrolled in this course");
             return;
         }
 
-        Professor professor = this.chooseModel("Professor", DataStorage.getProfessors());
-        LocalDate enrollmentDate = LocalDate.now();
-        student.enroll(course, professor, enrollmentDate);
+        Professor professor = this.chooseModel(new ProfessorManager());
+        this.enroll(student, course, professor, DateUtils.today());
+    }
+
+    /**
+     * Enrolls a student in a course taught by the given professor.
+     * 
+     * @param student        the student to enroll.
+     * @param course         the course to enroll the student in.
+     * @param professor      the professor teaching the course.
+     * @param enrollmentDate the date of the enrollment.
+     * @throws IllegalArgumentException if the student is already enrolled in the course.
+     */
+    public void enroll(Student student, Course course, Professor professor, LocalDate enrollmentDate) {
+        this.getOperation("enroll").run(() -> {
+            if (student.isEnrolled(course)) {
+                throw new IllegalArgumentException("Student is already enrolled in this course");
+            }
+            student.enroll(course, professor, enrollmentDate);
+        });
         PrintUtils.printSuccess("Student enrolled in " + course.getName() + " successfully");
     }
 
@@ -126,10 +211,8 @@ public class StudentManager extends CrudManager<Student> {
      * Checks if the student is enrolled in the course before allowing the grade to be set.
      */
     public void setStudentGrade() {
-        this.view(false);
-
-        Student student = this.chooseModel("Student", DataStorage.getStudents());
-        Course course = this.chooseModel("Course", DataStorage.getCourses());
+        Student student = this.chooseModel(this);
+        Course course = this.chooseModel(new CourseManager());
 
         if (!student.isEnrolled(course)) {
             PrintUtils.printFail("Student is not enrolled in this course");
@@ -137,7 +220,24 @@ public class StudentManager extends CrudManager<Student> {
         }
 
         double gradeScale = InputUtils.getDouble("Enter the grade scale (0 to 100): ", false);
-        student.setGradeScale(course, gradeScale);
+        this.setGrade(student, course, gradeScale);
+    }
+
+    /**
+     * Sets the grade of a student in a course the student is enrolled in.
+     * 
+     * @param student    the student to grade.
+     * @param course     the course to set the grade for.
+     * @param gradeScale the grade scale, from 0 to 100.
+     * @throws IllegalArgumentException if the student is not enrolled in the course.
+     */
+    public void setGrade(Student student, Course course, double gradeScale) {
+        this.getOperation("grade").run(() -> {
+            if (!student.isEnrolled(course)) {
+                throw new IllegalArgumentException("Student is not enrolled in this course");
+            }
+            student.setGradeScale(course, gradeScale);
+        });
         PrintUtils.printSuccess("Grade set successfully for " + student.getName() + " in " + course.getName());
     }
 
@@ -147,23 +247,162 @@ public class StudentManager extends CrudManager<Student> {
     public void delete() {
         PrintUtils.println("Deleting Student");
 
-        this.view(false);
-        PrintUtils.println("Choose the ID of the " + this.getModelDescription() + " to delete");
-        String id = InputUtils.getString("Enter the ID: ", false);
-
-        Student model = this.findById(id);
-        if (model == null) {
-            PrintUtils.printFail("Invalid " + this.getModelDescription() + " ID");
-            return;
-        }
+        Student model = this.chooseModel(this);
 
         PrintUtils.printPrompt("Are you sure you want to delete " + model.getName() + "? ");
         String confirm = InputUtils.getString("Enter Y to confirm or any key to cancel: ", false);
         if (confirm.equalsIgnoreCase("Y")) {
-            DataStorage.removeStudent(model);
-            PrintUtils.printSuccess(this.getModelDescription() + " deleted successfully");
+            this.delete(model);
         } else {
             PrintUtils.printFail("Delete operation cancelled");
         }
     }
+
+    /**
+     * Deletes a student and their enrollments from the data storage, without
+     * asking for confirmation.
+     * 
+     * @param student the student to delete.
+     */
+    public void delete(Student student) {
+        this.getOperation("delete").run(() -> DataStorage.removeStudent(student));
+        PrintUtils.printSuccess(this.getModelDescription() + " deleted successfully");
+    }
+
+    /**
+     * Displays the GPA rankings menu: the top students, the honor roll, the
+     * students below a GPA and the rank of one student, either among every
+     * student or within a department.
+     */
+    public void showRankings() {
+        new CommandMenu("GPA Rankings", "Back")
+            .add("Top Students", () -> {
+                Department department = this.chooseRankingDepartment();
+                this.showTopStudents(department, InputUtils.getInt("Number of students: "));
+            })
+            .add("Honor Roll", () -> {
+                Department department = this.chooseRankingDepartment();
+                this.showHonorRoll(this.getGpa("Minimum GPA", HONOR_ROLL_GPA), department);
+            })
+            .add("Students Below a GPA", () -> {
+                Department department = this.chooseRankingDepartment();
+                this.showStudentsBelowGpa(this.getGpa("GPA", PROBATION_GPA), department);
+            })
+            .add("Rank of a Student", () -> {
+                Student student = this.chooseModel(this);
+                this.showRank(student, this.chooseRankingDepartment());
+            })
+            .run();
+    }
+
+    /**
+     * Asks for the department to rank the students in.
+     *
+     * @return the department, or null to rank every student.
+     * @throws IllegalArgumentException if no department has the given ID.
+     */
+    private Department chooseRankingDepartment() {
+        String id = InputUtils.getString("Department ID (blank for every department): ").trim();
+        if (id.isEmpty()) {
+            return null;
+        }
+        Department department = new DepartmentManager().findById(id);
+        if (department == null) {
+            throw new IllegalArgumentException("Invalid Department ID " + id);
+        }
+        return department;
+    }
+
+    private double getGpa(String description, double defaultGpa) {
+        String text = InputUtils.getString(description + " (default " + defaultGpa + "): ").trim();
+        if (text.isEmpty()) {
+            return defaultGpa;
+        }
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid GPA " + text);
+        }
+    }
+
+    /**
+     * Lists the students with the highest GPA, with their rank.
+     *
+     * @param department the department to rank in, or null for every student.
+     * @param count      the number of students to list.
+     */
+    public void showTopStudents(Department department, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Number of students must be greater than zero");
+        }
+        ArrayList<Student> students = this.getOperation("ranking").call(() -> DataStorage.getTopStudents(department, count));
+        this.printRanking("Top " + count + " Students" + this.getScope(department), students, department,
+                "Graded students: " + DataStorage.getRankedStudentCount(department));
+    }
+
+    /**
+     * Lists every student whose GPA is at least the given minimum, with their
+     * rank.
+     *
+     * @param minimumGpa the lowest GPA on the honor roll.
+     * @param department the department to rank in, or null for every student.
+     */
+    public void showHonorRoll(double minimumGpa, Department department) {
+        ArrayList<Student> students = this.getOperation("ranking").call(
+                () -> DataStorage.getHonorRoll(minimumGpa, department, Integer.MAX_VALUE));
+        this.printRanking("Honor Roll, GPA " + TableWriter.formatDecimal(minimumGpa, 2) + " or more" +
+                this.getScope(department), students, department, "Students on the honor roll: " + students.size());
+    }
+
+    /**
+     * Lists every graded student whose GPA is below the given threshold, with
+     * their rank.
+     *
+     * @param threshold  the GPA the students are below.
+     * @param department the department to rank in, or null for every student.
+     */
+    public void showStudentsBelowGpa(double threshold, Department department) {
+        ArrayList<Student> students = this.getOperation("ranking").call(
+                () -> DataStorage.getStudentsBelowGpa(threshold, department, Integer.MAX_VALUE));
+        this.printRanking("Students Below GPA " + TableWriter.formatDecimal(threshold, 2) + this.getScope(department),
+                students, department, "Students below the GPA: " + students.size());
+    }
+
+    /**
+     * Prints the GPA rank of a student.
+     *
+     * @param student    the student to rank.
+     * @param department the department to rank in, or null for every student.
+     */
+    public void showRank(Student student, Department department) {
+        int rank = this.getOperation("ranking").call(() -> DataStorage.getGpaRank(student, department));
+        if (rank == 0) {
+            PrintUtils.printFail(student.getName() + " is not ranked" + this.getScope(department) +
+                    (student.hasGrades() ? "" : ", having no graded course"));
+            return;
+        }
+        PrintUtils.printSuccess(student.getName() + " ranks " + rank + " of " +
+                DataStorage.getRankedStudentCount(department) + this.getScope(department) + " with a GPA of " +
+                TableWriter.formatDecimal(student.getGPA(), 2));
+    }
+
+    private String getScope(Department department) {
+        return department == null ? "" : " in " + department.getName();
+    }
+
+    private void printRanking(String title, ArrayList<Student> students, Department department, String footer) {
+        TableWriter writer = TableWriter.toConsole();
+        writer.text(title).endRow();
+        writer.cell("Rank", 6).cell("ID", 10).cell("Name", 25).cell("GPA", 10).endRow();
+        writer.rule(60).endRow();
+        for (Student student : students) {
+            writer.cell(DataStorage.getGpaRank(student, department), 6)
+                  .cell(student.getId(), 10)
+                  .cell(student.getName(), 25)
+                  .cell(student.getGPA(), 2, 10)
+                  .endRow();
+        }
+        writer.text(footer).endRow();
+        writer.flush();
+    }
 }
@@ -1,6 +1,6 @@
 package models;
 
-import utils.StringUtils;
+import utils.TableWriter;
 
 /**
  * The Course class represents a course within a department.
@@ -76,15 +76,26 @@ public class Course extends Model {
     }
 
     /**
-     * Returns a formatted string representing the course's view.
-     * The view includes the course's ID, name, and department name.
+     * Writes the course's row.
+     * The row includes the course's ID, name, and department name.
      *
-     * @return a formatted string with course details.
+     * @param writer the TableWriter to write to.
      */
-    public String getView() {
-        return StringUtils.padRight(this.getId(), 10) + " | " +
-               StringUtils.padRight(this.getName(), 20) + " | " +
-               StringUtils.padRight(this.getDepartment().getName(), 20);
+    public void writeView(TableWriter writer) {
+        writer.cell(this.getId(), 10)
+              .cell(this.getName(), 20)
+              .cell(this.getDepartment().getName(), 20);
+    }
+
+    /**
+     * Writes the header for displaying course details.
+     *
+     * @param writer the TableWriter to write to.
+     */
+    public static void writeViewHeader(TableWriter writer) {
+        writer.cell("ID", 10)
+              .cell("Name", 20)
+              .cell("Department", 20);
     }
 
     /**
@@ -93,18 +104,20 @@ public class Course extends Model {
      * @return a formatted string representing the header for course views.
      */
     public static String getViewHeader() {
-        return StringUtils.padRight("ID", 10) + " | " +
-               StringUtils.padRight("Name", 20) + " | " +
-               StringUtils.padRight("Department", 20);
+        return TableWriter.render(Course::writeViewHeader);
     }
 
     /**
-     * Sets the name of the course.
+     * Sets the name of the course. The name is shown in the views of the
+     * enrolled students, so every cached view is dropped.
      *
      * @param name the new name of the course.
      */
     public void setName(String name) {
+        String oldName = this.name;
         this.name = name;
+        Model.invalidateAllViews();
+        this.notifyPropertyChanged("Name", oldName);
     }
 
     /**
@@ -113,6 +126,19 @@ public class Course extends Model {
      * @param description the new description of the course.
      */
     public void setDescription(String description) {
+        String oldDescription = this.description;
         this.description = description;
+        this.invalidateView();
+        this.notifyPropertyChanged("Description", oldDescription);
+    }
+
+    /**
+     * Drops the cached views of the course and of its department, whose detailed
+     * view lists the course.
+     */
+    @Override
+    protected void invalidateView() {
+        super.invalidateView();
+        this.department.invalidateView();
     }
 }
@@ -1,8 +1,9 @@
 package models;
 
-import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
-import utils.StringUtils;
+import utils.TableWriter;
 
 /**
  * The Department class represents a department within an educational institution.
@@ -14,8 +15,8 @@ public class Department extends Model {
     private String id;
     private String name;
     private String description;
-    private ArrayList<Course> courses = new ArrayList<>();
-    private ArrayList<Professor> professors = new ArrayList<>();
+    private List<Course> courses = new CopyOnWriteArrayList<>();
+    private List<Professor> professors = new CopyOnWriteArrayList<>();
 
     /**
      * Constructs a Department object with the specified ID, name, and description.
@@ -60,76 +61,82 @@ public class Department extends Model {
     /**
      * Returns a list of courses offered by the department.
      *
-     * @return an ArrayList of Course objects.
+     * @return a thread-safe List of Course objects.
      */
-    public ArrayList<Course> getCourses() {
+    public List<Course> getCourses() {
         return courses;
     }
 
     /**
-     * Returns a formatted string representing the department's basic view.
-     * The view includes the department's ID, name, and description.
+     * Writes the department's basic row.
+     * The row includes the department's ID, name, and description.
      *
-     * @return a formatted string representing the department details.
+     * @param writer the TableWriter to write to.
      */
-    public String getView() {
-        return StringUtils.padRight(this.getId(), 10) + " | " +
-               StringUtils.padRight(this.getName(), 20) + " | " +
-               StringUtils.padRight(this.getDescription(), 60);
+    public void writeView(TableWriter writer) {
+        writer.cell(this.getId(), 10)
+              .cell(this.getName(), 20)
+              .cell(this.getDescription(), 60);
     }
 
     /**
-     * Returns a detailed view of the department, including courses and professors, if specified.
+     * Writes the department's row followed, if specified, by its courses and professors.
      *
+     * @param writer           the TableWriter to write to.
      * @param isIncludeDetails a flag indicating whether to include courses and professors.
-     * @return a detailed or basic formatted string based on the flag.
      */
-    public String getView(boolean isIncludeDetails) {
+    public void writeView(TableWriter writer, boolean isIncludeDetails) {
+        this.writeView(writer);
+        int viewLength = writer.getLineLength();
+        writer.endRow();
+
         if (!isIncludeDetails) {
-            return getView();
+            return;
         }
 
-        StringBuilder sb = new StringBuilder();
-        String view = getView();
-        sb.append(view);
-
         // Include Courses
         if (this.courses.size() > 0) {
-            
-            sb.append("\n\n");
-            sb.append(StringUtils.padRight("", 10)).append("Courses: \n");
-            sb.append(StringUtils.padRight("", 10)).append(Course.getViewHeader()).append("\n");
+
+            writer.endRow();
+            writer.indent(10).text("Courses: ").endRow();
+            writer.indent(10);
+            Course.writeViewHeader(writer);
+            writer.endRow();
 
             for (Course course : this.courses) {
                 if (!course.getDepartment().getId().equals(this.getId())) {
                     throw new IllegalArgumentException(
                         "Course " + course.getName() + " is not in the department " + this.getName());
                 }
-                sb.append(StringUtils.padRight("", 10)).append(course.getView()).append("\n");
+                writer.indent(10);
+                course.writeView(writer);
+                writer.endRow();
             }
         }
 
         // Include Professors
         if (this.professors.size() > 0) {
 
-            sb.append("\n\n");
-            sb.append(StringUtils.padRight("", 10)).append("Professors: \n");
-            sb.append(StringUtils.padRight("", 10)).append(Professor.getViewHeader()).append("\n");
+            writer.endRow();
+            writer.indent(10).text("Professors: ").endRow();
+            writer.indent(10);
+            Professor.writeViewHeader(writer);
+            writer.endRow();
 
             for (Professor professor : this.professors) {
                 if (!professor.getDepartment().getId().equals(this.getId())) {
                     throw new IllegalArgumentException(
                         "Professor " + professor.getName() + " is not in the department " + this.getName());
                 }
-                sb.append(StringUtils.padRight("", 10)).append(professor.getView()).append("\n");
+                writer.indent(10);
+                professor.writeView(writer);
+                writer.endRow();
             }
         }
 
         if (this.courses.size() > 0 || this.professors.size() > 0) {
-            sb.append("\n").append(StringUtils.repeat("-", view.length()));
+            writer.endRow().rule(viewLength).endRow();
         }
-
-        return sb.toString();
     }
 
     /**
@@ -139,6 +146,7 @@ public class Department extends Model {
      */
     public void addCourse(Course course) {
         this.courses.add(course);
+        this.invalidateView();
     }
 
     /**
@@ -148,6 +156,7 @@ public class Department extends Model {
      */
     public void addProfessor(Professor professor) {
         this.professors.add(professor);
+        this.invalidateView();
     }
 
     /**
@@ -156,18 +165,22 @@ public class Department extends Model {
      * @return a formatted string representing the header for department views.
      */
     public static String getViewHeader() {
-        return StringUtils.padRight("ID", 10) + " | " +
-               StringUtils.padRight("Name", 20) + " | " +
-               StringUtils.padRight("Description", 60);
+        return TableWriter.render(writer -> writer.cell("ID", 10)
+                                                  .cell("Name", 20)
+                                                  .cell("Description", 60));
     }
 
     /**
-     * Sets the name of the department.
+     * Sets the name of the department. The name is shown in the views of its
+     * courses and professors, so every cached view is dropped.
      *
      * @param name the new name of the department.
      */
     public void setName(String name) {
+        String oldName = this.name;
         this.name = name;
+        Model.invalidateAllViews();
+        this.notifyPropertyChanged("Name", oldName);
     }
 
     /**
@@ -176,6 +189,9 @@ public class Department extends Model {
      * @param description the new description of the department.
      */
     public void setDescription(String description) {
+        String oldDescription = this.description;
         this.description = description;
+        this.invalidateView();
+        this.notifyPropertyChanged("Description", oldDescription);
     }
 }
@@ -0,0 +1,135 @@
+package models;
+
+import java.util.Arrays;
+
+/**
+ * The GradingScale class converts numeric grade scales (0 to 100) into letter
+ * grades and grade points. The conversion is precomputed into a table indexed by
+ * the whole part of the grade scale, so looking up a grade is a single array
+ * access, with no comparisons and no String allocation.
+ *
+ * <p>
+ * Institutions with a different grading policy can create their own scale and
+ * install it with {@link #setDefault(GradingScale)}. Student GPAs follow the
+ * installed scale.
+ * </p>
+ */
+public class GradingScale {
+
+    private static final int MAX_GRADE_SCALE = 100;
+
+    /**
+     * The grading scale used by the University of the People.
+     */
+    public static final GradingScale STANDARD = new GradingScale("Standard",
+            new int[] { 98, 93, 90, 88, 83, 80, 78, 73, 70, 68, 63, 60, 0 },
+            new double[] { 4.00, 4.00, 3.67, 3.33, 3.00, 2.67, 2.33, 2.00, 1.67, 1.33, 1.00, 0.67, 0.00 });
+
+    private static volatile GradingScale defaultScale = STANDARD;
+
+    private final String name;
+    private final LetterGrade[] letterGradeByScale = new LetterGrade[MAX_GRADE_SCALE + 1];
+    private final double[] gradePointsByLetter;
+
+    /**
+     * Constructs a GradingScale from the minimum grade scale and the grade points
+     * of each letter grade, both indexed by the ordinal of the LetterGrade.
+     * A letter whose minimum is not below the minimum of every better letter is
+     * never awarded, so a scale without plus and minus grades simply repeats the
+     * minimums.
+     *
+     * @param name          the name of the grading scale.
+     * @param minimumScales the lowest whole grade scale of each letter grade.
+     * @param gradePoints   the grade points of each letter grade.
+     * @throws IllegalArgumentException if an array does not have one entry per
+     *                                  letter grade or if a grade scale of 0
+     *                                  would not receive a letter grade.
+     */
+    public GradingScale(String name, int[] minimumScales, double[] gradePoints) {
+        LetterGrade[] letterGrades = LetterGrade.values();
+        if (minimumScales.length != letterGrades.length || gradePoints.length != letterGrades.length) {
+            throw new IllegalArgumentException("A grading scale needs one entry per letter grade");
+        }
+
+        this.name = name;
+        this.gradePointsByLetter = Arrays.copyOf(gradePoints, gradePoints.length);
+
+        // Walk from the worst letter to the best so better letters overwrite the table
+        for (int i = letterGrades.length - 1; i >= 0; i--) {
+            for (int scale = Math.max(minimumScales[i], 0); scale <= MAX_GRADE_SCALE; scale++) {
+                letterGradeByScale[scale] = letterGrades[i];
+            }
+        }
+        if (letterGradeByScale[0] == null) {
+            throw new IllegalArgumentException("Every grade scale from 0 to " + MAX_GRADE_SCALE + " needs a letter grade");
+        }
+    }
+
+    /**
+     * Returns the grading scale used to convert grades.
+     *
+     * @return the current default GradingScale.
+     */
+    public static GradingScale getDefault() {
+        return defaultScale;
+    }
+
+    /**
+     * Installs the grading scale used to convert grades from now on.
+     *
+     * @param gradingScale the new default GradingScale.
+     * @throws IllegalArgumentException if the grading scale is null.
+     */
+    public static void setDefault(GradingScale gradingScale) {
+        if (gradingScale == null) {
+            throw new IllegalArgumentException("Grading scale must be provided");
+        }
+        defaultScale = gradingScale;
+        Model.invalidateAllViews(); // Views show GPAs and letter grades
+    }
+
+    /**
+     * Returns the name of the grading scale.
+     *
+     * @return the name of the grading scale.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Converts a grade scale into a letter grade. Grade scales above 100 receive
+     * the letter of 100 and negative grade scales the letter of 0.
+     *
+     * @param gradeScale the numeric grade scale.
+     * @return the LetterGrade, or null if gradeScale is -1 (no grade assigned).
+     */
+    public LetterGrade getLetterGrade(double gradeScale) {
+        if (gradeScale == -1) {
+            return null; // No grade assigned.
+        }
+        int index = (int) Math.min(Math.max(gradeScale, 0), MAX_GRADE_SCALE);
+        return letterGradeByScale[index];
+    }
+
+    /**
+     * Returns the grade points a letter grade is worth on this scale.
+     *
+     * @param letterGrade the letter grade.
+     * @return the grade points of the letter grade.
+     */
+    public double getGradePoints(LetterGrade letterGrade) {
+        return gradePointsByLetter[letterGrade.ordinal()];
+    }
+
+    /**
+     * Converts a grade scale into grade points.
+     *
+     * @param gradeScale the numeric grade scale.
+     * @return the grade points, or -1 if gradeScale is -1 (no grade assigned).
+     */
+    public double getGradePoints(double gradeScale) {
+        LetterGrade letterGrade = getLetterGrade(gradeScale);
+        return letterGrade == null ? -1 : gradePointsByLetter[letterGrade.ordinal()];
+    }
+}
@@ -0,0 +1,42 @@
+package models;
+
+/**
+ * The LetterGrade enum lists the letter grades a student can receive, from the
+ * best to the worst. A GradingScale maps numeric grade scales to these letters
+ * and decides how many grade points each letter is worth.
+ */
+public enum LetterGrade {
+    A_PLUS("A+"),
+    A("A"),
+    A_MINUS("A-"),
+    B_PLUS("B+"),
+    B("B"),
+    B_MINUS("B-"),
+    C_PLUS("C+"),
+    C("C"),
+    C_MINUS("C-"),
+    D_PLUS("D+"),
+    D("D"),
+    D_MINUS("D-"),
+    F("F");
+
+    private final String symbol;
+
+    LetterGrade(String symbol) {
+        this.symbol = symbol;
+    }
+
+    /**
+     * Returns the symbol of the letter grade, such as "A+" or "B-".
+     *
+     * @return the symbol of the letter grade.
+     */
+    public String getSymbol() {
+        return symbol;
+    }
+
+    @Override
+    public String toString() {
+        return symbol;
+    }
+}
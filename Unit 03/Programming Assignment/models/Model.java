@@ -1,11 +1,69 @@
 package models;
 
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import utils.DateUtils;
+import utils.TableWriter;
+
 /**
  * The abstract class Model serves as a blueprint for creating different model types.
  * Each model must have an ID, a name, and a way to represent its view.
+ *
+ * <p>
+ * Rendered views are cached, so listing models that did not change only copies
+ * their text. A model drops its cached views whenever one of its setters changes
+ * what they show. Views that show other models, such as a department with its
+ * courses or a student with the course names of its enrollments, are dropped
+ * through {@link #invalidateView()} of the owner or, for renames of shared
+ * models, through {@link #invalidateAllViews()}. Every cached view is also dropped
+ * when the day changes, since views show ages.
+ * </p>
  */
 public abstract class Model {
 
+    private static final List<ModelListener> listeners = new CopyOnWriteArrayList<>();
+    private static final int VIEW_SLOTS = 4; // With or without details, with or without colours
+    private static volatile int sharedViewVersion = 0;
+    private static volatile long viewDay = DateUtils.todayEpochDay();
+
+    /**
+     * The cached views of a model, valid as long as no view of any model was
+     * dropped by {@link #invalidateAllViews()} since they were rendered.
+     */
+    private static final class CachedViews {
+
+        private final String[] views;
+        private final int sharedVersion;
+
+        private CachedViews(String[] views, int sharedVersion) {
+            this.views = views;
+            this.sharedVersion = sharedVersion;
+        }
+    }
+
+    private volatile CachedViews cachedViews;
+    private volatile int viewVersion = 0;
+
+    /**
+     * Registers a listener that is notified whenever any model is changed.
+     *
+     * @param listener the listener to register.
+     */
+    public static void addListener(ModelListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously registered listener.
+     *
+     * @param listener the listener to remove.
+     */
+    public static void removeListener(ModelListener listener) {
+        listeners.remove(listener);
+    }
+
     /**
      * Returns the name of the model.
      *
@@ -27,14 +85,136 @@ public abstract class Model {
      * @return the view of the model, with or without details based on the flag.
      */
     public String getView(boolean isIncludeDetails) {
-        return this.getView(); // Default behavior is to call the abstract method getView.
+        String view = this.getCachedView(isIncludeDetails, false);
+        return view.substring(0, view.length() - System.lineSeparator().length()); // Drop the last line break
     }
 
     /**
-     * Abstract method to return the view of the model.
-     * Subclasses should provide their own implementation.
+     * Returns the view of the model as a single row.
      *
      * @return the view of the model.
      */
-    public abstract String getView();
+    public String getView() {
+        return this.getView(false);
+    }
+
+    /**
+     * Writes the model's row, optionally followed by additional details, from the
+     * cache. The view is rendered with {@link #writeView(TableWriter, boolean)}
+     * the first time, and again only after the model changed.
+     *
+     * @param writer           the TableWriter to write to, at the start of a line.
+     * @param isIncludeDetails flag indicating whether to include details in the view.
+     */
+    public void writeCachedView(TableWriter writer, boolean isIncludeDetails) {
+        writer.lines(this.getCachedView(isIncludeDetails, writer.isColorEnabled()));
+    }
+
+    /**
+     * Drops the cached views of this model. Called by the setters whenever a
+     * change affects what the views show.
+     */
+    protected void invalidateView() {
+        synchronized (this) {
+            viewVersion++;
+            cachedViews = null;
+        }
+    }
+
+    /**
+     * Drops the cached views of every model. Called when a change affects the
+     * views of many models, such as renaming a course shown in the enrollments of
+     * its students, or installing another grading scale.
+     */
+    public static void invalidateAllViews() {
+        synchronized (Model.class) {
+            sharedViewVersion++;
+        }
+    }
+
+    /**
+     * Returns a view from the cache, rendering it if needed. A view rendered while
+     * the model was changed is returned but not cached.
+     */
+    private String getCachedView(boolean isIncludeDetails, boolean isColored) {
+        checkViewDay();
+        int slot = (isIncludeDetails ? 1 : 0) + (isColored ? 2 : 0);
+        int sharedVersion = Model.sharedViewVersion;
+        int version = this.viewVersion;
+        CachedViews cached = this.cachedViews;
+        if (cached != null && cached.sharedVersion == sharedVersion && cached.views[slot] != null) {
+            return cached.views[slot];
+        }
+
+        StringWriter text = new StringWriter();
+        this.writeView(new TableWriter(text, isColored), isIncludeDetails);
+        String view = text.toString();
+
+        synchronized (this) {
+            if (version == this.viewVersion && sharedVersion == Model.sharedViewVersion) {
+                CachedViews current = this.cachedViews;
+                String[] views = current != null && current.sharedVersion == sharedVersion
+                        ? current.views.clone()
+                        : new String[VIEW_SLOTS];
+                views[slot] = view;
+                this.cachedViews = new CachedViews(views, sharedVersion);
+            }
+        }
+        return view;
+    }
+
+    /**
+     * Drops every cached view when the day of the clock changes, since the views
+     * show ages.
+     */
+    private static void checkViewDay() {
+        long today = DateUtils.todayEpochDay();
+        if (today != viewDay) {
+            viewDay = today;
+            invalidateAllViews();
+        }
+    }
+
+    /**
+     * Abstract method to write the cells of the model's row, without ending the
+     * row. Subclasses should provide their own implementation.
+     *
+     * @param writer the TableWriter to write to.
+     */
+    public abstract void writeView(TableWriter writer);
+
+    /**
+     * Writes the model's row, optionally followed by additional details, ending
+     * every line.
+     *
+     * @param writer           the TableWriter to write to.
+     * @param isIncludeDetails flag indicating whether to include details in the view.
+     */
+    public void writeView(TableWriter writer, boolean isIncludeDetails) {
+        this.writeView(writer); // Default behavior is to write the row without details.
+        writer.endRow();
+    }
+
+    /**
+     * Notifies all registered listeners that a property of this model has changed.
+     *
+     * @param property the name of the changed property.
+     * @param oldValue the value of the property before the change.
+     */
+    protected void notifyPropertyChanged(String property, Object oldValue) {
+        for (ModelListener listener : listeners) {
+            listener.onPropertyChanged(this, property, oldValue);
+        }
+    }
+
+    /**
+     * Notifies all registered listeners that a new enrollment has been created.
+     *
+     * @param enrollment the newly created enrollment.
+     */
+    static void notifyEnrollmentCreated(StudentEnrollment enrollment) {
+        for (ModelListener listener : listeners) {
+            listener.onEnrollmentCreated(enrollment);
+        }
+    }
 }
@@ -0,0 +1,27 @@
+package models;
+
+/**
+ * The ModelListener interface is notified whenever a model is changed after its
+ * creation, such as when a setter is called or a student is enrolled in a course.
+ * Listeners are registered globally through {@link Model#addListener(ModelListener)}.
+ */
+public interface ModelListener {
+
+    /**
+     * Called after a property of a model has been changed.
+     *
+     * @param model    the model that was changed.
+     * @param property the name of the changed property (e.g., "Name", "Description",
+     *                 "BirthDate" or "GradeScale").
+     * @param oldValue the value of the property before the change.
+     */
+    void onPropertyChanged(Model model, String property, Object oldValue);
+
+    /**
+     * Called after a new enrollment has been created for a student.
+     *
+     * @param enrollment the newly created enrollment.
+     */
+    default void onEnrollmentCreated(StudentEnrollment enrollment) {
+    }
+}
@@ -9,11 +9,20 @@ import utils.DateUtils;
  * It extends the Model class and provides common attributes and methods for
  * persons,
  * such as name, birthdate, and age calculation.
+ *
+ * <p>
+ * The age is cached with the day it was calculated on, so listing many persons
+ * calculates each age at most once a day, or again after the birth date changes.
+ * </p>
  */
 abstract class Person extends Model {
 
+    private static final long NO_AGE = Long.MIN_VALUE;
+    private static final int AGE_BITS = 16;
+
     private String name;
     private LocalDate birthDate;
+    private volatile long cachedAge = NO_AGE; // The epoch day and the age on that day, packed together
 
     /**
      * Constructs a Person object with the provided name and birth date.
@@ -24,7 +33,18 @@ abstract class Person extends Model {
      */
     protected Person(String name, String birthDate) {
         this.name = name;
-        this.birthDate = DateUtils.tryDateParser(birthDate, LocalDate.now(), false);
+        this.birthDate = DateUtils.tryDateParser(birthDate, DateUtils.today(), false);
+    }
+
+    /**
+     * Constructs a Person object with the provided name and an already parsed birth date.
+     *
+     * @param name      the name of the person.
+     * @param birthDate the birth date of the person.
+     */
+    protected Person(String name, LocalDate birthDate) {
+        this.name = name;
+        this.birthDate = birthDate;
     }
 
     /**
@@ -46,12 +66,22 @@ abstract class Person extends Model {
     }
 
     /**
-     * Calculates and returns the age of the person.
+     * Returns the age of the person, calculated once a day.
      *
      * @return the age of the person in years.
      */
     public int getAge() {
-        return DateUtils.calculateAge(this.birthDate);
+        long today = DateUtils.todayEpochDay();
+        long cached = this.cachedAge;
+        if (cached != NO_AGE && cached >> AGE_BITS == today) {
+            return (short) cached; // The low bits hold the age
+        }
+        LocalDate birthDate = this.birthDate;
+        int age = DateUtils.calculateAge(birthDate, LocalDate.ofEpochDay(today));
+        if (birthDate == this.birthDate) { // Not cached if the birth date changed meanwhile
+            this.cachedAge = (today << AGE_BITS) | (age & 0xFFFF);
+        }
+        return age;
     }
 
     /**
@@ -69,7 +99,10 @@ abstract class Person extends Model {
      * @param name the new name to set.
      */
     public void setName(String name) {
+        String oldName = this.name;
         this.name = name;
+        this.invalidateView();
+        this.notifyPropertyChanged("Name", oldName);
     }
 
     /**
@@ -78,6 +111,10 @@ abstract class Person extends Model {
      * @param birthDate the new birth date to set as a LocalDate object.
      */
     public void setBirthDate(LocalDate birthDate) {
+        LocalDate oldBirthDate = this.birthDate;
         this.birthDate = birthDate;
+        this.cachedAge = NO_AGE;
+        this.invalidateView();
+        this.notifyPropertyChanged("BirthDate", oldBirthDate);
     }
 }
@@ -1,8 +1,10 @@
 package models;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import utils.StringUtils;
+import utils.TableWriter;
 
 /**
  * The Professor class represents a professor entity, which extends the Person class.
@@ -11,7 +13,7 @@ import utils.StringUtils;
  */
 public class Professor extends Person {
 
-    private static int incrementalId = 0;  // Renamed to match Java naming conventions for static fields.
+    private static final AtomicInteger incrementalId = new AtomicInteger(); // Thread-safe counter shared by all professors.
 
     private int id;
     private Department department;
@@ -27,8 +29,40 @@ public class Professor extends Person {
      */
     public Professor(String name, String birthDate, Department department) {
         super(name, birthDate);
-        incrementalId++;
-        this.id = incrementalId;
+        this.id = incrementalId.incrementAndGet();
+        this.department = department;
+        department.addProfessor(this);
+    }
+
+    /**
+     * Constructs a Professor object with an already parsed birth date.
+     * The ID is automatically assigned using an incremental counter.
+     *
+     * @param name the name of the professor.
+     * @param birthDate the birth date of the professor.
+     * @param department the department to which the professor belongs.
+     */
+    public Professor(String name, LocalDate birthDate, Department department) {
+        super(name, birthDate);
+        this.id = incrementalId.incrementAndGet();
+        this.department = department;
+        department.addProfessor(this);
+    }
+
+    /**
+     * Constructs a Professor object with a known ID, typically when restoring a
+     * professor from persistent storage. The static counter is advanced so that
+     * professors created later never reuse the ID.
+     *
+     * @param id the ID of the professor.
+     * @param name the name of the professor.
+     * @param birthDate the birth date of the professor.
+     * @param department the department to which the professor belongs.
+     */
+    public Professor(int id, String name, LocalDate birthDate, Department department) {
+        super(name, birthDate);
+        this.id = id;
+        incrementalId.accumulateAndGet(id, Math::max);
         this.department = department;
         department.addProfessor(this);
     }
@@ -70,16 +104,28 @@ public class Professor extends Person {
     }
 
     /**
-     * Returns a formatted string representing the professor's view.
-     * The view contains the professor's ID, name, age, and department name.
+     * Writes the professor's row.
+     * The row contains the professor's ID, name, age, and department name.
      *
-     * @return a formatted string with professor details.
+     * @param writer the TableWriter to write to.
      */
-    public String getView() {
-        return StringUtils.padRight(this.getId(), 10) + " | " +
-               StringUtils.padRight(this.getName(), 20) + " | " +
-               StringUtils.padRight(Integer.toString(this.getAge()), 10) + " | " +
-               StringUtils.padRight(this.getDepartment().getName(), 20);
+    public void writeView(TableWriter writer) {
+        writer.cell(this.getId(), 10)
+              .cell(this.getName(), 20)
+              .cell(this.getAge(), 10)
+              .cell(this.getDepartment().getName(), 20);
+    }
+
+    /**
+     * Writes the header for displaying professor details.
+     *
+     * @param writer the TableWriter to write to.
+     */
+    public static void writeViewHeader(TableWriter writer) {
+        writer.cell("ID", 10)
+              .cell("Name", 20)
+              .cell("Age", 10)
+              .cell("Department", 20);
     }
 
     /**
@@ -88,9 +134,28 @@ public class Professor extends Person {
      * @return a formatted string representing the header.
      */
     public static String getViewHeader() {
-        return StringUtils.padRight("ID", 10) + " | " +
-               StringUtils.padRight("Name", 20) + " | " +
-               StringUtils.padRight("Age", 10) + " | " +
-               StringUtils.padRight("Department", 20);
+        return TableWriter.render(Professor::writeViewHeader);
+    }
+
+    /**
+     * Sets a new name for the professor. The name is shown in the views of the
+     * enrolled students, so every cached view is dropped.
+     *
+     * @param name the new name to set.
+     */
+    @Override
+    public void setName(String name) {
+        super.setName(name);
+        Model.invalidateAllViews();
+    }
+
+    /**
+     * Drops the cached views of the professor and of its department, whose
+     * detailed view lists the professor.
+     */
+    @Override
+    protected void invalidateView() {
+        super.invalidateView();
+        this.department.invalidateView();
     }
 }
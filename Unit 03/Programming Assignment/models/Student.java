@@ -1,9 +1,11 @@
 package models;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import utils.StringUtils;
+import utils.TableWriter;
 
 /**
  * The Student class represents a student entity, which extends the Person
@@ -13,10 +15,13 @@ import utils.StringUtils;
  */
 public class Student extends Person {
 
-    private static int incrementalId = 0; // Renamed to match Java naming conventions for static fields.
+    private static final AtomicInteger incrementalId = new AtomicInteger(); // Thread-safe counter shared by all students.
 
     private int id;
-    private ArrayList<StudentEnrollment> enrollments = new ArrayList<StudentEnrollment>();
+    private List<StudentEnrollment> enrollments = new CopyOnWriteArrayList<StudentEnrollment>();
+    private int totalCourseGraded = 0; // Running totals kept up to date by updateGradeTotals.
+    private long totalGradePointsHundredths = 0; // Grade points are exact in hundredths, so the sum never drifts.
+    private GradingScale totalsGradingScale = GradingScale.getDefault(); // The scale the totals were computed with.
 
     /**
      * Constructs a Student object with the provided name and birth date.
@@ -27,8 +32,44 @@ public class Student extends Person {
      */
     public Student(String name, String birthDate) {
         super(name, birthDate);
-        incrementalId++;
-        this.id = incrementalId;
+        this.id = incrementalId.incrementAndGet();
+    }
+
+    /**
+     * Constructs a Student object with the provided name and an already parsed
+     * birth date. The student's ID is auto-incremented using a static counter.
+     *
+     * @param name      the name of the student.
+     * @param birthDate the birth date of the student.
+     */
+    public Student(String name, LocalDate birthDate) {
+        super(name, birthDate);
+        this.id = incrementalId.incrementAndGet();
+    }
+
+    /**
+     * Constructs a Student object with a known ID, typically when restoring a
+     * student from persistent storage. The static counter is advanced so that
+     * students created later never reuse the ID.
+     *
+     * @param id        the ID of the student.
+     * @param name      the name of the student.
+     * @param birthDate the birth date of the student.
+     */
+    public Student(int id, String name, LocalDate birthDate) {
+        super(name, birthDate);
+        this.id = id;
+        incrementalId.accumulateAndGet(id, Math::max);
+    }
+
+    /**
+     * Advances the static ID counter so that students created later never reuse
+     * an ID up to the given one, even if those students have not been loaded yet.
+     *
+     * @param lastId the highest ID already in use.
+     */
+    public static void reserveIds(int lastId) {
+        incrementalId.accumulateAndGet(lastId, Math::max);
     }
 
     /**
@@ -43,30 +84,77 @@ public class Student extends Person {
     /**
      * Returns the list of student enrollments.
      *
-     * @return an ArrayList of StudentEnrollment objects.
+     * @return a thread-safe List of StudentEnrollment objects.
      */
-    public ArrayList<StudentEnrollment> getEnrollments() {
+    public List<StudentEnrollment> getEnrollments() {
         return enrollments;
     }
 
     /**
-     * Calculates and returns the student's GPA based on their enrollments.
+     * Returns the student's GPA based on their graded enrollments. The GPA is
+     * read from running totals, so it does not convert any grade unless the
+     * default GradingScale was replaced since the totals were computed.
      *
      * @return the GPA of the student as a double.
      */
-    public double getGPA() {
-       
-        double totalGradePoints = 0;
-        double totalCourseGraded = 0;
+    public synchronized double getGPA() {
+        if (totalsGradingScale != GradingScale.getDefault()) {
+            recalculateGradeTotals();
+        }
+        return totalCourseGraded == 0 ? 0 : totalGradePointsHundredths / 100.0 / totalCourseGraded; // Avoid division by zero
+    }
+
+    /**
+     * Returns whether the student has at least one graded enrollment, so that a
+     * GPA of 0 can be told apart from no GPA yet.
+     *
+     * @return true if any enrollment of the student is graded.
+     */
+    public synchronized boolean hasGrades() {
+        if (totalsGradingScale != GradingScale.getDefault()) {
+            recalculateGradeTotals();
+        }
+        return totalCourseGraded > 0;
+    }
+
+    /**
+     * Updates the running GPA totals when the grade scale of one enrollment
+     * changes. A value of -1 means the enrollment has no grade, so grading a
+     * course passes -1 as the old grade scale and dropping a course passes -1 as
+     * the new one.
+     *
+     * @param oldGradeScale the grade scale before the change, or -1.
+     * @param newGradeScale the grade scale after the change, or -1.
+     */
+    synchronized void updateGradeTotals(double oldGradeScale, double newGradeScale) {
+        if (totalsGradingScale != GradingScale.getDefault()) {
+            recalculateGradeTotals(); // The enrollment already holds the new grade scale
+            return;
+        }
+        if (oldGradeScale != -1) {
+            totalCourseGraded--;
+            totalGradePointsHundredths -= Math.round(totalsGradingScale.getGradePoints(oldGradeScale) * 100);
+        }
+        if (newGradeScale != -1) {
+            totalCourseGraded++;
+            totalGradePointsHundredths += Math.round(totalsGradingScale.getGradePoints(newGradeScale) * 100);
+        }
+    }
 
-        // Iterate through each enrollment and calculate grade points and credits
+    /**
+     * Recomputes the running GPA totals from every enrollment with the default
+     * GradingScale.
+     */
+    private void recalculateGradeTotals() {
+        totalsGradingScale = GradingScale.getDefault();
+        totalCourseGraded = 0;
+        totalGradePointsHundredths = 0;
         for (StudentEnrollment enrollment : this.enrollments) {
             if (enrollment.getGradeScale() != -1) { // Check if a valid grade is available
-                totalGradePoints += enrollment.getGradePoints();
-                totalCourseGraded += 1; 
+                totalCourseGraded++;
+                totalGradePointsHundredths += Math.round(totalsGradingScale.getGradePoints(enrollment.getGradeScale()) * 100);
             }
         }
-        return totalCourseGraded == 0 ? 0 : totalGradePoints / totalCourseGraded; // Avoid division by zero
     }
 
     /**
@@ -76,10 +164,45 @@ public class Student extends Person {
      * @param course         the course to enroll in.
      * @param professor      the professor teaching the course.
      * @param enrollmentDate the date of enrollment.
+     * @throws IllegalArgumentException if the student is already enrolled in the
+     *                                  course.
      */
     public void enroll(Course course, Professor professor, LocalDate enrollmentDate) {
+        StudentEnrollment enrollment;
+        synchronized (this) {
+            if (this.isEnrolled(course)) {
+                throw new IllegalArgumentException("Student is already enrolled in the course " + course.getName());
+            }
+            enrollment = new StudentEnrollment(this, course, professor, enrollmentDate);
+            this.enrollments.add(enrollment);
+        }
+        this.invalidateView();
+        notifyEnrollmentCreated(enrollment); // Outside the lock, as listeners may take the storage locks
+    }
+
+    /**
+     * Restores an enrollment read from persistent storage, with its grade,
+     * without notifying the listeners. Used while the student is not in the
+     * DataStorage yet, which registers the enrollments when the student is
+     * added, so nothing has to be indexed or persisted again.
+     *
+     * @param course         the course of the enrollment.
+     * @param professor      the professor teaching the course.
+     * @param enrollmentDate the date of enrollment.
+     * @param gradeScale     the grade scale, or -1 if the enrollment is not graded.
+     * @throws IllegalArgumentException if the student is already enrolled in the
+     *                                  course.
+     */
+    public synchronized void restoreEnrollment(Course course, Professor professor, LocalDate enrollmentDate,
+            double gradeScale) {
+        if (this.isEnrolled(course)) {
+            throw new IllegalArgumentException("Student is already enrolled in the course " + course.getName());
+        }
         StudentEnrollment enrollment = new StudentEnrollment(this, course, professor, enrollmentDate);
+        enrollment.restoreGradeScale(gradeScale);
         this.enrollments.add(enrollment);
+        this.updateGradeTotals(-1, gradeScale);
+        this.invalidateView();
     }
 
     /**
@@ -112,75 +235,50 @@ public class Student extends Person {
     }
 
     /**
-     * Returns a formatted string representing the student's view.
-     * The view includes the student's ID, name, age, and GPA.
+     * Writes the student's row.
+     * The row includes the student's ID, name, age, and GPA.
      *
-     * @return a formatted string with student details.
+     * @param writer the TableWriter to write to.
      */
-    public String getView() {
-        return StringUtils.padRight(this.getId(), 10) + " | " +
-                StringUtils.padRight(this.getName(), 20) + " | " +
-                StringUtils.padRight(Integer.toString(this.getAge()), 10) + " | " +
-                StringUtils.padRight(String.format("%.2f", this.getGPA()), 10); // Format GPA to 2 decimal places
+    public void writeView(TableWriter writer) {
+        writer.cell(this.getId(), 10)
+              .cell(this.getName(), 20)
+              .cell(this.getAge(), 10)
+              .cell(this.getGPA(), 2, 10); // Format GPA to 2 decimal places
     }
 
     /**
-     * Returns a formatted string representing the student's details.
-     * This method optionally includes additional details, such as enrollments and
-     * GPA,
-     * based on the value of the {@code isIncludeDetails} parameter.
-     *
-     * <p>
-     * If {@code isIncludeDetails} is set to {@code true}, the returned string will
-     * include a detailed view of the student's enrollments and GPA (Grade Point
-     * Average).
-     * If {@code isIncludeDetails} is set to {@code false}, only the basic student
-     * information
-     * (ID, name, age, and GPA) is returned.
-     * </p>
+     * Writes the student's row and, if {@code isIncludeDetails} is {@code true},
+     * a detailed view of the student's enrollments and GPA (Grade Point Average).
      *
+     * @param writer           the TableWriter to write to.
      * @param isIncludeDetails a flag that determines whether to include additional
-     *                         details
-     *                         such as the student's enrollments and GPA.
-     *                         If {@code true}, the view will include detailed
-     *                         information.
-     *                         If {@code false}, only basic information will be
-     *                         shown.
-     * @return a formatted string containing the student's information. If
-     *         {@code isIncludeDetails}
-     *         is {@code true}, the string will include a list of enrollments and
-     *         GPA.
-     */
-    public String getView(boolean isIncludeDetails) {
-
-        if (!isIncludeDetails) {
-            return getView();
-        }
-
-        StringBuilder sb = new StringBuilder();
-        String view = getView();
-        sb.append(view);
-
-        if (this.enrollments.size() > 0) {
-
-            sb.append("\n\n");
-            sb.append(StringUtils.padRight("", 10)).append("Enrollments: \n");
-            sb.append(StringUtils.padRight("", 10)).append(StudentEnrollment.getViewHeader(false)).append("\n");
+     *                         details such as the student's enrollments and GPA.
+     */
+    public void writeView(TableWriter writer, boolean isIncludeDetails) {
+        this.writeView(writer);
+        writer.endRow();
 
-            for (StudentEnrollment enrollment : this.enrollments) {
+        if (!isIncludeDetails || this.enrollments.size() == 0) {
+            return;
+        }
 
-                sb.append(StringUtils.padRight("", 10));
-                sb.append(enrollment.getView());
-                sb.append("\n");
-            }
+        writer.endRow();
+        writer.indent(10).text("Enrollments: ").endRow();
+        writer.indent(10);
+        StudentEnrollment.writeViewHeader(writer, false);
+        writer.endRow();
 
-            sb.append(StringUtils.padRight("", 10));
-            sb.append("GPA (Grade Point Average): ");
-            sb.append(String.format("%.2f", this.getGPA()));
-            sb.append("\n");
+        for (StudentEnrollment enrollment : this.enrollments) {
+            writer.indent(10);
+            enrollment.writeRow(writer, false);
+            writer.endRow();
         }
 
-        return sb.toString();
+        writer.indent(10)
+              .text("GPA (Grade Point Average): ")
+              .text(String.format("%.2f", this.getGPA()))
+              .endRow();
     }
 
     /**
@@ -189,9 +287,9 @@ public class Student extends Person {
      * @return a formatted string representing the header.
      */
     public static String getViewHeader() {
-        return StringUtils.padRight("ID", 10) + " | " +
-                StringUtils.padRight("Name", 20) + " | " +
-                StringUtils.padRight("Age", 10) + " | " +
-                StringUtils.padRight("GPA", 10);
+        return TableWriter.render(writer -> writer.cell("ID", 10)
+                                                  .cell("Name", 20)
+                                                  .cell("Age", 10)
+                                                  .cell("GPA", 10));
     }
 }
@@ -3,7 +3,7 @@ package models;
 import java.time.LocalDate;
 
 import utils.DateUtils;
-import utils.StringUtils;
+import utils.TableWriter;
 
 /**
  * The StudentEnrollment class represents an enrollment of a student in a
@@ -82,104 +82,101 @@ public class StudentEnrollment extends Model {
         return gradeScale;
     }
 
-    public void setGradeScale(double grade) {
+    /**
+     * Sets the grade scale of an enrollment that is being restored, before it is
+     * added to its student, without notifying the listeners.
+     *
+     * @param grade the stored grade scale, or -1 if the enrollment is not graded.
+     */
+    void restoreGradeScale(double grade) {
         this.gradeScale = grade;
     }
 
     /**
-     * Returns the letter grade based on the grade scale.
+     * Sets the grade scale of the enrollment and updates the student's running
+     * GPA totals.
      *
-     * @return the letter grade, or an empty string if no grade is assigned.
+     * @param grade the new grade scale, or -1 to clear the grade.
      */
-    public String getLetterGrade() {
-        if (this.gradeScale == -1) {
-            return ""; // No grade assigned.
+    public void setGradeScale(double grade) {
+        double oldGrade;
+        synchronized (this.student) { // Keeps the student's GPA totals in step with the grade
+            oldGrade = this.gradeScale;
+            this.gradeScale = grade;
+            this.student.updateGradeTotals(oldGrade, grade);
         }
+        this.invalidateView();
+        this.student.invalidateView();
+        this.notifyPropertyChanged("GradeScale", oldGrade);
+    }
 
-        if (this.gradeScale >= 98)
-            return "A+";
-        if (this.gradeScale >= 93)
-            return "A";
-        if (this.gradeScale >= 90)
-            return "A-";
-        if (this.gradeScale >= 88)
-            return "B+";
-        if (this.gradeScale >= 83)
-            return "B";
-        if (this.gradeScale >= 80)
-            return "B-";
-        if (this.gradeScale >= 78)
-            return "C+";
-        if (this.gradeScale >= 73)
-            return "C";
-        if (this.gradeScale >= 70)
-            return "C-";
-        if (this.gradeScale >= 68)
-            return "D+";
-        if (this.gradeScale >= 63)
-            return "D";
-        if (this.gradeScale >= 60)
-            return "D-";
-        return "F"; // Below 60 is a failing grade.
+    /**
+     * Returns the letter grade based on the grade scale, using the default
+     * GradingScale.
+     *
+     * @return the letter grade, or an empty string if no grade is assigned.
+     */
+    public String getLetterGrade() {
+        LetterGrade letterGrade = GradingScale.getDefault().getLetterGrade(this.gradeScale);
+        return letterGrade == null ? "" : letterGrade.getSymbol(); // Empty if no grade assigned.
     }
 
     /**
-     * Returns the grade points corresponding to the letter grade.
+     * Returns the grade points corresponding to the letter grade, using the
+     * default GradingScale.
      *
      * @return the grade points, or -1 if no grade is assigned.
      */
     public double getGradePoints() {
-        String letterGrade = this.getLetterGrade();
+        return GradingScale.getDefault().getGradePoints(this.gradeScale);
+    }
 
-        if (letterGrade.isEmpty()) {
-            return -1; // No grade assigned.
-        }
+    /**
+     * Writes the enrollment's row, including the student name, course name,
+     * professor name, enrollment date, grade scale, and letter grade. Failing
+     * grades are shown in red on the console.
+     *
+     * @param writer the TableWriter to write to.
+     */
+    public void writeView(TableWriter writer) {
+        this.writeRow(writer, true);
+    }
 
-        switch (letterGrade) {
-            case "A+":
-            case "A":
-                return 4.00;
-            case "A-":
-                return 3.67;
-            case "B+":
-                return 3.33;
-            case "B":
-                return 3.00;
-            case "B-":
-                return 2.67;
-            case "C+":
-                return 2.33;
-            case "C":
-                return 2.00;
-            case "C-":
-                return 1.67;
-            case "D+":
-                return 1.33;
-            case "D":
-                return 1.00;
-            case "D-":
-                return 0.67;
-            case "F":
-                return 0.00;
-            default:
-                throw new IllegalArgumentException("Invalid Letter Grade");
+    /**
+     * Writes the enrollment's row, optionally without the student name, such as
+     * when the enrollment is listed under its student.
+     *
+     * @param writer           the TableWriter to write to.
+     * @param isIncludeStudent flag indicating whether to include the student's name.
+     */
+    public void writeRow(TableWriter writer, boolean isIncludeStudent) {
+        if (isIncludeStudent) {
+            writer.cell(this.getStudent().getName(), 20);
         }
+        String letterGrade = this.getLetterGrade();
+        writer.cell(this.getCourse().getName(), 20)
+              .cell(this.getProfessor().getName(), 20)
+              .cell(DateUtils.formatDate(this.getEnrollmentDate()), 20)
+              .cell(String.valueOf(this.getGradeScale()), 10)
+              .cell(letterGrade, 10, letterGrade.equals("F") ? TableWriter.RED : null);
     }
 
     /**
-     * Returns a formatted string representing the enrollment details, including
-     * student name, course name,
-     * professor name, enrollment date, grade scale, and letter grade.
+     * Writes the header for displaying enrollment details.
      *
-     * @return a formatted string with enrollment details.
+     * @param writer           the TableWriter to write to.
+     * @param isIncludeStudent flag indicating whether to include the student's name
+     *                         in the header.
      */
-    public String getView() {
-        return StringUtils.padRight(this.getStudent().getName(), 20) + " | " +
-                StringUtils.padRight(this.getCourse().getName(), 20) + " | " +
-                StringUtils.padRight(this.getProfessor().getName(), 20) + " | " +
-                StringUtils.padRight(DateUtils.formatDate(this.getEnrollmentDate()), 20) + " | " +
-                StringUtils.padRight(String.valueOf(this.getGradeScale()), 10) + " | " +
-                StringUtils.padRight(this.getLetterGrade(), 10);
+    public static void writeViewHeader(TableWriter writer, boolean isIncludeStudent) {
+        if (isIncludeStudent) {
+            writer.cell("Student", 20);
+        }
+        writer.cell("Course", 20)
+              .cell("Professor", 20)
+              .cell("Enrollment Date", 20)
+              .cell("Grade Scale", 10)
+              .cell("Letter Grade", 10);
     }
 
     /**
@@ -190,15 +187,6 @@ public class StudentEnrollment extends Model {
      * @return a formatted string representing the header.
      */
     public static String getViewHeader(boolean isIncludeStudent) {
-        String baseView = StringUtils.padRight("Course", 20) + " | " +
-                StringUtils.padRight("Professor", 20) + " | " +
-                StringUtils.padRight("Enrollment Date", 20) + " | " +
-                StringUtils.padRight("Grade Scale", 10) + " | " +
-                StringUtils.padRight("Letter Grade", 10);
-
-        if (isIncludeStudent) {
-            return StringUtils.padRight("Student", 20) + " | " + baseView;
-        }
-        return baseView;
+        return TableWriter.render(writer -> writeViewHeader(writer, isIncludeStudent));
     }
 }
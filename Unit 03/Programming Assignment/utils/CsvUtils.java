@@ -0,0 +1,86 @@
+package utils;
+
+import java.util.ArrayList;
+
+/**
+ * The CsvUtils class provides utility methods for reading delimited text, such
+ * as comma-separated (CSV) and tab-separated (TSV) files.
+ *
+ * <p>
+ * Fields may be enclosed in double quotes, so they can contain the delimiter,
+ * and a double quote inside a quoted field is written twice. A record must fit
+ * in a single line.
+ * </p>
+ */
+public class CsvUtils {
+
+    /**
+     * Returns the delimiter of a file from its name: a tab for .tsv and .tab
+     * files, and a comma otherwise.
+     *
+     * @param fileName the name of the file.
+     * @return the delimiter of the fields.
+     */
+    public static char getDelimiter(String fileName) {
+        String name = fileName.toLowerCase();
+        return name.endsWith(".tsv") || name.endsWith(".tab") ? '\t' : ',';
+    }
+
+    /**
+     * Splits a line into its fields. Spaces around unquoted fields are removed.
+     *
+     * @param line      the line to split.
+     * @param delimiter the character separating the fields.
+     * @return the fields of the line.
+     * @throws IllegalArgumentException if a quoted field is not closed.
+     */
+    public static String[] split(String line, char delimiter) {
+        ArrayList<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        int length = line.length();
+        int i = 0;
+        while (true) {
+            // Skip the spaces before the field
+            while (i < length && line.charAt(i) == ' ' && delimiter != ' ') {
+                i++;
+            }
+
+            if (i < length && line.charAt(i) == '"') {
+                // A quoted field ends at the next quote that is not doubled
+                field.setLength(0);
+                i++;
+                while (true) {
+                    if (i >= length) {
+                        throw new IllegalArgumentException("Unterminated quoted field");
+                    }
+                    char c = line.charAt(i++);
+                    if (c == '"') {
+                        if (i < length && line.charAt(i) == '"') {
+                            field.append('"');
+                            i++;
+                            continue;
+                        }
+                        break;
+                    }
+                    field.append(c);
+                }
+                fields.add(field.toString());
+                while (i < length && line.charAt(i) != delimiter) {
+                    i++; // Ignore anything between the closing quote and the delimiter
+                }
+            } else {
+                int end = line.indexOf(delimiter, i);
+                if (end < 0) {
+                    end = length;
+                }
+                fields.add(line.substring(i, end).trim());
+                i = end;
+            }
+
+            if (i >= length) {
+                return fields.toArray(new String[0]);
+            }
+            i++; // Skip the delimiter
+        }
+    }
+}
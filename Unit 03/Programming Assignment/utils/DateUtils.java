@@ -1,57 +1,314 @@
 package utils;
 
+import java.time.Clock;
 import java.time.LocalDate;
-import java.time.Period;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
 
 /**
  * The DateUtils class provides utility methods for working with dates,
  * including parsing, formatting, and calculating age based on a given birth
  * date.
+ *
+ * <p>
+ * The current date comes from an injectable Clock, so tests and benchmarks can
+ * pin time with {@link #setClock(Clock)}. The date is read from the clock once
+ * and kept until the clock reaches the next midnight, so asking for today's
+ * date many times, such as once per row of a listing, only reads the time.
+ * </p>
+ *
+ * <p>
+ * Dates in the "M/d/yyyy" and "MM/dd/yyyy" formats are parsed and formatted by
+ * hand rather than with a DateTimeFormatter. Parsing does not allocate and
+ * reports invalid dates with {@link #INVALID_DATE} instead of an exception, so
+ * bulk loads full of empty or bad dates stay cheap.
+ * </p>
  */
 public class DateUtils {
 
-    private static DateTimeFormatter dateFormatter;
+    /**
+     * Today's date for a clock, valid from its first to its last millisecond.
+     */
+    private static final class Today {
+
+        private final Clock clock;
+        private final LocalDate date;
+        private final long epochDay;
+        private final long startMillis;
+        private final long endMillis;
+
+        private Today(Clock clock) {
+            ZoneId zone = clock.getZone();
+            this.clock = clock;
+            this.date = LocalDate.now(clock);
+            this.epochDay = date.toEpochDay();
+            this.startMillis = date.atStartOfDay(zone).toInstant().toEpochMilli();
+            this.endMillis = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        }
+
+        private boolean isCurrent(Clock clock) {
+            if (clock != this.clock) {
+                return false;
+            }
+            long now = clock.millis();
+            return now >= startMillis && now < endMillis;
+        }
+    }
+
+    /**
+     * The value {@link #parseEpochDay(CharSequence)} returns for a text that is
+     * not a valid date.
+     */
+    public static final long INVALID_DATE = Long.MIN_VALUE;
+
+    private static final long DAYS_0000_TO_1970 = 719528;
+    private static final int MIN_YEAR = 1;
+    private static final int MAX_YEAR = 9999;
+
+    private static final DateTimeFormatter dateFormatter = new DateTimeFormatterBuilder()
+            .appendOptional(DateTimeFormatter.ofPattern("MM/dd/yyyy"))
+            .appendOptional(DateTimeFormatter.ofPattern("M/d/yyyy"))
+            .toFormatter();
+
+    private static volatile Clock clock = Clock.systemDefaultZone();
+    private static volatile Today today = new Today(clock);
 
     /**
-     * Returns a shared DateTimeFormatter instance used for date parsing and
-     * formatting.
-     * This formatter supports both "MM/dd/yyyy" and "M/d/yyyy" formats.
+     * Replaces the clock the current date is read from, typically with a fixed
+     * clock to pin time in tests and benchmarks.
+     *
+     * @param newClock the clock to read the current date from.
+     */
+    public static void setClock(Clock newClock) {
+        if (newClock == null) {
+            throw new IllegalArgumentException("Clock must be provided");
+        }
+        clock = newClock;
+    }
+
+    /**
+     * Returns the clock the current date is read from.
+     *
+     * @return the current clock.
+     */
+    public static Clock getClock() {
+        return clock;
+    }
+
+    /**
+     * Returns today's date according to the clock. The date is computed once a
+     * day; other calls only read the time.
+     *
+     * @return today's date.
+     */
+    public static LocalDate today() {
+        return getToday().date;
+    }
+
+    /**
+     * Returns today's date as a number of days since 1970-01-01, which is cheap
+     * to compare, for example to check whether a cached age is still valid.
+     *
+     * @return today's epoch day.
+     */
+    public static long todayEpochDay() {
+        return getToday().epochDay;
+    }
+
+    /**
+     * Returns the epoch day of a date that may be missing, so it can be stored as
+     * a number.
+     *
+     * @param date the date, may be null.
+     * @return the epoch day of the date, or {@link #INVALID_DATE} if it is null.
+     */
+    public static long toEpochDay(LocalDate date) {
+        return date == null ? INVALID_DATE : date.toEpochDay();
+    }
+
+    /**
+     * Returns the date of an epoch day stored by {@link #toEpochDay(LocalDate)}.
+     *
+     * @param epochDay the epoch day, or {@link #INVALID_DATE}.
+     * @return the date, or null if the epoch day is {@link #INVALID_DATE}.
+     */
+    public static LocalDate fromEpochDay(long epochDay) {
+        return epochDay == INVALID_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    private static Today getToday() {
+        Clock currentClock = clock;
+        Today current = today;
+        if (!current.isCurrent(currentClock)) {
+            current = new Today(currentClock);
+            today = current;
+        }
+        return current;
+    }
+
+    /**
+     * Returns a shared DateTimeFormatter instance that parses both the
+     * "MM/dd/yyyy" and "M/d/yyyy" formats. The methods of this class no longer
+     * use it; it is kept for callers that need a DateTimeFormatter.
      *
      * @return the DateTimeFormatter instance.
      */
     public static DateTimeFormatter getDateFormatter() {
-        if (dateFormatter == null) {
-            dateFormatter = new DateTimeFormatterBuilder()
-                    .appendOptional(DateTimeFormatter.ofPattern("MM/dd/yyyy"))
-                    .appendOptional(DateTimeFormatter.ofPattern("M/d/yyyy"))
-                    .toFormatter();
-        }
         return dateFormatter;
     }
 
+    /**
+     * Parses a date in the "M/d/yyyy" or "MM/dd/yyyy" format into the number of
+     * days since 1970-01-01, without allocating or throwing. The month and day
+     * take one or two digits and the year four digits; surrounding spaces are
+     * ignored.
+     *
+     * @param text the text to parse, may be null.
+     * @return the epoch day of the date, or {@link #INVALID_DATE} if the text is
+     *         not a valid date.
+     */
+    public static long parseEpochDay(CharSequence text) {
+        if (text == null) {
+            return INVALID_DATE;
+        }
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) == ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) == ' ') {
+            end--;
+        }
+
+        // The separators must leave 1-2 digits of month, 1-2 digits of day and 4 digits of year
+        int length = end - start;
+        if (length < 8 || length > 10) {
+            return INVALID_DATE;
+        }
+        int firstSlash = text.charAt(start + 1) == '/' ? start + 1 : start + 2;
+        int secondSlash = text.charAt(firstSlash + 2) == '/' ? firstSlash + 2 : firstSlash + 3;
+        if (text.charAt(firstSlash) != '/' || secondSlash >= end || text.charAt(secondSlash) != '/'
+                || end - secondSlash != 5) {
+            return INVALID_DATE;
+        }
+
+        int month = parseDigits(text, start, firstSlash);
+        int day = parseDigits(text, firstSlash + 1, secondSlash);
+        int year = parseDigits(text, secondSlash + 1, end);
+        if (month < 1 || month > 12 || day < 1 || year < MIN_YEAR || year > MAX_YEAR
+                || day > getDaysInMonth(year, month)) {
+            return INVALID_DATE;
+        }
+        return toEpochDay(year, month, day);
+    }
+
+    /**
+     * Parses the digits between two positions.
+     *
+     * @return the value of the digits, or -1 if a character is not a digit.
+     */
+    private static int parseDigits(CharSequence text, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int getDaysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Converts a valid date of a positive year into its epoch day, the same way
+     * LocalDate.toEpochDay does.
+     */
+    private static long toEpochDay(int year, int month, int day) {
+        long total = 365L * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12 + day - 1;
+        if (month > 2) {
+            total -= isLeapYear(year) ? 1 : 2;
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * Parses a date in the "M/d/yyyy" or "MM/dd/yyyy" format into a LocalDate.
+     *
+     * @param date the text to parse, may be null.
+     * @return the parsed date, or null if the text is not a valid date.
+     */
+    public static LocalDate parseDate(CharSequence date) {
+        long epochDay = parseEpochDay(date);
+        return epochDay == INVALID_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
     /**
      * Parses a string representation of a date into a LocalDate object.
-     * The string must be in the format defined by the DateTimeFormatter.
+     * The string must be in the "M/d/yyyy" or "MM/dd/yyyy" format.
      *
      * @param date the date string to parse.
      * @return the parsed LocalDate object.
+     * @throws DateTimeParseException if the string is not a valid date.
      */
     public static LocalDate dateParser(String date) {
-        DateTimeFormatter formatter = getDateFormatter();
-        return LocalDate.parse(date, formatter);
+        LocalDate parsed = parseDate(date);
+        if (parsed == null) {
+            throw new DateTimeParseException("Text '" + date + "' could not be parsed", String.valueOf(date), 0);
+        }
+        return parsed;
     }
 
     /**
-     * Calculates the age based on the provided birth date.
+     * Calculates the age based on the provided birth date, as of today according
+     * to the clock.
      *
      * @param birthDate the birth date of the individual.
      * @return the calculated age in years.
      */
     public static int calculateAge(LocalDate birthDate) {
-        Period age = Period.between(birthDate, LocalDate.now());
-        return age.getYears();
+        return calculateAge(birthDate, today());
+    }
+
+    /**
+     * Calculates the age on a given date, in whole years, like the years of
+     * {@code Period.between(birthDate, date)} but without building a Period. A
+     * birth date after the date gives a negative age.
+     *
+     * @param birthDate the birth date of the individual.
+     * @param date      the date to calculate the age on.
+     * @return the calculated age in years.
+     */
+    public static int calculateAge(LocalDate birthDate, LocalDate date) {
+        if (birthDate.isAfter(date)) {
+            return -calculateAge(date, birthDate);
+        }
+        int age = date.getYear() - birthDate.getYear();
+        if (date.getMonthValue() < birthDate.getMonthValue()
+                || (date.getMonthValue() == birthDate.getMonthValue() && date.getDayOfMonth() < birthDate.getDayOfMonth())) {
+            age--; // The birthday has not come yet this year
+        }
+        return age;
     }
 
     /**
@@ -65,24 +322,70 @@ public class DateUtils {
      * @return the parsed LocalDate object or the defaultDate if parsing fails.
      */
     public static LocalDate tryDateParser(String date, LocalDate defaultDate, boolean isPrintFailMessage) {
-        try {
-            return dateParser(date);
-        } catch (Exception e) {
-
-            if (isPrintFailMessage) {
-                PrintUtils.printFail("Invalid date format " + date + ", using default date");
-            }
-            return defaultDate;
+        LocalDate parsed = parseDate(date);
+        if (parsed != null) {
+            return parsed;
+        }
+        if (isPrintFailMessage) {
+            PrintUtils.printFail("Invalid date format " + date + ", using default date");
         }
+        return defaultDate;
     }
 
     /**
-     * Formats a LocalDate object into a string based on the DateTimeFormatter.
+     * Formats a LocalDate object into a string in the "MM/dd/yyyy" format.
      *
      * @param date the LocalDate object to format.
      * @return the formatted date string.
      */
     public static String formatDate(LocalDate date) {
-        return date.format(getDateFormatter());
+        return appendDate(new StringBuilder(10), date).toString();
+    }
+
+    /**
+     * Appends a date in the "MM/dd/yyyy" format, without allocating.
+     *
+     * @param builder the StringBuilder to append to.
+     * @param date    the date to append.
+     * @return the builder.
+     */
+    public static StringBuilder appendDate(StringBuilder builder, LocalDate date) {
+        return appendDate(builder, date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+    }
+
+    /**
+     * Appends a date given as an epoch day, such as one returned by
+     * {@link #parseEpochDay(CharSequence)}, in the "MM/dd/yyyy" format, without
+     * allocating.
+     *
+     * @param builder  the StringBuilder to append to.
+     * @param epochDay the number of days since 1970-01-01.
+     * @return the builder.
+     */
+    public static StringBuilder appendDate(StringBuilder builder, long epochDay) {
+        // Counts from 0000-03-01 so that the leap day ends each 4, 100 and 400 year cycle
+        long days = epochDay + DAYS_0000_TO_1970 - 60;
+        long era = Math.floorDiv(days, 146097);
+        int dayOfEra = (int) (days - era * 146097);
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int marchMonth = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * marchMonth + 2) / 5 + 1;
+        int month = marchMonth < 10 ? marchMonth + 3 : marchMonth - 9;
+        long year = era * 400 + yearOfEra + (month <= 2 ? 1 : 0);
+        return appendDate(builder, (int) year, month, day);
+    }
+
+    private static StringBuilder appendDate(StringBuilder builder, int year, int month, int day) {
+        appendTwoDigits(builder, month).append('/');
+        appendTwoDigits(builder, day).append('/');
+        if (year >= 0 && year < 1000) {
+            builder.append(year < 10 ? "000" : year < 100 ? "00" : "0");
+        }
+        return builder.append(year);
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder builder, int value) {
+        return builder.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
     }
 }
@@ -1,51 +1,82 @@
 package utils;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+
 /**
  * The InputUtils class provides utility methods for handling user input from
  * the console. It includes methods to retrieve integers, doubles, and strings,
  * with error handling and validation.
+ *
+ * <p>
+ * Input is read from the console when there is one, and otherwise from the
+ * standard input, so the program can also be driven by a pre-recorded stream of
+ * answers (see {@link #setInput(Reader)}). Lines read from a stream are echoed
+ * after their prompt, so the output reads like an interactive session. Invalid
+ * input is asked for again in a loop, never by recursion, so sessions of any
+ * length run in constant stack depth.
+ * </p>
  */
 public class InputUtils {
 
+    private static BufferedReader input;
+    private static boolean isEchoEnabled;
+
+    /**
+     * Reads all further input from the given stream of lines instead of the
+     * console, typically a file of recorded answers.
+     *
+     * @param reader the stream to read answers from, one per line.
+     */
+    public static void setInput(Reader reader) {
+        input = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        isEchoEnabled = true;
+    }
+
     /**
      * Prompts the user for input and attempts to parse it as an integer.
      * If the input is invalid, the user is prompted to try again.
-     * 
+     *
      * @param message The message to display to the user when asking for input.
      * @return The integer value input by the user.
      */
     public static int getInt(String message) {
-        try {
+        while (true) {
             String input = getString(message);
-            return Integer.parseInt(input);
-        } catch (Exception e) {
-            PrintUtils.printFail("Invalid input, please try again");
-            return getInt(message);  // Recursively ask for input until valid
+            try {
+                return Integer.parseInt(input.trim());
+            } catch (NumberFormatException e) {
+                PrintUtils.printFail("Invalid input, please try again");
+            }
         }
     }
 
     /**
      * Prompts the user for input and attempts to parse it as a double.
      * If the input is invalid, the user is prompted to try again.
-     * 
+     *
      * @param message     The message to display to the user when asking for input.
      * @param isRequired  Whether input is required (cannot be empty).
      * @return The double value input by the user.
      */
     public static double getDouble(String message, boolean isRequired) {
-        try {
+        while (true) {
             String input = getString(message, isRequired);
-            return Double.parseDouble(input);
-        } catch (Exception e) {
-            PrintUtils.printFail("Invalid input, please try again");
-            return getDouble(message, isRequired);  // Recursively ask for input until valid
+            try {
+                return Double.parseDouble(input.trim());
+            } catch (NumberFormatException e) {
+                PrintUtils.printFail("Invalid input, please try again");
+            }
         }
     }
 
     /**
      * Prompts the user for a string input and returns it.
      * This method does not require the input to be non-empty.
-     * 
+     *
      * @param message The message to display to the user when asking for input.
      * @return The string value input by the user.
      */
@@ -56,28 +87,53 @@ public class InputUtils {
     /**
      * Prompts the user for a string input and returns it.
      * If input is required and the user provides an empty input, the user is
-     * prompted to try again.
-     * 
+     * prompted to try again. The program ends when the user types q or quit, or
+     * when the input stream has no more lines.
+     *
      * @param message     The message to display to the user when asking for input.
      * @param isRequired  Whether input is required (cannot be empty).
      * @return The string value input by the user.
      */
     public static String getString(String message, boolean isRequired) {
-        PrintUtils.printPrompt(message);
-        String input = System.console().readLine();
+        while (true) {
+            PrintUtils.printPrompt(message);
+            String input = readLine();
 
-        // Check if the user wants to quit the program
-        if (input.toLowerCase().equals("q") || input.toLowerCase().equals("quit")) {
-            System.out.println("Goodbye!, thank you for using Student Management System");
-            System.exit(0);
-        }
+            // Check if the user wants to quit the program
+            if (input == null || input.toLowerCase().equals("q") || input.toLowerCase().equals("quit")) {
+                System.out.println("Goodbye!, thank you for using Student Management System");
+                System.exit(0);
+            }
+
+            // If input is required and the user provides an empty input, prompt again
+            if (isRequired && input.isEmpty()) {
+                PrintUtils.printFail("Input is required, please try again");
+                continue;
+            }
 
-        // If input is required and the user provides an empty input, prompt again
-        if (isRequired && input.isEmpty()) {
-            PrintUtils.printFail("Input is required, please try again");
-            return getString(message, isRequired);  // Recursively ask for input until valid
+            return input;
         }
+    }
 
-        return input;
+    /**
+     * Reads the next line from the console, or from the standard input when there
+     * is no console (for example when the input is piped).
+     */
+    private static String readLine() {
+        if (input == null) {
+            if (System.console() != null) {
+                return System.console().readLine();
+            }
+            setInput(new InputStreamReader(System.in));
+        }
+        try {
+            String line = input.readLine();
+            if (line != null && isEchoEnabled) {
+                System.out.println(line);
+            }
+            return line;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
@@ -0,0 +1,322 @@
+package utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * The OperationMetrics class counts the calls of the operations of the managers
+ * and the data storage, and records their latencies per operation and entity
+ * type in LatencyHistograms, so their p50 and p99 can be followed under load.
+ *
+ * <p>
+ * An operation is looked up once, typically into a field, and then timed with
+ * {@link Operation#start()} and {@link Operation#stop(long)}, or with
+ * {@link Operation#run(Runnable)}, which also counts failures. Timing costs two
+ * reads of the clock and a few counter increments; it can be switched off with
+ * {@code -Dmetrics.enabled=false}.
+ * </p>
+ *
+ * <p>
+ * The metrics are exposed through JMX by {@link #registerMBean()} under
+ * {@value #OBJECT_NAME}, and can be written to a file with {@link #dump(Path)}.
+ * </p>
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+
+    /**
+     * The JMX name the metrics are registered under.
+     */
+    public static final String OBJECT_NAME = "university:type=OperationMetrics";
+
+    private static final ConcurrentHashMap<String, Operation> operations = new ConcurrentHashMap<>();
+    private static volatile boolean isEnabled = !"false".equalsIgnoreCase(System.getProperty("metrics.enabled"));
+
+    /**
+     * An operation on one entity type, such as adding a student, with its call
+     * counts and latencies.
+     */
+    public static final class Operation {
+
+        private final String name;
+        private final LongAdder failureCount = new LongAdder();
+        private final LatencyHistogram latencies = new LatencyHistogram();
+
+        private Operation(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Returns the name of the operation, such as "Student add".
+         *
+         * @return the name of the operation.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Starts timing a call of the operation.
+         *
+         * @return the start time to pass to {@link #stop(long)} or {@link #fail(long)}.
+         */
+        public long start() {
+            return isEnabled ? System.nanoTime() : 0;
+        }
+
+        /**
+         * Records a call of the operation that started at the given time.
+         *
+         * @param start the value returned by {@link #start()}.
+         */
+        public void stop(long start) {
+            if (start != 0) {
+                latencies.record(System.nanoTime() - start);
+            }
+        }
+
+        /**
+         * Records a call of the operation that started at the given time and
+         * failed.
+         *
+         * @param start the value returned by {@link #start()}.
+         */
+        public void fail(long start) {
+            if (start != 0) {
+                failureCount.increment();
+                latencies.record(System.nanoTime() - start);
+            }
+        }
+
+        /**
+         * Runs and times an action, counting it as failed if it throws.
+         *
+         * @param action the action to run.
+         */
+        public void run(Runnable action) {
+            long start = start();
+            try {
+                action.run();
+            } catch (RuntimeException | Error e) {
+                fail(start);
+                throw e;
+            }
+            stop(start);
+        }
+
+        /**
+         * Runs and times an action that returns a result, counting it as failed if
+         * it throws.
+         *
+         * @param action the action to run.
+         * @param <T>    the type of the result.
+         * @return the result of the action.
+         */
+        public <T> T call(Supplier<T> action) {
+            long start = start();
+            T result;
+            try {
+                result = action.get();
+            } catch (RuntimeException | Error e) {
+                fail(start);
+                throw e;
+            }
+            stop(start);
+            return result;
+        }
+
+        /**
+         * Returns how many times the operation ran.
+         *
+         * @return the number of calls.
+         */
+        public long getCallCount() {
+            return latencies.getCount();
+        }
+
+        /**
+         * Returns how many times the operation failed.
+         *
+         * @return the number of failed calls.
+         */
+        public long getFailureCount() {
+            return failureCount.sum();
+        }
+
+        /**
+         * Returns the latencies of the operation.
+         *
+         * @return the histogram of the latencies.
+         */
+        public LatencyHistogram getLatencies() {
+            return latencies;
+        }
+
+        private void reset() {
+            failureCount.reset();
+            latencies.reset();
+        }
+    }
+
+    /**
+     * Returns the operation of an entity type with the given name, creating it on
+     * first use.
+     *
+     * @param entityType the type of the entity, such as "Student".
+     * @param operation  the name of the operation, such as "add".
+     * @return the operation.
+     */
+    public static Operation get(String entityType, String operation) {
+        return operations.computeIfAbsent(entityType + " " + operation, Operation::new);
+    }
+
+    /**
+     * Returns whether the operations are timed.
+     *
+     * @return true if the operations are timed.
+     */
+    public static boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * Switches the timing of the operations on or off.
+     *
+     * @param enabled true to time the operations.
+     */
+    public static void setEnabled(boolean enabled) {
+        isEnabled = enabled;
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server, once.
+     *
+     * @return true if the metrics are registered.
+     */
+    public static boolean registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new OperationMetrics(), name);
+            }
+            return true;
+        } catch (JMException | SecurityException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes the report of every operation to a file, replacing it if it exists.
+     *
+     * @param path the path of the file.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void dump(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (Writer writer = Files.newBufferedWriter(path)) {
+            writer.write(createReport());
+        }
+    }
+
+    /**
+     * Returns a table of every operation that ran, with its call and failure
+     * counts and its mean, p50, p90, p99 and maximum latencies in microseconds.
+     *
+     * @return the report, one line per operation.
+     */
+    public static String createReport() {
+        return TableWriter.render(OperationMetrics::writeReport);
+    }
+
+    private static void writeReport(TableWriter writer) {
+        writer.cell("Operation", 32).cell("Calls", 12).cell("Failures", 10).cell("Mean us", 12)
+              .cell("p50 us", 12).cell("p90 us", 12).cell("p99 us", 12).cell("Max us", 12).endRow();
+        for (String name : getSortedNames()) {
+            Operation operation = operations.get(name);
+            LatencyHistogram latencies = operation.getLatencies();
+            if (latencies.getCount() == 0) {
+                continue;
+            }
+            writer.cell(name, 32)
+                  .cell(Long.toString(latencies.getCount()), 12)
+                  .cell(Long.toString(operation.getFailureCount()), 10)
+                  .cell(toMicros(latencies.getMeanNanos()), 12)
+                  .cell(toMicros(latencies.getPercentileNanos(50)), 12)
+                  .cell(toMicros(latencies.getPercentileNanos(90)), 12)
+                  .cell(toMicros(latencies.getPercentileNanos(99)), 12)
+                  .cell(toMicros(latencies.getMaxNanos()), 12)
+                  .endRow();
+        }
+    }
+
+    private static String toMicros(double nanos) {
+        return TableWriter.formatDecimal(nanos / 1000, 1);
+    }
+
+    private static ArrayList<String> getSortedNames() {
+        ArrayList<String> names = new ArrayList<>(operations.keySet());
+        Collections.sort(names);
+        return names;
+    }
+
+    @Override
+    public String[] getOperationNames() {
+        return getSortedNames().toArray(new String[0]);
+    }
+
+    @Override
+    public String getReport() {
+        return createReport();
+    }
+
+    @Override
+    public long getCallCount(String operationName) {
+        Operation operation = operations.get(operationName);
+        return operation == null ? 0 : operation.getCallCount();
+    }
+
+    @Override
+    public long getFailureCount(String operationName) {
+        Operation operation = operations.get(operationName);
+        return operation == null ? 0 : operation.getFailureCount();
+    }
+
+    @Override
+    public double getPercentileMicros(String operationName, double percentile) {
+        Operation operation = operations.get(operationName);
+        return operation == null ? 0 : operation.getLatencies().getPercentileNanos(percentile) / 1000.0;
+    }
+
+    @Override
+    public void reset() {
+        for (Operation operation : operations.values()) {
+            operation.reset();
+        }
+    }
+
+    @Override
+    public void dumpToFile(String path) {
+        try {
+            dump(Paths.get(path));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package utils;
+
+/**
+ * The OperationMetricsMXBean interface exposes the operation metrics through
+ * JMX, so tools such as JConsole or VisualVM can read the call counts and
+ * latency percentiles of a running system. Operations are named like
+ * "Student add" or "Student store", as listed by {@link #getOperationNames()}.
+ */
+public interface OperationMetricsMXBean {
+
+    /**
+     * Returns the names of every measured operation.
+     *
+     * @return the operation names, sorted.
+     */
+    String[] getOperationNames();
+
+    /**
+     * Returns a table of every operation with its counts and latencies.
+     *
+     * @return the report, one line per operation.
+     */
+    String getReport();
+
+    /**
+     * Returns how many times an operation ran.
+     *
+     * @param operationName the name of the operation.
+     * @return the number of calls, or 0 for an unknown operation.
+     */
+    long getCallCount(String operationName);
+
+    /**
+     * Returns how many times an operation failed with an exception.
+     *
+     * @param operationName the name of the operation.
+     * @return the number of failed calls, or 0 for an unknown operation.
+     */
+    long getFailureCount(String operationName);
+
+    /**
+     * Returns a latency percentile of an operation.
+     *
+     * @param operationName the name of the operation.
+     * @param percentile    the percentile, from 0 to 100, such as 99 for p99.
+     * @return the latency in microseconds, or 0 for an unknown operation.
+     */
+    double getPercentileMicros(String operationName, double percentile);
+
+    /**
+     * Clears the counts and latencies of every operation.
+     */
+    void reset();
+
+    /**
+     * Writes the report to a file, replacing it if it exists.
+     *
+     * @param path the path of the file.
+     */
+    void dumpToFile(String path);
+}
@@ -1,8 +1,5 @@
 package utils;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-
 /**
  * The PrintUtils class provides utility methods for printing formatted messages 
  * to the console. It includes methods for printing success, failure, and prompt
@@ -10,6 +7,27 @@ import java.util.Arrays;
  */
 public class PrintUtils {
 
+    private static volatile boolean isColorEnabled = true;
+
+    /**
+     * Enables or disables the colours of the printed messages. Colours are turned
+     * off when the output is not read by a person, such as in batch mode.
+     * 
+     * @param isEnabled true to print colour codes, false to print plain text.
+     */
+    public static void setColorEnabled(boolean isEnabled) {
+        isColorEnabled = isEnabled;
+    }
+
+    /**
+     * Returns whether the printed messages are coloured.
+     * 
+     * @return true if colour codes are printed.
+     */
+    public static boolean isColorEnabled() {
+        return isColorEnabled;
+    }
+
     /**
      * Prints a failure message in red to the console.
      * This method is typically used for error or failure messages.
@@ -17,7 +35,7 @@ public class PrintUtils {
      * @param message the message to print in red.
      */
     public static void printFail(String message) {
-        System.out.println("\u001B[31m" + message + "\u001B[0m");
+        System.out.println(colorize("\u001B[31m", message));
     }
 
     /**
@@ -28,7 +46,7 @@ public class PrintUtils {
      */
     public static void printSuccess(String message) {
         // Print message in green color to indicate success
-        System.out.println("\u001B[32m" + message + "\u001B[0m");
+        System.out.println(colorize("\u001B[32m", message));
     }
 
     /**
@@ -39,19 +57,30 @@ public class PrintUtils {
      */
     public static void printPrompt(String message) {
         // Print message in yellow color to prompt the user
-        System.out.print("\u001B[33m" + message + "\u001B[0m");
+        System.out.print(colorize("\u001B[33m", message));
     }
 
     /**
-     * Prints multiline text to the console by splitting the input string into
-     * separate lines and printing each line.
+     * Prints multiline text to the console with a single write. Trailing line
+     * breaks are dropped, so the text always ends with exactly one.
      * 
      * @param text the multiline text to print. Each line is separated by a newline character.
      */
     public static void println(String text) {
-        ArrayList<String> lines = new ArrayList<>(Arrays.asList(text.split("\n")));
-        for (String line : lines) {
-            System.out.println(line);
+        int length = text.length();
+        while (length > 0 && text.charAt(length - 1) == '\n') {
+            length--;
+        }
+        if (length == 0 && !text.isEmpty()) {
+            return; // Nothing but line breaks
         }
+        System.out.println(text.substring(0, length));
+    }
+
+    /**
+     * Wraps a message in the given colour code, when colours are enabled.
+     */
+    private static String colorize(String color, String message) {
+        return isColorEnabled ? color + message + "\u001B[0m" : message;
     }
 }
@@ -0,0 +1,326 @@
+package utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * The TableWriter class writes rows of fixed-width cells, separated by " | ",
+ * straight into a buffered Writer. Cells are padded with spaces or truncated
+ * with "..", like {@link StringUtils#padRight(String, int)}, but no String is
+ * built for a cell or a row, so printing many rows is bound by the output
+ * rather than by allocation.
+ *
+ * <p>
+ * Cells can be coloured with ANSI escape codes. Colours are only written when
+ * the TableWriter targets the console, so rendered Strings stay plain.
+ * </p>
+ */
+public class TableWriter {
+
+    public static final String RED = "\u001B[31m";
+    public static final String GREEN = "\u001B[32m";
+    public static final String YELLOW = "\u001B[33m";
+    public static final String RESET = "\u001B[0m";
+
+    private static final String CELL_SEPARATOR = " | ";
+    private static final char[] SPACES = new char[256];
+    private static final char[] DASHES = new char[256];
+    private static final int CONSOLE_BUFFER_SIZE = 1 << 16;
+
+    static {
+        Arrays.fill(SPACES, ' ');
+        Arrays.fill(DASHES, '-');
+    }
+
+    private final Writer out;
+    private final boolean isColorEnabled;
+    private int cellCount = 0;
+    private int lineLength = 0;
+
+    /**
+     * Constructs a TableWriter over the given Writer. The Writer should be
+     * buffered, since cells are written in small pieces.
+     *
+     * @param out            the Writer to write to.
+     * @param isColorEnabled whether ANSI colours are written.
+     */
+    public TableWriter(Writer out, boolean isColorEnabled) {
+        this.out = out;
+        this.isColorEnabled = isColorEnabled;
+    }
+
+    /**
+     * Creates a TableWriter that writes to the console through a large buffer.
+     * Nothing is shown until {@link #flush()} is called.
+     *
+     * @return a TableWriter over System.out, with colours unless they are disabled
+     *         in PrintUtils.
+     */
+    public static TableWriter toConsole() {
+        return new TableWriter(new BufferedWriter(new OutputStreamWriter(System.out), CONSOLE_BUFFER_SIZE),
+                PrintUtils.isColorEnabled());
+    }
+
+    /**
+     * Renders rows into a String, without colours.
+     *
+     * @param rows writes the rows to the given TableWriter.
+     * @return the rendered text.
+     */
+    public static String render(Consumer<TableWriter> rows) {
+        StringWriter text = new StringWriter();
+        rows.accept(new TableWriter(text, false));
+        return text.toString();
+    }
+
+    /**
+     * Writes a cell of the given width to the current row.
+     *
+     * @param value the value of the cell. A null value leaves the cell empty.
+     * @param width the width of the cell, in characters.
+     * @return this TableWriter.
+     */
+    public TableWriter cell(String value, int width) {
+        return cell(value, width, null);
+    }
+
+    /**
+     * Writes a coloured cell of the given width to the current row. The padding
+     * is not coloured.
+     *
+     * @param value the value of the cell. A null value leaves the cell empty.
+     * @param width the width of the cell, in characters.
+     * @param color the ANSI colour of the value, such as {@link #RED}, or null.
+     * @return this TableWriter.
+     */
+    public TableWriter cell(String value, int width, String color) {
+        if (cellCount++ > 0) {
+            write(CELL_SEPARATOR);
+        }
+        String text = value == null ? "" : value;
+        boolean isColored = isColorEnabled && color != null;
+        if (isColored) {
+            writeRaw(color);
+        }
+        if (text.length() >= width) {
+            // Truncate the value, like StringUtils.padRight
+            write(text, Math.max(width - 2, 0));
+            write("..");
+        } else {
+            write(text, text.length());
+        }
+        if (isColored) {
+            writeRaw(RESET);
+        }
+        if (text.length() < width) {
+            writeRepeated(SPACES, width - text.length());
+        }
+        return this;
+    }
+
+    /**
+     * Writes a cell holding an integer.
+     *
+     * @param value the value of the cell.
+     * @param width the width of the cell, in characters.
+     * @return this TableWriter.
+     */
+    public TableWriter cell(int value, int width) {
+        return cell(Integer.toString(value), width, null);
+    }
+
+    /**
+     * Writes a cell holding a decimal number rounded half-up to a fixed number of
+     * decimals, like the "%.2f" format.
+     *
+     * @param value    the value of the cell.
+     * @param decimals the number of decimals.
+     * @param width    the width of the cell, in characters.
+     * @return this TableWriter.
+     */
+    public TableWriter cell(double value, int decimals, int width) {
+        return cell(formatDecimal(value, decimals), width, null);
+    }
+
+    /**
+     * Writes spaces at the start of a row, before its first cell.
+     *
+     * @param width the number of spaces.
+     * @return this TableWriter.
+     */
+    public TableWriter indent(int width) {
+        writeRepeated(SPACES, width);
+        return this;
+    }
+
+    /**
+     * Writes free text to the current line.
+     *
+     * @param text the text to write.
+     * @return this TableWriter.
+     */
+    public TableWriter text(String text) {
+        write(text);
+        return this;
+    }
+
+    /**
+     * Writes whole lines rendered earlier, such as a cached view. The text must
+     * start at the beginning of a line and end with a line separator.
+     *
+     * @param text the lines to write.
+     * @return this TableWriter.
+     */
+    public TableWriter lines(String text) {
+        writeRaw(text);
+        cellCount = 0;
+        lineLength = 0;
+        return this;
+    }
+
+    /**
+     * Writes a horizontal rule of dashes to the current line.
+     *
+     * @param length the length of the rule.
+     * @return this TableWriter.
+     */
+    public TableWriter rule(int length) {
+        writeRepeated(DASHES, length);
+        return this;
+    }
+
+    /**
+     * Ends the current row or line.
+     *
+     * @return this TableWriter.
+     */
+    public TableWriter endRow() {
+        writeRaw(System.lineSeparator());
+        cellCount = 0;
+        lineLength = 0;
+        return this;
+    }
+
+    /**
+     * Returns whether ANSI colours are written.
+     *
+     * @return true if colours are written.
+     */
+    public boolean isColorEnabled() {
+        return isColorEnabled;
+    }
+
+    /**
+     * Returns the number of visible characters written to the current line.
+     *
+     * @return the length of the current line, without colour codes.
+     */
+    public int getLineLength() {
+        return lineLength;
+    }
+
+    /**
+     * Flushes the buffered output.
+     */
+    public void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Rounds a number half-up to a fixed number of decimals, the way the "%.2f"
+     * format does: the shortest decimal representation of the double is rounded,
+     * so 3.335 becomes 3.34. The digits are rounded by hand, which is much cheaper
+     * than going through String.format or BigDecimal.
+     *
+     * @param value    the number to format.
+     * @param decimals the number of decimals.
+     * @return the formatted number.
+     */
+    public static String formatDecimal(double value, int decimals) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return String.valueOf(value);
+        }
+        String digits = Double.toString(Math.abs(value));
+        if (digits.indexOf('E') >= 0) { // Very large or very small numbers are rare enough
+            return BigDecimal.valueOf(value).setScale(decimals, RoundingMode.HALF_UP).toPlainString();
+        }
+
+        int point = digits.indexOf('.');
+        int length = point + (decimals > 0 ? decimals + 1 : 0);
+        char[] buffer = new char[length + 2]; // Room for a sign and a carry
+        int start = 2;
+        for (int i = 0; i < length; i++) {
+            buffer[start + i] = i < digits.length() ? digits.charAt(i) : '0';
+        }
+
+        // Round half-up on the first discarded digit, carrying to the left
+        int discarded = point + 1 + decimals;
+        if (discarded < digits.length() && digits.charAt(discarded) >= '5') {
+            int i = start + length - 1;
+            while (true) {
+                if (i < start) {
+                    buffer[--start] = '1';
+                    break;
+                }
+                if (buffer[i] == '.') {
+                    i--;
+                } else if (buffer[i] == '9') {
+                    buffer[i--] = '0';
+                } else {
+                    buffer[i]++;
+                    break;
+                }
+            }
+        }
+
+        boolean isNegative = value < 0 || (value == 0 && 1 / value < 0);
+        if (isNegative) {
+            buffer[--start] = '-';
+        }
+        return new String(buffer, start, buffer.length - start);
+    }
+
+    private void write(String text) {
+        write(text, text.length());
+    }
+
+    private void write(String text, int length) {
+        try {
+            out.write(text, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        lineLength += length;
+    }
+
+    private void writeRaw(String text) {
+        try {
+            out.write(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeRepeated(char[] chars, int count) {
+        try {
+            for (int remaining = count; remaining > 0; remaining -= chars.length) {
+                out.write(chars, 0, Math.min(remaining, chars.length));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        lineLength += Math.max(count, 0);
+    }
+}